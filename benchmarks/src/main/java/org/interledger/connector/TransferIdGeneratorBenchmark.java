@@ -0,0 +1,79 @@
+package org.interledger.connector;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.plugin.lpi.TransferId;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks comparing the ways of generating the identifier of a next-hop transfer: {@link
+ * ConnectorUtils#generateDeterministicTransferId(String, InterledgerAddress, TransferId)}, {@link
+ * LegacyTransferIdGenerator} (which generates the same identifiers) and {@link HmacTransferIdGenerator}.
+ *
+ * Each invocation generates the identifier for the next of a fixed set of random source transfer identifiers. To
+ * measure bytes allocated per operation, run with the GC profiler (i.e., {@code -prof gc}) and consult {@code
+ * gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransferIdGeneratorBenchmark {
+
+  // Must be a power of two so that the next transfer id can be selected with a mask.
+  private static final int NUM_TRANSFER_IDS = 1024;
+
+  private static final String SECRET = "secret";
+  private static final InterledgerAddress SOURCE_LEDGER_PREFIX = InterledgerAddress.of("test1.source.");
+
+  private TransferIdGenerator legacyTransferIdGenerator;
+  private TransferIdGenerator hmacTransferIdGenerator;
+
+  private TransferId[] sourceTransferIds;
+  private int index;
+
+  @Setup
+  public void setup() {
+    this.legacyTransferIdGenerator = new LegacyTransferIdGenerator(SECRET);
+    this.hmacTransferIdGenerator = new HmacTransferIdGenerator(SECRET);
+
+    this.sourceTransferIds = new TransferId[NUM_TRANSFER_IDS];
+    for (int i = 0; i < NUM_TRANSFER_IDS; i++) {
+      this.sourceTransferIds[i] = TransferId.of(UUID.randomUUID());
+    }
+  }
+
+  @Benchmark
+  @SuppressWarnings("deprecation")
+  public TransferId connectorUtils() {
+    return ConnectorUtils.generateDeterministicTransferId(SECRET, SOURCE_LEDGER_PREFIX, this.nextSourceTransferId());
+  }
+
+  @Benchmark
+  public TransferId legacyTransferIdGenerator() {
+    return legacyTransferIdGenerator.generateTransferId(SOURCE_LEDGER_PREFIX, this.nextSourceTransferId());
+  }
+
+  @Benchmark
+  public TransferId hmacTransferIdGenerator() {
+    return hmacTransferIdGenerator.generateTransferId(SOURCE_LEDGER_PREFIX, this.nextSourceTransferId());
+  }
+
+  private TransferId nextSourceTransferId() {
+    return sourceTransferIds[index++ & (NUM_TRANSFER_IDS - 1)];
+  }
+}
@@ -0,0 +1,165 @@
+package org.interledger.connector.benchmarks;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.cryptoconditions.Fulfillment;
+import org.interledger.cryptoconditions.PreimageSha256Fulfillment;
+import org.interledger.ilp.InterledgerPayment;
+import org.interledger.plugin.lpi.ImmutableLedgerInfo;
+import org.interledger.plugin.lpi.ImmutableTransfer;
+import org.interledger.plugin.lpi.LedgerInfo;
+import org.interledger.plugin.lpi.LedgerPluginConfig;
+import org.interledger.plugin.lpi.LedgerPluginTypeId;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+import javax.money.CurrencyUnit;
+import javax.money.Monetary;
+
+/**
+ * Shared fixtures for assembling connector inputs (ledgers, transfers, amounts) in benchmarks.
+ */
+public class BenchmarkFixtures {
+
+  /**
+   * The fulfillment used for every benchmark payment. Benchmarks never verify conditions, so sharing one is fine.
+   */
+  public static final Fulfillment FULFILLMENT = new PreimageSha256Fulfillment(new byte[32]);
+
+  /**
+   * Construct a {@link LedgerInfo} for a ledger denominated in {@code currencyCode}.
+   *
+   * @param ledgerPrefix An {@link InterledgerAddress} prefix for the ledger.
+   * @param currencyCode An ISO-4217 currency code, such as "USD".
+   */
+  public static LedgerInfo ledgerInfo(final InterledgerAddress ledgerPrefix, final String currencyCode) {
+    InterledgerAddress.requireAddressPrefix(ledgerPrefix);
+    Objects.requireNonNull(currencyCode);
+
+    return ImmutableLedgerInfo.builder()
+        .ledgerPrefix(ledgerPrefix)
+        .currencyUnit(Monetary.getCurrency(currencyCode))
+        .currencyScale(Monetary.getCurrency(currencyCode).getDefaultFractionDigits())
+        .build();
+  }
+
+  /**
+   * Construct a {@link LedgerPluginConfig} for a {@link StubLedgerPlugin} on a ledger denominated in {@code
+   * currencyCode}.
+   *
+   * @param ledgerPrefix An {@link InterledgerAddress} prefix for the ledger.
+   * @param currencyCode An ISO-4217 currency code, such as "USD".
+   */
+  public static LedgerPluginConfig ledgerPluginConfig(final InterledgerAddress ledgerPrefix,
+      final String currencyCode) {
+    InterledgerAddress.requireAddressPrefix(ledgerPrefix);
+    Objects.requireNonNull(currencyCode);
+
+    return new LedgerPluginConfig() {
+      @Override
+      public LedgerPluginTypeId getLedgerPluginTypeId() {
+        return LedgerPluginTypeId.of("stub-ledger-plugin");
+      }
+
+      @Override
+      public InterledgerAddress getLedgerPrefix() {
+        return ledgerPrefix;
+      }
+
+      @Override
+      public InterledgerAddress getConnectorAccount() {
+        return ledgerPrefix.with("connector");
+      }
+
+      @Override
+      public CurrencyUnit getExpectedCurrencyUnit() {
+        return Monetary.getCurrency(currencyCode);
+      }
+
+      @Override
+      public Map<String, String> getOptions() {
+        return ImmutableMap.of();
+      }
+    };
+  }
+
+  /**
+   * Construct a {@link ConnectorConfigurationService} that always returns {@code connectorConfig}.
+   */
+  public static ConnectorConfigurationService<ConnectorConfig> connectorConfigurationService(
+      final ConnectorConfig connectorConfig
+  ) {
+    Objects.requireNonNull(connectorConfig);
+    return new ConnectorConfigurationService<ConnectorConfig>() {
+      @Override
+      public ConnectorConfig getConnectorConfig() {
+        return connectorConfig;
+      }
+
+      @Override
+      public Collection<? extends LedgerPluginConfig> getLedgerPluginConfigurations() {
+        return ImmutableList.of();
+      }
+
+      @Override
+      public LedgerPluginConfig getLedgerPluginConfiguration(final InterledgerAddress ledgerPrefix) {
+        throw new RuntimeException("No LedgerPluginConfig for " + ledgerPrefix);
+      }
+    };
+  }
+
+  /**
+   * Generate {@code count} amounts from a log-normal distribution, which approximates real payment sizes (many small
+   * payments and a long tail of large ones). Amounts are clamped to be at least 1 unit.
+   *
+   * @param seed   The seed for the random generator, so that runs are repeatable.
+   * @param count  The number of amounts to generate.
+   * @param median The median amount, in ledger units.
+   * @param sigma  The standard deviation of the underlying normal distribution.
+   */
+  public static BigInteger[] logNormalAmounts(final long seed, final int count, final double median,
+      final double sigma) {
+    final Random random = new Random(seed);
+    final double mu = Math.log(median);
+    final BigInteger[] amounts = new BigInteger[count];
+    for (int i = 0; i < count; i++) {
+      amounts[i] = BigInteger.valueOf(Math.max(1L, (long) Math.exp(mu + sigma * random.nextGaussian())));
+    }
+    return amounts;
+  }
+
+  /**
+   * Construct an incoming transfer, from a sender on {@code ledgerPrefix} to the connector account on that ledger,
+   * carrying an ILP packet for {@code destinationAccount}.
+   */
+  public static Transfer sourceTransfer(
+      final TransferId transferId, final InterledgerAddress ledgerPrefix, final BigInteger amount,
+      final InterledgerAddress destinationAccount, final BigInteger destinationAmount, final Instant expiresAt
+  ) {
+    return ImmutableTransfer.builder()
+        .transferId(transferId)
+        .ledgerPrefix(ledgerPrefix)
+        .sourceAccount(ledgerPrefix.with("alice"))
+        .destinationAccount(ledgerPrefix.with("connector"))
+        .amount(amount)
+        .interlederPaymentPacket(InterledgerPayment.builder()
+            .destinationAccount(destinationAccount)
+            .destinationAmount(destinationAmount)
+            .data(new byte[0])
+            .build())
+        .executionCondition(FULFILLMENT.getCondition())
+        .expiresAt(expiresAt)
+        .build();
+  }
+}
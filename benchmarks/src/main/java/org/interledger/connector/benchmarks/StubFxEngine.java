@@ -0,0 +1,108 @@
+package org.interledger.connector.benchmarks;
+
+import org.interledger.connector.fx.FxEngine;
+
+import com.google.common.collect.ImmutableMap;
+import org.javamoney.moneta.convert.ExchangeRateBuilder;
+import org.javamoney.moneta.spi.DefaultNumberValue;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.money.CurrencyUnit;
+import javax.money.Monetary;
+import javax.money.convert.ConversionContext;
+import javax.money.convert.ConversionQuery;
+import javax.money.convert.CurrencyConversion;
+import javax.money.convert.CurrencyConversionException;
+import javax.money.convert.ExchangeRate;
+import javax.money.convert.ProviderContext;
+import javax.money.convert.ProviderContextBuilder;
+import javax.money.convert.RateType;
+
+/**
+ * An implementation of {@link FxEngine} that serves fixed, precomputed exchange rates so that benchmarks measure the
+ * connector, and not the network or the default javax.money rate providers.
+ */
+public class StubFxEngine implements FxEngine {
+
+  private static final String PROVIDER_NAME = "STUB";
+
+  private static final ProviderContext PROVIDER_CONTEXT = ProviderContextBuilder.of(PROVIDER_NAME, RateType.DEFERRED)
+      .set("providerDescription", "Fixed rates for benchmarking")
+      .build();
+
+  private static final ConversionContext CONVERSION_CONTEXT = ConversionContext.of(PROVIDER_NAME, RateType.DEFERRED);
+
+  private final Map<CurrencyUnit, Map<CurrencyUnit, ExchangeRate>> exchangeRates;
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param unitsPerUsd A {@link Map} of currency-unit to the number of units of that currency that one USD buys. Rates
+   *                    between every pair of currencies in this map are precomputed.
+   */
+  public StubFxEngine(final Map<CurrencyUnit, BigDecimal> unitsPerUsd) {
+    Objects.requireNonNull(unitsPerUsd);
+
+    final ImmutableMap.Builder<CurrencyUnit, Map<CurrencyUnit, ExchangeRate>> builder = ImmutableMap.builder();
+    unitsPerUsd.forEach((baseCurrencyUnit, baseUnitsPerUsd) -> {
+      final ImmutableMap.Builder<CurrencyUnit, ExchangeRate> termBuilder = ImmutableMap.builder();
+      unitsPerUsd.forEach((termCurrencyUnit, termUnitsPerUsd) -> termBuilder.put(
+          termCurrencyUnit,
+          new ExchangeRateBuilder(CONVERSION_CONTEXT)
+              .setBase(baseCurrencyUnit)
+              .setTerm(termCurrencyUnit)
+              .setFactor(DefaultNumberValue.of(termUnitsPerUsd.divide(baseUnitsPerUsd, MathContext.DECIMAL64)))
+              .build()
+      ));
+      builder.put(baseCurrencyUnit, termBuilder.build());
+    });
+    this.exchangeRates = builder.build();
+  }
+
+  /**
+   * Construct a {@link StubFxEngine} with rates for a handful of commonly traded currencies.
+   */
+  public static StubFxEngine withMajorCurrencies() {
+    return new StubFxEngine(ImmutableMap.<CurrencyUnit, BigDecimal>builder()
+        .put(Monetary.getCurrency("USD"), BigDecimal.ONE)
+        .put(Monetary.getCurrency("EUR"), new BigDecimal("0.8467"))
+        .put(Monetary.getCurrency("GBP"), new BigDecimal("0.7703"))
+        .put(Monetary.getCurrency("JPY"), new BigDecimal("110.46"))
+        .put(Monetary.getCurrency("CNY"), new BigDecimal("6.6413"))
+        .build()
+    );
+  }
+
+  @Override
+  public ProviderContext getContext() {
+    return PROVIDER_CONTEXT;
+  }
+
+  /**
+   * Overridden to avoid assembling a {@link ConversionQuery} for every lookup.
+   */
+  @Override
+  public ExchangeRate getExchangeRate(final CurrencyUnit baseCurrencyUnit, final CurrencyUnit termCurrencyUnit) {
+    final Map<CurrencyUnit, ExchangeRate> termRates = exchangeRates.get(baseCurrencyUnit);
+    final ExchangeRate exchangeRate = termRates == null ? null : termRates.get(termCurrencyUnit);
+    if (exchangeRate == null) {
+      throw new CurrencyConversionException(baseCurrencyUnit, termCurrencyUnit, CONVERSION_CONTEXT);
+    }
+    return exchangeRate;
+  }
+
+  @Override
+  public ExchangeRate getExchangeRate(final ConversionQuery conversionQuery) {
+    Objects.requireNonNull(conversionQuery);
+    return this.getExchangeRate(conversionQuery.getBaseCurrency(), conversionQuery.getCurrency());
+  }
+
+  @Override
+  public CurrencyConversion getCurrencyConversion(final ConversionQuery conversionQuery) {
+    throw new UnsupportedOperationException("Benchmarks only require exchange rates!");
+  }
+}
@@ -0,0 +1,92 @@
+package org.interledger.connector.benchmarks;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.cryptoconditions.Fulfillment;
+import org.interledger.ilp.InterledgerProtocolError;
+import org.interledger.plugin.lpi.LedgerInfo;
+import org.interledger.plugin.lpi.LedgerPlugin;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+import org.interledger.plugin.lpi.events.LedgerPluginEventEmitter;
+import org.interledger.plugin.lpi.handlers.LedgerPluginEventHandler;
+
+import java.math.BigInteger;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * An implementation of {@link LedgerPlugin} for benchmarks that accepts every transfer and fulfillment, and does
+ * nothing else, so that benchmarks measure the connector rather than a ledger. Benchmarks notify the connector of
+ * ledger events themselves.
+ *
+ * A benchmark payment is never expected to be rejected, so rejecting an incoming transfer fails, which makes a
+ * misconfigured benchmark fail instead of measuring a cheaper path than intended.
+ */
+public class StubLedgerPlugin implements LedgerPlugin {
+
+  private final LedgerInfo ledgerInfo;
+  private final InterledgerAddress connectorAccount;
+
+  public StubLedgerPlugin(final LedgerInfo ledgerInfo) {
+    this.ledgerInfo = Objects.requireNonNull(ledgerInfo);
+    this.connectorAccount = ledgerInfo.getLedgerPrefix().with("connector");
+  }
+
+  @Override
+  public void connect() {
+  }
+
+  @Override
+  public void disconnect() {
+  }
+
+  @Override
+  public boolean isConnected() {
+    return true;
+  }
+
+  @Override
+  public InterledgerAddress getConnectorAccount() {
+    return connectorAccount;
+  }
+
+  @Override
+  public LedgerInfo getLedgerInfo() {
+    return ledgerInfo;
+  }
+
+  @Override
+  public BigInteger getConnectorBalance() {
+    return BigInteger.ZERO;
+  }
+
+  @Override
+  public void sendTransfer(final Transfer transfer) {
+  }
+
+  @Override
+  public void fulfillCondition(final TransferId transferId, final Fulfillment fulfillment) {
+  }
+
+  @Override
+  public void rejectIncomingTransfer(final TransferId transferId, final InterledgerProtocolError rejectionReason) {
+    throw new IllegalStateException(String.format(
+        "Benchmark payment %s was unexpectedly rejected on %s with %s!",
+        transferId, ledgerInfo.getLedgerPrefix(), rejectionReason.getErrorCode()
+    ));
+  }
+
+  @Override
+  public UUID addLedgerPluginEventHandler(final LedgerPluginEventHandler ledgerPluginEventHandler) {
+    return UUID.randomUUID();
+  }
+
+  @Override
+  public void removeLedgerPluginEventHandler(final UUID handlerId) {
+  }
+
+  @Override
+  public LedgerPluginEventEmitter getLedgerPluginEventEmitter() {
+    throw new UnsupportedOperationException("Benchmarks notify the connector of ledger events themselves!");
+  }
+}
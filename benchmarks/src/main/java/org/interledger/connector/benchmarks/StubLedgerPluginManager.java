@@ -0,0 +1,112 @@
+package org.interledger.connector.benchmarks;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.repository.InMemoryTransferCorrelationRepository;
+import org.interledger.connector.repository.TransferCorrelationRepository;
+import org.interledger.connector.services.ImmutableLedgerContext;
+import org.interledger.connector.services.LedgerContext;
+import org.interledger.connector.services.LedgerPluginManager;
+import org.interledger.connector.subprotocols.SubprotocolDataService;
+import org.interledger.plugin.lpi.LedgerInfo;
+import org.interledger.plugin.lpi.LedgerPlugin;
+import org.interledger.plugin.lpi.LedgerPluginConfig;
+
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * An implementation of {@link LedgerPluginManager} for benchmarks that doesn't connect to anything. Ledgers can be
+ * registered with only a {@link LedgerInfo} (for benchmarks that merely exercise FX), or with a {@link LedgerPlugin}.
+ */
+public class StubLedgerPluginManager implements LedgerPluginManager {
+
+  private final Map<InterledgerAddress, LedgerPlugin> ledgerPlugins;
+  private final Map<InterledgerAddress, LedgerPluginConfig> ledgerPluginConfigs;
+  private final Map<InterledgerAddress, LedgerInfo> ledgerInfos;
+  private final Map<InterledgerAddress, LedgerContext> ledgerContexts;
+  private final TransferCorrelationRepository transferCorrelationRepository;
+
+  public StubLedgerPluginManager() {
+    this.ledgerPlugins = Maps.newConcurrentMap();
+    this.ledgerPluginConfigs = Maps.newConcurrentMap();
+    this.ledgerInfos = Maps.newConcurrentMap();
+    this.ledgerContexts = Maps.newConcurrentMap();
+    this.transferCorrelationRepository = new InMemoryTransferCorrelationRepository();
+  }
+
+  /**
+   * Register a ledger that has no plugin, which is sufficient for exercising FX calculations.
+   */
+  public void addLedgerInfo(final LedgerInfo ledgerInfo) {
+    Objects.requireNonNull(ledgerInfo);
+    this.ledgerInfos.put(ledgerInfo.getLedgerPrefix(), ledgerInfo);
+    this.ledgerContexts.remove(ledgerInfo.getLedgerPrefix());
+  }
+
+  @Override
+  public void addLedgerPlugin(final LedgerPluginConfig ledgerPluginConfig, final LedgerPlugin ledgerPlugin) {
+    Objects.requireNonNull(ledgerPluginConfig);
+    Objects.requireNonNull(ledgerPlugin);
+
+    ledgerPlugin.connect();
+    this.ledgerInfos.put(ledgerPluginConfig.getLedgerPrefix(), ledgerPlugin.getLedgerInfo());
+    this.ledgerPlugins.put(ledgerPluginConfig.getLedgerPrefix(), ledgerPlugin);
+    this.ledgerPluginConfigs.put(ledgerPluginConfig.getLedgerPrefix(), ledgerPluginConfig);
+    this.ledgerContexts.remove(ledgerPluginConfig.getLedgerPrefix());
+  }
+
+  @Override
+  public void removeLedgerPlugin(final InterledgerAddress ledgerPrefix) {
+    Optional.ofNullable(this.ledgerPlugins.remove(ledgerPrefix)).ifPresent(LedgerPlugin::disconnect);
+    this.ledgerPluginConfigs.remove(ledgerPrefix);
+    this.ledgerInfos.remove(ledgerPrefix);
+    this.ledgerContexts.remove(ledgerPrefix);
+  }
+
+  @Override
+  public Optional<LedgerPlugin> getLedgerPlugin(final InterledgerAddress ledgerPrefix) {
+    return Optional.ofNullable(this.ledgerPlugins.get(ledgerPrefix));
+  }
+
+  @Override
+  public Optional<LedgerInfo> getLedgerInfo(final InterledgerAddress ledgerPrefix) {
+    return Optional.ofNullable(this.ledgerInfos.get(ledgerPrefix));
+  }
+
+  @Override
+  public void updateLedgerInfo(final InterledgerAddress ledgerPrefix, final LedgerInfo ledgerInfo) {
+    this.ledgerInfos.put(ledgerPrefix, ledgerInfo);
+    this.ledgerContexts.remove(ledgerPrefix);
+  }
+
+  @Override
+  public Optional<LedgerContext> getLedgerContext(final InterledgerAddress ledgerPrefix) {
+    final LedgerPlugin ledgerPlugin = this.ledgerPlugins.get(ledgerPrefix);
+    final LedgerPluginConfig ledgerPluginConfig = this.ledgerPluginConfigs.get(ledgerPrefix);
+    if (ledgerPlugin == null || ledgerPluginConfig == null) {
+      return Optional.empty();
+    }
+    // Benchmarks don't change their ledgers while measuring, so a cached context is never stale while it matters.
+    return Optional.of(this.ledgerContexts.computeIfAbsent(ledgerPrefix, prefix -> ImmutableLedgerContext.builder()
+        .ledgerPrefix(prefix)
+        .ledgerPlugin(ledgerPlugin)
+        .ledgerPluginConfig(ledgerPluginConfig)
+        .connectorAccount(ledgerPlugin.getConnectorAccount())
+        .ledgerInfo(Optional.ofNullable(this.ledgerInfos.get(prefix)))
+        .build()
+    ));
+  }
+
+  @Override
+  public TransferCorrelationRepository getTransferCorrelationRepository() {
+    return this.transferCorrelationRepository;
+  }
+
+  @Override
+  public SubprotocolDataService getSubprotocolDataService() {
+    throw new UnsupportedOperationException("Benchmarks do not use sub-protocol data!");
+  }
+}
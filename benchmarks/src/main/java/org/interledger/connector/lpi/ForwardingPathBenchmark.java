@@ -0,0 +1,235 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.benchmarks.BenchmarkFixtures;
+import org.interledger.connector.benchmarks.StubFxEngine;
+import org.interledger.connector.benchmarks.StubLedgerPlugin;
+import org.interledger.connector.benchmarks.StubLedgerPluginManager;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.routing.ImmutableRoute;
+import org.interledger.connector.routing.InMemoryRoutingTable;
+import org.interledger.connector.routing.Route;
+import org.interledger.connector.routing.SimplePaymentRouter;
+import org.interledger.plugin.lpi.LedgerPluginConfig;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+import org.interledger.plugin.lpi.events.ImmutableIncomingTransferFulfilledEvent;
+import org.interledger.plugin.lpi.events.ImmutableIncomingTransferPreparedEvent;
+import org.interledger.plugin.lpi.events.ImmutableOutgoingTransferFulfilledEvent;
+import org.interledger.plugin.lpi.events.IncomingTransferFulfilledEvent;
+import org.interledger.plugin.lpi.events.IncomingTransferPreparedEvent;
+import org.interledger.plugin.lpi.events.OutgoingTransferFulfilledEvent;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A JMH benchmark of forwarding a payment from start to finish in a {@link UniversalModeLedgerPluginEventHandler}: the
+ * incoming transfer is prepared (see {@link AbstractLedgerPluginEventHandler#onTransferPrepared(
+ * IncomingTransferPreparedEvent)}), the destination transfer is fulfilled (see {@link
+ * UniversalModeLedgerPluginEventHandler#onTransferFulfilled(OutgoingTransferFulfilledEvent)}), and then the incoming
+ * transfer is fulfilled (see {@link AbstractLedgerPluginEventHandler#onTransferFulfilled(
+ * IncomingTransferFulfilledEvent)}). Ledgers are {@link StubLedgerPlugin}s, so only the connector's own work is
+ * measured, and each operation is one payment.
+ *
+ * Each invocation forwards the next payment from a fixed, per-thread pool of payments with log-normally distributed
+ * amounts. The pool is reused, so the connector is configured to remember fewer transfers than the pool holds (see
+ * {@link ConnectorConfig#getDuplicateTransferCacheSize()}); otherwise every payment after the first pass would be
+ * dropped as a duplicate. To measure bytes allocated per payment, run with the GC profiler (i.e., {@code -prof gc})
+ * and consult {@code gc.alloc.rate.norm}.
+ *
+ * This class lives in the package of the code under test so that it can reach its {@code @VisibleForTesting} methods.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForwardingPathBenchmark {
+
+  // Must be a power of two so that the next payment can be selected with a mask.
+  private static final int NUM_PAYMENTS = 4096;
+
+  // Must be well below NUM_PAYMENTS so that a payment is forgotten before its turn in the pool comes around again.
+  private static final int DUPLICATE_TRANSFER_CACHE_SIZE = 1024;
+
+  private static final InterledgerAddress SOURCE_LEDGER_PREFIX = InterledgerAddress.of("test1.source.");
+  private static final InterledgerAddress DESTINATION_LEDGER_PREFIX = InterledgerAddress.of("test1.destination.");
+
+  /**
+   * The connector, which is shared by every benchmark thread.
+   */
+  @State(Scope.Benchmark)
+  public static class Connector {
+
+    /**
+     * The number of routes in the routing table, one of which is to the destination ledger.
+     */
+    @Param({"1", "1000", "100000"})
+    public int routingTableSize;
+
+    /**
+     * The source and destination currencies, separated by a colon.
+     */
+    @Param({"USD:EUR", "EUR:JPY", "USD:USD"})
+    public String currencyPair;
+
+    private UniversalModeLedgerPluginEventHandler ledgerPluginEventHandler;
+
+    @Setup
+    public void setup() {
+      final String[] currencyCodes = currencyPair.split(":");
+
+      final StubLedgerPluginManager ledgerPluginManager = new StubLedgerPluginManager();
+      this.addLedger(ledgerPluginManager, SOURCE_LEDGER_PREFIX, currencyCodes[0]);
+      this.addLedger(ledgerPluginManager, DESTINATION_LEDGER_PREFIX, currencyCodes[1]);
+
+      final InMemoryRoutingTable routingTable = new InMemoryRoutingTable();
+      for (int i = 1; i < routingTableSize; i++) {
+        final InterledgerAddress targetPrefix = InterledgerAddress.of("test1.route" + i + ".");
+        routingTable.addRoute(ImmutableRoute.builder()
+            .targetPrefix(targetPrefix)
+            .nextHopLedgerAccount(targetPrefix.with("connector"))
+            .build());
+      }
+      routingTable.addRoute(ImmutableRoute.builder()
+          .targetPrefix(DESTINATION_LEDGER_PREFIX)
+          .nextHopLedgerAccount(DESTINATION_LEDGER_PREFIX.with("connector"))
+          .build());
+
+      this.ledgerPluginEventHandler = new UniversalModeLedgerPluginEventHandler(
+          "secret",
+          BenchmarkFixtures.connectorConfigurationService(new ConnectorConfig() {
+            @Override
+            public int getDuplicateTransferCacheSize() {
+              return DUPLICATE_TRANSFER_CACHE_SIZE;
+            }
+          }),
+          ledgerPluginManager,
+          new SimplePaymentRouter(routingTable),
+          StubFxEngine.withMajorCurrencies()
+      );
+    }
+
+    @TearDown
+    public void tearDown() {
+      ledgerPluginEventHandler.close();
+    }
+
+    private void addLedger(
+        final StubLedgerPluginManager ledgerPluginManager, final InterledgerAddress ledgerPrefix,
+        final String currencyCode
+    ) {
+      final LedgerPluginConfig ledgerPluginConfig = BenchmarkFixtures.ledgerPluginConfig(ledgerPrefix, currencyCode);
+      ledgerPluginManager.addLedgerPlugin(
+          ledgerPluginConfig, new StubLedgerPlugin(BenchmarkFixtures.ledgerInfo(ledgerPrefix, currencyCode))
+      );
+    }
+  }
+
+  /**
+   * The payments forwarded by one benchmark thread, along with the ledger notifications for each of them.
+   */
+  @State(Scope.Thread)
+  public static class Payments {
+
+    private IncomingTransferPreparedEvent[] preparedEvents;
+    private OutgoingTransferFulfilledEvent[] destinationFulfilledEvents;
+    private IncomingTransferFulfilledEvent[] sourceFulfilledEvents;
+    private int index;
+
+    @Setup
+    public void setup(final Connector connector) {
+      final AbstractLedgerPluginEventHandler<ConnectorConfig> ledgerPluginEventHandler =
+          connector.ledgerPluginEventHandler;
+      // Far enough in the future that no payment expires while the benchmark runs.
+      final Instant expiresAt = Instant.now().plus(1, ChronoUnit.DAYS);
+
+      // Median payment of 100.00 units (assuming a currency scale of 2), with a long tail.
+      final BigInteger[] sourceAmounts = BenchmarkFixtures.logNormalAmounts(42L, NUM_PAYMENTS, 10_000, 2.0);
+      this.preparedEvents = new IncomingTransferPreparedEvent[NUM_PAYMENTS];
+      this.destinationFulfilledEvents = new OutgoingTransferFulfilledEvent[NUM_PAYMENTS];
+      this.sourceFulfilledEvents = new IncomingTransferFulfilledEvent[NUM_PAYMENTS];
+      for (int i = 0; i < NUM_PAYMENTS; i++) {
+        final BigInteger nextHopAmount = ledgerPluginEventHandler.computeNextHopLocalTransferAmount(
+            BenchmarkFixtures.sourceTransfer(
+                TransferId.of(UUID.randomUUID()), SOURCE_LEDGER_PREFIX, sourceAmounts[i],
+                DESTINATION_LEDGER_PREFIX.with("bob"), BigInteger.ONE, expiresAt
+            ),
+            DESTINATION_LEDGER_PREFIX
+        );
+        // Senders typically ask for slightly less than the quoted amount.
+        final Transfer sourceTransfer = BenchmarkFixtures.sourceTransfer(
+            TransferId.of(UUID.randomUUID()), SOURCE_LEDGER_PREFIX, sourceAmounts[i],
+            DESTINATION_LEDGER_PREFIX.with("bob"), nextHopAmount.subtract(nextHopAmount.shiftRight(7)), expiresAt
+        );
+
+        // Destination transfers are derived deterministically from their source transfers, so the destination
+        // ledger's notification can be assembled ahead of time rather than while measuring.
+        final Route route = ledgerPluginEventHandler.findNextHopRoute(sourceTransfer);
+        final Transfer destinationTransfer = ledgerPluginEventHandler.buildNextHopTransfer(sourceTransfer, route);
+
+        this.preparedEvents[i] = ImmutableIncomingTransferPreparedEvent.builder()
+            .ledgerPrefix(SOURCE_LEDGER_PREFIX)
+            .transfer(sourceTransfer)
+            .build();
+        this.destinationFulfilledEvents[i] = ImmutableOutgoingTransferFulfilledEvent.builder()
+            .ledgerPrefix(DESTINATION_LEDGER_PREFIX)
+            .transfer(destinationTransfer)
+            .fulfillment(BenchmarkFixtures.FULFILLMENT)
+            .build();
+        this.sourceFulfilledEvents[i] = ImmutableIncomingTransferFulfilledEvent.builder()
+            .ledgerPrefix(SOURCE_LEDGER_PREFIX)
+            .transfer(sourceTransfer)
+            .fulfillment(BenchmarkFixtures.FULFILLMENT)
+            .build();
+      }
+    }
+
+    private int nextIndex() {
+      return index++ & (NUM_PAYMENTS - 1);
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void forwardPayment(final Connector connector, final Payments payments) {
+    forward(connector.ledgerPluginEventHandler, payments);
+  }
+
+  /**
+   * As {@link #forwardPayment(Connector, Payments)}, with one thread per CPU forwarding payments through the same
+   * connector, so that contention between payments is measured too.
+   */
+  @Benchmark
+  @Threads(Threads.MAX)
+  public void forwardPaymentConcurrently(final Connector connector, final Payments payments) {
+    forward(connector.ledgerPluginEventHandler, payments);
+  }
+
+  private static void forward(
+      final UniversalModeLedgerPluginEventHandler ledgerPluginEventHandler, final Payments payments
+  ) {
+    final int i = payments.nextIndex();
+    ledgerPluginEventHandler.onTransferPrepared(payments.preparedEvents[i]);
+    ledgerPluginEventHandler.onTransferFulfilled(payments.destinationFulfilledEvents[i]);
+    ledgerPluginEventHandler.onTransferFulfilled(payments.sourceFulfilledEvents[i]);
+  }
+}
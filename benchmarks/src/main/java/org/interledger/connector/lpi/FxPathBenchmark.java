@@ -0,0 +1,145 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.benchmarks.BenchmarkFixtures;
+import org.interledger.connector.benchmarks.StubFxEngine;
+import org.interledger.connector.benchmarks.StubLedgerPluginManager;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.routing.InMemoryRoutingTable;
+import org.interledger.connector.routing.SimplePaymentRouter;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the FX and amount-validation portion of payment forwarding in {@link
+ * AbstractLedgerPluginEventHandler}.
+ *
+ * Each invocation operates on the next amount from a fixed, log-normally distributed set of amounts so that results
+ * reflect a realistic mix of payment sizes. To measure bytes allocated per operation, run with the GC profiler (i.e.,
+ * {@code -prof gc}) and consult {@code gc.alloc.rate.norm}.
+ *
+ * This class lives in the package of the code under test so that it can reach its {@code @VisibleForTesting} methods.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FxPathBenchmark {
+
+  // Must be a power of two so that the next amount can be selected with a mask.
+  private static final int NUM_AMOUNTS = 1024;
+
+  private static final InterledgerAddress SOURCE_LEDGER_PREFIX = InterledgerAddress.of("test1.source.");
+  private static final InterledgerAddress DESTINATION_LEDGER_PREFIX = InterledgerAddress.of("test1.destination.");
+
+  /**
+   * The source and destination currencies, separated by a colon.
+   */
+  @Param({"USD:EUR", "EUR:JPY", "GBP:CNY", "USD:USD"})
+  public String currencyPair;
+
+  private AbstractLedgerPluginEventHandler<ConnectorConfig> ledgerPluginEventHandler;
+
+  private Transfer[] sourceTransfers;
+  private BigInteger[] ilpPacketAmounts;
+  private BigInteger[] nextHopAmounts;
+  private int index;
+
+  @Setup
+  public void setup() {
+    final String[] currencyCodes = currencyPair.split(":");
+
+    final StubLedgerPluginManager ledgerPluginManager = new StubLedgerPluginManager();
+    ledgerPluginManager.addLedgerInfo(BenchmarkFixtures.ledgerInfo(SOURCE_LEDGER_PREFIX, currencyCodes[0]));
+    ledgerPluginManager.addLedgerInfo(BenchmarkFixtures.ledgerInfo(DESTINATION_LEDGER_PREFIX, currencyCodes[1]));
+
+    this.ledgerPluginEventHandler = new UniversalModeLedgerPluginEventHandler(
+        "secret",
+        BenchmarkFixtures.connectorConfigurationService(new ConnectorConfig() {
+        }),
+        ledgerPluginManager,
+        new SimplePaymentRouter(new InMemoryRoutingTable()),
+        StubFxEngine.withMajorCurrencies()
+    );
+
+    // Median payment of 100.00 units (assuming a currency scale of 2), with a long tail.
+    final BigInteger[] sourceAmounts = BenchmarkFixtures.logNormalAmounts(42L, NUM_AMOUNTS, 10_000, 2.0);
+    this.sourceTransfers = new Transfer[NUM_AMOUNTS];
+    this.ilpPacketAmounts = new BigInteger[NUM_AMOUNTS];
+    this.nextHopAmounts = new BigInteger[NUM_AMOUNTS];
+    for (int i = 0; i < NUM_AMOUNTS; i++) {
+      this.nextHopAmounts[i] = ledgerPluginEventHandler.computeNextHopLocalTransferAmount(
+          BenchmarkFixtures.sourceTransfer(
+              TransferId.of(UUID.randomUUID()), SOURCE_LEDGER_PREFIX, sourceAmounts[i],
+              DESTINATION_LEDGER_PREFIX.with("bob"), BigInteger.ONE, Instant.now()
+          ),
+          DESTINATION_LEDGER_PREFIX
+      );
+      // Senders typically ask for slightly less than the quoted amount.
+      this.ilpPacketAmounts[i] = nextHopAmounts[i].subtract(nextHopAmounts[i].shiftRight(7));
+      this.sourceTransfers[i] = BenchmarkFixtures.sourceTransfer(
+          TransferId.of(UUID.randomUUID()), SOURCE_LEDGER_PREFIX, sourceAmounts[i],
+          DESTINATION_LEDGER_PREFIX.with("bob"), ilpPacketAmounts[i], Instant.now()
+      );
+    }
+  }
+
+  private int nextIndex() {
+    return index++ & (NUM_AMOUNTS - 1);
+  }
+
+  @Benchmark
+  public BigInteger computeNextHopLocalTransferAmount() {
+    return ledgerPluginEventHandler.computeNextHopLocalTransferAmount(
+        sourceTransfers[nextIndex()], DESTINATION_LEDGER_PREFIX
+    );
+  }
+
+  @Benchmark
+  public BigInteger calculateIlpPacketDestinationAmountWithSlippage() {
+    return ledgerPluginEventHandler.calculateIlpPacketDestinationAmountWithSlippage(
+        ilpPacketAmounts[nextIndex()], DESTINATION_LEDGER_PREFIX
+    );
+  }
+
+  @Benchmark
+  public boolean incomingTransferAmountIsInsufficient() {
+    final int i = nextIndex();
+    return ledgerPluginEventHandler.incomingTransferAmountIsInsufficient(ilpPacketAmounts[i], nextHopAmounts[i]);
+  }
+
+  /**
+   * The three operations above, composed as they are when forwarding a payment to a locally-peered ledger.
+   */
+  @Benchmark
+  public boolean validateNextHopAmount() {
+    final int i = nextIndex();
+    final BigInteger derivedNextHopAmount = ledgerPluginEventHandler.computeNextHopLocalTransferAmount(
+        sourceTransfers[i], DESTINATION_LEDGER_PREFIX
+    );
+    final BigInteger ilpPacketAmountWithSlippage = ledgerPluginEventHandler
+        .calculateIlpPacketDestinationAmountWithSlippage(ilpPacketAmounts[i], DESTINATION_LEDGER_PREFIX);
+    return ledgerPluginEventHandler.incomingTransferAmountIsInsufficient(
+        ilpPacketAmountWithSlippage, derivedNextHopAmount
+    );
+  }
+}
@@ -0,0 +1,112 @@
+package org.interledger.connector.load;
+
+import org.interledger.InterledgerAddress;
+
+import org.immutables.value.Value;
+import org.immutables.value.Value.Default;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Describes how a {@link SimulatedLedgerPlugin} behaves: how long its ledger takes to respond, how often it fails, and
+ * how much the connector holds on it.
+ */
+@Value.Immutable
+public interface LedgerSimulation {
+
+  /**
+   * The ledger prefix of the simulated ledger.
+   */
+  InterledgerAddress getLedgerPrefix();
+
+  /**
+   * The ISO-4217 code of the currency that the ledger is denominated in.
+   *
+   * <p>Defaults to "USD".</p>
+   */
+  @Default
+  default String getCurrencyCode() {
+    return "USD";
+  }
+
+  /**
+   * The number of units of this ledger's currency that one USD buys, from which the exchange rates between simulated
+   * ledgers are derived (see {@link SimulatedFxEngine}).
+   *
+   * <p>Defaults to 1.</p>
+   */
+  @Default
+  default BigDecimal getUnitsPerUsd() {
+    return BigDecimal.ONE;
+  }
+
+  /**
+   * The time that the ledger takes to process each request from the connector, and each action of the other party to
+   * a transfer, before notifying its plugin of the result.
+   *
+   * <p>Defaults to 5 milliseconds.</p>
+   */
+  @Default
+  default Duration getLatency() {
+    return Duration.ofMillis(5);
+  }
+
+  /**
+   * The largest amount of time that is added to {@link #getLatency()}, uniformly at random, for each request.
+   *
+   * <p>Defaults to zero.</p>
+   */
+  @Default
+  default Duration getLatencyJitter() {
+    return Duration.ZERO;
+  }
+
+  /**
+   * The probability, between 0 and 1, that a request from the connector fails with a transient error (i.e., a {@link
+   * org.interledger.plugin.lpi.exceptions.LedgerPluginException} that the connector may retry).
+   *
+   * <p>Defaults to 0.</p>
+   */
+  @Default
+  default double getFailureRate() {
+    return 0;
+  }
+
+  /**
+   * The probability, between 0 and 1, that the receiver of a transfer that the connector sends on this ledger rejects
+   * it instead of fulfilling it.
+   *
+   * <p>Defaults to 0.</p>
+   */
+  @Default
+  default double getRejectionRate() {
+    return 0;
+  }
+
+  /**
+   * The balance of the connector's account on this ledger when the simulation starts, if it is limited. Transfers that
+   * the connector sends are debited from its balance when they are prepared (and credited back if they are rejected),
+   * and transfers that it fulfills are credited to it; once a limited balance is exhausted, sending a transfer fails
+   * with an {@link org.interledger.plugin.lpi.exceptions.InsufficientBalanceException}.
+   *
+   * <p>Defaults to an unlimited balance.</p>
+   */
+  Optional<BigInteger> getConnectorBalance();
+
+  @Value.Check
+  default void check() {
+    InterledgerAddress.requireAddressPrefix(getLedgerPrefix());
+    if (getUnitsPerUsd().signum() <= 0) {
+      throw new IllegalArgumentException("unitsPerUsd must be positive!");
+    }
+    if (getLatency().isNegative() || getLatencyJitter().isNegative()) {
+      throw new IllegalArgumentException("latency and latencyJitter must not be negative!");
+    }
+    if (getFailureRate() < 0 || getFailureRate() > 1 || getRejectionRate() < 0 || getRejectionRate() > 1) {
+      throw new IllegalArgumentException("failureRate and rejectionRate must be between 0 and 1!");
+    }
+  }
+}
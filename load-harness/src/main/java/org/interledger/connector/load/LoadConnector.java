@@ -0,0 +1,47 @@
+package org.interledger.connector.load;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.AbstractConnector;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.connector.services.LedgerPluginManager;
+import org.interledger.plugin.lpi.LedgerPlugin;
+import org.interledger.plugin.lpi.LedgerPluginConfig;
+import org.interledger.plugin.lpi.handlers.LedgerPluginEventHandler;
+
+/**
+ * A {@link AbstractConnector} whose ledgers are all simulated, by a {@link SimulatedLedgerPlugin} for each {@link
+ * SimulatedLedgerPluginConfig} in its configuration.
+ */
+public class LoadConnector extends AbstractConnector<ConnectorConfigurationService<ConnectorConfig>> {
+
+  public LoadConnector(
+      final LedgerPluginManager ledgerPluginManager,
+      final LedgerPluginEventHandler ledgerPluginEventHandler,
+      final ConnectorConfigurationService<ConnectorConfig> connectorConfigurationService
+  ) {
+    super(ledgerPluginManager, ledgerPluginEventHandler, connectorConfigurationService);
+  }
+
+  @Override
+  protected LedgerPlugin constructLedgerPlugin(final LedgerPluginConfig ledgerPluginConfig) {
+    if (!(ledgerPluginConfig instanceof SimulatedLedgerPluginConfig)) {
+      throw new IllegalArgumentException("Only simulated ledgers are supported, but got: " + ledgerPluginConfig);
+    }
+    final SimulatedLedgerPluginConfig simulatedLedgerPluginConfig = (SimulatedLedgerPluginConfig) ledgerPluginConfig;
+    return new SimulatedLedgerPlugin(
+        simulatedLedgerPluginConfig.getLedgerSimulation(), simulatedLedgerPluginConfig.getScheduler()
+    );
+  }
+
+  /**
+   * The {@link SimulatedLedgerPlugin} that this connector is connected to {@code ledgerPrefix} with.
+   *
+   * @throws IllegalArgumentException if this connector is not connected to that ledger.
+   */
+  public SimulatedLedgerPlugin getSimulatedLedgerPlugin(final InterledgerAddress ledgerPrefix) {
+    return this.getLedgerPluginManager().getLedgerPlugin(ledgerPrefix)
+        .map(SimulatedLedgerPlugin.class::cast)
+        .orElseThrow(() -> new IllegalArgumentException("Not connected to ledger " + ledgerPrefix));
+  }
+}
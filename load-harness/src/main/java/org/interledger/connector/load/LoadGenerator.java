@@ -0,0 +1,200 @@
+package org.interledger.connector.load;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.load.SimulatedLedgerPlugin.Outcome;
+import org.interledger.connector.metrics.LatencyHistogram;
+import org.interledger.ilp.InterledgerPayment;
+import org.interledger.plugin.lpi.ImmutableTransfer;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Sends payments through a {@link LoadConnector} as described by a {@link LoadProfile}, and reports how quickly they
+ * complete.
+ *
+ * Payments are sent "open-loop": the {@code i}th payment is scheduled to be sent {@code i / paymentsPerSecond} seconds
+ * after the run starts, whether or not earlier payments have completed, as payments from many independent senders
+ * would be. If sending falls behind schedule, payments are sent back-to-back until it catches up, and each payment's
+ * response time is measured from when it was scheduled to be sent (see {@link LoadReport#getResponseTimes()}).
+ *
+ * Each payment is sent from one simulated ledger to a receiver on another, cycling through every ordered pair of
+ * ledgers. The amount that each payment delivers (in its ILP packet) is a single unit, so that the connector never
+ * rejects a payment for want of an exchange rate that covers it.
+ */
+public class LoadGenerator {
+
+  // Waits shorter than this are spun rather than parked, since parking can overshoot by about this much.
+  private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final LoadProfile loadProfile;
+  private final List<SimulatedLedgerPlugin> ledgerPlugins;
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param loadProfile   The {@link LoadProfile} to run.
+   * @param loadConnector The {@link LoadConnector} to send payments through, which must be connected to every ledger in
+   *                      {@code loadProfile}.
+   */
+  public LoadGenerator(final LoadProfile loadProfile, final LoadConnector loadConnector) {
+    this.loadProfile = Objects.requireNonNull(loadProfile);
+    Objects.requireNonNull(loadConnector);
+    this.ledgerPlugins = loadProfile.getLedgers().stream()
+        .map(LedgerSimulation::getLedgerPrefix)
+        .map(loadConnector::getSimulatedLedgerPlugin)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Send payments for the warmup and duration of the {@link LoadProfile}, and wait for them to complete.
+   *
+   * @return A {@link LoadReport} of the payments that were scheduled after the warmup.
+   *
+   * @throws InterruptedException if the calling thread is interrupted while waiting for payments to complete.
+   */
+  public LoadReport run() throws InterruptedException {
+    final LatencyHistogram responseTimes = new LatencyHistogram();
+    final LatencyHistogram serviceTimes = new LatencyHistogram();
+    final LongAdder fulfilled = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+    final AtomicLong outstanding = new AtomicLong();
+
+    final double intervalNanos = TimeUnit.SECONDS.toNanos(1) / loadProfile.getPaymentsPerSecond();
+    final long startNanos = System.nanoTime();
+    final long measurementStartNanos = startNanos + loadProfile.getWarmup().toNanos();
+    final long endNanos = measurementStartNanos + loadProfile.getDuration().toNanos();
+    // Transfer ids only need to be unique, and generating them from a counter is far cheaper than UUID.randomUUID().
+    final long runId = ThreadLocalRandom.current().nextLong();
+
+    logger.info("Sending {} payments/s for {} of warmup and {} of measurement",
+        loadProfile.getPaymentsPerSecond(), loadProfile.getWarmup(), loadProfile.getDuration());
+
+    long sent = 0;
+    long maxSendLagNanos = 0;
+    for (long index = 0; ; index++) {
+      final long scheduledNanos = startNanos + (long) (index * intervalNanos);
+      if (scheduledNanos >= endNanos) {
+        break;
+      }
+      final long sendNanos = awaitSchedule(scheduledNanos);
+      final boolean measured = scheduledNanos >= measurementStartNanos;
+      if (measured) {
+        maxSendLagNanos = Math.max(maxSendLagNanos, sendNanos - scheduledNanos);
+        sent++;
+        outstanding.incrementAndGet();
+      }
+
+      final int sourceIndex = (int) (index % ledgerPlugins.size());
+      // Every other ledger, in turn, so that each ordered pair of ledgers carries the same share of payments.
+      final int destinationIndex = (int) (
+          (sourceIndex + 1 + (index / ledgerPlugins.size()) % (ledgerPlugins.size() - 1)) % ledgerPlugins.size()
+      );
+      final Transfer sourceTransfer = this.sourceTransfer(
+          TransferId.of(new UUID(runId, index)),
+          ledgerPlugins.get(sourceIndex).getLedgerSimulation().getLedgerPrefix(),
+          ledgerPlugins.get(destinationIndex).getLedgerSimulation().getLedgerPrefix()
+      );
+
+      ledgerPlugins.get(sourceIndex).prepareIncomingTransfer(sourceTransfer)
+          .whenComplete((outcome, error) -> {
+            if (!measured) {
+              return;
+            }
+            final long completedNanos = System.nanoTime();
+            responseTimes.record(completedNanos - scheduledNanos);
+            serviceTimes.record(completedNanos - sendNanos);
+            if (outcome == Outcome.FULFILLED) {
+              fulfilled.increment();
+            } else {
+              rejected.increment();
+            }
+            outstanding.decrementAndGet();
+          });
+    }
+
+    logger.info("Waiting up to {} for {} outstanding payments", loadProfile.getDrainTimeout(), outstanding.get());
+    final long drainDeadlineNanos = System.nanoTime() + loadProfile.getDrainTimeout().toNanos();
+    while (outstanding.get() > 0 && System.nanoTime() < drainDeadlineNanos) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+
+    final Map<InterledgerAddress, BigInteger> connectorBalances = new LinkedHashMap<>();
+    ledgerPlugins.forEach(ledgerPlugin -> connectorBalances.put(
+        ledgerPlugin.getLedgerSimulation().getLedgerPrefix(), ledgerPlugin.getConnectorBalance()
+    ));
+
+    return ImmutableLoadReport.builder()
+        .loadProfile(loadProfile)
+        .sent(sent)
+        .fulfilled(fulfilled.sum())
+        .rejected(rejected.sum())
+        .timedOut(outstanding.get())
+        .responseTimes(responseTimes)
+        .serviceTimes(serviceTimes)
+        .maxSendLagNanos(maxSendLagNanos)
+        .connectorBalances(connectorBalances)
+        .build();
+  }
+
+  /**
+   * Wait until {@code scheduledNanos}, parking for as much of the wait as can be done precisely and spinning for the
+   * rest.
+   *
+   * @return The time at which the wait ended, which is later than {@code scheduledNanos} if sending is behind
+   *     schedule.
+   */
+  private static long awaitSchedule(final long scheduledNanos) {
+    long nowNanos = System.nanoTime();
+    while (nowNanos < scheduledNanos) {
+      final long remainingNanos = scheduledNanos - nowNanos;
+      if (remainingNanos > SPIN_THRESHOLD_NANOS) {
+        LockSupport.parkNanos(remainingNanos - SPIN_THRESHOLD_NANOS);
+      }
+      nowNanos = System.nanoTime();
+    }
+    return nowNanos;
+  }
+
+  /**
+   * Construct a transfer from a sender on {@code sourceLedgerPrefix} to the connector, carrying a payment for a
+   * receiver on {@code destinationLedgerPrefix}.
+   */
+  private Transfer sourceTransfer(
+      final TransferId transferId, final InterledgerAddress sourceLedgerPrefix,
+      final InterledgerAddress destinationLedgerPrefix
+  ) {
+    return ImmutableTransfer.builder()
+        .transferId(transferId)
+        .ledgerPrefix(sourceLedgerPrefix)
+        .sourceAccount(sourceLedgerPrefix.with("sender"))
+        .destinationAccount(sourceLedgerPrefix.with("connector"))
+        .amount(loadProfile.getPaymentAmount())
+        .interlederPaymentPacket(InterledgerPayment.builder()
+            .destinationAccount(destinationLedgerPrefix.with("receiver"))
+            .destinationAmount(BigInteger.ONE)
+            .data(new byte[0])
+            .build())
+        .executionCondition(SimulatedLedgerPlugin.FULFILLMENT.getCondition())
+        .expiresAt(Instant.now().plus(loadProfile.getTransferExpiry()))
+        .build();
+  }
+}
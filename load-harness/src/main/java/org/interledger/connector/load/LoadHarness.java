@@ -0,0 +1,238 @@
+package org.interledger.connector.load;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.connector.lpi.UniversalModeLedgerPluginEventHandler;
+import org.interledger.connector.repository.InMemoryTransferCorrelationRepository;
+import org.interledger.connector.routing.ImmutableRoute;
+import org.interledger.connector.routing.InMemoryRoutingTable;
+import org.interledger.connector.routing.SimplePaymentRouter;
+import org.interledger.connector.services.AbstractLedgerPluginManager;
+import org.interledger.connector.services.LedgerPluginManager;
+import org.interledger.connector.subprotocols.SubprotocolDataService;
+import org.interledger.ilp.InterledgerPayment;
+import org.interledger.plugin.lpi.LedgerPluginConfig;
+import org.interledger.subprotocols.SubprotocolData;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the {@link LoadGenerator} against a connector whose ledgers are all simulated, from the command line (see
+ * {@link #main(String[])}).
+ */
+public class LoadHarness {
+
+  private static final String USAGE = String.join(System.lineSeparator(),
+      "Usage: java -jar load-harness.jar [option...]",
+      "  --rate <payments/s>       The rate to send payments at (default: 1000)",
+      "  --duration <duration>     How long to measure for (default: 60s)",
+      "  --warmup <duration>       How long to send payments for before measuring (default: 10s)",
+      "  --ledgers <count>         The number of simulated ledgers (default: 2)",
+      "  --latency <duration>      How long each ledger takes to respond (default: 5ms)",
+      "  --jitter <duration>       The largest random addition to each latency (default: 0ms)",
+      "  --failure-rate <p>        The probability that a ledger request fails transiently (default: 0)",
+      "  --rejection-rate <p>      The probability that a receiver rejects a payment (default: 0)",
+      "  --balance <amount>        The connector's balance on each ledger (default: unlimited)",
+      "  --ledger-threads <count>  The number of threads that ledgers notify the connector on (default: #cpus)",
+      "  --virtual-threads         Handle each ledger event on its own virtual thread",
+      "  --help                    Print this message",
+      "Durations are a number followed by ns, us, ms, s or m (e.g., 500us)."
+  );
+
+  private static final Pattern DURATION = Pattern.compile("(\\d+)(ns|us|ms|s|m)");
+
+  /**
+   * Run a load test as described by {@code args} (see {@code --help}), and print its {@link LoadReport}.
+   */
+  public static void main(final String[] args) throws InterruptedException {
+    final LoadProfile loadProfile;
+    final boolean virtualThreadExecutionEnabled;
+    try {
+      final ImmutableLoadProfile.Builder loadProfileBuilder = ImmutableLoadProfile.builder().paymentsPerSecond(1000);
+      final ImmutableLedgerSimulation.Builder ledgerSimulationBuilder = ImmutableLedgerSimulation.builder();
+      int ledgers = 2;
+      boolean virtualThreads = false;
+      for (int i = 0; i < args.length; i++) {
+        switch (args[i]) {
+          case "--rate":
+            loadProfileBuilder.paymentsPerSecond(Double.parseDouble(args[++i]));
+            break;
+          case "--duration":
+            loadProfileBuilder.duration(parseDuration(args[++i]));
+            break;
+          case "--warmup":
+            loadProfileBuilder.warmup(parseDuration(args[++i]));
+            break;
+          case "--ledgers":
+            ledgers = Integer.parseInt(args[++i]);
+            break;
+          case "--latency":
+            ledgerSimulationBuilder.latency(parseDuration(args[++i]));
+            break;
+          case "--jitter":
+            ledgerSimulationBuilder.latencyJitter(parseDuration(args[++i]));
+            break;
+          case "--failure-rate":
+            ledgerSimulationBuilder.failureRate(Double.parseDouble(args[++i]));
+            break;
+          case "--rejection-rate":
+            ledgerSimulationBuilder.rejectionRate(Double.parseDouble(args[++i]));
+            break;
+          case "--balance":
+            ledgerSimulationBuilder.connectorBalance(new BigInteger(args[++i]));
+            break;
+          case "--ledger-threads":
+            loadProfileBuilder.ledgerThreads(Integer.parseInt(args[++i]));
+            break;
+          case "--virtual-threads":
+            virtualThreads = true;
+            break;
+          case "--help":
+            System.out.println(USAGE);
+            return;
+          default:
+            throw new IllegalArgumentException("Unknown option: " + args[i]);
+        }
+      }
+      for (int ledger = 1; ledger <= ledgers; ledger++) {
+        loadProfileBuilder.addLedgers(
+            ledgerSimulationBuilder.ledgerPrefix(InterledgerAddress.of("test.ledger" + ledger + ".")).build()
+        );
+      }
+      loadProfile = loadProfileBuilder.build();
+      virtualThreadExecutionEnabled = virtualThreads;
+    } catch (RuntimeException e) {
+      System.err.println(e.getMessage());
+      System.err.println(USAGE);
+      System.exit(2);
+      return;
+    }
+
+    final ConnectorConfig connectorConfig = new ConnectorConfig() {
+      @Override
+      public boolean isVirtualThreadExecutionEnabled() {
+        return virtualThreadExecutionEnabled;
+      }
+    };
+    final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(
+        loadProfile.getLedgerThreads(),
+        new ThreadFactoryBuilder().setNameFormat("simulated-ledger-%d").setDaemon(true).build()
+    );
+    try (LoadConnector loadConnector = connector(loadProfile, connectorConfig, scheduler)) {
+      final LoadReport loadReport = new LoadGenerator(loadProfile, loadConnector).run();
+      System.out.println(loadReport.format());
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  /**
+   * Construct a {@link LoadConnector} that is connected to every ledger in {@code loadProfile}, and routes payments to
+   * each of those ledgers directly, using a {@link UniversalModeLedgerPluginEventHandler}.
+   *
+   * @param loadProfile     The {@link LoadProfile} whose ledgers the connector is connected to.
+   * @param connectorConfig The {@link ConnectorConfig} of the connector.
+   * @param scheduler       A {@link ScheduledExecutorService} for the simulated ledgers to notify the connector on.
+   */
+  public static LoadConnector connector(
+      final LoadProfile loadProfile, final ConnectorConfig connectorConfig, final ScheduledExecutorService scheduler
+  ) {
+    Objects.requireNonNull(loadProfile);
+    Objects.requireNonNull(connectorConfig);
+    Objects.requireNonNull(scheduler);
+
+    final List<SimulatedLedgerPluginConfig> ledgerPluginConfigs = loadProfile.getLedgers().stream()
+        .map(ledgerSimulation -> new SimulatedLedgerPluginConfig(ledgerSimulation, scheduler))
+        .collect(Collectors.toList());
+    final ConnectorConfigurationService<ConnectorConfig> connectorConfigurationService =
+        new ConnectorConfigurationService<ConnectorConfig>() {
+          @Override
+          public ConnectorConfig getConnectorConfig() {
+            return connectorConfig;
+          }
+
+          @Override
+          public Collection<? extends LedgerPluginConfig> getLedgerPluginConfigurations() {
+            return ledgerPluginConfigs;
+          }
+
+          @Override
+          public LedgerPluginConfig getLedgerPluginConfiguration(final InterledgerAddress ledgerPrefix) {
+            return ledgerPluginConfigs.stream()
+                .filter(ledgerPluginConfig -> ledgerPluginConfig.getLedgerPrefix().equals(ledgerPrefix))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("No LedgerPluginConfig for " + ledgerPrefix));
+          }
+        };
+
+    final InMemoryRoutingTable routingTable = new InMemoryRoutingTable();
+    loadProfile.getLedgers().forEach(ledgerSimulation -> routingTable.addRoute(ImmutableRoute.builder()
+        .targetPrefix(ledgerSimulation.getLedgerPrefix())
+        .nextHopLedgerAccount(ledgerSimulation.getLedgerPrefix().with("connector"))
+        .build()
+    ));
+
+    final LedgerPluginManager ledgerPluginManager = new AbstractLedgerPluginManager(
+        new UnsupportedSubprotocolDataService(), new InMemoryTransferCorrelationRepository()
+    ) {
+    };
+    final UniversalModeLedgerPluginEventHandler ledgerPluginEventHandler = new UniversalModeLedgerPluginEventHandler(
+        "load-harness", connectorConfigurationService, ledgerPluginManager, new SimplePaymentRouter(routingTable),
+        new SimulatedFxEngine(loadProfile.getLedgers())
+    );
+    return new LoadConnector(ledgerPluginManager, ledgerPluginEventHandler, connectorConfigurationService);
+  }
+
+  /**
+   * Parse a duration, such as {@code 500us}.
+   */
+  static Duration parseDuration(final String duration) {
+    final Matcher matcher = DURATION.matcher(duration);
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Invalid duration: " + duration);
+    }
+    final long amount = Long.parseLong(matcher.group(1));
+    switch (matcher.group(2)) {
+      case "ns":
+        return Duration.ofNanos(amount);
+      case "us":
+        return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(amount));
+      case "ms":
+        return Duration.ofMillis(amount);
+      case "s":
+        return Duration.ofSeconds(amount);
+      default:
+        return Duration.ofMinutes(amount);
+    }
+  }
+
+  /**
+   * Simulated ledgers carry ILP packets in their transfers directly, so no sub-protocol data is ever converted.
+   */
+  @SuppressWarnings("deprecation")
+  private static class UnsupportedSubprotocolDataService implements SubprotocolDataService {
+
+    @Override
+    public SubprotocolData toProtocolData(final InterledgerPayment interledgerPayment) {
+      throw new UnsupportedOperationException("Simulated ledgers do not use sub-protocol data!");
+    }
+
+    @Override
+    public InterledgerPayment toInterledgerPayment(final SubprotocolData subprotocolData) {
+      throw new UnsupportedOperationException("Simulated ledgers do not use sub-protocol data!");
+    }
+  }
+}
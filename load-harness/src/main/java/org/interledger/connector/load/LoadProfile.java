@@ -0,0 +1,120 @@
+package org.interledger.connector.load;
+
+import org.interledger.InterledgerAddress;
+
+import org.immutables.value.Value;
+import org.immutables.value.Value.Default;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Describes a run of the {@link LoadGenerator}: the ledgers that the connector under test is connected to, and the
+ * traffic that is sent through it.
+ */
+@Value.Immutable
+public interface LoadProfile {
+
+  /**
+   * The ledgers that the connector is connected to. Payments are sent from each of these ledgers to each of the others,
+   * in turn.
+   */
+  List<LedgerSimulation> getLedgers();
+
+  /**
+   * The rate at which payments are sent, per second. Payments are sent on a fixed schedule at this rate, regardless of
+   * how quickly the connector completes them (i.e., the load is "open-loop").
+   */
+  double getPaymentsPerSecond();
+
+  /**
+   * The time that payments are sent for before their latencies are recorded, so that the connector is measured once it
+   * has reached a steady state (e.g., once the JIT compiler has compiled its payment path).
+   *
+   * <p>Defaults to 10 seconds.</p>
+   */
+  @Default
+  default Duration getWarmup() {
+    return Duration.ofSeconds(10);
+  }
+
+  /**
+   * The time that payments are sent, and their latencies recorded, for after the warmup.
+   *
+   * <p>Defaults to 60 seconds.</p>
+   */
+  @Default
+  default Duration getDuration() {
+    return Duration.ofSeconds(60);
+  }
+
+  /**
+   * The longest time to wait, once every payment has been sent, for outstanding payments to complete. Payments that
+   * have not completed by then are reported as timed out.
+   *
+   * <p>Defaults to 30 seconds.</p>
+   */
+  @Default
+  default Duration getDrainTimeout() {
+    return Duration.ofSeconds(30);
+  }
+
+  /**
+   * The amount of each payment's source transfer, in units of its source ledger.
+   *
+   * <p>Defaults to 1,000.</p>
+   */
+  @Default
+  default BigInteger getPaymentAmount() {
+    return BigInteger.valueOf(1_000);
+  }
+
+  /**
+   * The time between sending a payment and the expiry of its source transfer.
+   *
+   * <p>Defaults to 30 seconds.</p>
+   */
+  @Default
+  default Duration getTransferExpiry() {
+    return Duration.ofSeconds(30);
+  }
+
+  /**
+   * The number of threads that the simulated ledgers notify the connector on.
+   *
+   * <p>Defaults to the number of available processors.</p>
+   */
+  @Default
+  default int getLedgerThreads() {
+    return Runtime.getRuntime().availableProcessors();
+  }
+
+  @Value.Check
+  default void check() {
+    if (getLedgers().size() < 2) {
+      throw new IllegalArgumentException("At least two ledgers are required!");
+    }
+    final List<InterledgerAddress> ledgerPrefixes = getLedgers().stream()
+        .map(LedgerSimulation::getLedgerPrefix)
+        .distinct()
+        .collect(Collectors.toList());
+    if (ledgerPrefixes.size() != getLedgers().size()) {
+      throw new IllegalArgumentException("Every ledger must have a distinct ledger prefix!");
+    }
+    if (!(getPaymentsPerSecond() > 0)) {
+      throw new IllegalArgumentException("paymentsPerSecond must be positive!");
+    }
+    if (getWarmup().isNegative() || getDuration().isNegative() || getDuration().isZero()
+        || getDrainTimeout().isNegative() || getTransferExpiry().isNegative()) {
+      throw new IllegalArgumentException("duration must be positive, and other durations must not be negative!");
+    }
+    if (getPaymentAmount().signum() <= 0) {
+      throw new IllegalArgumentException("paymentAmount must be positive!");
+    }
+    if (getLedgerThreads() < 1) {
+      throw new IllegalArgumentException("ledgerThreads must be positive!");
+    }
+  }
+}
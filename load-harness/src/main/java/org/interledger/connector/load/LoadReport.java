@@ -0,0 +1,105 @@
+package org.interledger.connector.load;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.metrics.LatencyHistogram;
+
+import org.immutables.value.Value;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The results of a run of the {@link LoadGenerator}. Only payments that were scheduled to be sent after the warmup are
+ * counted.
+ */
+@Value.Immutable
+public interface LoadReport {
+
+  /**
+   * The {@link LoadProfile} of the run.
+   */
+  LoadProfile getLoadProfile();
+
+  /**
+   * The number of payments that were sent.
+   */
+  long getSent();
+
+  /**
+   * The number of payments that were fulfilled.
+   */
+  long getFulfilled();
+
+  /**
+   * The number of payments that were rejected.
+   */
+  long getRejected();
+
+  /**
+   * The number of payments that had neither been fulfilled nor rejected by the end of the drain timeout.
+   */
+  long getTimedOut();
+
+  /**
+   * The latencies of completed payments, from when each was scheduled to be sent until its source transfer was
+   * fulfilled or rejected. Measuring from the schedule, rather than from when a payment was actually sent, corrects for
+   * coordinated omission: if the connector (or the load generator itself) stalls, every payment that should have been
+   * sent during the stall is charged for the time that it waited, as it would be by a real sender.
+   */
+  LatencyHistogram getResponseTimes();
+
+  /**
+   * The latencies of completed payments, from when each was actually sent until its source transfer was fulfilled or
+   * rejected. Unlike {@link #getResponseTimes()}, these are not corrected for coordinated omission, and are reported
+   * only for comparison: a large difference between the two means that sending fell behind schedule.
+   */
+  LatencyHistogram getServiceTimes();
+
+  /**
+   * The furthest that sending fell behind schedule, in nanoseconds.
+   */
+  long getMaxSendLagNanos();
+
+  /**
+   * The balance of the connector's account on each ledger at the end of the run.
+   */
+  Map<InterledgerAddress, BigInteger> getConnectorBalances();
+
+  /**
+   * The number of payments that were fulfilled per second of the measured part of the run.
+   */
+  @Value.Derived
+  default double getThroughput() {
+    return getFulfilled() / (getLoadProfile().getDuration().toNanos() / 1e9);
+  }
+
+  /**
+   * Render this report as human-readable text.
+   */
+  default String format() {
+    final StringBuilder report = new StringBuilder();
+    report.append(String.format(Locale.ROOT, "Target rate:     %,.1f payments/s over %s (after %s of warmup)%n",
+        getLoadProfile().getPaymentsPerSecond(), getLoadProfile().getDuration(), getLoadProfile().getWarmup()));
+    report.append(String.format(Locale.ROOT, "Throughput:      %,.1f fulfilled payments/s%n", getThroughput()));
+    report.append(String.format(Locale.ROOT, "Payments:        %,d sent, %,d fulfilled, %,d rejected, %,d timed out%n",
+        getSent(), getFulfilled(), getRejected(), getTimedOut()));
+    report.append(String.format(Locale.ROOT, "Max send lag:    %s%n", Duration.ofNanos(getMaxSendLagNanos())));
+    report.append(String.format(Locale.ROOT, "%n%-12s %16s %16s%n", "Latency (ms)", "Response time", "Service time"));
+    for (double percentile : new double[] {50, 90, 99, 99.9, 99.99}) {
+      report.append(String.format(Locale.ROOT, "%-12s %16.3f %16.3f%n", "p" + percentile,
+          getResponseTimes().getValueAtPercentile(percentile) / 1e6,
+          getServiceTimes().getValueAtPercentile(percentile) / 1e6));
+    }
+    report.append(String.format(Locale.ROOT, "%-12s %16.3f %16.3f%n", "max",
+        getResponseTimes().getMax() / 1e6, getServiceTimes().getMax() / 1e6));
+    report.append(String.format(Locale.ROOT, "%-12s %16.3f %16.3f%n", "mean",
+        getResponseTimes().getMean() / 1e6, getServiceTimes().getMean() / 1e6));
+    report.append(String.format(Locale.ROOT, "%nConnector balances:%n"));
+    getConnectorBalances().forEach((ledgerPrefix, balance) -> report.append(
+        String.format(Locale.ROOT, "  %-30s %,d%n", ledgerPrefix.getValue(), balance)
+    ));
+    return report.toString();
+  }
+}
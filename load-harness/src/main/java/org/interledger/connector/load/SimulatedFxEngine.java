@@ -0,0 +1,111 @@
+package org.interledger.connector.load;
+
+import org.interledger.connector.fx.FxEngine;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import org.javamoney.moneta.convert.ExchangeRateBuilder;
+import org.javamoney.moneta.spi.DefaultNumberValue;
+
+import java.math.MathContext;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.money.CurrencyUnit;
+import javax.money.Monetary;
+import javax.money.convert.ConversionContext;
+import javax.money.convert.ConversionQuery;
+import javax.money.convert.CurrencyConversion;
+import javax.money.convert.CurrencyConversionException;
+import javax.money.convert.ExchangeRate;
+import javax.money.convert.ProviderContext;
+import javax.money.convert.ProviderContextBuilder;
+import javax.money.convert.RateType;
+
+/**
+ * An implementation of {@link FxEngine} that serves fixed exchange rates between the currencies of simulated ledgers
+ * (see {@link LedgerSimulation#getUnitsPerUsd()}), so that a load test measures the connector, and not a rate
+ * provider.
+ */
+public class SimulatedFxEngine implements FxEngine {
+
+  private static final String PROVIDER_NAME = "SIMULATED";
+
+  private static final ProviderContext PROVIDER_CONTEXT = ProviderContextBuilder.of(PROVIDER_NAME, RateType.DEFERRED)
+      .set("providerDescription", "Fixed rates between simulated ledgers")
+      .build();
+
+  private static final ConversionContext CONVERSION_CONTEXT = ConversionContext.of(PROVIDER_NAME, RateType.DEFERRED);
+
+  private final Map<CurrencyUnit, Map<CurrencyUnit, ExchangeRate>> exchangeRates;
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param ledgerSimulations The {@link LedgerSimulation}s to serve rates between. Ledgers that share a currency must
+   *                          agree on its rate.
+   */
+  public SimulatedFxEngine(final Collection<LedgerSimulation> ledgerSimulations) {
+    Objects.requireNonNull(ledgerSimulations);
+
+    final Map<CurrencyUnit, LedgerSimulation> byCurrency = Maps.newLinkedHashMap();
+    ledgerSimulations.forEach(ledgerSimulation -> {
+      final LedgerSimulation existing = byCurrency.putIfAbsent(
+          Monetary.getCurrency(ledgerSimulation.getCurrencyCode()), ledgerSimulation
+      );
+      if (existing != null && existing.getUnitsPerUsd().compareTo(ledgerSimulation.getUnitsPerUsd()) != 0) {
+        throw new IllegalArgumentException(String.format(
+            "Ledgers %s and %s disagree on the rate of %s!",
+            existing.getLedgerPrefix(), ledgerSimulation.getLedgerPrefix(), ledgerSimulation.getCurrencyCode()
+        ));
+      }
+    });
+
+    final ImmutableMap.Builder<CurrencyUnit, Map<CurrencyUnit, ExchangeRate>> builder = ImmutableMap.builder();
+    byCurrency.forEach((baseCurrencyUnit, base) -> {
+      final ImmutableMap.Builder<CurrencyUnit, ExchangeRate> termBuilder = ImmutableMap.builder();
+      byCurrency.forEach((termCurrencyUnit, term) -> termBuilder.put(
+          termCurrencyUnit,
+          new ExchangeRateBuilder(CONVERSION_CONTEXT)
+              .setBase(baseCurrencyUnit)
+              .setTerm(termCurrencyUnit)
+              .setFactor(DefaultNumberValue.of(
+                  term.getUnitsPerUsd().divide(base.getUnitsPerUsd(), MathContext.DECIMAL64)
+              ))
+              .build()
+      ));
+      builder.put(baseCurrencyUnit, termBuilder.build());
+    });
+    this.exchangeRates = builder.build();
+  }
+
+  @Override
+  public ProviderContext getContext() {
+    return PROVIDER_CONTEXT;
+  }
+
+  /**
+   * Overridden to avoid assembling a {@link ConversionQuery} for every lookup.
+   */
+  @Override
+  public ExchangeRate getExchangeRate(final CurrencyUnit baseCurrencyUnit, final CurrencyUnit termCurrencyUnit) {
+    final Map<CurrencyUnit, ExchangeRate> termRates = exchangeRates.get(baseCurrencyUnit);
+    final ExchangeRate exchangeRate = termRates == null ? null : termRates.get(termCurrencyUnit);
+    if (exchangeRate == null) {
+      throw new CurrencyConversionException(baseCurrencyUnit, termCurrencyUnit, CONVERSION_CONTEXT);
+    }
+    return exchangeRate;
+  }
+
+  @Override
+  public ExchangeRate getExchangeRate(final ConversionQuery conversionQuery) {
+    Objects.requireNonNull(conversionQuery);
+    return this.getExchangeRate(conversionQuery.getBaseCurrency(), conversionQuery.getCurrency());
+  }
+
+  @Override
+  public CurrencyConversion getCurrencyConversion(final ConversionQuery conversionQuery) {
+    throw new UnsupportedOperationException("The connector only requires exchange rates!");
+  }
+}
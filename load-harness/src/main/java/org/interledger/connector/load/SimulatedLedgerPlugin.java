@@ -0,0 +1,369 @@
+package org.interledger.connector.load;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.cryptoconditions.Fulfillment;
+import org.interledger.cryptoconditions.PreimageSha256Fulfillment;
+import org.interledger.ilp.InterledgerProtocolError;
+import org.interledger.ilp.InterledgerProtocolError.ErrorCode;
+import org.interledger.plugin.lpi.ImmutableLedgerInfo;
+import org.interledger.plugin.lpi.LedgerInfo;
+import org.interledger.plugin.lpi.LedgerPlugin;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+import org.interledger.plugin.lpi.events.ImmutableIncomingTransferFulfilledEvent;
+import org.interledger.plugin.lpi.events.ImmutableIncomingTransferPreparedEvent;
+import org.interledger.plugin.lpi.events.ImmutableIncomingTransferRejectedEvent;
+import org.interledger.plugin.lpi.events.ImmutableLedgerPluginConnectedEvent;
+import org.interledger.plugin.lpi.events.ImmutableLedgerPluginDisconnectedEvent;
+import org.interledger.plugin.lpi.events.ImmutableOutgoingTransferFulfilledEvent;
+import org.interledger.plugin.lpi.events.ImmutableOutgoingTransferPreparedEvent;
+import org.interledger.plugin.lpi.events.ImmutableOutgoingTransferRejectedEvent;
+import org.interledger.plugin.lpi.events.LedgerPluginEventEmitter;
+import org.interledger.plugin.lpi.exceptions.InsufficientBalanceException;
+import org.interledger.plugin.lpi.exceptions.InvalidTransferException;
+import org.interledger.plugin.lpi.exceptions.LedgerPluginException;
+import org.interledger.plugin.lpi.exceptions.LedgerPluginNotConnectedException;
+import org.interledger.plugin.lpi.handlers.LedgerPluginEventHandler;
+
+import com.google.common.collect.Maps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import javax.money.Monetary;
+
+/**
+ * A {@link LedgerPlugin} for an in-memory ledger that behaves as described by a {@link LedgerSimulation}.
+ *
+ * Every request from the connector returns immediately, and its result is notified to the plugin's handlers after the
+ * ledger's latency has elapsed, on a shared {@link ScheduledExecutorService}. The other party to each transfer is
+ * simulated as well: incoming transfers are prepared by the {@link LoadGenerator} (see {@link
+ * #prepareIncomingTransfer(Transfer)}), and outgoing transfers are fulfilled (or rejected) by a receiver that knows
+ * {@link #FULFILLMENT}.
+ */
+public class SimulatedLedgerPlugin implements LedgerPlugin {
+
+  /**
+   * The fulfillment of the condition of every simulated payment, which every simulated receiver knows.
+   */
+  public static final Fulfillment FULFILLMENT = new PreimageSha256Fulfillment(new byte[32]);
+
+  private static final Logger logger = LoggerFactory.getLogger(SimulatedLedgerPlugin.class);
+
+  private final LedgerSimulation ledgerSimulation;
+  private final ScheduledExecutorService scheduler;
+  private final LedgerInfo ledgerInfo;
+  private final InterledgerAddress connectorAccount;
+  private final Map<UUID, LedgerPluginEventHandler> ledgerPluginEventHandlers;
+  private final Map<TransferId, PendingTransfer> pendingIncomingTransfers;
+  private final AtomicReference<BigInteger> connectorBalance;
+
+  private volatile boolean connected;
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param ledgerSimulation A {@link LedgerSimulation} that describes the simulated ledger.
+   * @param scheduler        A {@link ScheduledExecutorService} to notify this plugin's handlers on.
+   */
+  public SimulatedLedgerPlugin(final LedgerSimulation ledgerSimulation, final ScheduledExecutorService scheduler) {
+    this.ledgerSimulation = Objects.requireNonNull(ledgerSimulation);
+    this.scheduler = Objects.requireNonNull(scheduler);
+    this.ledgerInfo = ImmutableLedgerInfo.builder()
+        .ledgerPrefix(ledgerSimulation.getLedgerPrefix())
+        .currencyUnit(Monetary.getCurrency(ledgerSimulation.getCurrencyCode()))
+        .currencyScale(Monetary.getCurrency(ledgerSimulation.getCurrencyCode()).getDefaultFractionDigits())
+        .build();
+    this.connectorAccount = ledgerSimulation.getLedgerPrefix().with("connector");
+    this.ledgerPluginEventHandlers = Maps.newConcurrentMap();
+    this.pendingIncomingTransfers = Maps.newConcurrentMap();
+    this.connectorBalance = new AtomicReference<>(ledgerSimulation.getConnectorBalance().orElse(BigInteger.ZERO));
+  }
+
+  /**
+   * The {@link LedgerSimulation} that this plugin's ledger behaves as described by.
+   */
+  public LedgerSimulation getLedgerSimulation() {
+    return ledgerSimulation;
+  }
+
+  @Override
+  public void connect() {
+    this.connected = true;
+    this.emit(handler -> handler.onConnect(
+        ImmutableLedgerPluginConnectedEvent.builder().ledgerPrefix(ledgerSimulation.getLedgerPrefix()).build()
+    ));
+  }
+
+  @Override
+  public void disconnect() {
+    this.connected = false;
+    this.emit(handler -> handler.onDisconnect(
+        ImmutableLedgerPluginDisconnectedEvent.builder().ledgerPrefix(ledgerSimulation.getLedgerPrefix()).build()
+    ));
+  }
+
+  @Override
+  public boolean isConnected() {
+    return connected;
+  }
+
+  @Override
+  public InterledgerAddress getConnectorAccount() {
+    return connectorAccount;
+  }
+
+  @Override
+  public LedgerInfo getLedgerInfo() {
+    return ledgerInfo;
+  }
+
+  /**
+   * The balance of the connector's account on this ledger. If the simulation does not limit the balance, this starts at
+   * zero, and may become negative.
+   */
+  @Override
+  public BigInteger getConnectorBalance() {
+    return connectorBalance.get();
+  }
+
+  /**
+   * Send a transfer from the connector's account. Once the ledger's latency has elapsed, the transfer is prepared, and
+   * once it has elapsed again, its receiver either fulfills or rejects it (see {@link
+   * LedgerSimulation#getRejectionRate()}).
+   */
+  @Override
+  public void sendTransfer(final Transfer transfer) {
+    Objects.requireNonNull(transfer);
+    this.requireConnected();
+    this.maybeFail("sendTransfer");
+    this.debit(transfer);
+
+    this.schedule(() -> {
+      this.emit(handler -> handler.onTransferPrepared(ImmutableOutgoingTransferPreparedEvent.builder()
+          .ledgerPrefix(ledgerSimulation.getLedgerPrefix())
+          .transfer(transfer)
+          .build()
+      ));
+      this.schedule(() -> {
+        if (ThreadLocalRandom.current().nextDouble() < ledgerSimulation.getRejectionRate()) {
+          this.credit(transfer.getAmount());
+          this.emit(handler -> handler.onTransferRejected(ImmutableOutgoingTransferRejectedEvent.builder()
+              .ledgerPrefix(ledgerSimulation.getLedgerPrefix())
+              .transfer(transfer)
+              .rejectionReason(this.rejectionReason(ErrorCode.F05_WRONG_CONDITION, transfer.getDestinationAccount()))
+              .build()
+          ));
+        } else {
+          this.emit(handler -> handler.onTransferFulfilled(ImmutableOutgoingTransferFulfilledEvent.builder()
+              .ledgerPrefix(ledgerSimulation.getLedgerPrefix())
+              .transfer(transfer)
+              .fulfillment(FULFILLMENT)
+              .build()
+          ));
+        }
+      });
+    });
+  }
+
+  /**
+   * Prepare a transfer to the connector's account, as its sender would, and notify this plugin's handlers once the
+   * ledger's latency has elapsed.
+   *
+   * @param transfer The {@link Transfer} to prepare.
+   *
+   * @return A {@link CompletableFuture} that is completed with the {@link Outcome} of the transfer once the connector
+   *     has fulfilled or rejected it, and the ledger has notified this plugin's handlers.
+   */
+  public CompletableFuture<Outcome> prepareIncomingTransfer(final Transfer transfer) {
+    Objects.requireNonNull(transfer);
+    final PendingTransfer pendingTransfer = new PendingTransfer(transfer);
+    this.pendingIncomingTransfers.put(transfer.getTransferId(), pendingTransfer);
+    this.schedule(() -> this.emit(handler -> handler.onTransferPrepared(ImmutableIncomingTransferPreparedEvent.builder()
+        .ledgerPrefix(ledgerSimulation.getLedgerPrefix())
+        .transfer(transfer)
+        .build()
+    )));
+    return pendingTransfer.outcome;
+  }
+
+  @Override
+  public void fulfillCondition(final TransferId transferId, final Fulfillment fulfillment) {
+    Objects.requireNonNull(transferId);
+    Objects.requireNonNull(fulfillment);
+    this.requireConnected();
+    this.maybeFail("fulfillCondition");
+    final PendingTransfer pendingTransfer = this.removePendingIncomingTransfer(transferId);
+    this.credit(pendingTransfer.transfer.getAmount());
+
+    this.schedule(() -> {
+      this.emit(handler -> handler.onTransferFulfilled(ImmutableIncomingTransferFulfilledEvent.builder()
+          .ledgerPrefix(ledgerSimulation.getLedgerPrefix())
+          .transfer(pendingTransfer.transfer)
+          .fulfillment(fulfillment)
+          .build()
+      ));
+      pendingTransfer.outcome.complete(Outcome.FULFILLED);
+    });
+  }
+
+  @Override
+  public void rejectIncomingTransfer(final TransferId transferId, final InterledgerProtocolError rejectionReason) {
+    Objects.requireNonNull(transferId);
+    Objects.requireNonNull(rejectionReason);
+    this.requireConnected();
+    this.maybeFail("rejectIncomingTransfer");
+    final PendingTransfer pendingTransfer = this.removePendingIncomingTransfer(transferId);
+
+    this.schedule(() -> {
+      this.emit(handler -> handler.onTransferRejected(ImmutableIncomingTransferRejectedEvent.builder()
+          .ledgerPrefix(ledgerSimulation.getLedgerPrefix())
+          .transfer(pendingTransfer.transfer)
+          .rejectionReason(rejectionReason)
+          .build()
+      ));
+      pendingTransfer.outcome.complete(Outcome.REJECTED);
+    });
+  }
+
+  @Override
+  public UUID addLedgerPluginEventHandler(final LedgerPluginEventHandler ledgerPluginEventHandler) {
+    Objects.requireNonNull(ledgerPluginEventHandler);
+    final UUID handlerId = UUID.randomUUID();
+    this.ledgerPluginEventHandlers.put(handlerId, ledgerPluginEventHandler);
+    return handlerId;
+  }
+
+  @Override
+  public void removeLedgerPluginEventHandler(final UUID handlerId) {
+    this.ledgerPluginEventHandlers.remove(handlerId);
+  }
+
+  @Override
+  public LedgerPluginEventEmitter getLedgerPluginEventEmitter() {
+    return event -> this.emit(handler -> handler.onError(event));
+  }
+
+  private void requireConnected() {
+    if (!connected) {
+      throw new LedgerPluginNotConnectedException(ledgerSimulation.getLedgerPrefix());
+    }
+  }
+
+  private void maybeFail(final String operation) {
+    if (ThreadLocalRandom.current().nextDouble() < ledgerSimulation.getFailureRate()) {
+      throw new LedgerPluginException(
+          String.format("Simulated failure of %s on %s", operation, ledgerSimulation.getLedgerPrefix())
+      );
+    }
+  }
+
+  /**
+   * Debit the amount of {@code transfer} from the connector's balance, and fail if that would overdraw a limited
+   * balance.
+   */
+  private void debit(final Transfer transfer) {
+    final boolean limited = ledgerSimulation.getConnectorBalance().isPresent();
+    BigInteger balance;
+    do {
+      balance = connectorBalance.get();
+      if (limited && balance.compareTo(transfer.getAmount()) < 0) {
+        throw new InsufficientBalanceException(String.format(
+            "Connector balance of %s on %s is insufficient for transfer %s",
+            balance, ledgerSimulation.getLedgerPrefix(), transfer.getTransferId()
+        ));
+      }
+    } while (!connectorBalance.compareAndSet(balance, balance.subtract(transfer.getAmount())));
+  }
+
+  private void credit(final BigInteger amount) {
+    connectorBalance.accumulateAndGet(amount, BigInteger::add);
+  }
+
+  private PendingTransfer removePendingIncomingTransfer(final TransferId transferId) {
+    final PendingTransfer pendingTransfer = this.pendingIncomingTransfers.remove(transferId);
+    if (pendingTransfer == null) {
+      throw new InvalidTransferException(
+          String.format("No incoming transfer %s is pending on %s", transferId, ledgerSimulation.getLedgerPrefix()),
+          ledgerSimulation.getLedgerPrefix(),
+          transferId,
+          this.rejectionReason(ErrorCode.F00_BAD_REQUEST, connectorAccount)
+      );
+    }
+    return pendingTransfer;
+  }
+
+  private InterledgerProtocolError rejectionReason(final ErrorCode errorCode, final InterledgerAddress triggeredBy) {
+    return InterledgerProtocolError.builder()
+        .errorCode(errorCode)
+        .triggeredAt(Instant.now())
+        .triggeredByAddress(triggeredBy)
+        .build();
+  }
+
+  /**
+   * Run {@code task} once the ledger's latency (and a random amount of its jitter) has elapsed.
+   */
+  private void schedule(final Runnable task) {
+    final long jitterNanos = ledgerSimulation.getLatencyJitter().toNanos();
+    final long delayNanos = ledgerSimulation.getLatency().toNanos()
+        + (jitterNanos == 0 ? 0 : ThreadLocalRandom.current().nextLong(jitterNanos + 1));
+    try {
+      scheduler.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+    } catch (RejectedExecutionException e) {
+      // The simulation has been shut down, so there is nobody left to notify.
+      logger.debug("Dropping notification from {}: {}", ledgerSimulation.getLedgerPrefix(), e.getMessage());
+    }
+  }
+
+  /**
+   * Notify every handler of an event, as a real plugin would: a handler that fails does not prevent the others from
+   * being notified.
+   */
+  private void emit(final Consumer<LedgerPluginEventHandler> notification) {
+    for (LedgerPluginEventHandler handler : ledgerPluginEventHandlers.values()) {
+      try {
+        notification.accept(handler);
+      } catch (RuntimeException e) {
+        logger.warn("Handler of {} failed: {}", ledgerSimulation.getLedgerPrefix(), e.toString());
+      }
+    }
+  }
+
+  /**
+   * How an incoming transfer was resolved by the connector.
+   */
+  public enum Outcome {
+    /**
+     * The connector fulfilled the transfer, which means that the payment it carried was delivered.
+     */
+    FULFILLED,
+    /**
+     * The connector rejected the transfer.
+     */
+    REJECTED
+  }
+
+  private static final class PendingTransfer {
+
+    private final Transfer transfer;
+    private final CompletableFuture<Outcome> outcome;
+
+    private PendingTransfer(final Transfer transfer) {
+      this.transfer = transfer;
+      this.outcome = new CompletableFuture<>();
+    }
+  }
+}
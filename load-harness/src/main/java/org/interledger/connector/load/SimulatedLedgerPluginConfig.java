@@ -0,0 +1,80 @@
+package org.interledger.connector.load;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.plugin.lpi.LedgerPluginConfig;
+import org.interledger.plugin.lpi.LedgerPluginTypeId;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.money.CurrencyUnit;
+import javax.money.Monetary;
+
+/**
+ * The {@link LedgerPluginConfig} of a {@link SimulatedLedgerPlugin}, from which a {@link LoadConnector} constructs
+ * that plugin.
+ */
+public class SimulatedLedgerPluginConfig implements LedgerPluginConfig {
+
+  /**
+   * The type of every {@link SimulatedLedgerPlugin}.
+   */
+  public static final LedgerPluginTypeId LEDGER_PLUGIN_TYPE_ID = LedgerPluginTypeId.of("simulated-ledger-plugin");
+
+  private final LedgerSimulation ledgerSimulation;
+  private final ScheduledExecutorService scheduler;
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param ledgerSimulation A {@link LedgerSimulation} that describes the simulated ledger.
+   * @param scheduler        A {@link ScheduledExecutorService} for the plugin to notify its handlers on.
+   */
+  public SimulatedLedgerPluginConfig(
+      final LedgerSimulation ledgerSimulation, final ScheduledExecutorService scheduler
+  ) {
+    this.ledgerSimulation = Objects.requireNonNull(ledgerSimulation);
+    this.scheduler = Objects.requireNonNull(scheduler);
+  }
+
+  public LedgerSimulation getLedgerSimulation() {
+    return ledgerSimulation;
+  }
+
+  public ScheduledExecutorService getScheduler() {
+    return scheduler;
+  }
+
+  @Override
+  public LedgerPluginTypeId getLedgerPluginTypeId() {
+    return LEDGER_PLUGIN_TYPE_ID;
+  }
+
+  @Override
+  public InterledgerAddress getLedgerPrefix() {
+    return ledgerSimulation.getLedgerPrefix();
+  }
+
+  @Override
+  public InterledgerAddress getConnectorAccount() {
+    return ledgerSimulation.getLedgerPrefix().with("connector");
+  }
+
+  @Override
+  public CurrencyUnit getExpectedCurrencyUnit() {
+    return Monetary.getCurrency(ledgerSimulation.getCurrencyCode());
+  }
+
+  @Override
+  public Map<String, String> getOptions() {
+    return ImmutableMap.of();
+  }
+
+  @Override
+  public String toString() {
+    return "SimulatedLedgerPluginConfig{ledgerSimulation=" + ledgerSimulation + "}";
+  }
+}
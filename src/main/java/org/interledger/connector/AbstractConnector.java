@@ -1,6 +1,8 @@
 package org.interledger.connector;
 
+import org.interledger.connector.config.ConnectorConfig;
 import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.connector.lpi.VirtualThreadLedgerPluginEventHandler;
 import org.interledger.connector.services.LedgerPluginManager;
 import org.interledger.plugin.lpi.LedgerPlugin;
 import org.interledger.plugin.lpi.LedgerPluginConfig;
@@ -16,7 +18,7 @@ import java.util.stream.Stream;
  * An abstract implementation of a {@link Connector}.
  */
 public abstract class AbstractConnector<T extends ConnectorConfigurationService> implements
-  Connector<T> {
+  Connector<T>, AutoCloseable {
 
   protected final Logger logger = LoggerFactory.getLogger(this.getClass());
 
@@ -25,6 +27,10 @@ public abstract class AbstractConnector<T extends ConnectorConfigurationService>
   // Only one handler for the connector handles events.
   private final LedgerPluginEventHandler ledgerPluginEventHandler;
 
+  // Whether ledgerPluginEventHandler was created by this connector (rather than supplied to it), and so is closed by
+  // this connector.
+  private final boolean ownsLedgerPluginEventHandler;
+
   private final T connectorConfigService;
 
   public AbstractConnector(
@@ -33,8 +39,10 @@ public abstract class AbstractConnector<T extends ConnectorConfigurationService>
     T connectorConfigService
   ) {
     this.ledgerPluginManager = Objects.requireNonNull(ledgerPluginManager);
-    this.ledgerPluginEventHandler = Objects.requireNonNull(ledgerPluginEventHandler);
+    Objects.requireNonNull(ledgerPluginEventHandler);
     this.connectorConfigService = Objects.requireNonNull(connectorConfigService);
+    this.ledgerPluginEventHandler = this.decorateLedgerPluginEventHandler(ledgerPluginEventHandler);
+    this.ownsLedgerPluginEventHandler = this.ledgerPluginEventHandler != ledgerPluginEventHandler;
 
     this.initializeConnector();
   }
@@ -64,6 +72,44 @@ public abstract class AbstractConnector<T extends ConnectorConfigurationService>
       );
   }
 
+  /**
+   * Wrap the handler supplied to this connector according to its configured execution mode. When virtual-thread
+   * execution is enabled, each transfer event is handled on its own (virtual) thread, with a cap on the number of
+   * events from each ledger handled at once; otherwise, events are handled on the thread of the emitting ledger plugin.
+   *
+   * @param ledgerPluginEventHandler The {@link LedgerPluginEventHandler} supplied to this connector.
+   *
+   * @return The {@link LedgerPluginEventHandler} to register with each ledger plugin.
+   */
+  protected LedgerPluginEventHandler decorateLedgerPluginEventHandler(
+    final LedgerPluginEventHandler ledgerPluginEventHandler
+  ) {
+    final ConnectorConfig connectorConfig = getConnectorConfigurationService().getConnectorConfig();
+    if (connectorConfig != null && connectorConfig.isVirtualThreadExecutionEnabled()) {
+      return new VirtualThreadLedgerPluginEventHandler(
+        ledgerPluginEventHandler, connectorConfig.getMaxConcurrentEventsPerLedger()
+      );
+    } else {
+      return ledgerPluginEventHandler;
+    }
+  }
+
+  /**
+   * Shut down this connector. If this connector wrapped the {@link LedgerPluginEventHandler} supplied to it (see {@link
+   * #decorateLedgerPluginEventHandler(LedgerPluginEventHandler)}), the wrapper is closed, which waits for events that
+   * were already delivered to be handled. The supplied handler itself belongs to the caller, and is not closed.
+   */
+  @Override
+  public void close() {
+    if (ownsLedgerPluginEventHandler && ledgerPluginEventHandler instanceof AutoCloseable) {
+      try {
+        ((AutoCloseable) ledgerPluginEventHandler).close();
+      } catch (Exception e) {
+        logger.error("Unable to close LedgerPluginEventHandler: {}!", ledgerPluginEventHandler, e);
+      }
+    }
+  }
+
   /**
    * An abstract method that allows sub-class implementations to construct an instance of {@link LedgerPlugin} from the
    * supplied {@link LedgerPluginConfig}.
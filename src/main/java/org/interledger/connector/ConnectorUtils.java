@@ -36,7 +36,12 @@ public class ConnectorUtils {
    *                           outgoing payment-id to a single incoming payment+ledger combination.
    *
    * @returns A deterministically generated {@link UUID}.
+   *
+   * @deprecated Each call computes a digest from scratch and formats and parses strings. Use a {@link
+   *     TransferIdGenerator} instead, i.e., {@link LegacyTransferIdGenerator} to generate the same identifiers as this
+   *     method, or {@link HmacTransferIdGenerator}.
    **/
+  @Deprecated
   public static TransferId generateDeterministicTransferId(
       final String secret, final InterledgerAddress sourceLedgerPrefix, final TransferId sourceTransferId
   ) {
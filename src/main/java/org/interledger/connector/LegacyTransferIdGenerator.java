@@ -0,0 +1,115 @@
+package org.interledger.connector;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.plugin.lpi.TransferId;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A {@link TransferIdGenerator} that generates exactly the same identifiers as {@link
+ * ConnectorUtils#generateDeterministicTransferId(String, InterledgerAddress, TransferId)}, for connectors that must
+ * keep generating the identifiers of transfers that they made before upgrading (e.g., because duplicate notifications
+ * of transfers received before the upgrade may still arrive after it).
+ *
+ * Those identifiers are the SHA-256 digest of a secret followed by {@code <sourceLedgerPrefix>/<sourceTransferId>},
+ * hex-encoded, truncated to 36 characters and overwritten with the dashes, version and variant of a {@link UUID}. This
+ * class computes the same {@link UUID} directly from the nibbles of the digest that survive that process, and reuses
+ * a fixed set of {@link MessageDigest}s and buffers (striped by thread, as in {@link HmacTransferIdGenerator}), so
+ * neither the hex encoding nor the {@link UUID} string is ever built.
+ */
+public class LegacyTransferIdGenerator implements TransferIdGenerator {
+
+  private static final String ALGORITHM = "SHA-256";
+
+  // At least four per processor, rounded up to a power of two so that a stripe can be chosen with a mask.
+  private static final int STRIPES = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1;
+
+  private final byte[] secret;
+  private final Stripe[] stripes;
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param secret A {@link String} containing secret information known only to the creator of generated identifiers.
+   */
+  public LegacyTransferIdGenerator(final String secret) {
+    // Encoded with the platform's default charset, as ConnectorUtils does.
+    this.secret = Objects.requireNonNull(secret).getBytes();
+    this.stripes = new Stripe[STRIPES];
+    for (int i = 0; i < STRIPES; i++) {
+      this.stripes[i] = new Stripe();
+    }
+  }
+
+  @Override
+  public TransferId generateTransferId(
+      final InterledgerAddress sourceLedgerPrefix, final TransferId sourceTransferId
+  ) {
+    InterledgerAddress.requireAddressPrefix(sourceLedgerPrefix);
+    Objects.requireNonNull(sourceTransferId);
+
+    long mostSignificantBits;
+    long leastSignificantBits;
+    final Stripe stripe = this.stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)];
+    synchronized (stripe) {
+      // Equivalent to String.format("%s/%s", sourceLedgerPrefix, sourceTransferId), without parsing a format.
+      stripe.publicInput.setLength(0);
+      stripe.publicInput.append(sourceLedgerPrefix).append('/').append(sourceTransferId);
+
+      final MessageDigest messageDigest = stripe.messageDigest;
+      messageDigest.update(this.secret);
+      messageDigest.update(stripe.publicInput.toString().getBytes());
+      try {
+        messageDigest.digest(stripe.digest, 0, stripe.digest.length);
+      } catch (DigestException e) {
+        throw new IllegalStateException(e);
+      }
+
+      // Of the first 36 hex digits, 8, 13, 18 and 23 were overwritten with dashes, 14 with the version (4) and 19
+      // with the variant (8).
+      final byte[] digest = stripe.digest;
+      mostSignificantBits = nibbles(digest, 0, 8);
+      mostSignificantBits = (mostSignificantBits << 16) | nibbles(digest, 9, 4);
+      mostSignificantBits = (mostSignificantBits << 16) | 0x4000L | nibbles(digest, 15, 3);
+      leastSignificantBits = 0x8000L | nibbles(digest, 20, 3);
+      leastSignificantBits = (leastSignificantBits << 48) | nibbles(digest, 24, 12);
+    }
+    return TransferId.of(new UUID(mostSignificantBits, leastSignificantBits));
+  }
+
+  /**
+   * Read {@code count} consecutive nibbles of {@code bytes}, starting at the {@code from}th nibble, in the order in
+   * which they are hex-encoded (i.e., high nibble first).
+   */
+  private static long nibbles(final byte[] bytes, final int from, final int count) {
+    long value = 0;
+    for (int nibble = from; nibble < from + count; nibble++) {
+      final int b = bytes[nibble >> 1];
+      value = (value << 4) | ((nibble & 1) == 0 ? (b >> 4) & 0xF : b & 0xF);
+    }
+    return value;
+  }
+
+  /**
+   * A {@link MessageDigest} and the buffers that it generates identifiers with. Only used while holding its monitor.
+   */
+  private static final class Stripe {
+
+    private final MessageDigest messageDigest;
+    private final StringBuilder publicInput = new StringBuilder(128);
+    private final byte[] digest;
+
+    private Stripe() {
+      try {
+        this.messageDigest = MessageDigest.getInstance(ALGORITHM);
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+      this.digest = new byte[messageDigest.getDigestLength()];
+    }
+  }
+}
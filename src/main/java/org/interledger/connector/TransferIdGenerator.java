@@ -0,0 +1,28 @@
+package org.interledger.connector;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.plugin.lpi.TransferId;
+
+/**
+ * Deterministically generates the identifier of the "next-hop" transfer that a Connector makes for a source transfer,
+ * so that the connector doesn't send duplicate outgoing transfers if it receives duplicate notifications of an
+ * incoming transfer.
+ *
+ * Generated identifiers should be impossible for a third party to predict. Otherwise an attacker might be able to
+ * squat on a predicted ID in order to interfere with a payment or make a connector look unreliable, so implementations
+ * are seeded with a secret known only to the connector.
+ */
+public interface TransferIdGenerator {
+
+  /**
+   * Generate the identifier of the next-hop transfer for a source transfer. Implementations must be thread-safe, and
+   * must always return the same identifier for the same inputs.
+   *
+   * @param sourceLedgerPrefix A {@link InterledgerAddress} containing the ledger prefix of the source ledger that a
+   *                           payment came in from.
+   * @param sourceTransferId   A {@link TransferId} that uniquely identifies the source transfer on that ledger.
+   *
+   * @return A deterministically generated {@link TransferId}.
+   */
+  TransferId generateTransferId(InterledgerAddress sourceLedgerPrefix, TransferId sourceTransferId);
+}
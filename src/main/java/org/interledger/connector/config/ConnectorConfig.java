@@ -1,7 +1,12 @@
 package org.interledger.connector.config;
 
+import org.interledger.InterledgerAddress;
+
+import com.google.common.collect.ImmutableMap;
+
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.util.Map;
 
 /**
  * Defines Connector-wide configuration properties that affect the connector as a whole.
@@ -52,4 +57,260 @@ public interface ConnectorConfig {
   default BigDecimal getDefaultSlippagePercent() {
     return new BigDecimal("0.001"); // 0.1%
   }
+
+  /**
+   * Per-ledger overrides of {@link #getDefaultSlippagePercent()}, keyed by the ledger-prefix of an ILP payment's final
+   * destination ledger. This allows operators to tune slippage per payment corridor; any destination ledger that does
+   * not have an entry in this map uses the default slippage percent.
+   *
+   * @return A {@link Map} of ledger-prefix to slippage percent, in decimal-form.
+   */
+  default Map<InterledgerAddress, BigDecimal> getSlippagePercentOverrides() {
+    return ImmutableMap.of();
+  }
+
+  /**
+   * The amount of time that a quote issued by this connector remains valid. Quotes are also bounded by the expiration
+   * of the route they were computed from, if that route expires sooner.
+   *
+   * <p>Note: This value correlates to the "quote expiry" in the Javascript implementation.</p>
+   *
+   * <p>Defaults to 45 seconds.</p>
+   */
+  default Duration getQuoteExpiryDuration() {
+    return Duration.ofSeconds(45);
+  }
+
+  /**
+   * Whether this connector should handle each transfer event on its own thread (a virtual thread, on JVMs that support
+   * them) instead of on the thread of the ledger plugin that emitted it. This allows many payments that are blocked on
+   * ledger plugin calls to be in-flight at once.
+   *
+   * <p>Defaults to {@code false}.</p>
+   */
+  default boolean isVirtualThreadExecutionEnabled() {
+    return false;
+  }
+
+  /**
+   * When {@link #isVirtualThreadExecutionEnabled()} is {@code true}, the maximum number of transfer events from any
+   * single ledger that this connector will handle at once. Once reached, further events from that ledger wait until an
+   * in-flight event has been handled.
+   *
+   * <p>Defaults to 10,000.</p>
+   */
+  default int getMaxConcurrentEventsPerLedger() {
+    return 10_000;
+  }
+
+  /**
+   * The maximum number of outgoing transfers that this connector groups into a single request to a destination ledger
+   * whose plugin supports batches. A batch is sent as soon as it reaches this size.
+   *
+   * <p>Defaults to 64.</p>
+   */
+  default int getTransferBatchMaxSize() {
+    return 64;
+  }
+
+  /**
+   * The maximum amount of time that an outgoing transfer waits for other transfers to the same destination ledger to
+   * be grouped with, before its (partial) batch is sent anyway.
+   *
+   * <p>Defaults to 2 milliseconds.</p>
+   */
+  default Duration getTransferBatchMaxDelay() {
+    return Duration.ofMillis(2);
+  }
+
+  /**
+   * The maximum number of fulfillments or rejections of incoming transfers that this connector coalesces into a single
+   * request to a source ledger whose plugin supports batches. A batch is sent as soon as it reaches this size.
+   *
+   * <p>Defaults to 64.</p>
+   */
+  default int getSettlementBatchMaxSize() {
+    return 64;
+  }
+
+  /**
+   * The maximum amount of time that a fulfillment or rejection of an incoming transfer waits for others to the same
+   * source ledger to be coalesced with, before being sent anyway. Source ledgers whose plugins do not support batches
+   * are never delayed.
+   *
+   * <p>Defaults to 5 milliseconds.</p>
+   */
+  default Duration getSettlementBatchMaxDelay() {
+    return Duration.ofMillis(5);
+  }
+
+  /**
+   * The minimum amount of time before an incoming transfer expires that its fulfillment or rejection must be sent to
+   * the source ledger. A fulfillment or rejection is never held for coalescing past this point, so that batching can
+   * never cause this connector to miss the expiry of a transfer it is owed.
+   *
+   * <p>Defaults to 1 second.</p>
+   */
+  default Duration getSettlementBatchExpiryMargin() {
+    return Duration.ofSeconds(1);
+  }
+
+  /**
+   * The maximum number of payments from any single source ledger that this connector will have in-flight at once. A
+   * payment is in-flight from the time its incoming transfer is prepared until that transfer is fulfilled, rejected or
+   * cancelled. Once reached, further incoming transfers from that ledger are immediately rejected with a {@code
+   * T03_CONNECTOR_BUSY} error, so that the sender may retry later (or via another connector).
+   *
+   * <p>Defaults to 10,000.</p>
+   */
+  default int getMaxInFlightPaymentsPerSourceLedger() {
+    return 10_000;
+  }
+
+  /**
+   * The sustained rate, in transfers per second, at which this connector accepts incoming transfers from any single
+   * source account. Transfers in excess of this rate are immediately rejected with a {@code T05_RATE_LIMITED} error.
+   * A value of zero disables rate limiting.
+   *
+   * <p>Defaults to 0.</p>
+   */
+  default int getIncomingTransferRatePerAccount() {
+    return 0;
+  }
+
+  /**
+   * When rate limiting is enabled (see {@link #getIncomingTransferRatePerAccount()}), the number of incoming transfers
+   * that a source account that has been idle may send back-to-back before being held to the sustained rate.
+   *
+   * <p>Defaults to 100.</p>
+   */
+  default int getIncomingTransferBurstPerAccount() {
+    return 100;
+  }
+
+  /**
+   * When rate limiting is enabled (see {@link #getIncomingTransferRatePerAccount()}), whether a source account has a
+   * separate rate limit for each destination ledger (i.e., ILP destination prefix) that it pays, instead of a single
+   * rate limit across all of them.
+   *
+   * <p>Defaults to {@code false}.</p>
+   */
+  default boolean isIncomingTransferRateLimitedPerDestination() {
+    return false;
+  }
+
+  /**
+   * The minimum amount of time for which this connector remembers an incoming transfer that it has been notified of,
+   * so that a redelivered notification of the same transfer is dropped instead of being processed again.
+   *
+   * <p>Defaults to 2 minutes.</p>
+   */
+  default Duration getDuplicateTransferWindow() {
+    return Duration.ofMinutes(2);
+  }
+
+  /**
+   * The maximum number of incoming transfers that this connector remembers in order to drop duplicate notifications
+   * (see {@link #getDuplicateTransferWindow()}). If more transfers than this arrive within the window, the oldest are
+   * forgotten early.
+   *
+   * <p>Defaults to 1,000,000.</p>
+   */
+  default int getDuplicateTransferCacheSize() {
+    return 1_000_000;
+  }
+
+  /**
+   * The backoff before this connector first retries a ledger plugin call that failed with a transient error (e.g.,
+   * sending an outgoing transfer to, or fulfilling an incoming transfer on, a ledger that was briefly unreachable). The
+   * backoff doubles for each further retry, up to {@link #getTransientFailureRetryMaxBackoff()}, and is randomized so
+   * that calls that failed together are not all retried at once. A call is only retried while the transfer it is for
+   * has not expired.
+   *
+   * <p>Defaults to 100 milliseconds.</p>
+   */
+  default Duration getTransientFailureRetryInitialBackoff() {
+    return Duration.ofMillis(100);
+  }
+
+  /**
+   * The maximum backoff between retries of a ledger plugin call that failed with a transient error (see {@link
+   * #getTransientFailureRetryInitialBackoff()}).
+   *
+   * <p>Defaults to 2 seconds.</p>
+   */
+  default Duration getTransientFailureRetryMaxBackoff() {
+    return Duration.ofSeconds(2);
+  }
+
+  /**
+   * How long after a destination transfer's expiry this connector waits to be notified of the transfer's outcome (e.g.,
+   * a fulfillment made at the last moment) before treating it as timed out and rejecting the corresponding source
+   * transfer itself. This should be well under {@link #getTransferExpiryWindow()}, so that the rejection reaches the
+   * source ledger before the source transfer expires.
+   *
+   * <p>Defaults to 1 second.</p>
+   */
+  default Duration getDestinationTransferExpiryGracePeriod() {
+    return Duration.ofSeconds(1);
+  }
+
+  /**
+   * Whether this connector computes the window between the expiry of an incoming transfer and the expiry of the
+   * corresponding outgoing transfer separately for each destination ledger, from how long it has recently taken to
+   * pass fulfillments from that ledger back to source ledgers, instead of always using {@link
+   * #getTransferExpiryWindow()}. An adaptive window is bounded by {@link #getTransferExpiryWindowFloor()} and {@link
+   * #getTransferExpiryWindowCeiling()}.
+   *
+   * <p>Defaults to {@code false}.</p>
+   */
+  default boolean isAdaptiveTransferExpiryWindowEnabled() {
+    return false;
+  }
+
+  /**
+   * When {@link #isAdaptiveTransferExpiryWindowEnabled()} is {@code true}, the smallest window that this connector
+   * leaves between the expiry of an incoming transfer and the expiry of the corresponding outgoing transfer, no matter
+   * how quickly fulfillments have recently been passed back.
+   *
+   * <p>Defaults to 1 second.</p>
+   */
+  default Duration getTransferExpiryWindowFloor() {
+    return Duration.ofSeconds(1);
+  }
+
+  /**
+   * When {@link #isAdaptiveTransferExpiryWindowEnabled()} is {@code true}, the largest window that this connector
+   * leaves between the expiry of an incoming transfer and the expiry of the corresponding outgoing transfer, no matter
+   * how slowly fulfillments have recently been passed back.
+   *
+   * <p>Defaults to 30 seconds.</p>
+   */
+  default Duration getTransferExpiryWindowCeiling() {
+    return Duration.ofSeconds(30);
+  }
+
+  /**
+   * Whether this connector generates the identifiers of its outgoing transfers with {@link
+   * org.interledger.connector.LegacyTransferIdGenerator}, which generates the same identifiers as earlier versions of
+   * this connector, instead of {@link org.interledger.connector.HmacTransferIdGenerator}. Enable this while transfers
+   * made by an earlier version may still be in-flight, so that duplicate notifications of their source transfers are
+   * not forwarded a second time.
+   *
+   * <p>Defaults to {@code false}.</p>
+   */
+  default boolean isLegacyTransferIdGenerationEnabled() {
+    return false;
+  }
+
+  /**
+   * How sparsely this connector's {@link org.interledger.connector.lpi.PaymentTracer} samples payments: one in every
+   * this many payments has the time at which it reaches each step of being processed recorded. A value of zero
+   * disables tracing.
+   *
+   * <p>Defaults to 1024.</p>
+   */
+  default int getPaymentTraceSampleInterval() {
+    return 1024;
+  }
 }
@@ -0,0 +1,139 @@
+package org.interledger.connector.fx;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.config.ConnectorConfig;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A lookup table of slippage multipliers, keyed by destination ledger prefix, that is precomputed from a {@link
+ * ConnectorConfig}.
+ *
+ * Each multiplier (i.e., {@code 1 - slippagePercent}) is stored as a fixed-point fraction so that applying slippage to
+ * any amount that fits into a {@code long} is a single multiply-add-divide on primitive values, as opposed to a
+ * full-precision {@link BigDecimal} multiplication. Amounts that are too large for the fixed-point path fall back to
+ * {@link BigDecimal} arithmetic, and both paths produce identical results (rounded {@link RoundingMode#HALF_UP}).
+ *
+ * Instances of this class are immutable and thread-safe.
+ *
+ * @see ConnectorConfig#getDefaultSlippagePercent()
+ * @see ConnectorConfig#getSlippagePercentOverrides()
+ */
+public class SlippageTable {
+
+  // The configuration this table was computed from, used to detect configuration reloads.
+  private final ConnectorConfig connectorConfig;
+
+  private final Multiplier defaultMultiplier;
+  private final Map<InterledgerAddress, Multiplier> multipliers;
+
+  private SlippageTable(final ConnectorConfig connectorConfig) {
+    this.connectorConfig = Objects.requireNonNull(connectorConfig);
+    this.defaultMultiplier = new Multiplier(connectorConfig.getDefaultSlippagePercent());
+
+    final ImmutableMap.Builder<InterledgerAddress, Multiplier> builder = ImmutableMap.builder();
+    connectorConfig.getSlippagePercentOverrides().forEach((ledgerPrefix, slippagePercent) -> {
+      InterledgerAddress.requireAddressPrefix(ledgerPrefix);
+      builder.put(ledgerPrefix, new Multiplier(slippagePercent));
+    });
+    this.multipliers = builder.build();
+  }
+
+  /**
+   * Construct a new {@link SlippageTable} from the slippage settings in {@code connectorConfig}.
+   *
+   * @param connectorConfig A {@link ConnectorConfig} containing default and per-ledger slippage settings.
+   *
+   * @return A new {@link SlippageTable}.
+   */
+  public static SlippageTable of(final ConnectorConfig connectorConfig) {
+    return new SlippageTable(connectorConfig);
+  }
+
+  /**
+   * Determines if this table was computed from the supplied {@code connectorConfig}. Callers can use this to cheaply
+   * detect when configuration has been reloaded, and thus when a new table should be computed.
+   *
+   * @param connectorConfig A {@link ConnectorConfig}.
+   *
+   * @return {@code true} if this table was computed from {@code connectorConfig}; {@code false} otherwise.
+   */
+  public boolean isComputedFrom(final ConnectorConfig connectorConfig) {
+    return this.connectorConfig == connectorConfig;
+  }
+
+  /**
+   * Reduce {@code amount} by the slippage percent configured for {@code destinationLedgerPrefix}.
+   *
+   * @param amount                  A {@link BigInteger} representing an amount, in units of the destination ledger.
+   * @param destinationLedgerPrefix An {@link InterledgerAddress} prefix for the final destination ledger of a payment.
+   *
+   * @return The {@code amount} minus allowable slippage, rounded half-up to the nearest whole unit.
+   */
+  public BigInteger applySlippage(final BigInteger amount, final InterledgerAddress destinationLedgerPrefix) {
+    Objects.requireNonNull(amount);
+    Objects.requireNonNull(destinationLedgerPrefix);
+
+    final Multiplier multiplier = this.multipliers.get(destinationLedgerPrefix);
+    return (multiplier == null ? this.defaultMultiplier : multiplier).apply(amount);
+  }
+
+  /**
+   * A slippage multiplier of the form {@code numerator / denominator}, where {@code denominator} is a power of ten.
+   */
+  private static final class Multiplier {
+
+    // Formula: amount * (1 - slippagePercent) => 500 * (1 - 1%) => 500 * (0.99) => 495
+    private final BigDecimal percentageInDecimal;
+
+    private final boolean fixedPoint;
+    private final long numerator;
+    private final long denominator;
+    private final long halfDenominator;
+    // The largest amount that can be multiplied by numerator (plus rounding) without overflowing a long.
+    private final long maxFixedPointAmount;
+
+    private Multiplier(final BigDecimal slippagePercent) {
+      Objects.requireNonNull(slippagePercent);
+      this.percentageInDecimal = BigDecimal.ONE.subtract(slippagePercent);
+
+      final int scale = percentageInDecimal.scale();
+      final BigInteger unscaledValue = percentageInDecimal.unscaledValue();
+      // 10^18 is the largest power of ten that fits into a long.
+      this.fixedPoint = scale >= 0 && scale <= 18 && unscaledValue.signum() >= 0 && unscaledValue.bitLength() < 63;
+      if (fixedPoint) {
+        this.numerator = unscaledValue.longValue();
+        this.denominator = BigInteger.TEN.pow(scale).longValue();
+        this.halfDenominator = denominator / 2;
+        this.maxFixedPointAmount = numerator == 0 ? Long.MAX_VALUE : (Long.MAX_VALUE - halfDenominator) / numerator;
+      } else {
+        this.numerator = 0;
+        this.denominator = 1;
+        this.halfDenominator = 0;
+        this.maxFixedPointAmount = -1;
+      }
+    }
+
+    private BigInteger apply(final BigInteger amount) {
+      if (fixedPoint && amount.signum() >= 0 && amount.bitLength() < 64) {
+        final long longAmount = amount.longValue();
+        if (longAmount <= maxFixedPointAmount) {
+          // Adding half of the denominator before the (truncating) division rounds half-up for non-negative values.
+          return BigInteger.valueOf((longAmount * numerator + halfDenominator) / denominator);
+        }
+      }
+
+      return new BigDecimal(amount)
+          // Uses infinite precision, which is simply signficant digits (not scale nor total number of digits).
+          .multiply(percentageInDecimal).setScale(0, RoundingMode.HALF_UP)
+          // Should never throw an exception because scale was set to 0 above.
+          .toBigIntegerExact();
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package org.interledger.connector.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.StackTrace;
+
+/**
+ * The base of the connector's Flight Recorder events. Stack traces are not recorded by default, since every event of
+ * a kind is emitted from the same place; they can be enabled with a recording's {@code stackTrace} setting.
+ */
+@Category({"Interledger", "Connector"})
+@StackTrace(false)
+abstract class ConnectorEvent extends Event implements ConnectorEvents.Span {
+
+  @Override
+  public void finish() {
+    this.end();
+    if (this.shouldCommit()) {
+      this.commit();
+    }
+  }
+}
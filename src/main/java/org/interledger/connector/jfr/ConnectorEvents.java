@@ -0,0 +1,154 @@
+package org.interledger.connector.jfr;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.ilp.InterledgerProtocolError;
+import org.interledger.plugin.lpi.Transfer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+
+/**
+ * Emits Java Flight Recorder events for the stages of forwarding a payment (see {@link Kind}), so that a flight
+ * recording can correlate GC pauses, lock contention and other JVM activity with the payments that were being
+ * processed at the time.
+ *
+ * A stage is recorded by calling {@link #begin(Kind)} when it starts, and then describing the stage to, and finishing,
+ * the returned {@link Span} when it ends. Flight Recorder ({@code jdk.jfr}) is not available on every Java 8 runtime,
+ * so it is only used if it can be loaded; otherwise, and whenever no recording has enabled an event, {@link
+ * #begin(Kind)} returns a shared {@link Span} that does nothing, so that an unrecorded stage allocates nothing.
+ */
+public abstract class ConnectorEvents {
+
+  private static final Logger logger = LoggerFactory.getLogger(ConnectorEvents.class);
+
+  /**
+   * A {@link Span} that does nothing.
+   */
+  protected static final Span NO_OP_SPAN = new Span() {
+  };
+
+  private static final ConnectorEvents INSTANCE = create();
+
+  /**
+   * The kinds of events that are emitted. Each is emitted as a Flight Recorder event named {@code
+   * org.interledger.connector.<kind>}, in the {@code Interledger / Connector} category, whose duration is that of the
+   * stage.
+   */
+  public enum Kind {
+    /**
+     * Processing a source transfer that was prepared on its ledger, from notification until its destination transfer
+     * has been sent (or it was rejected).
+     */
+    TRANSFER_PREPARED("TransferPrepared"),
+    /**
+     * Choosing the next hop of a payment.
+     */
+    ROUTE_CHOSEN("RouteChosen"),
+    /**
+     * Sending a destination transfer to its ledger.
+     */
+    DESTINATION_SENT("DestinationSent"),
+    /**
+     * Passing a fulfillment back to the ledger of a source transfer.
+     */
+    TRANSFER_FULFILLED("TransferFulfilled"),
+    /**
+     * Rejecting a source transfer on its ledger.
+     */
+    TRANSFER_REJECTED("TransferRejected"),
+    /**
+     * Looking up the longest prefix that matches a destination address in an {@code InterledgerPrefixMap}.
+     */
+    PREFIX_LOOKUP("PrefixLookup");
+
+    private final String eventName;
+
+    Kind(final String eventName) {
+      this.eventName = "org.interledger.connector." + eventName;
+    }
+
+    /**
+     * The name of this kind's Flight Recorder event, which can be used to enable it in a recording's settings.
+     */
+    public String getEventName() {
+      return eventName;
+    }
+  }
+
+  /**
+   * The {@link ConnectorEvents} of this JVM, which emits Flight Recorder events if Flight Recorder is available, and
+   * otherwise does nothing.
+   */
+  public static ConnectorEvents get() {
+    return INSTANCE;
+  }
+
+  private static ConnectorEvents create() {
+    try {
+      Class.forName("jdk.jfr.Event", false, ConnectorEvents.class.getClassLoader());
+      return new JfrConnectorEvents();
+    } catch (ClassNotFoundException | LinkageError e) {
+      logger.debug("Java Flight Recorder is not available, so no connector events will be emitted: {}", e.toString());
+      return new ConnectorEvents() {
+        @Override
+        public Span begin(final Kind kind) {
+          return NO_OP_SPAN;
+        }
+      };
+    }
+  }
+
+  /**
+   * Start timing a stage.
+   *
+   * @param kind The {@link Kind} of stage that is starting.
+   *
+   * @return A {@link Span} to finish when the stage ends. Its other methods describe the stage, and are
+   *     ignored if they do not apply to {@code kind}.
+   */
+  public abstract Span begin(Kind kind);
+
+  /**
+   * A stage that has been started by {@link #begin(Kind)}. A span is not thread-safe, but may be handed off to another
+   * thread (e.g., to finish it when an asynchronous call completes). It should be finished at most once; a span that
+   * is never finished (e.g., because its stage failed) emits nothing.
+   */
+  public interface Span {
+
+    /**
+     * Describe the transfer that this stage is processing: its identifier, ledger prefix and amount.
+     */
+    default Span transfer(Transfer transfer) {
+      return this;
+    }
+
+    /**
+     * Describe the ledger prefix of the next hop that was chosen for a payment.
+     */
+    default Span nextHopLedger(Optional<InterledgerAddress> nextHopLedgerPrefix) {
+      return this;
+    }
+
+    /**
+     * Describe the reason that a source transfer was rejected with.
+     */
+    default Span rejection(InterledgerProtocolError rejectionReason) {
+      return this;
+    }
+
+    /**
+     * Describe a prefix lookup: the address that was looked up, and the longest prefix that matched it, if any.
+     */
+    default Span prefixMatch(InterledgerAddress address, Optional<String> longestPrefix) {
+      return this;
+    }
+
+    /**
+     * End this stage, and emit its event if a recording is interested in it.
+     */
+    default void finish() {
+    }
+  }
+}
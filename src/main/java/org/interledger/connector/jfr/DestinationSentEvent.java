@@ -0,0 +1,14 @@
+package org.interledger.connector.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * See {@link ConnectorEvents.Kind#DESTINATION_SENT}.
+ */
+@Name("org.interledger.connector.DestinationSent")
+@Label("Destination Sent")
+@Description("Sending of a destination transfer to its ledger")
+final class DestinationSentEvent extends PaymentEvent {
+}
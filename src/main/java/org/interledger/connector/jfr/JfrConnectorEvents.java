@@ -0,0 +1,50 @@
+package org.interledger.connector.jfr;
+
+import jdk.jfr.EventType;
+
+/**
+ * The {@link ConnectorEvents} that emits Flight Recorder events. This is the only class (along with the events
+ * themselves) that refers to {@code jdk.jfr}, and is only loaded once {@link ConnectorEvents} has found that Flight
+ * Recorder is available.
+ */
+final class JfrConnectorEvents extends ConnectorEvents {
+
+  private final EventType transferPrepared = EventType.getEventType(TransferPreparedEvent.class);
+  private final EventType routeChosen = EventType.getEventType(RouteChosenEvent.class);
+  private final EventType destinationSent = EventType.getEventType(DestinationSentEvent.class);
+  private final EventType transferFulfilled = EventType.getEventType(TransferFulfilledEvent.class);
+  private final EventType transferRejected = EventType.getEventType(TransferRejectedEvent.class);
+  private final EventType prefixLookup = EventType.getEventType(PrefixLookupEvent.class);
+
+  @Override
+  public Span begin(final Kind kind) {
+    final ConnectorEvent event;
+    switch (kind) {
+      case TRANSFER_PREPARED:
+        event = transferPrepared.isEnabled() ? new TransferPreparedEvent() : null;
+        break;
+      case ROUTE_CHOSEN:
+        event = routeChosen.isEnabled() ? new RouteChosenEvent() : null;
+        break;
+      case DESTINATION_SENT:
+        event = destinationSent.isEnabled() ? new DestinationSentEvent() : null;
+        break;
+      case TRANSFER_FULFILLED:
+        event = transferFulfilled.isEnabled() ? new TransferFulfilledEvent() : null;
+        break;
+      case TRANSFER_REJECTED:
+        event = transferRejected.isEnabled() ? new TransferRejectedEvent() : null;
+        break;
+      case PREFIX_LOOKUP:
+        event = prefixLookup.isEnabled() ? new PrefixLookupEvent() : null;
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported event kind: " + kind);
+    }
+    if (event == null) {
+      return NO_OP_SPAN;
+    }
+    event.begin();
+    return event;
+  }
+}
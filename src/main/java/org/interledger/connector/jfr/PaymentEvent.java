@@ -0,0 +1,28 @@
+package org.interledger.connector.jfr;
+
+import org.interledger.plugin.lpi.Transfer;
+
+import jdk.jfr.Label;
+
+/**
+ * The base of the events that are emitted while forwarding a payment, which describe the transfer being processed.
+ */
+abstract class PaymentEvent extends ConnectorEvent {
+
+  @Label("Transfer ID")
+  String transferId;
+
+  @Label("Ledger Prefix")
+  String ledgerPrefix;
+
+  @Label("Amount")
+  String amount;
+
+  @Override
+  public ConnectorEvents.Span transfer(final Transfer transfer) {
+    this.transferId = transfer.getTransferId().value().toString();
+    this.ledgerPrefix = transfer.getLedgerPrefix().getValue();
+    this.amount = transfer.getAmount().toString();
+    return this;
+  }
+}
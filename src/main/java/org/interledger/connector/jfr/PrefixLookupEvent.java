@@ -0,0 +1,32 @@
+package org.interledger.connector.jfr;
+
+import org.interledger.InterledgerAddress;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.Optional;
+
+/**
+ * See {@link ConnectorEvents.Kind#PREFIX_LOOKUP}.
+ */
+@Name("org.interledger.connector.PrefixLookup")
+@Label("Prefix Lookup")
+@Description("Lookup of the longest prefix in a routing table that matches a destination address")
+final class PrefixLookupEvent extends ConnectorEvent {
+
+  @Label("Address")
+  String address;
+
+  @Label("Longest Prefix")
+  @Description("The longest matching prefix, or null if no prefix matched")
+  String longestPrefix;
+
+  @Override
+  public ConnectorEvents.Span prefixMatch(final InterledgerAddress address, final Optional<String> longestPrefix) {
+    this.address = address.getValue();
+    this.longestPrefix = longestPrefix.orElse(null);
+    return this;
+  }
+}
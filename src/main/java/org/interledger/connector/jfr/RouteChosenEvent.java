@@ -0,0 +1,28 @@
+package org.interledger.connector.jfr;
+
+import org.interledger.InterledgerAddress;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.Optional;
+
+/**
+ * See {@link ConnectorEvents.Kind#ROUTE_CHOSEN}.
+ */
+@Name("org.interledger.connector.RouteChosen")
+@Label("Route Chosen")
+@Description("Choice of the next hop of a payment")
+final class RouteChosenEvent extends PaymentEvent {
+
+  @Label("Next-Hop Ledger Prefix")
+  @Description("The ledger prefix of the chosen next hop, or null if no route was found")
+  String nextHopLedgerPrefix;
+
+  @Override
+  public ConnectorEvents.Span nextHopLedger(final Optional<InterledgerAddress> nextHopLedgerPrefix) {
+    this.nextHopLedgerPrefix = nextHopLedgerPrefix.map(InterledgerAddress::getValue).orElse(null);
+    return this;
+  }
+}
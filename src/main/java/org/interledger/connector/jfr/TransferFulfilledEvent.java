@@ -0,0 +1,14 @@
+package org.interledger.connector.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * See {@link ConnectorEvents.Kind#TRANSFER_FULFILLED}.
+ */
+@Name("org.interledger.connector.TransferFulfilled")
+@Label("Transfer Fulfilled")
+@Description("Passing of a fulfillment back to the ledger of a source transfer")
+final class TransferFulfilledEvent extends PaymentEvent {
+}
@@ -0,0 +1,14 @@
+package org.interledger.connector.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * See {@link ConnectorEvents.Kind#TRANSFER_PREPARED}.
+ */
+@Name("org.interledger.connector.TransferPrepared")
+@Label("Transfer Prepared")
+@Description("Processing of a source transfer, from notification until its destination transfer was sent")
+final class TransferPreparedEvent extends PaymentEvent {
+}
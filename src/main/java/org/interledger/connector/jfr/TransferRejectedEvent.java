@@ -0,0 +1,25 @@
+package org.interledger.connector.jfr;
+
+import org.interledger.ilp.InterledgerProtocolError;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * See {@link ConnectorEvents.Kind#TRANSFER_REJECTED}.
+ */
+@Name("org.interledger.connector.TransferRejected")
+@Label("Transfer Rejected")
+@Description("Rejection of a source transfer on its ledger")
+final class TransferRejectedEvent extends PaymentEvent {
+
+  @Label("Error Code")
+  String errorCode;
+
+  @Override
+  public ConnectorEvents.Span rejection(final InterledgerProtocolError rejectionReason) {
+    this.errorCode = rejectionReason.getErrorCode().getCode();
+    return this;
+  }
+}
@@ -1,14 +1,25 @@
 package org.interledger.connector.lpi;
 
 import org.interledger.InterledgerAddress;
-import org.interledger.connector.ConnectorUtils;
+import org.interledger.connector.HmacTransferIdGenerator;
+import org.interledger.connector.LegacyTransferIdGenerator;
+import org.interledger.connector.TransferIdGenerator;
 import org.interledger.connector.config.ConnectorConfig;
 import org.interledger.connector.config.ConnectorConfigurationService;
 import org.interledger.connector.fx.FxEngine;
+import org.interledger.connector.fx.SlippageTable;
+import org.interledger.connector.jfr.ConnectorEvents;
+import org.interledger.connector.jfr.ConnectorEvents.Kind;
+import org.interledger.connector.jfr.ConnectorEvents.Span;
+import org.interledger.connector.lpi.ForwardingMetrics.Stage;
+import org.interledger.connector.lpi.PaymentTracer.Step;
+import org.interledger.connector.metrics.InMemoryMetricsRegistry;
+import org.interledger.connector.metrics.MetricsRegistry;
 import org.interledger.connector.repository.ImmutableTransferCorrelation;
 import org.interledger.connector.repository.TransferCorrelation;
 import org.interledger.connector.routing.PaymentRouter;
 import org.interledger.connector.routing.Route;
+import org.interledger.connector.services.LedgerContext;
 import org.interledger.connector.services.LedgerPluginManager;
 import org.interledger.ilp.InterledgerPayment;
 import org.interledger.ilp.InterledgerProtocolError;
@@ -36,37 +47,70 @@ import org.interledger.plugin.lpi.exceptions.LedgerPluginNotConnectedException;
 import org.interledger.plugin.lpi.handlers.LedgerPluginEventHandler;
 
 import com.google.common.annotations.VisibleForTesting;
-import org.javamoney.moneta.Money;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.money.CurrencyUnit;
-import javax.money.MonetaryAmount;
-import javax.money.convert.CurrencyConversion;
-import javax.money.convert.MonetaryConversions;
+import javax.money.convert.ExchangeRate;
 
 /**
  * An abstract implementation of {@link LedgerPluginEventHandler} that handles events from Ledger plugins running in a
  * Connector.
+ *
+ * Call {@link #close()} when the connector shuts down, to stop the threads that retries and expiries run on.
  */
-public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig> implements LedgerPluginEventHandler {
+public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig>
+    implements LedgerPluginEventHandler, AutoCloseable {
+
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+  /**
+   * The maximum number of threads that retries and expiries run on. Expiries make blocking calls to ledger plugins, so
+   * when many payments expire at once (e.g., because a destination ledger stopped responding), those beyond this
+   * number wait in an unbounded queue rather than each being given a thread.
+   */
+  @VisibleForTesting
+  static final int TIMEOUT_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+  private static final long TIMEOUT_THREAD_KEEP_ALIVE_SECONDS = 60;
 
   private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
-  // Provided by a Connector or higher level system to seed a deterministic identifier-generating function.
-  private final String deterministicIdSecret;
+  // Seeded by a Connector or higher level system with a secret, to deterministically generate outgoing transfer ids.
+  private final TransferIdGenerator transferIdGenerator;
+  private final TransferIdGenerator legacyTransferIdGenerator;
 
   private final ConnectorConfigurationService<T> connectorConfigurationService;
   private final LedgerPluginManager ledgerPluginManager;
   private final PaymentRouter paymentRouter;
   private final FxEngine fxEngine;
+  private final DuplicateTransferFilter duplicateTransferFilter;
+  private final TransferRateLimiter transferRateLimiter;
+  private final AdmissionController admissionController;
+  private final ThreadPoolExecutor timeoutExecutor;
+  private final TimingWheel timingWheel;
+  private final RetryScheduler retryScheduler;
+  private final ExpiryTracker expiryTracker;
+  private final ExpiryWindowEstimator expiryWindowEstimator;
+  private final PaymentTracer paymentTracer;
+  private final ForwardingMetrics forwardingMetrics;
+  private final ConnectorEvents connectorEvents = ConnectorEvents.get();
+
+  // Lazily computed from the current ConnectorConfig, and recomputed whenever that configuration changes.
+  private volatile SlippageTable slippageTable;
 
   public AbstractLedgerPluginEventHandler(
       final String deterministicIdSecret,
@@ -74,12 +118,54 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
       final LedgerPluginManager ledgerPluginManager,
       final PaymentRouter paymentRouter,
       final FxEngine fxEngine
+  ) {
+    this(
+        deterministicIdSecret, connectorConfigurationService, ledgerPluginManager, paymentRouter, fxEngine,
+        new InMemoryMetricsRegistry()
+    );
+  }
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param metricsRegistry The {@link MetricsRegistry} that the metrics of forwarding payments are recorded in (see
+   *                        {@link ForwardingMetrics}).
+   */
+  public AbstractLedgerPluginEventHandler(
+      final String deterministicIdSecret,
+      final ConnectorConfigurationService<T> connectorConfigurationService,
+      final LedgerPluginManager ledgerPluginManager,
+      final PaymentRouter paymentRouter,
+      final FxEngine fxEngine,
+      final MetricsRegistry metricsRegistry
   ) {
     this.connectorConfigurationService = connectorConfigurationService;
     this.ledgerPluginManager = Objects.requireNonNull(ledgerPluginManager);
-    this.deterministicIdSecret = Objects.requireNonNull(deterministicIdSecret);
+    this.transferIdGenerator = new HmacTransferIdGenerator(deterministicIdSecret);
+    this.legacyTransferIdGenerator = new LegacyTransferIdGenerator(deterministicIdSecret);
     this.paymentRouter = Objects.requireNonNull(paymentRouter);
     this.fxEngine = Objects.requireNonNull(fxEngine);
+    this.duplicateTransferFilter = new DuplicateTransferFilter(connectorConfigurationService);
+    this.transferRateLimiter = new TransferRateLimiter(connectorConfigurationService);
+    this.admissionController = new AdmissionController(connectorConfigurationService);
+    // Neither the timer thread nor the threads that timeouts run on are started until a timeout is first scheduled.
+    this.timeoutExecutor = new ThreadPoolExecutor(
+        TIMEOUT_THREADS, TIMEOUT_THREADS, TIMEOUT_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(),
+        new ThreadFactoryBuilder().setNameFormat("ilp-timeout-%d").setDaemon(true).build()
+    );
+    this.timeoutExecutor.allowCoreThreadTimeOut(true);
+    this.timingWheel = new TimingWheel(
+        TimingWheel.DEFAULT_TICK_DURATION, TimingWheel.DEFAULT_WHEEL_SIZE, this.timeoutExecutor
+    );
+    this.retryScheduler = new RetryScheduler(connectorConfigurationService, this.timingWheel);
+    this.expiryTracker = new ExpiryTracker(
+        connectorConfigurationService, this.timingWheel, this::onDestinationTransferExpired
+    );
+    this.expiryWindowEstimator = new ExpiryWindowEstimator(connectorConfigurationService);
+    this.paymentTracer = new PaymentTracer(connectorConfigurationService, PaymentTracer.DEFAULT_CAPACITY);
+    this.forwardingMetrics = new ForwardingMetrics(metricsRegistry);
+    metricsRegistry.registerView("forwarding.traces", this.paymentTracer);
   }
 
   @Override
@@ -94,7 +180,10 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
 
   @Override
   public void onTransferPrepared(IncomingTransferPreparedEvent event) {
-    logger.info("onTransferPrepared: {}", event);
+    final long receivedAtNanos = System.nanoTime();
+    if (logger.isDebugEnabled()) {
+      logger.debug("onTransferPrepared: {}", event);
+    }
 
     // This method works by attempting to process the incoming transfer while if at any point a non-retryable error
     // is encountered, it is thrown as an InvalidTransferException, which is caught and then used to reject the
@@ -103,34 +192,198 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
     // allow for retries after something like a bug or other temporary condition is fixed.
 
     final Transfer sourceTransfer = event.getTransfer();
+    final Span span = this.connectorEvents.begin(Kind.TRANSFER_PREPARED).transfer(sourceTransfer);
+    final boolean admitted;
+    try {
+      admitted = this.admitSourceTransfer(sourceTransfer);
+    } catch (RuntimeException e) {
+      span.finish();
+      throw e;
+    }
+    if (!admitted) {
+      span.finish();
+      return;
+    }
+    this.paymentTracer.start(sourceTransfer, receivedAtNanos);
     try {
       //this.validateIncomingPreparedTransfer(sourceTransfer);
 
-      // The address of the ultimate receiver of this ILP Payment....
-      final InterledgerPayment ilpPaymentPacket = sourceTransfer.getInterlederPaymentPacket();
-
-      // The address of the connector account on the underlying source ledger...
-      final InterledgerAddress myAddress = getLedgerPluginManager().getLedgerPluginSafe(
-          sourceTransfer.getTransferId(), sourceTransfer.getLedgerPrefix())
-          .getConnectorAccount();
-
       // Don't do anything with incoming ILP payments where this connector is the final receiver, because there is
       // no "next-hop" transfer to be made.
-      if (ilpPaymentPacket.getDestinationAccount().startsWith(myAddress)) {
-        logger.warn(
-            "Ignoring Transfer to destination which starts with this plugin's address: "
-                + "thisPlugin: \"{}\" ilpPayment Destination: \"{}\"",
-            myAddress, ilpPaymentPacket.getDestinationAccount());
+      if (!this.shouldForward(sourceTransfer)) {
+        this.releaseSourceTransfer(sourceTransfer);
         return;
       }
 
       // Determine the nextHop for this payment....
-      final Route nextHop = this.getPaymentRouter().findBestNexHop(
-          sourceTransfer.getInterlederPaymentPacket().getDestinationAccount(),
-          sourceTransfer.getLedgerPrefix()
-      )
-          // If no hop can be determined, we immediately reject the source transfer.
-          .orElseThrow(() -> new InvalidTransferException(
+      final Route nextHop = this.findNextHopRoute(sourceTransfer);
+      this.paymentTracer.recordRouted(sourceTransfer.getTransferId(), nextHop.getNextHopLedgerPrefix());
+
+      final Transfer destinationTransfer = this.buildNextHopTransfer(sourceTransfer, nextHop);
+      this.paymentTracer.record(sourceTransfer.getTransferId(), Step.FX_APPLIED);
+
+      this.saveTransferCorrelation(sourceTransfer, destinationTransfer);
+      this.paymentTracer.record(sourceTransfer.getTransferId(), Step.CORRELATED);
+
+      // Prepare the transfer on the destination ledger...
+      this.prepareDestinationTransfer(sourceTransfer, destinationTransfer);
+
+    } catch (InvalidTransferException e) {
+      this.rejectInvalidSourceTransfer(sourceTransfer, e);
+    } catch (RuntimeException e) {
+      this.abandonSourceTransfer(sourceTransfer);
+      throw e;
+    } finally {
+      span.finish();
+    }
+  }
+
+  /**
+   * Admits an incoming transfer, before any other work is done for it. A duplicate notification of a transfer that
+   * was recently admitted (see {@link ConnectorConfig#getDuplicateTransferWindow()}) is dropped. A transfer whose
+   * source account has exceeded its rate limit (see {@link ConnectorConfig#getIncomingTransferRatePerAccount()}) is
+   * immediately rejected with a {@link ErrorCode#T05_RATE_LIMITED} error. Otherwise, the transfer is admitted against
+   * the in-flight budget of its source ledger (see {@link ConnectorConfig#getMaxInFlightPaymentsPerSourceLedger()});
+   * if that ledger has no budget left, the transfer is immediately rejected with a {@link
+   * ErrorCode#T03_CONNECTOR_BUSY} error instead of being queued behind the payments that are already in-flight. If
+   * either rejection fails, the transfer is not remembered as seen, so that a redelivered notification is processed.
+   *
+   * @param sourceTransfer A {@link Transfer} delivered to this connector on a source ledger.
+   *
+   * @return {@code true} if {@code sourceTransfer} was admitted and should be processed; {@code false} if it was
+   *     dropped or rejected.
+   */
+  protected boolean admitSourceTransfer(final Transfer sourceTransfer) {
+    Objects.requireNonNull(sourceTransfer);
+
+    if (!this.duplicateTransferFilter.markSeen(sourceTransfer)) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("Ignoring duplicate notification of Incoming Transfer {} on {}",
+            sourceTransfer.getTransferId(), sourceTransfer.getLedgerPrefix());
+      }
+      return false;
+    }
+
+    if (!this.transferRateLimiter.tryAcquire(sourceTransfer)) {
+      // Only logged at debug, so that a flood of payments does not also become a flood of log messages.
+      if (logger.isDebugEnabled()) {
+        logger.debug("Rejecting Incoming Transfer {} because {} exceeded its rate limit",
+            sourceTransfer.getTransferId(), sourceTransfer.getSourceAccount());
+      }
+      this.rejectUnadmittedSourceTransfer(sourceTransfer, ErrorCode.T05_RATE_LIMITED);
+      return false;
+    }
+
+    if (!this.admissionController.tryAdmit(sourceTransfer)) {
+      logger.warn("Rejecting Incoming Transfer {} because too many payments from {} are in-flight",
+          sourceTransfer.getTransferId(), sourceTransfer.getLedgerPrefix());
+      this.rejectUnadmittedSourceTransfer(sourceTransfer, ErrorCode.T03_CONNECTOR_BUSY);
+      return false;
+    }
+    return true;
+  }
+
+  private void rejectUnadmittedSourceTransfer(final Transfer sourceTransfer, final ErrorCode errorCode) {
+    try {
+      final InterledgerAddress myAddress = getLedgerPluginManager().getLedgerPluginSafe(
+          sourceTransfer.getTransferId(), sourceTransfer.getLedgerPrefix())
+          .getConnectorAccount();
+      this.rejectSourceTransfer(sourceTransfer, InterledgerProtocolError.builder()
+          .errorCode(errorCode)
+          .triggeredAt(Instant.now())
+          .triggeredByAddress(myAddress)
+          .build()
+      );
+    } catch (RuntimeException e) {
+      this.duplicateTransferFilter.forget(sourceTransfer);
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the in-flight budget held by an incoming transfer (if any) to its source ledger. This is called once the
+   * transfer has been fulfilled, rejected or cancelled, or once it is known that it will not be forwarded.
+   *
+   * @param sourceTransfer A {@link Transfer} delivered to this connector on a source ledger.
+   */
+  protected void releaseSourceTransfer(final Transfer sourceTransfer) {
+    this.admissionController.release(sourceTransfer);
+  }
+
+  /**
+   * Called when processing an admitted incoming transfer failed unexpectedly (i.e., other than by rejecting it). This
+   * releases the in-flight budget held by the transfer, and forgets that it was seen, so that a redelivered
+   * notification of it is processed as a retry instead of being dropped as a duplicate.
+   *
+   * @param sourceTransfer A {@link Transfer} delivered to this connector on a source ledger.
+   */
+  protected void abandonSourceTransfer(final Transfer sourceTransfer) {
+    this.admissionController.release(sourceTransfer);
+    this.duplicateTransferFilter.forget(sourceTransfer);
+  }
+
+  /**
+   * Determines if an incoming transfer should be forwarded to a "next-hop" ledger. Incoming ILP payments where this
+   * connector is the final receiver are not forwarded, because there is no "next-hop" transfer to be made.
+   *
+   * @param sourceTransfer A {@link Transfer} delivered to this connector on a source ledger.
+   *
+   * @return {@code true} if {@code sourceTransfer} should be forwarded; {@code false} otherwise.
+   */
+  protected boolean shouldForward(final Transfer sourceTransfer) {
+    Objects.requireNonNull(sourceTransfer);
+
+    // The address of the ultimate receiver of this ILP Payment....
+    final InterledgerPayment ilpPaymentPacket = sourceTransfer.getInterlederPaymentPacket();
+
+    // The address of the connector account on the underlying source ledger...
+    final InterledgerAddress myAddress = getLedgerPluginManager().getLedgerContextSafe(
+        sourceTransfer.getTransferId(), sourceTransfer.getLedgerPrefix())
+        .getConnectorAccount();
+
+    if (ilpPaymentPacket.getDestinationAccount().startsWith(myAddress)) {
+      logger.warn(
+          "Ignoring Transfer to destination which starts with this plugin's address: "
+              + "thisPlugin: \"{}\" ilpPayment Destination: \"{}\"",
+          myAddress, ilpPaymentPacket.getDestinationAccount());
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Determine the "next-hop" route for an incoming transfer.
+   *
+   * @param sourceTransfer A {@link Transfer} delivered to this connector on a source ledger.
+   *
+   * @return The {@link Route} that {@code sourceTransfer} should be forwarded along.
+   *
+   * @throws InvalidTransferException if no route can be found, in which case the source transfer should be rejected.
+   */
+  protected Route findNextHopRoute(final Transfer sourceTransfer) {
+    Objects.requireNonNull(sourceTransfer);
+
+    final InterledgerPayment ilpPaymentPacket = sourceTransfer.getInterlederPaymentPacket();
+
+    final long startNanos = System.nanoTime();
+    final Span span = this.connectorEvents.begin(Kind.ROUTE_CHOSEN);
+    final Optional<? extends Route> nextHopRoute = this.getPaymentRouter().findBestNexHop(
+        ilpPaymentPacket.getDestinationAccount(),
+        sourceTransfer.getLedgerPrefix()
+    );
+    this.forwardingMetrics.recordLatency(Stage.ROUTING, sourceTransfer.getLedgerPrefix(), startNanos);
+    span.transfer(sourceTransfer)
+        .nextHopLedger(nextHopRoute.map(Route::getNextHopLedgerPrefix))
+        .finish();
+
+    return nextHopRoute
+        // If no hop can be determined, we immediately reject the source transfer.
+        .orElseThrow(() -> {
+          // The address of the connector account on the underlying source ledger...
+          final InterledgerAddress myAddress = getLedgerPluginManager().getLedgerContextSafe(
+              sourceTransfer.getTransferId(), sourceTransfer.getLedgerPrefix())
+              .getConnectorAccount();
+          return new InvalidTransferException(
               String.format("No route found from \"%s\" to \"%s\"",
                   myAddress,
                   ilpPaymentPacket.getDestinationAccount()
@@ -142,35 +395,100 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
                   .triggeredAt(Instant.now())
                   .triggeredByAddress(myAddress)
                   .build()
-          ));
-
-      final Transfer destinationTransfer = this.buildNextHopTransfer(sourceTransfer, nextHop);
+          );
+        });
+  }
 
-      // Specifies which source_transfer to utilize when handling future reject/fulfill events on the
-      // source and destination ledgers. This operation should be done before preparing the transfer
-      // on the destination ledger. If that prepare fails, it will likely be retried, in which case
-      // this call will merely overwrite itself, which is benign.
-      final TransferCorrelation transferCorrelation = ImmutableTransferCorrelation.builder()
-          .sourceTransfer(sourceTransfer)
-          .destinationTransfer(destinationTransfer)
-          .build();
-      this.getLedgerPluginManager().getTransferCorrelationRepository()
-          .save(transferCorrelation);
+  /**
+   * Specifies which source_transfer to utilize when handling future reject/fulfill events on the source and
+   * destination ledgers. This operation should be done before preparing the transfer on the destination ledger. If
+   * that prepare fails, it will likely be retried, in which case this call will merely overwrite itself, which is
+   * benign. From this point on, the expiry of the destination transfer is tracked (see {@link
+   * #onDestinationTransferExpired(TransferCorrelation)}).
+   */
+  protected void saveTransferCorrelation(final Transfer sourceTransfer, final Transfer destinationTransfer) {
+    final long startNanos = System.nanoTime();
+    final TransferCorrelation transferCorrelation = ImmutableTransferCorrelation.builder()
+        .sourceTransfer(sourceTransfer)
+        .destinationTransfer(destinationTransfer)
+        .build();
+    this.getLedgerPluginManager().getTransferCorrelationRepository()
+        .save(transferCorrelation);
+    this.forwardingMetrics.recordLatency(Stage.CORRELATION, sourceTransfer.getLedgerPrefix(), startNanos);
+    this.expiryTracker.track(transferCorrelation);
+  }
 
-      // Prepare the transfer on the destination ledger...
-      this.prepareDestinationTransfer(sourceTransfer, destinationTransfer);
+  /**
+   * Stop tracking the expiry of a destination transfer (see {@link
+   * #onDestinationTransferExpired(TransferCorrelation)}), because its ledger has notified this connector of its
+   * outcome, or because it could not be prepared.
+   *
+   * @param destinationTransfer A {@link Transfer} prepared by this connector on a destination ledger.
+   */
+  protected void untrackDestinationTransfer(final Transfer destinationTransfer) {
+    this.expiryTracker.untrack(destinationTransfer.getTransferId());
+  }
 
-    } catch (InvalidTransferException e) {
-      // The transfer was invalid for whatever reason, so we should immediately reject it.
-      logger.error("Rejecting Incoming Transfer: {}", e.getMessage(), e);
-      this.getLedgerPluginManager()
-          .getLedgerPluginSafe(sourceTransfer.getTransferId(),
-              sourceTransfer.getLedgerPrefix())
-          .rejectIncomingTransfer(sourceTransfer.getTransferId(), e.getRejectionReason());
-      return;
+  /**
+   * Called when a destination transfer has expired (plus {@link
+   * ConnectorConfig#getDestinationTransferExpiryGracePeriod()}) without its ledger having notified this connector that
+   * it was fulfilled, rejected or cancelled. Because the destination transfer can no longer be fulfilled, the source
+   * transfer is rejected and its in-flight budget released, instead of waiting for a notification that may never
+   * arrive.
+   *
+   * @param transferCorrelation The {@link TransferCorrelation} of the expired payment.
+   */
+  protected void onDestinationTransferExpired(final TransferCorrelation transferCorrelation) {
+    final Transfer destinationTransfer = transferCorrelation.getDestinationTransfer();
+    logger.warn("Destination transfer {} on ledger {} expired without notification; rejecting source transfer {}",
+        destinationTransfer.getTransferId(), destinationTransfer.getLedgerPrefix(),
+        transferCorrelation.getSourceTransferId());
+
+    final InterledgerProtocolError rejectionReason = InterledgerProtocolError.builder()
+        .errorCode(ErrorCode.R00_TRANSFER_TIMED_OUT)
+        .triggeredAt(Instant.now())
+        // This connector's account on the destination ledger is what gave up on the destination transfer.
+        .triggeredByAddress(getLedgerPluginManager().getLedgerPluginSafe(
+            destinationTransfer.getTransferId(), destinationTransfer.getLedgerPrefix())
+            .getConnectorAccount())
+        .build();
+    try {
+      this.rejectSourceTransferForDestination(destinationTransfer, rejectionReason);
+    } finally {
+      this.releaseSourceTransfer(transferCorrelation.getSourceTransfer());
     }
   }
 
+  /**
+   * Reject a source transfer that was determined to be invalid for whatever reason.
+   *
+   * @param sourceTransfer The {@link Transfer} to reject.
+   * @param e              An {@link InvalidTransferException} containing the reason for the rejection.
+   */
+  protected void rejectInvalidSourceTransfer(final Transfer sourceTransfer, final InvalidTransferException e) {
+    // The transfer was invalid for whatever reason, so we should immediately reject it.
+    logger.error("Rejecting Incoming Transfer: {}", e.getMessage(), e);
+    this.rejectSourceTransfer(sourceTransfer, e.getRejectionReason());
+  }
+
+  /**
+   * Reject a source transfer on its ledger.
+   *
+   * @param sourceTransfer  The {@link Transfer} to reject.
+   * @param rejectionReason An {@link InterledgerProtocolError} containing the reason for the rejection.
+   */
+  protected void rejectSourceTransfer(
+      final Transfer sourceTransfer, final InterledgerProtocolError rejectionReason
+  ) {
+    final long startNanos = System.nanoTime();
+    final Span span = this.connectorEvents.begin(Kind.TRANSFER_REJECTED);
+    this.getLedgerPluginManager()
+        .getLedgerPluginSafe(sourceTransfer.getTransferId(),
+            sourceTransfer.getLedgerPrefix())
+        .rejectIncomingTransfer(sourceTransfer.getTransferId(), rejectionReason);
+    this.recordRejection(sourceTransfer, rejectionReason, startNanos, span);
+  }
+
   /**
    * Given a source transfer and information about the "next hop" in an Interledger payment chain, construct a new
    * {@link Transfer} that can be used to complete this Interledger payment.
@@ -188,13 +506,16 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
     // If this connector/ilp-node is locally peered with a ledger, then we don't need to forward the payment anywhere.
     // However, we still need to perform FX since the source ledger will likely be different from the destination
     // ledger.
-    final boolean nextHopIsLocallyPeered = this.ledgerPluginManager
-        .isLocallyPeered(nextHopRoute.getNextHopLedgerPrefix());
-
+    // Each ledger's plugin, connector account and LedgerInfo are resolved once here, rather than being looked up
+    // separately for every use below.
+    final Optional<LedgerContext> nextHopLedgerContext = this.ledgerPluginManager
+        .getLedgerContext(nextHopRoute.getNextHopLedgerPrefix());
+    final boolean nextHopIsLocallyPeered = nextHopLedgerContext.isPresent();
+
+    final LedgerContext sourceLedgerContext = getLedgerPluginManager().getLedgerContextSafe(
+        sourceTransfer.getTransferId(), sourceTransfer.getLedgerPrefix());
     // The address of this connector's account on the underlying source ledger...
-    final InterledgerAddress myAddress = getLedgerPluginManager().getLedgerPluginSafe(
-        sourceTransfer.getTransferId(), sourceTransfer.getLedgerPrefix())
-        .getConnectorAccount();
+    final InterledgerAddress myAddress = sourceLedgerContext.getConnectorAccount();
 
     final InterledgerPayment ilpPaymentPacket = sourceTransfer.getInterlederPaymentPacket();
 
@@ -215,7 +536,7 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
       // what we need to send to the receiver, then we simply pocket the difference).
       // For more discussion about this, see here: https://github.com/interledger/rfcs/issues/316
       final BigInteger derivedNextHopAmount = this.computeNextHopLocalTransferAmount(
-          sourceTransfer, nextHopRoute.getNextHopLedgerPrefix()
+          sourceTransfer, sourceLedgerContext, nextHopLedgerContext.get()
       );
 
       // Verify derivedNextHopAmount ≤ ilpPacketAmountWithSlippage
@@ -264,8 +585,10 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
     // generation should ideally be impossible for a third party to predict. Otherwise an attacker might be able to
     // squat on a predicted ID in order to interfere with a payment or make a connector look unreliable. In order to
     // assure this, the connector may use a secret that seeds the deterministic ID generation.
-    final TransferId destinationTransferId = ConnectorUtils.generateDeterministicTransferId(
-        deterministicIdSecret, sourceTransfer.getLedgerPrefix(), sourceTransfer.getTransferId()
+    final TransferIdGenerator generator = this.connectorConfigurationService.getConnectorConfig()
+        .isLegacyTransferIdGenerationEnabled() ? legacyTransferIdGenerator : transferIdGenerator;
+    final TransferId destinationTransferId = generator.generateTransferId(
+        sourceTransfer.getLedgerPrefix(), sourceTransfer.getTransferId()
     );
 
     // The "next-hop" sourceTransfer
@@ -277,9 +600,9 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
             // If the source plugin is not connected at this point, then something went wrong, and an exception
             // should be thrown, but ultimately this operation should simply be retried (assuming this event is
             // queued).
-            this.getLedgerPluginManager()
-                .getLedgerPluginSafe(destinationTransferId,
-                    nextHopRoute.getNextHopLedgerPrefix())
+            nextHopLedgerContext
+                .orElseGet(() -> this.getLedgerPluginManager()
+                    .getLedgerContextSafe(destinationTransferId, nextHopRoute.getNextHopLedgerPrefix()))
                 .getConnectorAccount()
         )
         .amount(nextHopAmount)
@@ -288,7 +611,8 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
         .interlederPaymentPacket(sourceTransfer.getInterlederPaymentPacket())
         .executionCondition(sourceTransfer.getExecutionCondition())
         .cancellationCondition(sourceTransfer.getCancellationCondition())
-        .expiresAt(this.computeDestinationTransferExpiry(sourceTransfer.getExpiresAt()))
+        .expiresAt(this.computeDestinationTransferExpiry(
+            sourceTransfer.getExpiresAt(), nextHopRoute.getNextHopLedgerPrefix()))
         // TODO: Atomic-mode "cases"?
         .build();
 
@@ -313,6 +637,45 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
     return sourceExpiryInstant.minus(this.connectorConfigurationService.getConnectorConfig().getTransferExpiryWindow());
   }
 
+  /**
+   * Computes the expiration date/time of an outgoing transfer to the ledger with {@code destinationLedgerPrefix}, given
+   * the expiration date/time of a corresponding incoming transfer. If {@link
+   * ConnectorConfig#isAdaptiveTransferExpiryWindowEnabled()}, the window between the two is computed from how quickly
+   * fulfillments from that ledger have recently been passed back (see {@link ExpiryWindowEstimator}); otherwise, this
+   * is the same as {@link #computeDestinationTransferExpiry(Instant)}.
+   *
+   * @param sourceExpiryInstant     The {@link Instant} in time that a source-transfer expires.
+   * @param destinationLedgerPrefix The ledger prefix of the ledger that the outgoing transfer will be made on.
+   */
+  @VisibleForTesting
+  protected Instant computeDestinationTransferExpiry(
+      final Instant sourceExpiryInstant, final InterledgerAddress destinationLedgerPrefix
+  ) {
+    Objects.requireNonNull(sourceExpiryInstant);
+    Objects.requireNonNull(destinationLedgerPrefix);
+
+    if (!this.connectorConfigurationService.getConnectorConfig().isAdaptiveTransferExpiryWindowEnabled()) {
+      return this.computeDestinationTransferExpiry(sourceExpiryInstant);
+    }
+    return sourceExpiryInstant.minus(this.expiryWindowEstimator.getTransferExpiryWindow(destinationLedgerPrefix));
+  }
+
+  /**
+   * Record that the fulfillment of an outgoing transfer has been passed back to the ledger of its source transfer, so
+   * that the window computed for future transfers to the same ledger (see {@link
+   * #computeDestinationTransferExpiry(Instant, InterledgerAddress)}) reflects how long that took.
+   *
+   * @param destinationTransfer The fulfilled {@link Transfer} that this connector made on a destination ledger.
+   * @param notifiedAtNanos     The {@link System#nanoTime()} at which this connector was notified of the fulfillment.
+   */
+  protected void recordFulfillmentPassedBack(final Transfer destinationTransfer, final long notifiedAtNanos) {
+    if (this.connectorConfigurationService.getConnectorConfig().isAdaptiveTransferExpiryWindowEnabled()) {
+      this.expiryWindowEstimator.recordFulfillmentLatency(
+          destinationTransfer.getLedgerPrefix(), Duration.ofNanos(System.nanoTime() - notifiedAtNanos)
+      );
+    }
+  }
+
   /**
    * Given a source transfer, compute the amount (in local units of the destination ledger) that should be transferred
    * to the next-hop local ledger.
@@ -330,30 +693,61 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
     Objects.requireNonNull(sourceTransfer);
     InterledgerAddress.requireAddressPrefix(destinationLedgerPrefix);
 
-    final CurrencyUnit baseCurrencyUnit = this.ledgerPluginManager.getLedgerPlugin(sourceTransfer.getLedgerPrefix())
-        .map(LedgerPlugin::getLedgerInfo)
-        .map(LedgerInfo::getCurrencyUnit)
+    final LedgerContext sourceLedgerContext = this.ledgerPluginManager
+        .getLedgerContext(sourceTransfer.getLedgerPrefix())
         .orElseThrow(() -> new LedgerPluginNotConnectedException(sourceTransfer.getLedgerPrefix()));
+    final LedgerContext destinationLedgerContext = this.ledgerPluginManager
+        .getLedgerContext(destinationLedgerPrefix)
+        .orElseThrow(() -> new LedgerPluginNotConnectedException(destinationLedgerPrefix));
+
+    return this.computeNextHopLocalTransferAmount(sourceTransfer, sourceLedgerContext, destinationLedgerContext);
+  }
+
+  /**
+   * Given a source transfer, compute the amount (in local units of the destination ledger) that should be transferred
+   * to the next-hop local ledger, using already-resolved contexts for the source and destination ledgers.
+   *
+   * @param sourceTransfer           A {@link Transfer} with information from the incoming source transfer delivered to
+   *                                 this connector as part of a broader Interledger payment.
+   * @param sourceLedgerContext      The {@link LedgerContext} of the ledger that {@code sourceTransfer} was received
+   *                                 on.
+   * @param destinationLedgerContext The {@link LedgerContext} of the ledger the next-hop transfer will be delivered
+   *                                 on.
+   */
+  protected BigInteger computeNextHopLocalTransferAmount(
+      final Transfer sourceTransfer,
+      final LedgerContext sourceLedgerContext,
+      final LedgerContext destinationLedgerContext
+  ) {
+    Objects.requireNonNull(sourceTransfer);
+    Objects.requireNonNull(sourceLedgerContext);
+    Objects.requireNonNull(destinationLedgerContext);
 
-    final CurrencyUnit terminatingCurrencyUnit = this.ledgerPluginManager.getLedgerPlugin(destinationLedgerPrefix)
-        .map(LedgerPlugin::getLedgerInfo)
+    // LedgerInfo is cached in each LedgerContext, so these lookups never touch the plugins themselves.
+    final CurrencyUnit baseCurrencyUnit = sourceLedgerContext.getLedgerInfo()
         .map(LedgerInfo::getCurrencyUnit)
-        .orElseThrow(() -> new LedgerPluginNotConnectedException(destinationLedgerPrefix));
+        .orElseThrow(() -> new LedgerPluginNotConnectedException(sourceLedgerContext.getLedgerPrefix()));
+
+    final CurrencyUnit terminatingCurrencyUnit = destinationLedgerContext.getLedgerInfo()
+        .map(LedgerInfo::getCurrencyUnit)
+        .orElseThrow(() -> new LedgerPluginNotConnectedException(destinationLedgerContext.getLedgerPrefix()));
 
     // This method does not catch the CurrencyConversionException because there's nothing to be done if that occurs. It
     // means that FX is not configured between the source/destination ledgers.
-    return Optional.ofNullable(this.fxEngine.getExchangeRate(baseCurrencyUnit, terminatingCurrencyUnit))
-        .map(fxRate -> {
-          final MonetaryAmount sourceTransferMonetaryAmount = Money.of(sourceTransfer.getAmount(), baseCurrencyUnit);
-          final CurrencyConversion conversion = MonetaryConversions.getConversion(terminatingCurrencyUnit);
-          final MonetaryAmount terminatingMonetaryAmount = sourceTransferMonetaryAmount.with(conversion);
-          return terminatingMonetaryAmount;
-        })
-        // Convert from a MonetaryAmount back to an Integer...
-        .map(MonetaryAmount::getNumber)
-        .map(numberValue -> numberValue.numberValueExact(BigInteger.class))
-        // This is allowed because if fxEngine.getExchangeRate can't find a rate, it will throw an exception!
-        .get();
+    final long startNanos = System.nanoTime();
+    final ExchangeRate fxRate = Objects.requireNonNull(
+        this.fxEngine.getExchangeRate(baseCurrencyUnit, terminatingCurrencyUnit)
+    );
+
+    // Convert using the rate supplied by the FxEngine (and not the default javax.money conversion providers), rounding
+    // down so that this connector never sends more to the next hop than the rate allows.
+    final BigInteger nextHopAmount = new BigDecimal(sourceTransfer.getAmount())
+        .multiply(fxRate.getFactor().numberValue(BigDecimal.class))
+        .setScale(0, RoundingMode.FLOOR)
+        // Should never throw an exception because scale was set to 0 above.
+        .toBigIntegerExact();
+    this.forwardingMetrics.recordLatency(Stage.FX, sourceLedgerContext.getLedgerPrefix(), startNanos);
+    return nextHopAmount;
   }
 
   /**
@@ -367,10 +761,13 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
    * rates have "slipped" to 3:1, it is now more expensive for the sender to get 1 unit to the receiver. Thus, sending 2
    * units would only allow 2/3 of the terminating unit to arrive at the reciever, which means the amount of money the
    * receiver would receive has also "slipped." Because certain ledgers cannot guarantee quoted pricing, this connector
-   * tolerates a certain amount of slippage as configured in {@link ConnectorConfig#getDefaultSlippagePercent()}.
+   * tolerates a certain amount of slippage as configured in {@link ConnectorConfig#getDefaultSlippagePercent()}, or
+   * for the destination ledger in {@link ConnectorConfig#getSlippagePercentOverrides()}.
    *
    * @param ilpPaymentDestinationAmount A {@link BigInteger} representing the amount, in units of the final-destination
    *                                    ledger, of the ILP payment.
+   * @param destinationLedgerPrefix     An {@link InterledgerAddress} prefix for the final destination ledger of the
+   *                                    ILP payment, used to determine which slippage percent applies.
    */
   @VisibleForTesting
   protected BigInteger calculateIlpPacketDestinationAmountWithSlippage(
@@ -380,18 +777,22 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
     Objects.requireNonNull(ilpPaymentDestinationAmount);
     InterledgerAddress.requireAddressPrefix(destinationLedgerPrefix);
 
-    // The amount can "slip" down by up-to {slippagePercent}
-    final BigDecimal slippagePercent = this.connectorConfigurationService.getConnectorConfig()
-        .getDefaultSlippagePercent();
-
-    // Formula: amount * (1 - slippagePercent) => 500 * (1 - 1%) => 500 * (0.99) => 495
-    final BigDecimal percentageInDecimal = BigDecimal.ONE.subtract(slippagePercent);
+    // The amount can "slip" down by up-to the slippage percent configured for the destination ledger.
+    return this.getSlippageTable().applySlippage(ilpPaymentDestinationAmount, destinationLedgerPrefix);
+  }
 
-    return new BigDecimal(ilpPaymentDestinationAmount)
-        // Uses infinite precision, which is simply signficant digits (not scale nor total number of digits).
-        .multiply(percentageInDecimal).setScale(0, RoundingMode.HALF_UP)
-        // Should never throw an exception because scale was set to 0 above.
-        .toBigIntegerExact();
+  /**
+   * Accessor for the {@link SlippageTable} computed from the current {@link ConnectorConfig}. The table is only
+   * recomputed when the configuration service returns a different configuration instance (e.g., after a reload).
+   */
+  private SlippageTable getSlippageTable() {
+    final ConnectorConfig connectorConfig = this.connectorConfigurationService.getConnectorConfig();
+    SlippageTable currentSlippageTable = this.slippageTable;
+    if (currentSlippageTable == null || !currentSlippageTable.isComputedFrom(connectorConfig)) {
+      currentSlippageTable = SlippageTable.of(connectorConfig);
+      this.slippageTable = currentSlippageTable;
+    }
+    return currentSlippageTable;
   }
 
   /**
@@ -453,14 +854,16 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
   }
 
   /**
-   * Called when an incoming transfer has been fulfilled on the underlying ledger. For standard behavior, this is a
-   * no-op because in general, this connector was the one that would have passed the fulfillment to that ledger plugin.
+   * Called when an incoming transfer has been fulfilled on the underlying ledger. For standard behavior, this only
+   * releases the in-flight budget held by the transfer, because in general, this connector was the one that would have
+   * passed the fulfillment to that ledger plugin.
    *
    * @param event A {@link IncomingTransferFulfilledEvent}.
    */
   @Override
   public void onTransferFulfilled(IncomingTransferFulfilledEvent event) {
-    // No-Op.
+    this.paymentTracer.record(event.getTransfer().getTransferId(), Step.FULFILLED);
+    this.releaseSourceTransfer(event.getTransfer());
     if (logger.isDebugEnabled()) {
       logger
           .debug(
@@ -473,9 +876,10 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
    * Called when an incoming transfer has expired on the underlying ledger. This event may be emitted by the
    * ledger-plugin, but it might also be emitted by an Atomic-mode validator.
    *
-   * For this implementation, this is currently a no-op. However, if this is occurring in a Universal-Mode Connector, it
-   * may be desirable to track this, because it _may_ have occurred whilst an outgoing transfer was waiting to be
-   * prepared, and/or might have been fulfilled. In that instance, this connector likely would lose money.
+   * For this implementation, this only releases the in-flight budget held by the transfer. However, if this is
+   * occurring in a Universal-Mode Connector, it may be desirable to track this, because it _may_ have occurred whilst
+   * an outgoing transfer was waiting to be prepared, and/or might have been fulfilled. In that instance, this connector
+   * likely would lose money.
    *
    * In Atomic-Mode usage, this callback merely indicates that the source-transfer ledger cancelled the transaction.
    * However, this is likely still just a no-op because either no destination transfer has yet been prepared, in which
@@ -491,7 +895,8 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
    */
   @Override
   public void onTransferCancelled(IncomingTransferCancelledEvent event) {
-    // No-Op.
+    this.paymentTracer.record(event.getTransfer().getTransferId(), Step.CANCELLED);
+    this.releaseSourceTransfer(event.getTransfer());
     if (logger.isDebugEnabled()) {
       logger
           .debug("Incoming Transfer intended for this Connector expired: {}", event);
@@ -499,13 +904,15 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
   }
 
   /**
-   * Called when an incoming transfer that was rejected by this connector has completed its rejection.
+   * Called when an incoming transfer that was rejected by this connector has completed its rejection, which releases
+   * the in-flight budget held by the transfer.
    *
    * @param event A {@link IncomingTransferRejectedEvent}.
    */
   @Override
   public void onTransferRejected(IncomingTransferRejectedEvent event) {
-    // No-Op.
+    this.paymentTracer.record(event.getTransfer().getTransferId(), Step.REJECTED);
+    this.releaseSourceTransfer(event.getTransfer());
     if (logger.isDebugEnabled()) {
       logger
           .debug(
@@ -539,6 +946,7 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
    */
   @Override
   public void onTransferCancelled(OutgoingTransferCancelledEvent event) {
+    this.untrackDestinationTransfer(event.getTransfer());
     this.rejectSourceTransferForDestination(event.getTransfer(), event.getCancellationReason());
   }
 
@@ -550,6 +958,7 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
   @Override
   public void onTransferRejected(OutgoingTransferRejectedEvent event) {
     Objects.requireNonNull(event);
+    this.untrackDestinationTransfer(event.getTransfer());
     this.rejectSourceTransferForDestination(event.getTransfer(), event.getRejectionReason());
   }
 
@@ -616,8 +1025,10 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
    * Given a prepared source transfer, and a ready to transmit outgoing transfer, prepare the destination transfer on
    * the appropriate ledger plugin.
    *
-   * If the destination transfer cannot be prepared, for whatever reason, then reject the incoming source transfer with
-   * an appropriate ILP error code.
+   * If the destination transfer cannot be prepared because of a transient failure (see {@link
+   * #isTransientFailure(Throwable)}), it is retried in the background until it expires. If it cannot be prepared for
+   * any other reason, or retries are exhausted, then reject the incoming source transfer with an appropriate ILP error
+   * code.
    */
   @VisibleForTesting
   protected void prepareDestinationTransfer(final Transfer sourceTransfer,
@@ -633,26 +1044,140 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
     // should not trigger any responses to the source ledger (in other words, this is like a precondition).
 
     final LedgerPlugin destinationLedgerPlugin = this.getLedgerPluginManager()
-        .getLedgerPluginSafe(destinationTransfer.getTransferId(),
-            sourceTransfer.getLedgerPrefix());
+        .getLedgerContextSafe(destinationTransfer.getTransferId(), destinationTransfer.getLedgerPrefix())
+        .getLedgerPlugin();
 
+    final long startNanos = System.nanoTime();
+    final Span span = this.connectorEvents.begin(Kind.DESTINATION_SENT).transfer(destinationTransfer);
     try {
       destinationLedgerPlugin.sendTransfer(destinationTransfer);
+      this.forwardingMetrics.recordLatency(Stage.SEND, destinationTransfer.getLedgerPrefix(), startNanos);
+      span.finish();
+      this.paymentTracer.record(sourceTransfer.getTransferId(), Step.SENT);
     } catch (LedgerPluginException lpe) {
-      // Map the LedgerPluginException to a proper RejectionMessage that can be sent back to the source ledger plugin.
-      final InterledgerProtocolError rejectionReason = this
-          .fromLedgerPluginException(destinationTransfer.getLedgerPrefix(), lpe);
-
-      // If the source ledger plugin cannot be located, this is definitely a runtime exception, which can simply
-      // be emitted and handled by the caller of this method. However, no exception is expected, so we reject the
-      // source transfer on the located ledger plugin.
-      this.getLedgerPluginManager()
-          .getLedgerPluginSafe(sourceTransfer.getTransferId(),
-              sourceTransfer.getLedgerPrefix())
-          .rejectIncomingTransfer(sourceTransfer.getTransferId(), rejectionReason);
+      this.forwardingMetrics.recordLatency(Stage.SEND, destinationTransfer.getLedgerPrefix(), startNanos);
+      span.finish();
+      if (this.isTransientFailure(lpe)) {
+        // Retry in the background (for as long as the destination transfer has not expired), instead of failing the
+        // payment because the destination ledger was briefly unreachable.
+        logger.warn("Retrying destination transfer {} after transient failure on ledger {}: {}",
+            destinationTransfer.getTransferId(), destinationTransfer.getLedgerPrefix(), lpe.getMessage());
+        this.getRetryScheduler()
+            .retry(
+                () -> attempt(() -> destinationLedgerPlugin.sendTransfer(destinationTransfer)),
+                lpe, this::isTransientFailure, destinationTransfer.getExpiresAt()
+            )
+            .whenComplete((result, error) -> {
+              if (error == null) {
+                this.paymentTracer.record(sourceTransfer.getTransferId(), Step.SENT);
+              } else if (error instanceof LedgerPluginException) {
+                this.rejectSourceTransferForFailedDestination(
+                    sourceTransfer, destinationTransfer, (LedgerPluginException) error);
+              } else {
+                logger.error("Unable to settle payment. Source: {}; Destination Transfer: {}",
+                    sourceTransfer, destinationTransfer, error);
+              }
+            });
+      } else {
+        this.rejectSourceTransferForFailedDestination(sourceTransfer, destinationTransfer, lpe);
+      }
     }
   }
 
+  /**
+   * Reject a source transfer whose destination transfer could not be prepared.
+   */
+  private void rejectSourceTransferForFailedDestination(
+      final Transfer sourceTransfer, final Transfer destinationTransfer, final LedgerPluginException lpe
+  ) {
+    this.untrackDestinationTransfer(destinationTransfer);
+
+    // Map the LedgerPluginException to a proper RejectionMessage that can be sent back to the source ledger plugin.
+    final InterledgerProtocolError rejectionReason = this
+        .fromLedgerPluginException(destinationTransfer.getLedgerPrefix(), lpe);
+
+    // If the source ledger plugin cannot be located, this is definitely a runtime exception, which can simply
+    // be emitted and handled by the caller of this method. However, no exception is expected, so we reject the
+    // source transfer on the located ledger plugin.
+    final long startNanos = System.nanoTime();
+    final Span span = this.connectorEvents.begin(Kind.TRANSFER_REJECTED);
+    this.getLedgerPluginManager()
+        .getLedgerContextSafe(sourceTransfer.getTransferId(), sourceTransfer.getLedgerPrefix())
+        .getLedgerPlugin()
+        .rejectIncomingTransfer(sourceTransfer.getTransferId(), rejectionReason);
+    this.recordRejection(sourceTransfer, rejectionReason, startNanos, span);
+  }
+
+  /**
+   * Determines if a ledger plugin call that failed with {@code error} may succeed if it is retried, as opposed to
+   * failing the same way again. Errors that ledgers report about the transfer itself (e.g., that it is invalid, or that
+   * an account has insufficient balance) are not transient; other {@link LedgerPluginException}s, such as a ledger
+   * being unreachable, are.
+   *
+   * @param error The {@link Throwable} that a ledger plugin call failed with.
+   *
+   * @return {@code true} if the call should be retried; {@code false} otherwise.
+   */
+  protected boolean isTransientFailure(final Throwable error) {
+    return error instanceof LedgerPluginException
+        && !(error instanceof DuplicateTransferIdentifier
+        || error instanceof InvalidTransferException
+        || error instanceof InsufficientBalanceException
+        || error instanceof AccountNotFoundException);
+  }
+
+  /**
+   * Accessor for the {@link RetryScheduler} that retries ledger plugin calls that failed with a transient error (see
+   * {@link #isTransientFailure(Throwable)}).
+   */
+  protected RetryScheduler getRetryScheduler() {
+    return this.retryScheduler;
+  }
+
+  /**
+   * Record the rejection of a source transfer on its ledger, which started at {@code startNanos} (and {@code span})
+   * and has just finished, in {@link ForwardingMetrics} and as a {@link Kind#TRANSFER_REJECTED} event.
+   */
+  protected void recordRejection(
+      final Transfer sourceTransfer, final InterledgerProtocolError rejectionReason, final long startNanos,
+      final Span span
+  ) {
+    this.forwardingMetrics.recordLatency(Stage.REJECT, sourceTransfer.getLedgerPrefix(), startNanos);
+    this.forwardingMetrics.recordRejection(sourceTransfer.getLedgerPrefix(), rejectionReason.getErrorCode());
+    span.transfer(sourceTransfer).rejection(rejectionReason).finish();
+  }
+
+  /**
+   * Accessor for the {@link ForwardingMetrics} that this handler records the latency of each stage of forwarding a
+   * payment in, and the source transfers that it rejects.
+   */
+  protected ForwardingMetrics getForwardingMetrics() {
+    return this.forwardingMetrics;
+  }
+
+  /**
+   * Accessor for the {@link ConnectorEvents} that this handler emits a Flight Recorder event for each stage of
+   * forwarding a payment with.
+   */
+  protected ConnectorEvents getConnectorEvents() {
+    return this.connectorEvents;
+  }
+
+  /**
+   * Run a synchronous ledger plugin call, returning its outcome as a {@link CompletableFuture}, so that it can be
+   * retried by a {@link RetryScheduler}.
+   */
+  protected static CompletableFuture<Void> attempt(final Runnable ledgerPluginCall) {
+    final CompletableFuture<Void> result = new CompletableFuture<>();
+    try {
+      ledgerPluginCall.run();
+      result.complete(null);
+    } catch (RuntimeException e) {
+      result.completeExceptionally(e);
+    }
+    return result;
+  }
+
   /**
    * Map an instance of {@link LedgerPluginException} to a corresponding {@link InterledgerProtocolError} for sending
    * back to a source ledger.
@@ -712,7 +1237,10 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
 
     final InterledgerProtocolError forwardedRejectionReason = InterledgerProtocolError
         .withForwardedAddress(rejectionReason, sourceLedgerPlugin.getConnectorAccount());
+    final long startNanos = System.nanoTime();
+    final Span span = this.connectorEvents.begin(Kind.TRANSFER_REJECTED);
     sourceLedgerPlugin.rejectIncomingTransfer(sourceTransferId, forwardedRejectionReason);
+    this.recordRejection(transferCorrelation.getSourceTransfer(), forwardedRejectionReason, startNanos, span);
   }
 
   public LedgerPluginManager getLedgerPluginManager() {
@@ -722,4 +1250,30 @@ public abstract class AbstractLedgerPluginEventHandler<T extends ConnectorConfig
   public PaymentRouter<? extends Route> getPaymentRouter() {
     return paymentRouter;
   }
+
+  /**
+   * Stop this handler's timing wheel, abandoning any retries and expiries that are still pending, and wait for those
+   * that are already running to complete.
+   */
+  @Override
+  public void close() {
+    this.timingWheel.close();
+    this.timeoutExecutor.shutdown();
+    try {
+      if (!this.timeoutExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        logger.warn("Retries and expiries did not complete within {} seconds!", SHUTDOWN_TIMEOUT_SECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Accessor for the {@link PaymentTracer} that records the progress of a sample of the payments processed by this
+   * handler, whose traces can be read at any time with {@link PaymentTracer#getTraces()}, or through the {@code
+   * forwarding.traces} view of this handler's {@link MetricsRegistry}.
+   */
+  public PaymentTracer getPaymentTracer() {
+    return this.paymentTracer;
+  }
 }
@@ -0,0 +1,102 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds the number of payments that this connector has in-flight from each source ledger, so that an overloaded
+ * connector refuses new incoming transfers up-front instead of letting the latency of every payment grow without
+ * bound.
+ *
+ * An incoming transfer holds one unit of its source ledger's budget (see {@link
+ * ConnectorConfig#getMaxInFlightPaymentsPerSourceLedger()}) from the time it is admitted until it is released, which
+ * should happen once it has been fulfilled, rejected or cancelled. Admission and release never block: each ledger's
+ * budget is a single counter updated with compare-and-set.
+ */
+public class AdmissionController {
+
+  private final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService;
+  private final ConcurrentMap<InterledgerAddress, AtomicInteger> inFlightCounts;
+  // The incoming transfers that currently hold a unit of their ledger's budget, so that each is only released once.
+  private final Set<TransferId> admittedTransferIds;
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param connectorConfigurationService A {@link ConnectorConfigurationService} supplying the budget of each ledger.
+   */
+  public AdmissionController(
+      final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService
+  ) {
+    this.connectorConfigurationService = Objects.requireNonNull(connectorConfigurationService);
+    this.inFlightCounts = new ConcurrentHashMap<>();
+    this.admittedTransferIds = ConcurrentHashMap.newKeySet();
+  }
+
+  /**
+   * Attempt to admit an incoming transfer against the in-flight budget of its source ledger.
+   *
+   * @param sourceTransfer A {@link Transfer} delivered to this connector on a source ledger.
+   *
+   * @return {@code true} if {@code sourceTransfer} was admitted (or already had been); {@code false} if its source
+   *     ledger has no budget left, in which case the transfer should be rejected.
+   */
+  public boolean tryAdmit(final Transfer sourceTransfer) {
+    Objects.requireNonNull(sourceTransfer);
+
+    final int maxInFlightPayments = connectorConfigurationService.getConnectorConfig()
+        .getMaxInFlightPaymentsPerSourceLedger();
+    final AtomicInteger inFlightCount = this.getInFlightCounter(sourceTransfer.getLedgerPrefix());
+    int current;
+    do {
+      current = inFlightCount.get();
+      if (current >= maxInFlightPayments) {
+        return false;
+      }
+    } while (!inFlightCount.compareAndSet(current, current + 1));
+
+    if (!admittedTransferIds.add(sourceTransfer.getTransferId())) {
+      // A duplicate notification for a transfer that already holds a unit of the budget.
+      inFlightCount.decrementAndGet();
+    }
+    return true;
+  }
+
+  /**
+   * Return the unit of budget held by an incoming transfer, if any. Releasing a transfer that was never admitted (or
+   * was already released) is a no-op.
+   *
+   * @param sourceTransfer A {@link Transfer} delivered to this connector on a source ledger.
+   */
+  public void release(final Transfer sourceTransfer) {
+    Objects.requireNonNull(sourceTransfer);
+
+    if (admittedTransferIds.remove(sourceTransfer.getTransferId())) {
+      this.getInFlightCounter(sourceTransfer.getLedgerPrefix()).decrementAndGet();
+    }
+  }
+
+  /**
+   * Accessor for the number of payments currently in-flight from the ledger identified by {@code ledgerPrefix}.
+   */
+  public int getInFlightCount(final InterledgerAddress ledgerPrefix) {
+    final AtomicInteger inFlightCount = inFlightCounts.get(Objects.requireNonNull(ledgerPrefix));
+    return inFlightCount == null ? 0 : inFlightCount.get();
+  }
+
+  private AtomicInteger getInFlightCounter(final InterledgerAddress ledgerPrefix) {
+    // Avoid computeIfAbsent on the hot path, because on Java 8 it locks the bin even when the key is present.
+    final AtomicInteger inFlightCount = inFlightCounts.get(ledgerPrefix);
+    return inFlightCount != null ? inFlightCount
+        : inFlightCounts.computeIfAbsent(ledgerPrefix, prefix -> new AtomicInteger());
+  }
+}
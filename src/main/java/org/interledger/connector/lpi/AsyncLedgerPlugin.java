@@ -0,0 +1,61 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.cryptoconditions.Fulfillment;
+import org.interledger.ilp.InterledgerProtocolError;
+import org.interledger.plugin.lpi.LedgerPlugin;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * An asynchronous view of the {@link LedgerPlugin} operations that a connector performs while forwarding a payment.
+ * Each operation returns immediately with a {@link CompletableFuture} that completes once the underlying ledger has
+ * accepted (or refused) the request, so that the calling thread never waits on ledger I/O.
+ *
+ * Ledger plugins that are natively asynchronous may implement this interface directly, in which case they are used
+ * as-is. All other plugins are adapted by {@link #of(LedgerPlugin, Executor)}, which runs each synchronous call on the
+ * supplied executor.
+ */
+public interface AsyncLedgerPlugin {
+
+  /**
+   * Obtain an {@link AsyncLedgerPlugin} for {@code ledgerPlugin}. If the plugin implements this interface itself, it is
+   * returned directly; otherwise, its synchronous operations are run on {@code executor}, which should be bounded so
+   * that a slow ledger cannot exhaust this connector's resources.
+   *
+   * @param ledgerPlugin The {@link LedgerPlugin} to perform operations on.
+   * @param executor     An {@link Executor} to run synchronous plugin operations on.
+   *
+   * @return An {@link AsyncLedgerPlugin}.
+   */
+  static AsyncLedgerPlugin of(final LedgerPlugin ledgerPlugin, final Executor executor) {
+    Objects.requireNonNull(ledgerPlugin);
+    Objects.requireNonNull(executor);
+    if (ledgerPlugin instanceof AsyncLedgerPlugin) {
+      return (AsyncLedgerPlugin) ledgerPlugin;
+    } else {
+      return new ExecutorAsyncLedgerPlugin(ledgerPlugin, executor);
+    }
+  }
+
+  /**
+   * Asynchronously perform {@link LedgerPlugin#sendTransfer(Transfer)}.
+   *
+   * @return A {@link CompletableFuture} that completes exceptionally (typically with a {@link
+   *     org.interledger.plugin.lpi.exceptions.LedgerPluginException}) if the transfer could not be sent.
+   */
+  CompletableFuture<Void> sendTransferAsync(Transfer transfer);
+
+  /**
+   * Asynchronously perform {@link LedgerPlugin#fulfillCondition(TransferId, Fulfillment)}.
+   */
+  CompletableFuture<Void> fulfillConditionAsync(TransferId transferId, Fulfillment fulfillment);
+
+  /**
+   * Asynchronously perform {@link LedgerPlugin#rejectIncomingTransfer(TransferId, InterledgerProtocolError)}.
+   */
+  CompletableFuture<Void> rejectIncomingTransferAsync(TransferId transferId, InterledgerProtocolError rejectionReason);
+}
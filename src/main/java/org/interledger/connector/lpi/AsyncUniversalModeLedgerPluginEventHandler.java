@@ -0,0 +1,414 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.connector.fx.FxEngine;
+import org.interledger.connector.jfr.ConnectorEvents.Kind;
+import org.interledger.connector.jfr.ConnectorEvents.Span;
+import org.interledger.connector.lpi.ForwardingMetrics.Stage;
+import org.interledger.connector.metrics.InMemoryMetricsRegistry;
+import org.interledger.connector.metrics.MetricsRegistry;
+import org.interledger.connector.repository.TransferCorrelation;
+import org.interledger.connector.routing.PaymentRouter;
+import org.interledger.connector.services.LedgerPluginManager;
+import org.interledger.cryptoconditions.Fulfillment;
+import org.interledger.ilp.InterledgerProtocolError;
+import org.interledger.ilp.InterledgerProtocolError.ErrorCode;
+import org.interledger.plugin.lpi.LedgerPlugin;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.events.OutgoingTransferFulfilledEvent;
+import org.interledger.plugin.lpi.exceptions.LedgerPluginException;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A variant of {@link UniversalModeLedgerPluginEventHandler} that never waits on ledger I/O. Every call to a ledger
+ * plugin (sending the next-hop transfer, fulfilling or rejecting a source transfer) is made through an {@link
+ * AsyncLedgerPlugin}, and any follow-on call (e.g., rejecting the source transfer after the next-hop transfer fails) is
+ * composed onto the resulting {@link CompletableFuture}, so that the thread delivering an event returns as soon as the
+ * payment's computation is done.
+ *
+ * Ledger plugins that do not implement {@link AsyncLedgerPlugin} have their calls run on pools of threads owned by
+ * this handler. Next-hop transfers are sent on a bounded pool: when its queue is full, the call fails instead of
+ * blocking the caller, and the source transfer is immediately rejected with a {@code T03_CONNECTOR_BUSY} error.
+ * Fulfillments and rejections of source transfers are never refused this way, because they settle payments that are
+ * already in flight (a dropped fulfillment is money this connector has paid out but will not be re-paid), so they are
+ * run on a separate pool whose queue is unbounded. Outgoing transfers to ledgers whose plugins implement {@link
+ * BatchLedgerPlugin} are grouped into batches, and fulfillments and rejections sent to ledgers whose plugins implement
+ * {@link BatchSettlementLedgerPlugin} are coalesced. Call {@link #close()} when the connector shuts down.
+ */
+public class AsyncUniversalModeLedgerPluginEventHandler extends UniversalModeLedgerPluginEventHandler {
+
+  /**
+   * The default capacity of the queue of next-hop transfers waiting for a thread.
+   */
+  public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final ThreadPoolExecutor ledgerIoExecutor;
+  private final ThreadPoolExecutor settlementExecutor;
+  private final TransferBatcher transferBatcher;
+  private final SettlementCoalescer settlementCoalescer;
+
+  /**
+   * Construct a handler with one thread per available processor for synchronous ledger plugin calls.
+   */
+  public AsyncUniversalModeLedgerPluginEventHandler(
+      final String deterministicIdSecret,
+      final ConnectorConfigurationService<ConnectorConfig> connectorConfigurationService,
+      final LedgerPluginManager ledgerPluginManager,
+      final PaymentRouter paymentRouter,
+      final FxEngine fxEngine
+  ) {
+    this(
+        deterministicIdSecret, connectorConfigurationService, ledgerPluginManager, paymentRouter, fxEngine,
+        Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY
+    );
+  }
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param ledgerIoThreads       The number of threads that synchronous ledger plugin calls are run on (for each of
+   *                              sending next-hop transfers and settling source transfers).
+   * @param ledgerIoQueueCapacity The maximum number of synchronous next-hop transfers that may wait for a thread.
+   */
+  public AsyncUniversalModeLedgerPluginEventHandler(
+      final String deterministicIdSecret,
+      final ConnectorConfigurationService<ConnectorConfig> connectorConfigurationService,
+      final LedgerPluginManager ledgerPluginManager,
+      final PaymentRouter paymentRouter,
+      final FxEngine fxEngine,
+      final int ledgerIoThreads,
+      final int ledgerIoQueueCapacity
+  ) {
+    this(
+        deterministicIdSecret, connectorConfigurationService, ledgerPluginManager, paymentRouter, fxEngine,
+        ledgerIoThreads, ledgerIoQueueCapacity, new InMemoryMetricsRegistry()
+    );
+  }
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param ledgerIoThreads       The number of threads that synchronous ledger plugin calls are run on (for each of
+   *                              sending next-hop transfers and settling source transfers).
+   * @param ledgerIoQueueCapacity The maximum number of synchronous next-hop transfers that may wait for a thread.
+   * @param metricsRegistry       The {@link MetricsRegistry} that the metrics of forwarding payments are recorded in.
+   */
+  public AsyncUniversalModeLedgerPluginEventHandler(
+      final String deterministicIdSecret,
+      final ConnectorConfigurationService<ConnectorConfig> connectorConfigurationService,
+      final LedgerPluginManager ledgerPluginManager,
+      final PaymentRouter paymentRouter,
+      final FxEngine fxEngine,
+      final int ledgerIoThreads,
+      final int ledgerIoQueueCapacity,
+      final MetricsRegistry metricsRegistry
+  ) {
+    super(
+        deterministicIdSecret, connectorConfigurationService, ledgerPluginManager, paymentRouter, fxEngine,
+        metricsRegistry
+    );
+    if (ledgerIoThreads < 1 || ledgerIoQueueCapacity < 1) {
+      throw new IllegalArgumentException("Ledger I/O requires at least one thread and a positive queue capacity!");
+    }
+    this.ledgerIoExecutor = new ThreadPoolExecutor(
+        ledgerIoThreads, ledgerIoThreads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(ledgerIoQueueCapacity),
+        new ThreadFactoryBuilder().setNameFormat("ilp-ledger-io-%d").setDaemon(true).build(),
+        new ThreadPoolExecutor.AbortPolicy()
+    );
+    // Settlements are bounded by the number of payments in flight, which admission control already limits.
+    this.settlementExecutor = new ThreadPoolExecutor(
+        ledgerIoThreads, ledgerIoThreads, 0L, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(),
+        new ThreadFactoryBuilder().setNameFormat("ilp-settlement-%d").setDaemon(true).build()
+    );
+    this.transferBatcher = new TransferBatcher(connectorConfigurationService, this.ledgerIoExecutor);
+    this.settlementCoalescer = new SettlementCoalescer(connectorConfigurationService, this.settlementExecutor);
+  }
+
+  /**
+   * Send the next-hop transfer to the destination ledger without waiting for the result. If the destination ledger
+   * refuses the transfer (after any retries of transient failures), the source transfer is then rejected.
+   */
+  @Override
+  protected void prepareDestinationTransfer(final Transfer sourceTransfer, final Transfer destinationTransfer) {
+    this.prepareDestinationTransferAsync(sourceTransfer, destinationTransfer);
+  }
+
+  /**
+   * Asynchronously prepare {@code destinationTransfer} on its ledger, retrying transient failures until it expires,
+   * and rejecting {@code sourceTransfer} with an appropriate ILP error if the destination ledger refuses it.
+   *
+   * @return A {@link CompletableFuture} that completes once the destination transfer has been sent or, if it could not
+   *     be, once the source transfer has been rejected.
+   */
+  @VisibleForTesting
+  protected CompletableFuture<Void> prepareDestinationTransferAsync(
+      final Transfer sourceTransfer, final Transfer destinationTransfer
+  ) {
+    if (logger.isDebugEnabled()) {
+      logger.debug("About to settle payment. Source: {}; Destination Transfer: {}",
+          sourceTransfer,
+          destinationTransfer);
+    }
+
+    return this.withRetries(() -> this.sendTransferAsync(destinationTransfer), destinationTransfer.getExpiresAt())
+        .handle((result, error) -> unwrap(error))
+        .thenCompose(error -> {
+          if (error == null) {
+            this.getPaymentTracer().record(sourceTransfer.getTransferId(), PaymentTracer.Step.SENT);
+            return CompletableFuture.completedFuture(null);
+          } else if (error instanceof LedgerPluginException) {
+            this.untrackDestinationTransfer(destinationTransfer);
+            // Map the LedgerPluginException to a proper RejectionMessage that can be sent back to the source ledger.
+            final InterledgerProtocolError rejectionReason = this
+                .fromLedgerPluginException(destinationTransfer.getLedgerPrefix(), (LedgerPluginException) error);
+            return this.rejectSourceTransferAsync(sourceTransfer, rejectionReason);
+          } else if (error instanceof RejectedExecutionException) {
+            // The next-hop transfer was never sent, because too many ledger plugin calls are already waiting. The
+            // rejection below is run on the settlement pool, which does not refuse work when this one is saturated.
+            this.untrackDestinationTransfer(destinationTransfer);
+            logger.warn("Rejecting Incoming Transfer {} because ledger plugin calls are backed up",
+                sourceTransfer.getTransferId());
+            return this.rejectSourceTransferAsync(sourceTransfer, InterledgerProtocolError.builder()
+                .errorCode(ErrorCode.T03_CONNECTOR_BUSY)
+                .triggeredAt(Instant.now())
+                .triggeredByAddress(this.getLedgerPluginManager()
+                    .getLedgerPluginSafe(sourceTransfer.getTransferId(), sourceTransfer.getLedgerPrefix())
+                    .getConnectorAccount())
+                .build()
+            );
+          } else {
+            return failedFuture(error);
+          }
+        })
+        .whenComplete((result, error) -> {
+          if (error != null) {
+            logger.error("Unable to settle payment. Source: {}; Destination Transfer: {}",
+                sourceTransfer, destinationTransfer, unwrap(error));
+          }
+        });
+  }
+
+  @Override
+  protected void rejectSourceTransfer(final Transfer sourceTransfer, final InterledgerProtocolError rejectionReason) {
+    this.rejectAndLog(sourceTransfer, rejectionReason);
+  }
+
+  @Override
+  protected void rejectSourceTransferForDestination(
+      final Transfer rejectedDestinationTransfer, final InterledgerProtocolError rejectionReason
+  ) {
+    final Transfer sourceTransfer = this.findSourceTransfer(rejectedDestinationTransfer);
+
+    final InterledgerAddress connectorAccount = this.getLedgerPluginManager()
+        .getLedgerPluginSafe(sourceTransfer.getTransferId(), sourceTransfer.getLedgerPrefix())
+        .getConnectorAccount();
+    this.rejectAndLog(sourceTransfer, InterledgerProtocolError.withForwardedAddress(rejectionReason, connectorAccount));
+  }
+
+  /**
+   * Pass the fulfillment of an outgoing transfer back to the ledger of the corresponding source transfer, without
+   * waiting for that ledger to execute it. Transient failures are retried until the source transfer expires.
+   *
+   * @param event A {@link OutgoingTransferFulfilledEvent}.
+   */
+  @Override
+  public void onTransferFulfilled(final OutgoingTransferFulfilledEvent event) {
+    Objects.requireNonNull(event);
+    final long notifiedAtNanos = System.nanoTime();
+
+    this.untrackDestinationTransfer(event.getTransfer());
+    final Transfer sourceTransfer = this.findSourceTransfer(event.getTransfer());
+    final Fulfillment executionFulfillment = event.getFulfillment();
+
+    this.withRetries(
+        () -> this.fulfillSourceTransferAsync(sourceTransfer, executionFulfillment), sourceTransfer.getExpiresAt()
+    )
+        .whenComplete((result, error) -> {
+          if (error == null) {
+            this.recordFulfillmentPassedBack(event.getTransfer(), notifiedAtNanos);
+          } else {
+            logger.error(
+                "Attempted to execute source transfer but it was unsuccessful; we have not been fully re-paid! "
+                    + "SourceTransfer: {}, fulfillment: {}", sourceTransfer, executionFulfillment, unwrap(error)
+            );
+          }
+        });
+  }
+
+  /**
+   * Asynchronously send {@code transfer} to its ledger. If that ledger's plugin implements {@link BatchLedgerPlugin},
+   * the transfer is grouped with other transfers to the same ledger by a {@link TransferBatcher}; otherwise, it is sent
+   * on its own.
+   */
+  protected CompletableFuture<Void> sendTransferAsync(final Transfer transfer) {
+    final LedgerPlugin ledgerPlugin = this.getLedgerPluginManager()
+        .getLedgerPluginSafe(transfer.getTransferId(), transfer.getLedgerPrefix());
+    final long startNanos = System.nanoTime();
+    final Span span = this.getConnectorEvents().begin(Kind.DESTINATION_SENT);
+    final CompletableFuture<Void> result;
+    if (ledgerPlugin instanceof BatchLedgerPlugin) {
+      result = this.transferBatcher.submit((BatchLedgerPlugin) ledgerPlugin, transfer);
+    } else {
+      result = AsyncLedgerPlugin.of(ledgerPlugin, this.ledgerIoExecutor).sendTransferAsync(transfer);
+    }
+    return result.whenComplete((ignored, error) -> {
+      this.getForwardingMetrics().recordLatency(Stage.SEND, transfer.getLedgerPrefix(), startNanos);
+      span.transfer(transfer).finish();
+    });
+  }
+
+  /**
+   * Asynchronously fulfill {@code sourceTransfer} on its ledger. If that ledger's plugin implements {@link
+   * BatchSettlementLedgerPlugin}, the fulfillment is coalesced with other settlements for the same ledger by a {@link
+   * SettlementCoalescer}; otherwise, it is sent on its own.
+   */
+  protected CompletableFuture<Void> fulfillSourceTransferAsync(
+      final Transfer sourceTransfer, final Fulfillment fulfillment
+  ) {
+    final LedgerPlugin ledgerPlugin = this.getLedgerPluginManager()
+        .getLedgerPluginSafe(sourceTransfer.getTransferId(), sourceTransfer.getLedgerPrefix());
+    final long startNanos = System.nanoTime();
+    final Span span = this.getConnectorEvents().begin(Kind.TRANSFER_FULFILLED);
+    final CompletableFuture<Void> result;
+    if (ledgerPlugin instanceof BatchSettlementLedgerPlugin) {
+      result = this.settlementCoalescer
+          .fulfillCondition((BatchSettlementLedgerPlugin) ledgerPlugin, sourceTransfer, fulfillment);
+    } else {
+      result = AsyncLedgerPlugin.of(ledgerPlugin, this.settlementExecutor)
+          .fulfillConditionAsync(sourceTransfer.getTransferId(), fulfillment);
+    }
+    return result.whenComplete((ignored, error) -> {
+      if (error == null) {
+        this.getForwardingMetrics().recordLatency(Stage.FULFILL, sourceTransfer.getLedgerPrefix(), startNanos);
+        span.transfer(sourceTransfer).finish();
+      }
+    });
+  }
+
+  /**
+   * Asynchronously reject {@code sourceTransfer} on its ledger. If that ledger's plugin implements {@link
+   * BatchSettlementLedgerPlugin}, the rejection is coalesced with other settlements for the same ledger by a {@link
+   * SettlementCoalescer}; otherwise, it is sent on its own.
+   */
+  protected CompletableFuture<Void> rejectSourceTransferAsync(
+      final Transfer sourceTransfer, final InterledgerProtocolError rejectionReason
+  ) {
+    final LedgerPlugin ledgerPlugin = this.getLedgerPluginManager()
+        .getLedgerPluginSafe(sourceTransfer.getTransferId(), sourceTransfer.getLedgerPrefix());
+    final long startNanos = System.nanoTime();
+    final Span span = this.getConnectorEvents().begin(Kind.TRANSFER_REJECTED);
+    final CompletableFuture<Void> result;
+    if (ledgerPlugin instanceof BatchSettlementLedgerPlugin) {
+      result = this.settlementCoalescer
+          .rejectIncomingTransfer((BatchSettlementLedgerPlugin) ledgerPlugin, sourceTransfer, rejectionReason);
+    } else {
+      result = AsyncLedgerPlugin.of(ledgerPlugin, this.settlementExecutor)
+          .rejectIncomingTransferAsync(sourceTransfer.getTransferId(), rejectionReason);
+    }
+    return result.whenComplete((ignored, error) -> {
+      if (error == null) {
+        this.recordRejection(sourceTransfer, rejectionReason, startNanos, span);
+      }
+    });
+  }
+
+  /**
+   * Make an asynchronous ledger plugin call, retrying it if it fails with a transient error (see {@link
+   * #isTransientFailure(Throwable)}) for as long as the next attempt would be made before {@code deadline}.
+   */
+  private CompletableFuture<Void> withRetries(
+      final Supplier<CompletableFuture<Void>> ledgerPluginCall, final Instant deadline
+  ) {
+    return ledgerPluginCall.get()
+        .handle((result, error) -> unwrap(error))
+        .thenCompose(error -> {
+          if (error == null) {
+            return CompletableFuture.completedFuture(null);
+          } else if (this.isTransientFailure(error)) {
+            logger.warn("Retrying ledger plugin call after transient failure: {}", error.getMessage());
+            return this.getRetryScheduler().retry(ledgerPluginCall, error, this::isTransientFailure, deadline);
+          } else {
+            return failedFuture(error);
+          }
+        });
+  }
+
+  private void rejectAndLog(final Transfer sourceTransfer, final InterledgerProtocolError rejectionReason) {
+    this.rejectSourceTransferAsync(sourceTransfer, rejectionReason)
+        .whenComplete((result, error) -> {
+          if (error != null) {
+            logger.error("Unable to reject source transfer {} on ledger {}!",
+                sourceTransfer.getTransferId(), sourceTransfer.getLedgerPrefix(), unwrap(error));
+          }
+        });
+  }
+
+  private Transfer findSourceTransfer(final Transfer destinationTransfer) {
+    return this.getLedgerPluginManager()
+        .getTransferCorrelationRepository()
+        .findByDestinationTransferId(destinationTransfer.getTransferId())
+        .map(TransferCorrelation::getSourceTransfer)
+        .orElseThrow(() -> new RuntimeException(String.format(
+            "Unable to locate source transfer for supplied destination transfer due to missing "
+                + "TransferCorrelation info! DestinationTransfer: %s", destinationTransfer))
+        );
+  }
+
+  private static Throwable unwrap(final Throwable error) {
+    return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+  }
+
+  private static <T> CompletableFuture<T> failedFuture(final Throwable error) {
+    final CompletableFuture<T> failed = new CompletableFuture<>();
+    failed.completeExceptionally(error);
+    return failed;
+  }
+
+  /**
+   * Stop accepting ledger plugin calls (abandoning any retries and expiries that are still pending), and wait for calls
+   * already submitted to complete.
+   */
+  @Override
+  public void close() {
+    super.close();
+    this.transferBatcher.close();
+    this.settlementCoalescer.close();
+    // Shut down the next-hop pool first, since a failed send may still queue a rejection on the settlement pool.
+    this.awaitShutdown(this.ledgerIoExecutor);
+    this.awaitShutdown(this.settlementExecutor);
+  }
+
+  private void awaitShutdown(final ThreadPoolExecutor executor) {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        logger.warn("Ledger plugin calls did not complete within {} seconds!", SHUTDOWN_TIMEOUT_SECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
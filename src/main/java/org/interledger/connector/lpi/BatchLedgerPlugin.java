@@ -0,0 +1,31 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.plugin.lpi.LedgerPlugin;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+import org.interledger.plugin.lpi.exceptions.LedgerPluginException;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An optional capability of a {@link LedgerPlugin} whose underlying ledger can accept many transfers in a single
+ * request. When a connector's ledger plugin implements this interface, outgoing transfers to that ledger may be grouped
+ * into batches (see {@link TransferBatcher}) to reduce per-transfer I/O overhead.
+ */
+public interface BatchLedgerPlugin {
+
+  /**
+   * Prepare every transfer in {@code transfers} on the underlying ledger, as if by calling {@link
+   * LedgerPlugin#sendTransfer(Transfer)} for each. Transfers in a batch succeed or fail independently.
+   *
+   * @param transfers A {@link List} of {@link Transfer}s, all for this plugin's ledger.
+   *
+   * @return A {@link Map} containing, for each transfer that could not be prepared, the {@link LedgerPluginException}
+   *     that {@link LedgerPlugin#sendTransfer(Transfer)} would have thrown for it. Transfers that do not appear in this
+   *     map were prepared successfully.
+   *
+   * @throws LedgerPluginException if the batch as a whole could not be sent, in which case no transfer was prepared.
+   */
+  Map<TransferId, LedgerPluginException> sendTransfers(List<Transfer> transfers);
+}
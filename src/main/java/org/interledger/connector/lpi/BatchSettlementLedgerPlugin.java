@@ -0,0 +1,44 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.cryptoconditions.Fulfillment;
+import org.interledger.ilp.InterledgerProtocolError;
+import org.interledger.plugin.lpi.LedgerPlugin;
+import org.interledger.plugin.lpi.TransferId;
+import org.interledger.plugin.lpi.exceptions.LedgerPluginException;
+
+import java.util.Map;
+
+/**
+ * An optional capability of a {@link LedgerPlugin} whose underlying ledger can fulfill or reject many incoming
+ * transfers in a single request. When a connector's ledger plugin implements this interface, the fulfillments and
+ * rejections that this connector sends to that ledger may be coalesced (see {@link SettlementCoalescer}).
+ */
+public interface BatchSettlementLedgerPlugin {
+
+  /**
+   * Fulfill every incoming transfer in {@code fulfillments}, as if by calling {@link
+   * LedgerPlugin#fulfillCondition(TransferId, Fulfillment)} for each. Transfers succeed or fail independently.
+   *
+   * @param fulfillments A {@link Map} of incoming {@link TransferId} to the {@link Fulfillment} of its condition.
+   *
+   * @return A {@link Map} containing the {@link LedgerPluginException} for each transfer that could not be fulfilled.
+   *
+   * @throws LedgerPluginException if the request as a whole failed, in which case no transfer was fulfilled.
+   */
+  Map<TransferId, LedgerPluginException> fulfillConditions(Map<TransferId, Fulfillment> fulfillments);
+
+  /**
+   * Reject every incoming transfer in {@code rejectionReasons}, as if by calling {@link
+   * LedgerPlugin#rejectIncomingTransfer(TransferId, InterledgerProtocolError)} for each. Transfers succeed or fail
+   * independently.
+   *
+   * @param rejectionReasons A {@link Map} of incoming {@link TransferId} to the reason it is being rejected.
+   *
+   * @return A {@link Map} containing the {@link LedgerPluginException} for each transfer that could not be rejected.
+   *
+   * @throws LedgerPluginException if the request as a whole failed, in which case no transfer was rejected.
+   */
+  Map<TransferId, LedgerPluginException> rejectIncomingTransfers(
+      Map<TransferId, InterledgerProtocolError> rejectionReasons
+  );
+}
@@ -0,0 +1,159 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers the incoming transfers that this connector has recently been notified of, so that a redelivered
+ * notification can be dropped before any routing, FX or ledger work is repeated for it.
+ *
+ * Transfers are remembered in two generations: new transfers are added to the current generation, which becomes the
+ * previous generation (discarding the one before it) once {@link ConnectorConfig#getDuplicateTransferWindow()} has
+ * passed or it holds half of {@link ConnectorConfig#getDuplicateTransferCacheSize()} transfers. A transfer is thus
+ * remembered for at least that window (unless the cache fills up sooner) and at most twice it, and each check is a
+ * pair of hash lookups.
+ */
+public class DuplicateTransferFilter {
+
+  private final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService;
+  private final LongSupplier nanoClock;
+  private volatile Generations generations;
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param connectorConfigurationService A {@link ConnectorConfigurationService} supplying the window and cache size.
+   */
+  public DuplicateTransferFilter(
+      final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService
+  ) {
+    this(connectorConfigurationService, System::nanoTime);
+  }
+
+  @VisibleForTesting
+  DuplicateTransferFilter(
+      final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService,
+      final LongSupplier nanoClock
+  ) {
+    this.connectorConfigurationService = Objects.requireNonNull(connectorConfigurationService);
+    this.nanoClock = Objects.requireNonNull(nanoClock);
+    this.generations = new Generations(Collections.emptySet(), nanoClock.getAsLong());
+  }
+
+  /**
+   * Record that this connector has been notified of an incoming transfer.
+   *
+   * @param sourceTransfer A {@link Transfer} delivered to this connector on a source ledger.
+   *
+   * @return {@code true} if this is the first notification of {@code sourceTransfer} within the window; {@code false}
+   *     if it is a duplicate, which should be dropped.
+   */
+  public boolean markSeen(final Transfer sourceTransfer) {
+    Objects.requireNonNull(sourceTransfer);
+
+    final SeenTransfer seenTransfer = new SeenTransfer(sourceTransfer);
+    final Generations current = this.rotateIfNecessary();
+    if (current.previous.contains(seenTransfer)) {
+      return false;
+    }
+    return current.current.add(seenTransfer);
+  }
+
+  /**
+   * Forget an incoming transfer, so that a future notification of it is no longer treated as a duplicate. This should
+   * be called if processing the transfer failed in a way that a redelivered notification should retry.
+   *
+   * @param sourceTransfer A {@link Transfer} delivered to this connector on a source ledger.
+   */
+  public void forget(final Transfer sourceTransfer) {
+    Objects.requireNonNull(sourceTransfer);
+
+    final SeenTransfer seenTransfer = new SeenTransfer(sourceTransfer);
+    final Generations current = this.generations;
+    current.current.remove(seenTransfer);
+    current.previous.remove(seenTransfer);
+  }
+
+  private Generations rotateIfNecessary() {
+    final Generations current = this.generations;
+    final ConnectorConfig connectorConfig = connectorConfigurationService.getConnectorConfig();
+    final long windowNanos = connectorConfig.getDuplicateTransferWindow().toNanos();
+    final long maxGenerationSize = Math.max(1, connectorConfig.getDuplicateTransferCacheSize() / 2);
+
+    final long now = nanoClock.getAsLong();
+    if (now - current.startedAt < windowNanos && current.current.size() < maxGenerationSize) {
+      return current;
+    }
+
+    synchronized (this) {
+      final Generations latest = this.generations;
+      if (latest != current) {
+        // Another thread rotated first.
+        return latest;
+      }
+      // If the current generation is itself older than the window, nothing in it needs to be remembered any longer.
+      final Set<SeenTransfer> previous = now - current.startedAt < 2 * windowNanos
+          ? current.current : Collections.emptySet();
+      this.generations = new Generations(previous, now);
+      return this.generations;
+    }
+  }
+
+  /**
+   * The current and previous generations of remembered transfers. Immutable, other than the contents of each set.
+   */
+  private static final class Generations {
+
+    private final Set<SeenTransfer> previous;
+    private final Set<SeenTransfer> current;
+    private final long startedAt;
+
+    private Generations(final Set<SeenTransfer> previous, final long startedAt) {
+      this.previous = previous;
+      this.current = ConcurrentHashMap.newKeySet();
+      this.startedAt = startedAt;
+    }
+  }
+
+  /**
+   * Identifies an incoming transfer by its source ledger and transfer identifier.
+   */
+  private static final class SeenTransfer {
+
+    private final InterledgerAddress ledgerPrefix;
+    private final TransferId transferId;
+
+    private SeenTransfer(final Transfer sourceTransfer) {
+      this.ledgerPrefix = Objects.requireNonNull(sourceTransfer.getLedgerPrefix());
+      this.transferId = Objects.requireNonNull(sourceTransfer.getTransferId());
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof SeenTransfer)) {
+        return false;
+      }
+      final SeenTransfer other = (SeenTransfer) obj;
+      return transferId.equals(other.transferId) && ledgerPrefix.equals(other.ledgerPrefix);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * transferId.hashCode() + ledgerPrefix.hashCode();
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.cryptoconditions.Fulfillment;
+import org.interledger.ilp.InterledgerProtocolError;
+import org.interledger.plugin.lpi.LedgerPlugin;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * An {@link AsyncLedgerPlugin} that adapts a synchronous {@link LedgerPlugin} by running each operation on an {@link
+ * Executor}. If the executor refuses an operation (e.g., because its queue is full), the returned future completes
+ * exceptionally with a {@link RejectedExecutionException} instead of blocking the caller.
+ */
+class ExecutorAsyncLedgerPlugin implements AsyncLedgerPlugin {
+
+  private final LedgerPlugin ledgerPlugin;
+  private final Executor executor;
+
+  ExecutorAsyncLedgerPlugin(final LedgerPlugin ledgerPlugin, final Executor executor) {
+    this.ledgerPlugin = Objects.requireNonNull(ledgerPlugin);
+    this.executor = Objects.requireNonNull(executor);
+  }
+
+  @Override
+  public CompletableFuture<Void> sendTransferAsync(final Transfer transfer) {
+    Objects.requireNonNull(transfer);
+    return this.runAsync(() -> ledgerPlugin.sendTransfer(transfer));
+  }
+
+  @Override
+  public CompletableFuture<Void> fulfillConditionAsync(final TransferId transferId, final Fulfillment fulfillment) {
+    Objects.requireNonNull(transferId);
+    Objects.requireNonNull(fulfillment);
+    return this.runAsync(() -> ledgerPlugin.fulfillCondition(transferId, fulfillment));
+  }
+
+  @Override
+  public CompletableFuture<Void> rejectIncomingTransferAsync(
+      final TransferId transferId, final InterledgerProtocolError rejectionReason
+  ) {
+    Objects.requireNonNull(transferId);
+    Objects.requireNonNull(rejectionReason);
+    return this.runAsync(() -> ledgerPlugin.rejectIncomingTransfer(transferId, rejectionReason));
+  }
+
+  private CompletableFuture<Void> runAsync(final Runnable operation) {
+    try {
+      return CompletableFuture.runAsync(operation, executor);
+    } catch (RejectedExecutionException e) {
+      final CompletableFuture<Void> rejected = new CompletableFuture<>();
+      rejected.completeExceptionally(e);
+      return rejected;
+    }
+  }
+}
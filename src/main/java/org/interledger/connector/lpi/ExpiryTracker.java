@@ -0,0 +1,144 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.connector.repository.TransferCorrelation;
+import org.interledger.plugin.lpi.TransferId;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * An index of the payments that this connector has in-flight, keyed by the expiry of their destination transfers, so
+ * that a payment whose destination transfer has expired is acted upon (i.e., its source transfer is rejected) even if
+ * the destination ledger's notification that the transfer was cancelled is late or lost.
+ *
+ * Each tracked payment is a timeout on a {@link TimingWheel}, so tracking and untracking a payment are both O(1), no
+ * matter how many payments are in-flight. A payment is considered expired once {@link
+ * ConnectorConfig#getDestinationTransferExpiryGracePeriod()} has passed after its destination transfer's expiry,
+ * which leaves time for a fulfillment that was made at the last moment to be delivered first.
+ */
+public class ExpiryTracker {
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService;
+  private final TimingWheel timingWheel;
+  private final Consumer<TransferCorrelation> expiryHandler;
+  private final Map<TransferId, TrackedPayment> trackedPayments = new ConcurrentHashMap<>();
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param connectorConfigurationService A {@link ConnectorConfigurationService} supplying the grace period.
+   * @param timingWheel                   The {@link TimingWheel} that expiries are scheduled on, and whose task
+   *                                      executor {@code expiryHandler} is called on.
+   * @param expiryHandler                 A {@link Consumer} that is called with the {@link TransferCorrelation} of
+   *                                      each payment whose destination transfer expires while it is tracked.
+   */
+  public ExpiryTracker(
+      final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService,
+      final TimingWheel timingWheel,
+      final Consumer<TransferCorrelation> expiryHandler
+  ) {
+    this.connectorConfigurationService = Objects.requireNonNull(connectorConfigurationService);
+    this.timingWheel = Objects.requireNonNull(timingWheel);
+    this.expiryHandler = Objects.requireNonNull(expiryHandler);
+  }
+
+  /**
+   * Start tracking an in-flight payment. If a payment with the same destination transfer is already being tracked, it
+   * is replaced.
+   *
+   * @param transferCorrelation The {@link TransferCorrelation} of the payment's source and destination transfers.
+   */
+  public void track(final TransferCorrelation transferCorrelation) {
+    Objects.requireNonNull(transferCorrelation);
+
+    final TransferId destinationTransferId = transferCorrelation.getDestinationTransferId();
+    final Instant expiry = transferCorrelation.getDestinationTransfer().getExpiresAt().plus(
+        connectorConfigurationService.getConnectorConfig().getDestinationTransferExpiryGracePeriod()
+    );
+
+    final TrackedPayment trackedPayment = new TrackedPayment(transferCorrelation);
+    final TrackedPayment replaced = this.trackedPayments.put(destinationTransferId, trackedPayment);
+    if (replaced != null) {
+      replaced.cancel();
+    }
+    // The payment is added to the index before it is scheduled, so that even an immediate expiry can find it.
+    try {
+      trackedPayment.timeout = this.timingWheel.schedule(
+          () -> this.expire(destinationTransferId, trackedPayment), Duration.between(Instant.now(), expiry)
+      );
+    } catch (RejectedExecutionException e) {
+      this.trackedPayments.remove(destinationTransferId, trackedPayment);
+      throw e;
+    }
+  }
+
+  /**
+   * Stop tracking an in-flight payment, because its destination transfer has been fulfilled, rejected or cancelled.
+   *
+   * @param destinationTransferId The {@link TransferId} of the payment's destination transfer.
+   *
+   * @return {@code true} if the payment was being tracked; {@code false} if it was not (e.g., because it had already
+   *     expired).
+   */
+  public boolean untrack(final TransferId destinationTransferId) {
+    Objects.requireNonNull(destinationTransferId);
+
+    final TrackedPayment trackedPayment = this.trackedPayments.remove(destinationTransferId);
+    if (trackedPayment == null) {
+      return false;
+    }
+    trackedPayment.cancel();
+    return true;
+  }
+
+  /**
+   * The number of in-flight payments that are being tracked.
+   */
+  public int getTrackedCount() {
+    return this.trackedPayments.size();
+  }
+
+  private void expire(final TransferId destinationTransferId, final TrackedPayment trackedPayment) {
+    // If the payment was untracked (or replaced) concurrently, it must not be expired.
+    if (!this.trackedPayments.remove(destinationTransferId, trackedPayment)) {
+      return;
+    }
+    try {
+      this.expiryHandler.accept(trackedPayment.transferCorrelation);
+    } catch (RuntimeException e) {
+      logger.error("Unable to handle expiry of destination transfer {}!", destinationTransferId, e);
+    }
+  }
+
+  /**
+   * A payment in the index, with the timeout that expires it.
+   */
+  private static final class TrackedPayment {
+
+    private final TransferCorrelation transferCorrelation;
+    private volatile TimingWheel.Timeout timeout;
+
+    private TrackedPayment(final TransferCorrelation transferCorrelation) {
+      this.transferCorrelation = transferCorrelation;
+    }
+
+    private void cancel() {
+      final TimingWheel.Timeout currentTimeout = this.timeout;
+      if (currentTimeout != null) {
+        currentTimeout.cancel();
+      }
+    }
+  }
+}
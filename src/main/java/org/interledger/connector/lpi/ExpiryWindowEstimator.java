@@ -0,0 +1,240 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Computes the window of time between the expiry of an incoming transfer and the expiry of the corresponding outgoing
+ * transfer (see {@link ConnectorConfig#getTransferExpiryWindow()}) separately for each destination ledger, from how
+ * long this connector has recently taken to pass fulfillments of transfers to that ledger back to their source
+ * ledgers.
+ *
+ * Latencies are counted in a histogram per destination ledger whose buckets grow exponentially (by 25%) from one
+ * millisecond, so each recorded latency is a single atomic increment. Each histogram has two generations, the older
+ * of which is discarded every {@link #GENERATION_DURATION}, so the window follows the current latency of a corridor
+ * rather than its history. Once a ledger has {@link #MIN_SAMPLES} recent samples, its window is {@link #HEADROOM}
+ * times the {@link #PERCENTILE} latency, bounded by {@link ConnectorConfig#getTransferExpiryWindowFloor()} and {@link
+ * ConnectorConfig#getTransferExpiryWindowCeiling()}; until then, it is the fixed window, within the same bounds.
+ */
+public class ExpiryWindowEstimator {
+
+  /**
+   * The percentile of recent fulfillment latencies that the window is computed from.
+   */
+  public static final double PERCENTILE = 0.99;
+
+  /**
+   * The multiple of the {@link #PERCENTILE} latency that the window allows, to cover latency that this connector
+   * cannot observe (e.g., the destination ledger's own delay in notifying it of a fulfillment).
+   */
+  public static final int HEADROOM = 2;
+
+  /**
+   * The minimum number of recent samples from which the window of a destination ledger is computed.
+   */
+  public static final int MIN_SAMPLES = 100;
+
+  /**
+   * How long each generation of samples is collected for before it becomes the previous generation.
+   */
+  public static final Duration GENERATION_DURATION = Duration.ofMinutes(1);
+
+  // How long a computed window is reused before being recomputed from the histogram.
+  private static final long WINDOW_CACHE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private static final int BUCKETS = 64;
+  private static final double BUCKET_GROWTH = 1.25;
+  private static final double LOG_BUCKET_GROWTH = Math.log(BUCKET_GROWTH);
+  private static final long MIN_BUCKET_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService;
+  private final LongSupplier nanoClock;
+  private final Map<InterledgerAddress, FulfillmentLatencies> histograms = new ConcurrentHashMap<>();
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param connectorConfigurationService A {@link ConnectorConfigurationService} supplying the fixed window and its
+   *                                      bounds.
+   */
+  public ExpiryWindowEstimator(
+      final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService
+  ) {
+    this(connectorConfigurationService, System::nanoTime);
+  }
+
+  @VisibleForTesting
+  ExpiryWindowEstimator(
+      final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService,
+      final LongSupplier nanoClock
+  ) {
+    this.connectorConfigurationService = Objects.requireNonNull(connectorConfigurationService);
+    this.nanoClock = Objects.requireNonNull(nanoClock);
+  }
+
+  /**
+   * Record how long it took to pass the fulfillment of an outgoing transfer back to the ledger of its source transfer,
+   * from when this connector was notified of the fulfillment until the source ledger accepted it.
+   *
+   * @param destinationLedgerPrefix The ledger prefix of the ledger that the outgoing transfer was made on.
+   * @param latency                 The {@link Duration} that passing the fulfillment back took.
+   */
+  public void recordFulfillmentLatency(final InterledgerAddress destinationLedgerPrefix, final Duration latency) {
+    Objects.requireNonNull(destinationLedgerPrefix);
+    Objects.requireNonNull(latency);
+
+    FulfillmentLatencies histogram = this.histograms.get(destinationLedgerPrefix);
+    if (histogram == null) {
+      histogram = this.histograms.computeIfAbsent(
+          destinationLedgerPrefix, prefix -> new FulfillmentLatencies(nanoClock)
+      );
+    }
+    histogram.record(latency.toNanos());
+  }
+
+  /**
+   * Compute the window between the expiry of an incoming transfer and the expiry of an outgoing transfer to {@code
+   * destinationLedgerPrefix}.
+   *
+   * @param destinationLedgerPrefix The ledger prefix of the ledger that the outgoing transfer is made on.
+   *
+   * @return A {@link Duration} to subtract from the expiry of the incoming transfer.
+   */
+  public Duration getTransferExpiryWindow(final InterledgerAddress destinationLedgerPrefix) {
+    Objects.requireNonNull(destinationLedgerPrefix);
+
+    final ConnectorConfig connectorConfig = connectorConfigurationService.getConnectorConfig();
+    final FulfillmentLatencies histogram = this.histograms.get(destinationLedgerPrefix);
+    final Duration window = histogram == null ? connectorConfig.getTransferExpiryWindow()
+        : histogram.getWindow(connectorConfig.getTransferExpiryWindow());
+
+    if (window.compareTo(connectorConfig.getTransferExpiryWindowFloor()) < 0) {
+      return connectorConfig.getTransferExpiryWindowFloor();
+    } else if (window.compareTo(connectorConfig.getTransferExpiryWindowCeiling()) > 0) {
+      return connectorConfig.getTransferExpiryWindowCeiling();
+    } else {
+      return window;
+    }
+  }
+
+  /**
+   * Recent fulfillment latencies for one destination ledger, counted in coarse buckets. Unlike {@link
+   * org.interledger.connector.metrics.LatencyHistogram}, which counts every latency since it was created, old samples
+   * are discarded a generation at a time.
+   */
+  private static final class FulfillmentLatencies {
+
+    private final LongSupplier nanoClock;
+    private volatile Generations generations;
+    private volatile CachedWindow cachedWindow;
+
+    private FulfillmentLatencies(final LongSupplier nanoClock) {
+      this.nanoClock = nanoClock;
+      this.generations = new Generations(new AtomicLongArray(BUCKETS), nanoClock.getAsLong());
+    }
+
+    private void record(final long latencyNanos) {
+      final int bucket = latencyNanos <= MIN_BUCKET_NANOS ? 0
+          : (int) Math.min(BUCKETS - 1, Math.log((double) latencyNanos / MIN_BUCKET_NANOS) / LOG_BUCKET_GROWTH);
+      this.rotateIfNecessary().current.incrementAndGet(bucket);
+    }
+
+    private Duration getWindow(final Duration fixedWindow) {
+      final long now = nanoClock.getAsLong();
+      final CachedWindow cached = this.cachedWindow;
+      if (cached != null && now - cached.computedAt < WINDOW_CACHE_NANOS && cached.fixedWindow.equals(fixedWindow)) {
+        return cached.window;
+      }
+
+      final Generations current = this.rotateIfNecessary();
+      final long[] counts = new long[BUCKETS];
+      long samples = 0;
+      for (int bucket = 0; bucket < BUCKETS; bucket++) {
+        counts[bucket] = current.previous.get(bucket) + current.current.get(bucket);
+        samples += counts[bucket];
+      }
+
+      Duration window = fixedWindow;
+      if (samples >= MIN_SAMPLES) {
+        final long rank = (long) Math.ceil(samples * PERCENTILE);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+          seen += counts[bucket];
+          if (seen >= rank) {
+            // The upper bound of the bucket, so that the window errs on the side of being too wide.
+            final long percentileNanos = (long) (MIN_BUCKET_NANOS * Math.pow(BUCKET_GROWTH, bucket + 1));
+            window = Duration.ofNanos(percentileNanos).multipliedBy(HEADROOM);
+            break;
+          }
+        }
+      }
+      this.cachedWindow = new CachedWindow(fixedWindow, window, now);
+      return window;
+    }
+
+    private Generations rotateIfNecessary() {
+      final Generations current = this.generations;
+      final long now = nanoClock.getAsLong();
+      if (now - current.startedAt < GENERATION_DURATION.toNanos()) {
+        return current;
+      }
+
+      synchronized (this) {
+        final Generations latest = this.generations;
+        if (latest != current) {
+          // Another thread rotated first.
+          return latest;
+        }
+        // If the current generation is itself older than two generations, none of its samples are recent.
+        final AtomicLongArray previous = now - current.startedAt < 2 * GENERATION_DURATION.toNanos()
+            ? current.current : new AtomicLongArray(BUCKETS);
+        this.generations = new Generations(previous, now);
+        return this.generations;
+      }
+    }
+  }
+
+  /**
+   * The current and previous generations of a {@link FulfillmentLatencies}. Immutable, other than the counts
+   * themselves.
+   */
+  private static final class Generations {
+
+    private final AtomicLongArray previous;
+    private final AtomicLongArray current;
+    private final long startedAt;
+
+    private Generations(final AtomicLongArray previous, final long startedAt) {
+      this.previous = previous;
+      this.current = new AtomicLongArray(BUCKETS);
+      this.startedAt = startedAt;
+    }
+  }
+
+  /**
+   * A window computed from a {@link FulfillmentLatencies}, and when it was computed.
+   */
+  private static final class CachedWindow {
+
+    private final Duration fixedWindow;
+    private final Duration window;
+    private final long computedAt;
+
+    private CachedWindow(final Duration fixedWindow, final Duration window, final long computedAt) {
+      this.fixedWindow = fixedWindow;
+      this.window = window;
+      this.computedAt = computedAt;
+    }
+  }
+}
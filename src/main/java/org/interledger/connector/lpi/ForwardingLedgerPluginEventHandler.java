@@ -0,0 +1,100 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.plugin.lpi.events.IncomingMessgeRequestEvent;
+import org.interledger.plugin.lpi.events.IncomingTransferCancelledEvent;
+import org.interledger.plugin.lpi.events.IncomingTransferFulfilledEvent;
+import org.interledger.plugin.lpi.events.IncomingTransferPreparedEvent;
+import org.interledger.plugin.lpi.events.IncomingTransferRejectedEvent;
+import org.interledger.plugin.lpi.events.LedgerInfoChangedEvent;
+import org.interledger.plugin.lpi.events.LedgerPluginConnectedEvent;
+import org.interledger.plugin.lpi.events.LedgerPluginDisconnectedEvent;
+import org.interledger.plugin.lpi.events.LedgerPluginErrorEvent;
+import org.interledger.plugin.lpi.events.OutgoingMessgeRequestEvent;
+import org.interledger.plugin.lpi.events.OutgoingTransferCancelledEvent;
+import org.interledger.plugin.lpi.events.OutgoingTransferFulfilledEvent;
+import org.interledger.plugin.lpi.events.OutgoingTransferPreparedEvent;
+import org.interledger.plugin.lpi.events.OutgoingTransferRejectedEvent;
+import org.interledger.plugin.lpi.handlers.LedgerPluginEventHandler;
+
+/**
+ * A {@link LedgerPluginEventHandler} that forwards every event to another handler. Subclasses override only the
+ * callbacks whose behavior they wish to change (e.g., to dispatch events onto other threads), in the style of Guava's
+ * {@code Forwarding*} classes.
+ */
+public abstract class ForwardingLedgerPluginEventHandler implements LedgerPluginEventHandler {
+
+  /**
+   * Accessor for the handler that events are forwarded to.
+   */
+  protected abstract LedgerPluginEventHandler delegate();
+
+  @Override
+  public void onConnect(final LedgerPluginConnectedEvent event) {
+    delegate().onConnect(event);
+  }
+
+  @Override
+  public void onDisconnect(final LedgerPluginDisconnectedEvent event) {
+    delegate().onDisconnect(event);
+  }
+
+  @Override
+  public void onError(final LedgerPluginErrorEvent event) {
+    delegate().onError(event);
+  }
+
+  @Override
+  public void onLedgerInfoChanged(final LedgerInfoChangedEvent event) {
+    delegate().onLedgerInfoChanged(event);
+  }
+
+  @Override
+  public void onTransferPrepared(final IncomingTransferPreparedEvent event) {
+    delegate().onTransferPrepared(event);
+  }
+
+  @Override
+  public void onTransferFulfilled(final IncomingTransferFulfilledEvent event) {
+    delegate().onTransferFulfilled(event);
+  }
+
+  @Override
+  public void onTransferRejected(final IncomingTransferRejectedEvent event) {
+    delegate().onTransferRejected(event);
+  }
+
+  @Override
+  public void onTransferCancelled(final IncomingTransferCancelledEvent event) {
+    delegate().onTransferCancelled(event);
+  }
+
+  @Override
+  public void onTransferPrepared(final OutgoingTransferPreparedEvent event) {
+    delegate().onTransferPrepared(event);
+  }
+
+  @Override
+  public void onTransferFulfilled(final OutgoingTransferFulfilledEvent event) {
+    delegate().onTransferFulfilled(event);
+  }
+
+  @Override
+  public void onTransferRejected(final OutgoingTransferRejectedEvent event) {
+    delegate().onTransferRejected(event);
+  }
+
+  @Override
+  public void onTransferCancelled(final OutgoingTransferCancelledEvent event) {
+    delegate().onTransferCancelled(event);
+  }
+
+  @Override
+  public void onMessageRequest(final IncomingMessgeRequestEvent event) {
+    delegate().onMessageRequest(event);
+  }
+
+  @Override
+  public void onMessageRequest(final OutgoingMessgeRequestEvent event) {
+    delegate().onMessageRequest(event);
+  }
+}
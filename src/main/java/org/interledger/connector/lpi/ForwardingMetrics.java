@@ -0,0 +1,146 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.metrics.Counter;
+import org.interledger.connector.metrics.LatencyHistogram;
+import org.interledger.connector.metrics.MetricsRegistry;
+import org.interledger.ilp.InterledgerProtocolError.ErrorCode;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The metrics that {@link AbstractLedgerPluginEventHandler} records while forwarding payments: a {@link
+ * LatencyHistogram} of how long each {@link Stage} takes for each ledger, and a {@link Counter} of the source transfers
+ * rejected on each ledger with each {@link ErrorCode}.
+ *
+ * Metrics are looked up from the {@link MetricsRegistry} once per ledger (and error code), so recording a latency or a
+ * rejection costs a map lookup plus the update of the metric itself.
+ */
+public class ForwardingMetrics {
+
+  /**
+   * The name of the {@link Counter}s of rejected source transfers, which are tagged with {@code ledger} (the source
+   * ledger) and {@code errorCode}.
+   */
+  public static final String REJECTIONS = "forwarding.rejections";
+
+  /**
+   * The stages of forwarding a payment whose latency is recorded. The histogram of each stage is named {@code
+   * forwarding.<stage>} and tagged with {@code ledger}: the destination ledger for {@link #SEND}, and otherwise the
+   * source ledger.
+   */
+  public enum Stage {
+    /**
+     * Finding the next hop of a payment.
+     */
+    ROUTING("forwarding.routing"),
+    /**
+     * Computing the amount of a destination transfer.
+     */
+    FX("forwarding.fx"),
+    /**
+     * Saving the correlation of a source transfer with its destination transfer.
+     */
+    CORRELATION("forwarding.correlation"),
+    /**
+     * Sending a destination transfer to its ledger.
+     */
+    SEND("forwarding.sendTransfer"),
+    /**
+     * Passing a fulfillment back to the ledger of a source transfer.
+     */
+    FULFILL("forwarding.fulfill"),
+    /**
+     * Rejecting a source transfer on its ledger.
+     */
+    REJECT("forwarding.reject");
+
+    private static final Stage[] VALUES = values();
+
+    private final String metricName;
+
+    Stage(final String metricName) {
+      this.metricName = metricName;
+    }
+
+    /**
+     * The name of this stage's {@link LatencyHistogram}s.
+     */
+    public String getMetricName() {
+      return metricName;
+    }
+  }
+
+  private final MetricsRegistry metricsRegistry;
+  private final Map<InterledgerAddress, LedgerMetrics> ledgerMetrics = new ConcurrentHashMap<>();
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param metricsRegistry The {@link MetricsRegistry} that metrics are created in.
+   */
+  public ForwardingMetrics(final MetricsRegistry metricsRegistry) {
+    this.metricsRegistry = Objects.requireNonNull(metricsRegistry);
+  }
+
+  /**
+   * Record the latency of a stage that started at {@code startNanos} and has just finished.
+   *
+   * @param stage        The {@link Stage} that finished.
+   * @param ledgerPrefix The ledger prefix of the ledger that the stage is recorded for (see {@link Stage}).
+   * @param startNanos   The {@link System#nanoTime()} at which the stage started.
+   */
+  public void recordLatency(final Stage stage, final InterledgerAddress ledgerPrefix, final long startNanos) {
+    this.getLedgerMetrics(ledgerPrefix).stageLatencies[stage.ordinal()].record(System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Count a source transfer that was rejected.
+   *
+   * @param sourceLedgerPrefix The ledger prefix of the ledger that the source transfer was rejected on.
+   * @param errorCode          The {@link ErrorCode} that the source transfer was rejected with.
+   */
+  public void recordRejection(final InterledgerAddress sourceLedgerPrefix, final ErrorCode errorCode) {
+    Objects.requireNonNull(errorCode);
+    this.getLedgerMetrics(sourceLedgerPrefix).getRejections(errorCode).increment();
+  }
+
+  private LedgerMetrics getLedgerMetrics(final InterledgerAddress ledgerPrefix) {
+    final LedgerMetrics metrics = this.ledgerMetrics.get(Objects.requireNonNull(ledgerPrefix));
+    if (metrics != null) {
+      return metrics;
+    }
+    return this.ledgerMetrics.computeIfAbsent(ledgerPrefix, LedgerMetrics::new);
+  }
+
+  /**
+   * The metrics of a single ledger.
+   */
+  private final class LedgerMetrics {
+
+    private final String ledger;
+    private final LatencyHistogram[] stageLatencies = new LatencyHistogram[Stage.VALUES.length];
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    private LedgerMetrics(final InterledgerAddress ledgerPrefix) {
+      this.ledger = ledgerPrefix.getValue();
+      for (Stage stage : Stage.VALUES) {
+        this.stageLatencies[stage.ordinal()] = metricsRegistry
+            .histogram(stage.getMetricName(), ImmutableMap.of("ledger", this.ledger));
+      }
+    }
+
+    private Counter getRejections(final ErrorCode errorCode) {
+      final Counter counter = this.rejections.get(errorCode.getCode());
+      if (counter != null) {
+        return counter;
+      }
+      return this.rejections.computeIfAbsent(errorCode.getCode(), code -> metricsRegistry
+          .counter(REJECTIONS, ImmutableMap.of("ledger", this.ledger, "errorCode", code)));
+    }
+  }
+}
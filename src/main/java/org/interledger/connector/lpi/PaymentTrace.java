@@ -0,0 +1,46 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.lpi.PaymentTracer.Step;
+import org.interledger.plugin.lpi.TransferId;
+
+import org.immutables.value.Value;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The trace of a single payment recorded by a {@link PaymentTracer}: when each {@link Step} of processing the payment
+ * was reached, relative to when its source transfer was received.
+ */
+@Value.Immutable
+public interface PaymentTrace {
+
+  /**
+   * The {@link TransferId} of the payment's source transfer.
+   */
+  TransferId getSourceTransferId();
+
+  /**
+   * The ledger prefix of the ledger that the payment's source transfer was received on.
+   */
+  InterledgerAddress getSourceLedgerPrefix();
+
+  /**
+   * The ledger prefix of the ledger that the payment was routed to, if it was routed.
+   */
+  Optional<InterledgerAddress> getDestinationLedgerPrefix();
+
+  /**
+   * When this connector was notified of the payment's source transfer.
+   */
+  Instant getReceivedAt();
+
+  /**
+   * For each {@link Step} that the payment has reached, how long after {@link Step#RECEIVED} it was reached, in the
+   * order of {@link Step}.
+   */
+  Map<Step, Duration> getElapsed();
+}
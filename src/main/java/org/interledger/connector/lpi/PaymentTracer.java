@@ -0,0 +1,298 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records when a sampled subset of payments reaches each {@link Step} of being processed by this connector, so that
+ * latency outliers can be found in production without logging every payment.
+ *
+ * Whether a payment is sampled is decided from its source transfer's identifier (one in {@link
+ * ConnectorConfig#getPaymentTraceSampleInterval()}), so an unsampled payment costs only a hash and an index lookup
+ * per step. Traces are recorded into a ring buffer that is allocated up-front, whose oldest trace is overwritten by
+ * each newly sampled payment; a trace can be read at any time with {@link #getTraces()}, or through JMX as {@link
+ * #getTraceDump()} (see {@link PaymentTracerMXBean}).
+ */
+public class PaymentTracer implements PaymentTracerMXBean {
+
+  /**
+   * The number of traces that are kept by default.
+   */
+  public static final int DEFAULT_CAPACITY = 4096;
+
+  /**
+   * The steps of processing a payment that are traced, in the order in which a payment reaches them.
+   */
+  public enum Step {
+    /**
+     * This connector was notified of the payment's source transfer.
+     */
+    RECEIVED,
+    /**
+     * The next hop of the payment was found.
+     */
+    ROUTED,
+    /**
+     * The amount of the payment's destination transfer was computed.
+     */
+    FX_APPLIED,
+    /**
+     * The payment's source and destination transfers were correlated.
+     */
+    CORRELATED,
+    /**
+     * The payment's destination transfer was accepted by its ledger.
+     */
+    SENT,
+    /**
+     * The payment's source transfer was fulfilled.
+     */
+    FULFILLED,
+    /**
+     * The payment's source transfer was rejected.
+     */
+    REJECTED,
+    /**
+     * The payment's source transfer expired.
+     */
+    CANCELLED;
+
+    private static final Step[] VALUES = values();
+
+    private boolean isFinal() {
+      return this == FULFILLED || this == REJECTED || this == CANCELLED;
+    }
+  }
+
+  // Each trace is a record of longs: a marker (its sequence number plus one, or zero while it is being written), the
+  // source transfer id, when it was received (in epoch milliseconds), and the nano time of each step (zero until the
+  // step is reached).
+  private static final int MARKER = 0;
+  private static final int ID_MSB = 1;
+  private static final int ID_LSB = 2;
+  private static final int RECEIVED_AT_MILLIS = 3;
+  private static final int STEP_NANOS = 4;
+  private static final int LONGS_PER_TRACE = STEP_NANOS + Step.VALUES.length;
+
+  private final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService;
+  private final int mask;
+  private final AtomicLongArray traces;
+  // The source and destination ledger prefix of each trace.
+  private final AtomicReferenceArray<InterledgerAddress> ledgerPrefixes;
+  private final AtomicLong sequence = new AtomicLong();
+
+  // The sequence number of the trace of each sampled payment that has not reached a final step. An entry is removed
+  // when its trace is overwritten, so this never holds more entries than the ring buffer.
+  private final Map<TransferId, Long> inFlightTraces = new ConcurrentHashMap<>();
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param connectorConfigurationService A {@link ConnectorConfigurationService} supplying the sample interval.
+   * @param capacity                      The number of traces that are kept, which must be a power of two.
+   */
+  public PaymentTracer(
+      final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService,
+      final int capacity
+  ) {
+    this.connectorConfigurationService = Objects.requireNonNull(connectorConfigurationService);
+    if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("capacity must be a power of two!");
+    }
+    this.mask = capacity - 1;
+    this.traces = new AtomicLongArray(capacity * LONGS_PER_TRACE);
+    this.ledgerPrefixes = new AtomicReferenceArray<>(capacity * 2);
+  }
+
+  /**
+   * Start tracing a payment, if it is sampled.
+   *
+   * @param sourceTransfer  The payment's source {@link Transfer}.
+   * @param receivedAtNanos The {@link System#nanoTime()} at which this connector was notified of {@code
+   *                        sourceTransfer}.
+   */
+  public void start(final Transfer sourceTransfer, final long receivedAtNanos) {
+    Objects.requireNonNull(sourceTransfer);
+
+    final UUID sourceTransferId = sourceTransfer.getTransferId().value();
+    if (!this.isSampled(sourceTransferId)) {
+      return;
+    }
+
+    final long traceSequence = this.sequence.getAndIncrement();
+    final int slot = (int) (traceSequence & mask);
+    final int base = slot * LONGS_PER_TRACE;
+
+    // Invalidate the overwritten trace before writing, so that it is neither read nor recorded to in the meantime.
+    final long overwrittenMarker = this.traces.getAndSet(base + MARKER, 0);
+    if (overwrittenMarker != 0) {
+      this.inFlightTraces.remove(
+          TransferId.of(new UUID(this.traces.get(base + ID_MSB), this.traces.get(base + ID_LSB))),
+          overwrittenMarker - 1
+      );
+    }
+
+    this.traces.set(base + ID_MSB, sourceTransferId.getMostSignificantBits());
+    this.traces.set(base + ID_LSB, sourceTransferId.getLeastSignificantBits());
+    this.traces.set(base + RECEIVED_AT_MILLIS, System.currentTimeMillis());
+    this.traces.set(base + STEP_NANOS + Step.RECEIVED.ordinal(), receivedAtNanos);
+    for (int step = Step.RECEIVED.ordinal() + 1; step < Step.VALUES.length; step++) {
+      this.traces.set(base + STEP_NANOS + step, 0);
+    }
+    this.ledgerPrefixes.set(slot * 2, sourceTransfer.getLedgerPrefix());
+    this.ledgerPrefixes.set(slot * 2 + 1, null);
+    this.traces.set(base + MARKER, traceSequence + 1);
+
+    this.inFlightTraces.put(sourceTransfer.getTransferId(), traceSequence);
+  }
+
+  /**
+   * Record that a payment has reached {@code step}, if it is being traced.
+   *
+   * @param sourceTransferId The {@link TransferId} of the payment's source transfer.
+   * @param step             The {@link Step} that the payment reached.
+   */
+  public void record(final TransferId sourceTransferId, final Step step) {
+    Objects.requireNonNull(sourceTransferId);
+    Objects.requireNonNull(step);
+
+    final Long traceSequence = step.isFinal()
+        ? this.inFlightTraces.remove(sourceTransferId) : this.inFlightTraces.get(sourceTransferId);
+    if (traceSequence != null) {
+      final int base = (int) (traceSequence & mask) * LONGS_PER_TRACE;
+      // The trace may have been overwritten since it was looked up, in which case the step is dropped.
+      if (this.traces.get(base + MARKER) == traceSequence + 1) {
+        this.traces.lazySet(base + STEP_NANOS + step.ordinal(), System.nanoTime());
+      }
+    }
+  }
+
+  /**
+   * Record that a payment has been routed (i.e., reached {@link Step#ROUTED}), if it is being traced.
+   *
+   * @param sourceTransferId        The {@link TransferId} of the payment's source transfer.
+   * @param destinationLedgerPrefix The ledger prefix of the ledger that the payment was routed to.
+   */
+  public void recordRouted(final TransferId sourceTransferId, final InterledgerAddress destinationLedgerPrefix) {
+    Objects.requireNonNull(sourceTransferId);
+    Objects.requireNonNull(destinationLedgerPrefix);
+
+    final Long traceSequence = this.inFlightTraces.get(sourceTransferId);
+    if (traceSequence != null) {
+      this.ledgerPrefixes.set((int) (traceSequence & mask) * 2 + 1, destinationLedgerPrefix);
+      this.record(sourceTransferId, Step.ROUTED);
+    }
+  }
+
+  /**
+   * Read the traces in the ring buffer, from the oldest to the most recent. Traces that are being overwritten while
+   * they are read are omitted.
+   *
+   * @return A {@link List} of {@link PaymentTrace}s.
+   */
+  public List<PaymentTrace> getTraces() {
+    final List<TracedPayment> tracedPayments = new ArrayList<>(mask + 1);
+    for (int slot = 0; slot <= mask; slot++) {
+      final int base = slot * LONGS_PER_TRACE;
+      final long marker = this.traces.get(base + MARKER);
+      if (marker == 0) {
+        continue;
+      }
+
+      final long receivedAtNanos = this.traces.get(base + STEP_NANOS + Step.RECEIVED.ordinal());
+      final ImmutablePaymentTrace.Builder builder = ImmutablePaymentTrace.builder()
+          .sourceTransferId(TransferId.of(new UUID(this.traces.get(base + ID_MSB), this.traces.get(base + ID_LSB))))
+          .receivedAt(Instant.ofEpochMilli(this.traces.get(base + RECEIVED_AT_MILLIS)))
+          .sourceLedgerPrefix(this.ledgerPrefixes.get(slot * 2))
+          .destinationLedgerPrefix(Optional.ofNullable(this.ledgerPrefixes.get(slot * 2 + 1)));
+      for (Step step : Step.VALUES) {
+        final long stepNanos = this.traces.get(base + STEP_NANOS + step.ordinal());
+        if (stepNanos != 0) {
+          builder.putElapsed(step, Duration.ofNanos(stepNanos - receivedAtNanos));
+        }
+      }
+
+      // Only keep the trace if it was not overwritten while it was being read.
+      if (this.traces.get(base + MARKER) == marker) {
+        tracedPayments.add(new TracedPayment(marker, builder.build()));
+      }
+    }
+
+    tracedPayments.sort(Comparator.comparingLong(tracedPayment -> tracedPayment.marker));
+    final List<PaymentTrace> paymentTraces = new ArrayList<>(tracedPayments.size());
+    tracedPayments.forEach(tracedPayment -> paymentTraces.add(tracedPayment.paymentTrace));
+    return paymentTraces;
+  }
+
+  /**
+   * Format the traces in the ring buffer, from the oldest to the most recent, one line per trace. Each line gives when
+   * the payment was received, its source transfer id, its source and destination ledgers, and the elapsed time (in
+   * microseconds) at which it reached each step, e.g. {@code 2017-08-01T12:00:00Z 5a1b... test1.usd. -> test1.eur.
+   * RECEIVED=0us ROUTED=12us ...}.
+   */
+  @Override
+  public List<String> getTraceDump() {
+    final List<PaymentTrace> paymentTraces = this.getTraces();
+    final List<String> traceDump = new ArrayList<>(paymentTraces.size());
+    for (PaymentTrace paymentTrace : paymentTraces) {
+      final StringBuilder line = new StringBuilder()
+          .append(paymentTrace.getReceivedAt())
+          .append(' ').append(paymentTrace.getSourceTransferId().value())
+          .append(' ').append(paymentTrace.getSourceLedgerPrefix().getValue())
+          .append(" -> ")
+          .append(paymentTrace.getDestinationLedgerPrefix().map(InterledgerAddress::getValue).orElse("?"));
+      paymentTrace.getElapsed().forEach((step, elapsed) -> line
+          .append(' ').append(step).append('=').append(TimeUnit.NANOSECONDS.toMicros(elapsed.toNanos())).append("us"));
+      traceDump.add(line.toString());
+    }
+    return traceDump;
+  }
+
+  /**
+   * Decide whether the payment whose source transfer has the given identifier is sampled. Identifiers are mixed first,
+   * so that payments are sampled evenly even if their ledger does not assign identifiers randomly.
+   */
+  private boolean isSampled(final UUID sourceTransferId) {
+    final int sampleInterval = connectorConfigurationService.getConnectorConfig().getPaymentTraceSampleInterval();
+    if (sampleInterval <= 0) {
+      return false;
+    }
+    long hash = sourceTransferId.getMostSignificantBits() ^ sourceTransferId.getLeastSignificantBits();
+    hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+    hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return Long.remainderUnsigned(hash, sampleInterval) == 0;
+  }
+
+  /**
+   * A {@link PaymentTrace}, with the marker that orders it.
+   */
+  private static final class TracedPayment {
+
+    private final long marker;
+    private final PaymentTrace paymentTrace;
+
+    private TracedPayment(final long marker, final PaymentTrace paymentTrace) {
+      this.marker = marker;
+      this.paymentTrace = paymentTrace;
+    }
+  }
+}
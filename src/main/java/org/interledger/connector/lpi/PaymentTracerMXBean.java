@@ -0,0 +1,17 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.connector.metrics.MetricsRegistry;
+
+import java.util.List;
+
+/**
+ * The JMX view of a {@link PaymentTracer}, which a handler registers with its {@link MetricsRegistry} as the {@code
+ * forwarding.traces} view (see {@link MetricsRegistry#registerView(String, Object)}).
+ */
+public interface PaymentTracerMXBean {
+
+  /**
+   * The traces of recently sampled payments, from the oldest to the most recent, one line per trace.
+   */
+  List<String> getTraceDump();
+}
@@ -0,0 +1,293 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.connector.jfr.ConnectorEvents.Kind;
+import org.interledger.connector.jfr.ConnectorEvents.Span;
+import org.interledger.connector.lpi.PaymentTracer.Step;
+import org.interledger.connector.routing.Route;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.events.IncomingTransferPreparedEvent;
+import org.interledger.plugin.lpi.exceptions.InvalidTransferException;
+import org.interledger.plugin.lpi.handlers.LedgerPluginEventHandler;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link LedgerPluginEventHandler} that forwards payments in a pipeline of stages, each with its own bounded queue
+ * and dedicated threads, so that slow I/O in one stage (typically, sending the next-hop transfer to a slow destination
+ * ledger) does not stall event delivery from the source ledger or cap the throughput of the other stages.
+ *
+ * Each incoming prepared transfer passes through the {@link Stage}s in order, using the corresponding methods of the
+ * wrapped {@link AbstractLedgerPluginEventHandler}, and is traced and recorded as a {@link Kind#TRANSFER_PREPARED}
+ * event just as the wrapped handler would, with the event spanning every stage. All other events are forwarded to the
+ * wrapped handler on the thread that delivered them.
+ *
+ * When a stage's queue is full, the stage feeding it runs the work itself, which pushes back on upstream stages and,
+ * ultimately, on the ledger plugin delivering events. Note that with more than one thread per stage, payments are not
+ * guaranteed to be forwarded in the order they were received.
+ *
+ * This mode is opt-in: to use it, wrap a connector's handler before supplying it to the connector, and {@link
+ * #close()} this handler when the connector shuts down. Payments received after closing are abandoned (and logged).
+ */
+public class PipelinedLedgerPluginEventHandler extends ForwardingLedgerPluginEventHandler implements AutoCloseable {
+
+  /**
+   * The default capacity of each stage's queue.
+   */
+  public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final AbstractLedgerPluginEventHandler<?> delegate;
+  private final Map<Stage, ThreadPoolExecutor> executors;
+
+  /**
+   * The stages of forwarding a payment, in the order that each payment passes through them.
+   */
+  public enum Stage {
+    /**
+     * Read the ILP packet of an incoming transfer, and determine whether it should be forwarded.
+     */
+    DECODE,
+    /**
+     * Determine the next-hop route of a payment.
+     */
+    ROUTE,
+    /**
+     * Compute the amount of, and assemble, the next-hop transfer.
+     */
+    FX,
+    /**
+     * Save the correlation between the incoming and next-hop transfers.
+     */
+    CORRELATE,
+    /**
+     * Send the next-hop transfer to the destination ledger.
+     */
+    SEND
+  }
+
+  /**
+   * Construct a pipeline with a single thread for each compute-bound stage, and one thread per available processor for
+   * the {@link Stage#SEND} stage.
+   *
+   * @param delegate The {@link AbstractLedgerPluginEventHandler} whose logic each stage executes.
+   */
+  public PipelinedLedgerPluginEventHandler(final AbstractLedgerPluginEventHandler<?> delegate) {
+    this(delegate, 1, Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY);
+  }
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param delegate              The {@link AbstractLedgerPluginEventHandler} whose logic each stage executes.
+   * @param computeThreads        The number of threads for each stage other than {@link Stage#SEND}.
+   * @param sendThreads           The number of threads for the {@link Stage#SEND} stage, which blocks on ledger I/O.
+   * @param queueCapacityPerStage The maximum number of payments that may wait in each stage's queue.
+   */
+  public PipelinedLedgerPluginEventHandler(
+      final AbstractLedgerPluginEventHandler<?> delegate, final int computeThreads, final int sendThreads,
+      final int queueCapacityPerStage
+  ) {
+    this.delegate = Objects.requireNonNull(delegate);
+    if (computeThreads < 1 || sendThreads < 1 || queueCapacityPerStage < 1) {
+      throw new IllegalArgumentException("Pipeline stages require at least one thread and a positive queue capacity!");
+    }
+
+    final Map<Stage, ThreadPoolExecutor> stageExecutors = new EnumMap<>(Stage.class);
+    for (Stage stage : Stage.values()) {
+      final int threads = stage == Stage.SEND ? sendThreads : computeThreads;
+      stageExecutors.put(stage, new ThreadPoolExecutor(
+          threads, threads, 0L, TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<>(queueCapacityPerStage),
+          new ThreadFactoryBuilder()
+              .setNameFormat("ilp-pipeline-" + stage.name().toLowerCase() + "-%d")
+              .setDaemon(true)
+              .build(),
+          (work, executor) -> {
+            if (executor.isShutdown()) {
+              throw new RejectedExecutionException("Pipeline stage " + stage + " is closed");
+            }
+            // Applies back-pressure by running work on the thread of the upstream stage.
+            work.run();
+          }
+      ));
+    }
+    this.executors = ImmutableMap.copyOf(stageExecutors);
+  }
+
+  @Override
+  protected LedgerPluginEventHandler delegate() {
+    return this.delegate;
+  }
+
+  /**
+   * Enqueue an incoming prepared transfer into the first stage of the pipeline, and return immediately. A transfer that
+   * its source ledger has no in-flight budget for is rejected immediately instead, without entering the pipeline.
+   *
+   * @param event A {@link IncomingTransferPreparedEvent}.
+   */
+  @Override
+  public void onTransferPrepared(final IncomingTransferPreparedEvent event) {
+    final long receivedAtNanos = System.nanoTime();
+    Objects.requireNonNull(event);
+
+    final Transfer sourceTransfer = event.getTransfer();
+    final Span span = delegate.getConnectorEvents().begin(Kind.TRANSFER_PREPARED).transfer(sourceTransfer);
+    final boolean admitted;
+    try {
+      admitted = delegate.admitSourceTransfer(sourceTransfer);
+    } catch (RuntimeException e) {
+      span.finish();
+      throw e;
+    }
+    if (!admitted) {
+      span.finish();
+      return;
+    }
+    delegate.getPaymentTracer().start(sourceTransfer, receivedAtNanos);
+    this.submit(Stage.DECODE, new InFlightPayment(sourceTransfer, span), this::decode);
+  }
+
+  private void decode(final InFlightPayment payment) {
+    if (delegate.shouldForward(payment.sourceTransfer)) {
+      this.submit(Stage.ROUTE, payment, this::route);
+    } else {
+      delegate.releaseSourceTransfer(payment.sourceTransfer);
+      payment.span.finish();
+    }
+  }
+
+  private void route(final InFlightPayment payment) {
+    payment.nextHopRoute = delegate.findNextHopRoute(payment.sourceTransfer);
+    delegate.getPaymentTracer().recordRouted(
+        payment.sourceTransfer.getTransferId(), payment.nextHopRoute.getNextHopLedgerPrefix()
+    );
+    this.submit(Stage.FX, payment, this::computeNextHopTransfer);
+  }
+
+  private void computeNextHopTransfer(final InFlightPayment payment) {
+    payment.destinationTransfer = delegate.buildNextHopTransfer(payment.sourceTransfer, payment.nextHopRoute);
+    delegate.getPaymentTracer().record(payment.sourceTransfer.getTransferId(), Step.FX_APPLIED);
+    this.submit(Stage.CORRELATE, payment, this::correlate);
+  }
+
+  private void correlate(final InFlightPayment payment) {
+    delegate.saveTransferCorrelation(payment.sourceTransfer, payment.destinationTransfer);
+    delegate.getPaymentTracer().record(payment.sourceTransfer.getTransferId(), Step.CORRELATED);
+    this.submit(Stage.SEND, payment, this::send);
+  }
+
+  private void send(final InFlightPayment payment) {
+    delegate.prepareDestinationTransfer(payment.sourceTransfer, payment.destinationTransfer);
+    payment.span.finish();
+  }
+
+  private void submit(final Stage stage, final InFlightPayment payment, final StageTask task) {
+    try {
+      this.executors.get(stage).execute(() -> this.run(stage, payment, task));
+    } catch (RejectedExecutionException e) {
+      // The payment was admitted before the pipeline closed, so its budget and duplicate mark must not leak.
+      delegate.abandonSourceTransfer(payment.sourceTransfer);
+      payment.span.finish();
+      logger.warn("Dropping Transfer {} submitted to pipeline stage {} after it was closed!",
+          payment.sourceTransfer.getTransferId(), stage);
+    }
+  }
+
+  private void run(final Stage stage, final InFlightPayment payment, final StageTask task) {
+    try {
+      task.run(payment);
+    } catch (InvalidTransferException e) {
+      try {
+        delegate.rejectInvalidSourceTransfer(payment.sourceTransfer, e);
+        payment.span.finish();
+      } catch (RuntimeException rejectionFailure) {
+        this.abandon(stage, payment, rejectionFailure);
+      }
+    } catch (RuntimeException e) {
+      this.abandon(stage, payment, e);
+    }
+  }
+
+  private void abandon(final Stage stage, final InFlightPayment payment, final RuntimeException e) {
+    delegate.abandonSourceTransfer(payment.sourceTransfer);
+    payment.span.finish();
+    // There is no caller to propagate this to, so it is logged, like any exception thrown to a plugin's emitter.
+    logger.error("Unable to forward Transfer {} in pipeline stage {}!",
+        payment.sourceTransfer.getTransferId(), stage, e);
+  }
+
+  /**
+   * Accessor for the number of payments waiting in the queue of {@code stage}.
+   */
+  public int getQueueDepth(final Stage stage) {
+    return this.executors.get(Objects.requireNonNull(stage)).getQueue().size();
+  }
+
+  /**
+   * Accessor for the number of payments waiting in the queue of every stage.
+   */
+  public Map<Stage, Integer> getQueueDepths() {
+    final Map<Stage, Integer> queueDepths = new EnumMap<>(Stage.class);
+    for (Stage stage : Stage.values()) {
+      queueDepths.put(stage, this.getQueueDepth(stage));
+    }
+    return queueDepths;
+  }
+
+  /**
+   * Stop accepting payments, and wait for payments already in the pipeline to finish each stage. Stages are shut down
+   * in order, so that payments drained from one stage can still be accepted by the next.
+   */
+  @Override
+  public void close() {
+    for (Stage stage : Stage.values()) {
+      final ThreadPoolExecutor executor = this.executors.get(stage);
+      executor.shutdown();
+      try {
+        if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          logger.warn("Pipeline stage {} did not drain within {} seconds!", stage, SHUTDOWN_TIMEOUT_SECONDS);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface StageTask {
+
+    void run(InFlightPayment payment);
+  }
+
+  /**
+   * The state of a payment as it passes through the pipeline. Fields are written by one stage and read by the next;
+   * handing the payment to the next stage's executor makes those writes visible.
+   */
+  private static final class InFlightPayment {
+
+    private final Transfer sourceTransfer;
+    private final Span span;
+    private Route nextHopRoute;
+    private Transfer destinationTransfer;
+
+    private InFlightPayment(final Transfer sourceTransfer, final Span span) {
+      this.sourceTransfer = Objects.requireNonNull(sourceTransfer);
+      this.span = Objects.requireNonNull(span);
+    }
+  }
+}
@@ -0,0 +1,138 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Retries ledger plugin calls that failed with a transient error (e.g., because a peer ledger was briefly unreachable)
+ * after a jittered, exponentially increasing backoff, for as long as the next attempt would still be made before a
+ * deadline (typically, the expiry of the transfer that the call is for).
+ *
+ * Retries wait on a {@link TimingWheel} rather than on a thread, so thousands of them may be pending at negligible
+ * cost, and never hold up the thread that made the first attempt. Closing that wheel abandons any retries that are
+ * still waiting for their backoff.
+ */
+public class RetryScheduler {
+
+  // The largest power of two that the initial backoff is multiplied by, so that the multiplication cannot overflow.
+  private static final int MAX_BACKOFF_DOUBLINGS = 30;
+
+  private final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService;
+  private final TimingWheel timingWheel;
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param connectorConfigurationService A {@link ConnectorConfigurationService} supplying the backoffs.
+   * @param timingWheel                   The {@link TimingWheel} that retries wait on, and whose task executor they
+   *                                      are made on.
+   */
+  public RetryScheduler(
+      final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService,
+      final TimingWheel timingWheel
+  ) {
+    this.connectorConfigurationService = Objects.requireNonNull(connectorConfigurationService);
+    this.timingWheel = Objects.requireNonNull(timingWheel);
+  }
+
+  /**
+   * Retry an operation whose first attempt has already failed.
+   *
+   * @param operation   A {@link Supplier} that makes one attempt of the operation, returning a {@link
+   *                    CompletableFuture} of its outcome.
+   * @param failure     The error that the first attempt failed with.
+   * @param isTransient A {@link Predicate} that decides whether an attempt that failed with a given error may be
+   *                    retried.
+   * @param deadline    The {@link Instant} before which every attempt must be made.
+   *
+   * @return A {@link CompletableFuture} that completes once an attempt has succeeded or, if none does, that completes
+   *     exceptionally with the error that the last attempt failed with.
+   */
+  public CompletableFuture<Void> retry(
+      final Supplier<CompletableFuture<Void>> operation, final Throwable failure,
+      final Predicate<Throwable> isTransient, final Instant deadline
+  ) {
+    Objects.requireNonNull(operation);
+    Objects.requireNonNull(failure);
+    Objects.requireNonNull(isTransient);
+    Objects.requireNonNull(deadline);
+
+    final CompletableFuture<Void> result = new CompletableFuture<>();
+    this.onFailure(operation, failure, isTransient, deadline, 1, result);
+    return result;
+  }
+
+  private void onFailure(
+      final Supplier<CompletableFuture<Void>> operation, final Throwable failure,
+      final Predicate<Throwable> isTransient, final Instant deadline, final int retry,
+      final CompletableFuture<Void> result
+  ) {
+    if (!isTransient.test(failure)) {
+      result.completeExceptionally(failure);
+      return;
+    }
+
+    final Duration backoff = this.computeBackoff(retry);
+    if (!Instant.now().plus(backoff).isBefore(deadline)) {
+      result.completeExceptionally(failure);
+      return;
+    }
+
+    try {
+      this.timingWheel.schedule(() -> this.attempt(operation, isTransient, deadline, retry, result), backoff);
+    } catch (RejectedExecutionException e) {
+      // The connector is shutting down.
+      result.completeExceptionally(failure);
+    }
+  }
+
+  private void attempt(
+      final Supplier<CompletableFuture<Void>> operation, final Predicate<Throwable> isTransient,
+      final Instant deadline, final int retry, final CompletableFuture<Void> result
+  ) {
+    CompletableFuture<Void> attempt;
+    try {
+      attempt = operation.get();
+    } catch (RuntimeException e) {
+      attempt = new CompletableFuture<>();
+      attempt.completeExceptionally(e);
+    }
+
+    attempt.whenComplete((ignored, error) -> {
+      if (error == null) {
+        result.complete(null);
+      } else {
+        final Throwable cause = error instanceof CompletionException && error.getCause() != null
+            ? error.getCause() : error;
+        this.onFailure(operation, cause, isTransient, deadline, retry + 1, result);
+      }
+    });
+  }
+
+  /**
+   * Compute the backoff before the {@code retry}th retry: a random duration between half of and all of the initial
+   * backoff doubled for each previous retry, capped at the maximum backoff. Randomizing the backoff keeps transfers
+   * that failed together (e.g., because their destination ledger went down) from all being retried at once.
+   */
+  private Duration computeBackoff(final int retry) {
+    final ConnectorConfig connectorConfig = connectorConfigurationService.getConnectorConfig();
+    final long initialNanos = connectorConfig.getTransientFailureRetryInitialBackoff().toNanos();
+    final long maxNanos = connectorConfig.getTransientFailureRetryMaxBackoff().toNanos();
+
+    final int doublings = Math.min(retry - 1, MAX_BACKOFF_DOUBLINGS);
+    final long ceilingNanos = Math.max(1,
+        initialNanos > (maxNanos >> doublings) ? maxNanos : Math.min(maxNanos, initialNanos << doublings));
+    final long halfNanos = ceilingNanos / 2;
+    return Duration.ofNanos(halfNanos + ThreadLocalRandom.current().nextLong(ceilingNanos - halfNanos + 1));
+  }
+}
@@ -0,0 +1,278 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.cryptoconditions.Fulfillment;
+import org.interledger.ilp.InterledgerProtocolError;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+import org.interledger.plugin.lpi.exceptions.LedgerPluginException;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesces the fulfillments and rejections that this connector sends to a source ledger whose plugin implements
+ * {@link BatchSettlementLedgerPlugin}, so that many incoming transfers are settled with a single request.
+ *
+ * Pending settlements for a ledger are sent once {@link ConnectorConfig#getSettlementBatchMaxDelay()} has passed since
+ * the first of them was submitted, or once {@link ConnectorConfig#getSettlementBatchMaxSize()} of them are pending,
+ * whichever comes first. In addition, a settlement is never held past {@link
+ * ConnectorConfig#getSettlementBatchExpiryMargin()} before its incoming transfer expires: its batch is sent early if
+ * necessary, and a settlement submitted inside that margin is sent immediately. If the executor refuses a batch, it is
+ * sent on the calling thread rather than failed.
+ */
+public class SettlementCoalescer implements AutoCloseable {
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService;
+  private final Executor ledgerIoExecutor;
+  private final Clock clock;
+  private final ScheduledExecutorService flushScheduler;
+  private final ConcurrentMap<InterledgerAddress, PendingBatch> pendingBatches;
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param connectorConfigurationService A {@link ConnectorConfigurationService} supplying the batch delay and size.
+   * @param ledgerIoExecutor              The {@link Executor} that batches are sent on.
+   */
+  public SettlementCoalescer(
+      final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService,
+      final Executor ledgerIoExecutor
+  ) {
+    this(connectorConfigurationService, ledgerIoExecutor, Clock.systemUTC());
+  }
+
+  @VisibleForTesting
+  SettlementCoalescer(
+      final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService,
+      final Executor ledgerIoExecutor,
+      final Clock clock
+  ) {
+    this.connectorConfigurationService = Objects.requireNonNull(connectorConfigurationService);
+    this.ledgerIoExecutor = Objects.requireNonNull(ledgerIoExecutor);
+    this.clock = Objects.requireNonNull(clock);
+    this.flushScheduler = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("ilp-settlement-coalescer-%d").setDaemon(true).build()
+    );
+    this.pendingBatches = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Fulfill {@code sourceTransfer} on its ledger, together with other pending settlements for that ledger.
+   *
+   * @return A {@link CompletableFuture} that completes once the ledger has accepted (or refused) the fulfillment.
+   */
+  public CompletableFuture<Void> fulfillCondition(
+      final BatchSettlementLedgerPlugin ledgerPlugin, final Transfer sourceTransfer, final Fulfillment fulfillment
+  ) {
+    Objects.requireNonNull(fulfillment);
+    return this.submit(ledgerPlugin, sourceTransfer, new PendingSettlement(sourceTransfer, fulfillment, null));
+  }
+
+  /**
+   * Reject {@code sourceTransfer} on its ledger, together with other pending settlements for that ledger.
+   *
+   * @return A {@link CompletableFuture} that completes once the ledger has accepted (or refused) the rejection.
+   */
+  public CompletableFuture<Void> rejectIncomingTransfer(
+      final BatchSettlementLedgerPlugin ledgerPlugin, final Transfer sourceTransfer,
+      final InterledgerProtocolError rejectionReason
+  ) {
+    Objects.requireNonNull(rejectionReason);
+    return this.submit(ledgerPlugin, sourceTransfer, new PendingSettlement(sourceTransfer, null, rejectionReason));
+  }
+
+  private CompletableFuture<Void> submit(
+      final BatchSettlementLedgerPlugin ledgerPlugin, final Transfer sourceTransfer, final PendingSettlement settlement
+  ) {
+    Objects.requireNonNull(ledgerPlugin);
+    Objects.requireNonNull(sourceTransfer);
+
+    final ConnectorConfig connectorConfig = connectorConfigurationService.getConnectorConfig();
+    final Instant now = clock.instant();
+    // The latest moment this settlement may be sent without risking the expiry of the source transfer.
+    final Instant hardDeadline = sourceTransfer.getExpiresAt().minus(connectorConfig.getSettlementBatchExpiryMargin());
+    if (!hardDeadline.isAfter(now)) {
+      final PendingBatch batch = new PendingBatch(ledgerPlugin, now);
+      batch.settlements.add(settlement);
+      this.send(sourceTransfer.getLedgerPrefix(), batch);
+      return settlement.result;
+    }
+
+    final Instant softDeadline = now.plus(connectorConfig.getSettlementBatchMaxDelay());
+    final Instant deadline = softDeadline.isBefore(hardDeadline) ? softDeadline : hardDeadline;
+    final int maxBatchSize = connectorConfig.getSettlementBatchMaxSize();
+
+    final InterledgerAddress ledgerPrefix = sourceTransfer.getLedgerPrefix();
+    final PendingBatch[] fullBatch = new PendingBatch[1];
+    pendingBatches.compute(ledgerPrefix, (prefix, batch) -> {
+      if (batch == null) {
+        batch = new PendingBatch(ledgerPlugin, deadline);
+        this.scheduleFlush(prefix, batch, Duration.between(now, deadline));
+      } else if (deadline.isBefore(batch.deadline)) {
+        // This settlement cannot wait as long as the rest of the batch, so the whole batch is sent sooner.
+        batch.deadline = deadline;
+        this.scheduleFlush(prefix, batch, Duration.between(now, deadline));
+      }
+      batch.settlements.add(settlement);
+      if (batch.settlements.size() >= maxBatchSize) {
+        fullBatch[0] = batch;
+        return null;
+      }
+      return batch;
+    });
+
+    if (fullBatch[0] != null) {
+      this.send(ledgerPrefix, fullBatch[0]);
+    }
+    return settlement.result;
+  }
+
+  private void scheduleFlush(final InterledgerAddress ledgerPrefix, final PendingBatch batch, final Duration delay) {
+    try {
+      flushScheduler.schedule(() -> this.flush(ledgerPrefix, batch), delay.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (RejectedExecutionException e) {
+      // Only occurs once closed, in which case close() flushes this batch.
+      logger.debug("Unable to schedule flush of settlement batch for {}", ledgerPrefix);
+    }
+  }
+
+  private void flush(final InterledgerAddress ledgerPrefix, final PendingBatch batch) {
+    // If the batch was already sent (e.g., because it filled up, or by an earlier flush), there is nothing to do.
+    if (pendingBatches.remove(ledgerPrefix, batch)) {
+      this.send(ledgerPrefix, batch);
+    }
+  }
+
+  private void send(final InterledgerAddress ledgerPrefix, final PendingBatch batch) {
+    try {
+      ledgerIoExecutor.execute(() -> this.sendNow(ledgerPrefix, batch));
+    } catch (RejectedExecutionException e) {
+      // Failing the batch would drop fulfillments that this connector is owed, so it is sent on this thread instead.
+      logger.warn("Sending settlement batch for {} on the calling thread, because it could not be queued",
+          ledgerPrefix);
+      this.sendNow(ledgerPrefix, batch);
+    }
+  }
+
+  private void sendNow(final InterledgerAddress ledgerPrefix, final PendingBatch batch) {
+    final List<PendingSettlement> fulfillments = new ArrayList<>();
+    final List<PendingSettlement> rejections = new ArrayList<>();
+    for (PendingSettlement settlement : batch.settlements) {
+      (settlement.fulfillment != null ? fulfillments : rejections).add(settlement);
+    }
+    if (logger.isDebugEnabled()) {
+      logger.debug("Sending {} fulfillments and {} rejections to {}", fulfillments.size(), rejections.size(),
+          ledgerPrefix);
+    }
+
+    if (!fulfillments.isEmpty()) {
+      this.settle(fulfillments, settlement -> settlement.fulfillment, batch.ledgerPlugin::fulfillConditions);
+    }
+    if (!rejections.isEmpty()) {
+      this.settle(rejections, settlement -> settlement.rejectionReason, batch.ledgerPlugin::rejectIncomingTransfers);
+    }
+  }
+
+  private <T> void settle(
+      final List<PendingSettlement> settlements,
+      final Function<PendingSettlement, T> payload,
+      final Function<Map<TransferId, T>, Map<TransferId, LedgerPluginException>> request
+  ) {
+    final Map<TransferId, T> payloads = new LinkedHashMap<>();
+    settlements.forEach(settlement -> payloads.put(settlement.transferId, payload.apply(settlement)));
+
+    final Map<TransferId, LedgerPluginException> failures;
+    try {
+      failures = request.apply(payloads);
+    } catch (RuntimeException e) {
+      settlements.forEach(settlement -> settlement.result.completeExceptionally(e));
+      return;
+    }
+
+    // Demultiplex the per-transfer results back onto each caller's future.
+    for (PendingSettlement settlement : settlements) {
+      final LedgerPluginException failure = failures.get(settlement.transferId);
+      if (failure == null) {
+        settlement.result.complete(null);
+      } else {
+        settlement.result.completeExceptionally(failure);
+      }
+    }
+  }
+
+  /**
+   * Send every pending batch immediately, and stop scheduling timed flushes.
+   */
+  @Override
+  public void close() {
+    flushScheduler.shutdownNow();
+    for (InterledgerAddress ledgerPrefix : pendingBatches.keySet()) {
+      final PendingBatch batch = pendingBatches.get(ledgerPrefix);
+      if (batch != null) {
+        this.flush(ledgerPrefix, batch);
+      }
+    }
+  }
+
+  /**
+   * A fulfillment (if {@code fulfillment} is set) or rejection of an incoming transfer, and the future of its result.
+   */
+  private static final class PendingSettlement {
+
+    private final TransferId transferId;
+    private final Fulfillment fulfillment;
+    private final InterledgerProtocolError rejectionReason;
+    private final CompletableFuture<Void> result;
+
+    private PendingSettlement(
+        final Transfer sourceTransfer, final Fulfillment fulfillment, final InterledgerProtocolError rejectionReason
+    ) {
+      this.transferId = sourceTransfer.getTransferId();
+      this.fulfillment = fulfillment;
+      this.rejectionReason = rejectionReason;
+      this.result = new CompletableFuture<>();
+    }
+  }
+
+  /**
+   * The settlements waiting to be sent to one ledger. Only mutated while held in {@link #pendingBatches}, under the
+   * lock that {@link ConcurrentHashMap#compute} holds for its key; once removed from that map, it is only read.
+   */
+  private static final class PendingBatch {
+
+    private final BatchSettlementLedgerPlugin ledgerPlugin;
+    private final List<PendingSettlement> settlements;
+    private Instant deadline;
+
+    private PendingBatch(final BatchSettlementLedgerPlugin ledgerPlugin, final Instant deadline) {
+      this.ledgerPlugin = ledgerPlugin;
+      this.settlements = new ArrayList<>();
+      this.deadline = deadline;
+    }
+  }
+}
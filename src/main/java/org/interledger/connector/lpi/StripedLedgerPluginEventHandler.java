@@ -0,0 +1,265 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.connector.repository.TransferCorrelation;
+import org.interledger.connector.services.LedgerPluginManager;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+import org.interledger.plugin.lpi.events.IncomingTransferCancelledEvent;
+import org.interledger.plugin.lpi.events.IncomingTransferFulfilledEvent;
+import org.interledger.plugin.lpi.events.IncomingTransferPreparedEvent;
+import org.interledger.plugin.lpi.events.IncomingTransferRejectedEvent;
+import org.interledger.plugin.lpi.events.OutgoingTransferCancelledEvent;
+import org.interledger.plugin.lpi.events.OutgoingTransferFulfilledEvent;
+import org.interledger.plugin.lpi.events.OutgoingTransferPreparedEvent;
+import org.interledger.plugin.lpi.events.OutgoingTransferRejectedEvent;
+import org.interledger.plugin.lpi.handlers.LedgerPluginEventHandler;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link LedgerPluginEventHandler} that dispatches transfer events onto a fixed number of single-threaded "lanes",
+ * chosen by hashing the {@link TransferId} of the source transfer of each payment. Events for the same payment (i.e.,
+ * the incoming prepare, followed by the fulfillment, rejection or cancellation of either of its transfers) are
+ * therefore always handled in the order they were received, while events for unrelated payments are handled in
+ * parallel, without any global lock.
+ *
+ * Events for outgoing transfers are mapped to the source transfer of their payment using the {@link
+ * TransferCorrelation} saved when the outgoing transfer was prepared. If no correlation exists, the outgoing transfer's
+ * own identifier is used. So that the thread delivering an event never waits on the correlation repository, this
+ * lookup is made on one of an equal number of "lookup lanes", chosen by hashing the outgoing transfer's own identifier,
+ * which then dispatches the event onto its payment's lane. Events that do not concern a particular transfer (e.g.,
+ * connection or message events) are forwarded on the thread that delivered them.
+ *
+ * Each lane has a bounded queue. When a lane's queue is full, the thread delivering the event blocks until space is
+ * available (as opposed to running the event itself, which would break ordering). Once this handler is closed, events
+ * are refused with a {@link RejectedExecutionException}, even if they were being delivered at the time.
+ */
+public class StripedLedgerPluginEventHandler extends ForwardingLedgerPluginEventHandler implements AutoCloseable {
+
+  /**
+   * The default capacity of each lane's queue.
+   */
+  public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+  // How often a thread blocked on a full lane checks whether this handler has been closed.
+  private static final long CLOSED_CHECK_INTERVAL_MILLIS = 100;
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final LedgerPluginEventHandler delegate;
+  private final LedgerPluginManager ledgerPluginManager;
+  private final ThreadPoolExecutor[] lanes;
+  private final ThreadPoolExecutor[] lookupLanes;
+
+  /**
+   * Construct a handler with one lane per available processor.
+   *
+   * @param delegate            The {@link LedgerPluginEventHandler} to dispatch events to.
+   * @param ledgerPluginManager The {@link LedgerPluginManager} whose transfer correlations map outgoing transfers to
+   *                            the source transfers of their payments.
+   */
+  public StripedLedgerPluginEventHandler(
+      final LedgerPluginEventHandler delegate, final LedgerPluginManager ledgerPluginManager
+  ) {
+    this(delegate, ledgerPluginManager, Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY);
+  }
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param delegate             The {@link LedgerPluginEventHandler} to dispatch events to.
+   * @param ledgerPluginManager  The {@link LedgerPluginManager} whose transfer correlations map outgoing transfers to
+   *                             the source transfers of their payments.
+   * @param numLanes             The number of lanes (i.e., threads) to dispatch events onto.
+   * @param queueCapacityPerLane The maximum number of events that may wait in each lane's queue.
+   */
+  public StripedLedgerPluginEventHandler(
+      final LedgerPluginEventHandler delegate, final LedgerPluginManager ledgerPluginManager, final int numLanes,
+      final int queueCapacityPerLane
+  ) {
+    this.delegate = Objects.requireNonNull(delegate);
+    this.ledgerPluginManager = Objects.requireNonNull(ledgerPluginManager);
+    if (numLanes < 1 || queueCapacityPerLane < 1) {
+      throw new IllegalArgumentException("Striped dispatch requires at least one lane and a positive queue capacity!");
+    }
+
+    this.lanes = new ThreadPoolExecutor[numLanes];
+    this.lookupLanes = new ThreadPoolExecutor[numLanes];
+    for (int i = 0; i < numLanes; i++) {
+      lanes[i] = newLane("ilp-lane-" + i, queueCapacityPerLane);
+      lookupLanes[i] = newLane("ilp-lookup-lane-" + i, queueCapacityPerLane);
+    }
+  }
+
+  /**
+   * Create a single-threaded lane with a bounded queue that, when full, blocks the thread dispatching onto it.
+   */
+  private static ThreadPoolExecutor newLane(final String name, final int queueCapacity) {
+    return new ThreadPoolExecutor(
+        1, 1, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        new ThreadFactoryBuilder().setNameFormat(name).setDaemon(true).build(),
+        (event, executor) -> {
+          try {
+            // Blocks the delivering thread, which preserves ordering while applying back-pressure. The wait is made in
+            // slices, so that a lane that is closed (and so will never make space) doesn't block the thread forever.
+            while (!executor.getQueue().offer(event, CLOSED_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+              if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Unable to dispatch event after this handler was closed!");
+              }
+            }
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while dispatching event!", e);
+          }
+          // If the lane was closed meanwhile, it may already have drained its queue and stopped, in which case nothing
+          // would ever run the event. Unless the lane has already taken it, refuse it instead.
+          if (executor.isShutdown() && executor.getQueue().remove(event)) {
+            throw new RejectedExecutionException("Unable to dispatch event after this handler was closed!");
+          }
+        }
+    );
+  }
+
+  @Override
+  protected LedgerPluginEventHandler delegate() {
+    return this.delegate;
+  }
+
+  @Override
+  public void onTransferPrepared(final IncomingTransferPreparedEvent event) {
+    dispatch(event.getTransfer().getTransferId(), () -> delegate.onTransferPrepared(event));
+  }
+
+  @Override
+  public void onTransferFulfilled(final IncomingTransferFulfilledEvent event) {
+    dispatch(event.getTransfer().getTransferId(), () -> delegate.onTransferFulfilled(event));
+  }
+
+  @Override
+  public void onTransferRejected(final IncomingTransferRejectedEvent event) {
+    dispatch(event.getTransfer().getTransferId(), () -> delegate.onTransferRejected(event));
+  }
+
+  @Override
+  public void onTransferCancelled(final IncomingTransferCancelledEvent event) {
+    dispatch(event.getTransfer().getTransferId(), () -> delegate.onTransferCancelled(event));
+  }
+
+  @Override
+  public void onTransferPrepared(final OutgoingTransferPreparedEvent event) {
+    dispatchOutgoing(event.getTransfer(), () -> delegate.onTransferPrepared(event));
+  }
+
+  @Override
+  public void onTransferFulfilled(final OutgoingTransferFulfilledEvent event) {
+    dispatchOutgoing(event.getTransfer(), () -> delegate.onTransferFulfilled(event));
+  }
+
+  @Override
+  public void onTransferRejected(final OutgoingTransferRejectedEvent event) {
+    dispatchOutgoing(event.getTransfer(), () -> delegate.onTransferRejected(event));
+  }
+
+  @Override
+  public void onTransferCancelled(final OutgoingTransferCancelledEvent event) {
+    dispatchOutgoing(event.getTransfer(), () -> delegate.onTransferCancelled(event));
+  }
+
+  /**
+   * Accessor for the number of events waiting in the queue of the lane at {@code laneIndex}.
+   */
+  public int getQueueDepth(final int laneIndex) {
+    return this.lanes[laneIndex].getQueue().size();
+  }
+
+  /**
+   * Accessor for the number of lanes that events are dispatched onto.
+   */
+  public int getNumLanes() {
+    return this.lanes.length;
+  }
+
+  /**
+   * Determine the index of the lane that events for the payment with {@code sourceTransferId} are dispatched onto.
+   */
+  protected int laneIndex(final TransferId sourceTransferId) {
+    final int hash = sourceTransferId.hashCode();
+    // Spread the high bits into the low ones, since the modulus below only uses the latter.
+    return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+  }
+
+  private TransferId toSourceTransferId(final Transfer outgoingTransfer) {
+    return this.ledgerPluginManager.getTransferCorrelationRepository()
+        .findByDestinationTransferId(outgoingTransfer.getTransferId())
+        .map(TransferCorrelation::getSourceTransferId)
+        .orElse(outgoingTransfer.getTransferId());
+  }
+
+  /**
+   * Dispatch an event for an outgoing transfer onto the lane of its payment, which is determined on a lookup lane.
+   * Events for the same outgoing transfer always use the same lookup lane, so they reach the payment's lane in order.
+   */
+  private void dispatchOutgoing(final Transfer outgoingTransfer, final Runnable handler) {
+    this.lookupLanes[laneIndex(outgoingTransfer.getTransferId())].execute(() -> {
+      final TransferId sourceTransferId;
+      try {
+        sourceTransferId = this.toSourceTransferId(outgoingTransfer);
+      } catch (RuntimeException e) {
+        logger.error("Unable to handle event for outgoing TransferId {}!", outgoingTransfer.getTransferId(), e);
+        return;
+      }
+      try {
+        this.dispatch(sourceTransferId, handler);
+      } catch (RejectedExecutionException e) {
+        logger.error("Unable to handle event for outgoing TransferId {}!", outgoingTransfer.getTransferId(), e);
+      }
+    });
+  }
+
+  private void dispatch(final TransferId sourceTransferId, final Runnable handler) {
+    this.lanes[laneIndex(sourceTransferId)].execute(() -> {
+      try {
+        handler.run();
+      } catch (RuntimeException e) {
+        // There is no caller to propagate this to, so it is logged, like any exception thrown to a plugin's emitter.
+        logger.error("Unable to handle event for payment with source TransferId {}!", sourceTransferId, e);
+      }
+    });
+  }
+
+  /**
+   * Stop accepting events, and wait for events already dispatched to be handled.
+   */
+  @Override
+  public void close() {
+    try {
+      // Lookup lanes dispatch onto the payment lanes, so they must drain first.
+      shutdownAndAwait(lookupLanes);
+      shutdownAndAwait(lanes);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void shutdownAndAwait(final ThreadPoolExecutor[] lanesToClose) throws InterruptedException {
+    for (ThreadPoolExecutor lane : lanesToClose) {
+      lane.shutdown();
+    }
+    for (ThreadPoolExecutor lane : lanesToClose) {
+      if (!lane.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        logger.warn("Lane did not drain within {} seconds!", SHUTDOWN_TIMEOUT_SECONDS);
+      }
+    }
+  }
+}
@@ -0,0 +1,387 @@
+package org.interledger.connector.lpi;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hierarchical timing wheel that runs tasks after a delay, for scheduling very large numbers of short-lived timeouts
+ * (e.g., retries and transfer expiries) at a cost that does not grow with the number of pending tasks.
+ *
+ * Time is divided into ticks of a fixed duration. Each level of the wheel is a ring of buckets: a bucket at level 0
+ * covers one tick, and a bucket at each higher level covers a whole revolution of the level below it. A task is
+ * placed in the lowest level whose ring reaches its deadline, and is moved down to a lower level ("cascaded") when the
+ * wheel reaches its bucket. Scheduling and cancelling a task are thus both O(1), and a task runs no earlier than its
+ * delay and (unless the worker thread is starved) no later than one tick after it.
+ *
+ * A single daemon thread advances the wheel, and is started when the first task is scheduled. Tasks do not run on
+ * this thread, but are handed to the {@link Executor} supplied at construction, so a slow task never delays others.
+ * Call {@link #close()} to stop the wheel; tasks that are still pending at that point never run.
+ */
+public class TimingWheel implements AutoCloseable {
+
+  /**
+   * A tick duration suitable for timeouts of ledger transfers, which are rarely shorter than a second.
+   */
+  public static final Duration DEFAULT_TICK_DURATION = Duration.ofMillis(10);
+
+  /**
+   * A wheel size suitable for {@link #DEFAULT_TICK_DURATION}: the lowest level spans about 5 seconds.
+   */
+  public static final int DEFAULT_WHEEL_SIZE = 512;
+
+  private static final int LEVELS = 4;
+
+  private static final int STATE_NEW = 0;
+  private static final int STATE_STARTED = 1;
+  private static final int STATE_CLOSED = 2;
+
+  private static final AtomicIntegerFieldUpdater<TimingWheel.Timeout> TIMEOUT_STATE_UPDATER =
+      AtomicIntegerFieldUpdater.newUpdater(TimingWheel.Timeout.class, "state");
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final long tickNanos;
+  private final int wheelBits;
+  private final int wheelMask;
+  private final Bucket[][] buckets;
+  private final Executor taskExecutor;
+  private final ThreadFactory threadFactory;
+
+  // Timeouts are added and removed by the worker thread only; other threads hand them over via these queues.
+  private final Queue<Timeout> pendingAdds = new ConcurrentLinkedQueue<>();
+  private final Queue<Timeout> pendingCancels = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pendingCount = new AtomicInteger();
+
+  private volatile int state = STATE_NEW;
+  private volatile long startNanos;
+  private volatile Thread worker;
+
+  // The last tick whose level-0 bucket has been expired. Only accessed by the worker thread.
+  private long currentTick;
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param tickDuration The resolution of this wheel. Tasks run up to one tick after their delay has passed.
+   * @param wheelSize    The number of buckets in each level of this wheel. Must be a power of two.
+   * @param taskExecutor The {@link Executor} that tasks are run on once their delay has passed.
+   */
+  public TimingWheel(final Duration tickDuration, final int wheelSize, final Executor taskExecutor) {
+    Objects.requireNonNull(tickDuration);
+    Objects.requireNonNull(taskExecutor);
+    if (tickDuration.isNegative() || tickDuration.isZero()) {
+      throw new IllegalArgumentException("Tick duration must be positive!");
+    }
+    if (wheelSize < 2 || Integer.bitCount(wheelSize) != 1) {
+      throw new IllegalArgumentException("Wheel size must be a power of two!");
+    }
+
+    this.tickNanos = tickDuration.toNanos();
+    this.wheelBits = Integer.numberOfTrailingZeros(wheelSize);
+    this.wheelMask = wheelSize - 1;
+    this.buckets = new Bucket[LEVELS][wheelSize];
+    for (int level = 0; level < LEVELS; level++) {
+      for (int index = 0; index < wheelSize; index++) {
+        this.buckets[level][index] = new Bucket();
+      }
+    }
+    this.taskExecutor = taskExecutor;
+    this.threadFactory = new ThreadFactoryBuilder().setNameFormat("ilp-timing-wheel-%d").setDaemon(true).build();
+  }
+
+  /**
+   * Schedule {@code task} to run once {@code delay} has passed.
+   *
+   * @param task  A {@link Runnable} to run on this wheel's task executor.
+   * @param delay The minimum amount of time to wait before running {@code task}.
+   *
+   * @return A {@link Timeout} that can be used to cancel {@code task}.
+   *
+   * @throws RejectedExecutionException if this wheel has been closed.
+   */
+  public Timeout schedule(final Runnable task, final Duration delay) {
+    Objects.requireNonNull(task);
+    Objects.requireNonNull(delay);
+
+    this.start();
+    final long deadlineNanos = System.nanoTime() - startNanos + Math.max(0, delay.toNanos());
+    final Timeout timeout = new Timeout(task, deadlineNanos);
+    this.pendingCount.incrementAndGet();
+    this.pendingAdds.add(timeout);
+    if (state == STATE_CLOSED) {
+      // The worker may already have drained its queues for the last time.
+      timeout.cancel();
+      throw new RejectedExecutionException("Timing wheel has been closed!");
+    }
+    return timeout;
+  }
+
+  /**
+   * The number of tasks that have been scheduled on this wheel, but have neither run nor been cancelled.
+   */
+  public int getPendingCount() {
+    return this.pendingCount.get();
+  }
+
+  /**
+   * Stop this wheel. Tasks that are still pending never run, and no further tasks may be scheduled.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      this.state = STATE_CLOSED;
+    }
+    final Thread worker = this.worker;
+    if (worker != null) {
+      LockSupport.unpark(worker);
+    }
+  }
+
+  private void start() {
+    if (state == STATE_STARTED) {
+      return;
+    }
+    synchronized (this) {
+      if (state == STATE_CLOSED) {
+        throw new RejectedExecutionException("Timing wheel has been closed!");
+      } else if (state == STATE_NEW) {
+        this.startNanos = System.nanoTime();
+        this.worker = threadFactory.newThread(this::run);
+        this.state = STATE_STARTED;
+        this.worker.start();
+      }
+    }
+  }
+
+  private void run() {
+    while (state == STATE_STARTED) {
+      final long nextTickNanos = (currentTick + 1) * tickNanos;
+      long waitNanos;
+      while ((waitNanos = nextTickNanos - (System.nanoTime() - startNanos)) > 0 && state == STATE_STARTED) {
+        LockSupport.parkNanos(this, waitNanos);
+      }
+      if (state != STATE_STARTED) {
+        break;
+      }
+
+      this.processCancels();
+      this.processAdds();
+      this.advance(currentTick + 1);
+    }
+
+    // Discard everything that is still pending, so that close() releases the tasks' memory.
+    for (Bucket[] level : buckets) {
+      for (Bucket bucket : level) {
+        bucket.clear();
+      }
+    }
+    this.pendingAdds.clear();
+    this.pendingCancels.clear();
+    this.pendingCount.set(0);
+  }
+
+  private void processCancels() {
+    Timeout timeout;
+    while ((timeout = pendingCancels.poll()) != null) {
+      if (timeout.bucket != null) {
+        timeout.bucket.remove(timeout);
+      }
+    }
+  }
+
+  private void processAdds() {
+    Timeout timeout;
+    while ((timeout = pendingAdds.poll()) != null) {
+      if (timeout.state == Timeout.PENDING) {
+        this.place(timeout, currentTick + 1);
+      }
+    }
+  }
+
+  /**
+   * Put {@code timeout} into the lowest level whose ring reaches its deadline, relative to {@code tick}, which is the
+   * tick that the wheel is about to enter (i.e., whose buckets have not yet been cascaded or expired).
+   */
+  private void place(final Timeout timeout, final long tick) {
+    // Round up, so that a task never runs before its delay has passed.
+    final long deadlineTick = Math.max(tick, (timeout.deadlineNanos + tickNanos - 1) / tickNanos);
+    int level = 0;
+    while (level < LEVELS - 1
+        && (deadlineTick >>> (wheelBits * level)) - (tick >>> (wheelBits * level)) > wheelMask) {
+      level++;
+    }
+    final int index = (int) ((deadlineTick >>> (wheelBits * level)) & wheelMask);
+    this.buckets[level][index].add(timeout);
+  }
+
+  /**
+   * Move the wheel forward to {@code tick}, cascading any higher-level buckets that it reaches and then expiring the
+   * level-0 bucket for {@code tick}. Cascaded timeouts are placed relative to {@code tick} itself, so that one that is
+   * due within the detached bucket's span moves down a level instead of back into that bucket (where it would wait a
+   * whole revolution of its level).
+   */
+  private void advance(final long tick) {
+    for (int level = LEVELS - 1; level > 0; level--) {
+      final int shift = wheelBits * level;
+      if ((tick & ((1L << shift) - 1)) == 0) {
+        // Detach the bucket first: a timeout that is still beyond the top level may be placed back into it.
+        Timeout timeout = buckets[level][(int) ((tick >>> shift) & wheelMask)].takeAll();
+        while (timeout != null) {
+          final Timeout next = timeout.next;
+          this.place(timeout, tick);
+          timeout = next;
+        }
+      }
+    }
+
+    Timeout timeout = buckets[0][(int) (tick & wheelMask)].takeAll();
+    while (timeout != null) {
+      final Timeout next = timeout.next;
+      this.expire(timeout);
+      timeout = next;
+    }
+    this.currentTick = tick;
+  }
+
+  private void expire(final Timeout timeout) {
+    if (!TIMEOUT_STATE_UPDATER.compareAndSet(timeout, Timeout.PENDING, Timeout.EXPIRED)) {
+      return;
+    }
+    this.pendingCount.decrementAndGet();
+    try {
+      this.taskExecutor.execute(timeout.task);
+    } catch (RuntimeException e) {
+      logger.error("Unable to run expired task {}!", timeout.task, e);
+    }
+  }
+
+  /**
+   * A handle to a task scheduled on a {@link TimingWheel}.
+   */
+  public final class Timeout {
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final Runnable task;
+    private final long deadlineNanos;
+    // Not private, so that it can be updated by TIMEOUT_STATE_UPDATER.
+    volatile int state = PENDING;
+
+    // Only accessed by the worker thread.
+    private Bucket bucket;
+    private Timeout previous;
+    private Timeout next;
+
+    private Timeout(final Runnable task, final long deadlineNanos) {
+      this.task = task;
+      this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Prevent the task from running, if it has not already been run.
+     *
+     * @return {@code true} if the task was cancelled by this call; {@code false} if it had already run, or had already
+     *     been cancelled.
+     */
+    public boolean cancel() {
+      if (!TIMEOUT_STATE_UPDATER.compareAndSet(this, PENDING, CANCELLED)) {
+        return false;
+      }
+      pendingCount.decrementAndGet();
+      pendingCancels.add(this);
+      return true;
+    }
+
+    /**
+     * Whether the task has been cancelled.
+     */
+    public boolean isCancelled() {
+      return state == CANCELLED;
+    }
+
+    /**
+     * Whether the task's delay has passed, and it has been handed to the task executor.
+     */
+    public boolean isExpired() {
+      return state == EXPIRED;
+    }
+  }
+
+  /**
+   * A doubly-linked list of timeouts, so that a cancelled timeout can be unlinked without searching for it.
+   */
+  private static final class Bucket {
+
+    private Timeout head;
+    private Timeout tail;
+
+    private void add(final Timeout timeout) {
+      timeout.bucket = this;
+      timeout.previous = tail;
+      timeout.next = null;
+      if (tail == null) {
+        head = timeout;
+      } else {
+        tail.next = timeout;
+      }
+      tail = timeout;
+    }
+
+    private void remove(final Timeout timeout) {
+      if (timeout.bucket != this) {
+        return;
+      }
+      if (timeout.previous == null) {
+        head = timeout.next;
+      } else {
+        timeout.previous.next = timeout.next;
+      }
+      if (timeout.next == null) {
+        tail = timeout.previous;
+      } else {
+        timeout.next.previous = timeout.previous;
+      }
+      timeout.bucket = null;
+      timeout.previous = null;
+      timeout.next = null;
+    }
+
+    /**
+     * Empty this bucket, returning the first of its timeouts. The rest can be reached via {@link Timeout#next}, which
+     * each timeout keeps until it is next added to a bucket.
+     */
+    private Timeout takeAll() {
+      final Timeout first = head;
+      for (Timeout timeout = first; timeout != null; timeout = timeout.next) {
+        timeout.bucket = null;
+      }
+      head = null;
+      tail = null;
+      return first;
+    }
+
+    private void clear() {
+      Timeout timeout = this.takeAll();
+      while (timeout != null) {
+        final Timeout next = timeout.next;
+        timeout.previous = null;
+        timeout.next = null;
+        timeout = next;
+      }
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+import org.interledger.plugin.lpi.exceptions.LedgerPluginException;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Groups outgoing transfers into per-destination-ledger batches for ledger plugins that implement {@link
+ * BatchLedgerPlugin}. A batch is sent once it holds {@link ConnectorConfig#getTransferBatchMaxSize()} transfers, or
+ * once its first transfer has waited for {@link ConnectorConfig#getTransferBatchMaxDelay()}, whichever comes first.
+ *
+ * Each submitted transfer receives its own {@link CompletableFuture}, which completes exceptionally with the {@link
+ * LedgerPluginException} reported for that transfer alone (or for the whole batch, if the batch could not be sent), so
+ * callers handle failures exactly as they would for {@link org.interledger.plugin.lpi.LedgerPlugin#sendTransfer}.
+ */
+public class TransferBatcher implements AutoCloseable {
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService;
+  private final Executor ledgerIoExecutor;
+  private final ScheduledExecutorService flushScheduler;
+  private final ConcurrentMap<InterledgerAddress, PendingBatch> pendingBatches;
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param connectorConfigurationService A {@link ConnectorConfigurationService} supplying the batch size and delay.
+   * @param ledgerIoExecutor              The {@link Executor} that batches are sent on.
+   */
+  public TransferBatcher(
+      final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService,
+      final Executor ledgerIoExecutor
+  ) {
+    this.connectorConfigurationService = Objects.requireNonNull(connectorConfigurationService);
+    this.ledgerIoExecutor = Objects.requireNonNull(ledgerIoExecutor);
+    this.flushScheduler = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("ilp-transfer-batcher-%d").setDaemon(true).build()
+    );
+    this.pendingBatches = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Add {@code transfer} to the pending batch for its ledger.
+   *
+   * @param batchLedgerPlugin The {@link BatchLedgerPlugin} for the ledger of {@code transfer}.
+   * @param transfer          The {@link Transfer} to send.
+   *
+   * @return A {@link CompletableFuture} that completes once the batch containing {@code transfer} has been sent.
+   */
+  public CompletableFuture<Void> submit(final BatchLedgerPlugin batchLedgerPlugin, final Transfer transfer) {
+    Objects.requireNonNull(batchLedgerPlugin);
+    Objects.requireNonNull(transfer);
+
+    final ConnectorConfig connectorConfig = connectorConfigurationService.getConnectorConfig();
+    final int maxBatchSize = connectorConfig.getTransferBatchMaxSize();
+    final Duration maxBatchDelay = connectorConfig.getTransferBatchMaxDelay();
+
+    final PendingTransfer pendingTransfer = new PendingTransfer(transfer);
+    final InterledgerAddress ledgerPrefix = transfer.getLedgerPrefix();
+    final PendingBatch[] fullBatch = new PendingBatch[1];
+    pendingBatches.compute(ledgerPrefix, (prefix, batch) -> {
+      if (batch == null) {
+        batch = new PendingBatch(batchLedgerPlugin);
+        this.scheduleFlush(prefix, batch, maxBatchDelay);
+      }
+      batch.pendingTransfers.add(pendingTransfer);
+      if (batch.pendingTransfers.size() >= maxBatchSize) {
+        fullBatch[0] = batch;
+        return null;
+      }
+      return batch;
+    });
+
+    if (fullBatch[0] != null) {
+      this.send(ledgerPrefix, fullBatch[0]);
+    }
+    return pendingTransfer.result;
+  }
+
+  private void scheduleFlush(final InterledgerAddress ledgerPrefix, final PendingBatch batch, final Duration delay) {
+    try {
+      flushScheduler.schedule(() -> this.flush(ledgerPrefix, batch), delay.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (RejectedExecutionException e) {
+      // Only occurs once closed, in which case close() flushes this batch.
+      logger.debug("Unable to schedule flush of transfer batch for {}", ledgerPrefix);
+    }
+  }
+
+  private void flush(final InterledgerAddress ledgerPrefix, final PendingBatch batch) {
+    // If the batch filled up in the meantime, it was already removed and sent.
+    if (pendingBatches.remove(ledgerPrefix, batch)) {
+      this.send(ledgerPrefix, batch);
+    }
+  }
+
+  private void send(final InterledgerAddress ledgerPrefix, final PendingBatch batch) {
+    try {
+      ledgerIoExecutor.execute(() -> this.sendNow(ledgerPrefix, batch));
+    } catch (RejectedExecutionException e) {
+      batch.pendingTransfers.forEach(pendingTransfer -> pendingTransfer.result.completeExceptionally(e));
+    }
+  }
+
+  private void sendNow(final InterledgerAddress ledgerPrefix, final PendingBatch batch) {
+    final List<Transfer> transfers = batch.pendingTransfers.stream()
+        .map(pendingTransfer -> pendingTransfer.transfer)
+        .collect(Collectors.toList());
+    if (logger.isDebugEnabled()) {
+      logger.debug("Sending batch of {} transfers to {}", transfers.size(), ledgerPrefix);
+    }
+
+    final Map<TransferId, LedgerPluginException> failures;
+    try {
+      failures = batch.batchLedgerPlugin.sendTransfers(transfers);
+    } catch (RuntimeException e) {
+      batch.pendingTransfers.forEach(pendingTransfer -> pendingTransfer.result.completeExceptionally(e));
+      return;
+    }
+
+    // Demultiplex the per-transfer results back onto each caller's future.
+    for (PendingTransfer pendingTransfer : batch.pendingTransfers) {
+      final LedgerPluginException failure = failures.get(pendingTransfer.transfer.getTransferId());
+      if (failure == null) {
+        pendingTransfer.result.complete(null);
+      } else {
+        pendingTransfer.result.completeExceptionally(failure);
+      }
+    }
+  }
+
+  /**
+   * Send every pending batch immediately, and stop scheduling timed flushes.
+   */
+  @Override
+  public void close() {
+    flushScheduler.shutdownNow();
+    for (InterledgerAddress ledgerPrefix : pendingBatches.keySet()) {
+      final PendingBatch batch = pendingBatches.get(ledgerPrefix);
+      if (batch != null) {
+        this.flush(ledgerPrefix, batch);
+      }
+    }
+  }
+
+  /**
+   * A transfer waiting in a batch, and the future of its result.
+   */
+  private static final class PendingTransfer {
+
+    private final Transfer transfer;
+    private final CompletableFuture<Void> result;
+
+    private PendingTransfer(final Transfer transfer) {
+      this.transfer = transfer;
+      this.result = new CompletableFuture<>();
+    }
+  }
+
+  /**
+   * The transfers waiting to be sent to one ledger. Only mutated while held in {@link #pendingBatches}, under the lock
+   * that {@link ConcurrentHashMap#compute} holds for its key; once removed from that map, it is only read.
+   */
+  private static final class PendingBatch {
+
+    private final BatchLedgerPlugin batchLedgerPlugin;
+    private final List<PendingTransfer> pendingTransfers;
+
+    private PendingBatch(final BatchLedgerPlugin batchLedgerPlugin) {
+      this.batchLedgerPlugin = batchLedgerPlugin;
+      this.pendingTransfers = new ArrayList<>();
+    }
+  }
+}
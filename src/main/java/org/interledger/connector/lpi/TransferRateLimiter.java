@@ -0,0 +1,163 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.plugin.lpi.Transfer;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the rate at which this connector accepts incoming transfers from each source account (see {@link
+ * ConnectorConfig#getIncomingTransferRatePerAccount()}), so that a single sender cannot flood this connector with
+ * payments.
+ *
+ * Rather than tracking a token bucket for every account, which would require unbounded memory, this limiter keeps a
+ * fixed-size sketch of buckets: each account hashes to one bucket in each of several rows, and a transfer is accepted
+ * if the least-loaded of its buckets has a token to spare. Accounts that share a bucket with a heavy sender in one row
+ * are therefore only limited if they also share one in every other row. Each bucket is a single {@code long} holding
+ * the bucket's "theoretical arrival time" (as in the generic cell rate algorithm), updated with compare-and-set, so
+ * checking a transfer neither blocks nor allocates. State for idle accounts expires on its own, because a bucket whose
+ * arrival time is in the past is simply full.
+ */
+public class TransferRateLimiter {
+
+  /**
+   * The default number of buckets in each row of the sketch.
+   */
+  public static final int DEFAULT_BUCKETS_PER_ROW = 1 << 15;
+
+  private static final int[] ROW_SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35};
+
+  private final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService;
+  private final LongSupplier nanoClock;
+  private final long origin;
+  private final int bucketsPerRow;
+  // The theoretical arrival time of each bucket, in nanoseconds since origin, row by row.
+  private final AtomicLongArray arrivalTimes;
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param connectorConfigurationService A {@link ConnectorConfigurationService} supplying the rate limit.
+   */
+  public TransferRateLimiter(
+      final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService
+  ) {
+    this(connectorConfigurationService, DEFAULT_BUCKETS_PER_ROW, System::nanoTime);
+  }
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param connectorConfigurationService A {@link ConnectorConfigurationService} supplying the rate limit.
+   * @param bucketsPerRow                 The number of buckets in each row of the sketch, which must be a power of
+   *                                      two. Memory use is fixed at eight bytes per bucket, per row.
+   */
+  public TransferRateLimiter(
+      final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService,
+      final int bucketsPerRow
+  ) {
+    this(connectorConfigurationService, bucketsPerRow, System::nanoTime);
+  }
+
+  @VisibleForTesting
+  TransferRateLimiter(
+      final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService,
+      final int bucketsPerRow,
+      final LongSupplier nanoClock
+  ) {
+    if (bucketsPerRow <= 0 || Integer.bitCount(bucketsPerRow) != 1) {
+      throw new IllegalArgumentException("bucketsPerRow must be a positive power of two!");
+    }
+    this.connectorConfigurationService = Objects.requireNonNull(connectorConfigurationService);
+    this.nanoClock = Objects.requireNonNull(nanoClock);
+    this.origin = nanoClock.getAsLong();
+    this.bucketsPerRow = bucketsPerRow;
+    this.arrivalTimes = new AtomicLongArray(ROW_SEEDS.length * bucketsPerRow);
+  }
+
+  /**
+   * Attempt to take a token for an incoming transfer from the bucket of its source account.
+   *
+   * @param sourceTransfer A {@link Transfer} delivered to this connector on a source ledger.
+   *
+   * @return {@code true} if {@code sourceTransfer} is within its account's rate limit; {@code false} if it should be
+   *     rejected.
+   */
+  public boolean tryAcquire(final Transfer sourceTransfer) {
+    Objects.requireNonNull(sourceTransfer);
+
+    final ConnectorConfig connectorConfig = connectorConfigurationService.getConnectorConfig();
+    final int ratePerSecond = connectorConfig.getIncomingTransferRatePerAccount();
+    if (ratePerSecond <= 0) {
+      return true;
+    }
+    final long emissionInterval = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+    // A full bucket allows this many transfers back-to-back.
+    final int burst = Math.max(1, connectorConfig.getIncomingTransferBurstPerAccount());
+    final long burstTolerance = emissionInterval * (burst - 1);
+    final int keyHash = this.keyHash(sourceTransfer, connectorConfig);
+
+    while (true) {
+      final long now = nanoClock.getAsLong() - origin;
+
+      // The least-loaded of this account's buckets decides whether the transfer is accepted.
+      int leastLoadedIndex = -1;
+      long leastArrivalTime = Long.MAX_VALUE;
+      for (int row = 0; row < ROW_SEEDS.length; row++) {
+        final int index = this.bucketIndex(row, keyHash);
+        final long arrivalTime = arrivalTimes.get(index);
+        if (arrivalTime < leastArrivalTime) {
+          leastArrivalTime = arrivalTime;
+          leastLoadedIndex = index;
+        }
+      }
+
+      final long start = Math.max(leastArrivalTime, now);
+      if (start - now > burstTolerance) {
+        return false;
+      }
+      final long nextArrivalTime = start + emissionInterval;
+      if (!arrivalTimes.compareAndSet(leastLoadedIndex, leastArrivalTime, nextArrivalTime)) {
+        // Another transfer sharing this bucket took a token first, so re-evaluate.
+        continue;
+      }
+
+      // Conservative update: other rows are only raised to the new arrival time, never charged on top of it, which
+      // keeps accounts that collide with this one in some rows from being over-limited.
+      for (int row = 0; row < ROW_SEEDS.length; row++) {
+        final int index = this.bucketIndex(row, keyHash);
+        long arrivalTime;
+        do {
+          arrivalTime = arrivalTimes.get(index);
+        } while (arrivalTime < nextArrivalTime && !arrivalTimes.compareAndSet(index, arrivalTime, nextArrivalTime));
+      }
+      return true;
+    }
+  }
+
+  private int keyHash(final Transfer sourceTransfer, final ConnectorConfig connectorConfig) {
+    int keyHash = sourceTransfer.getSourceAccount().hashCode();
+    if (connectorConfig.isIncomingTransferRateLimitedPerDestination()) {
+      keyHash = 31 * keyHash
+          + sourceTransfer.getInterlederPaymentPacket().getDestinationAccount().getPrefix().hashCode();
+    }
+    return keyHash;
+  }
+
+  private int bucketIndex(final int row, final int keyHash) {
+    // The finalizer of MurmurHash3, so that each row hashes an account to an independent bucket.
+    int hash = keyHash ^ ROW_SEEDS[row];
+    hash ^= hash >>> 16;
+    hash *= 0x85EBCA6B;
+    hash ^= hash >>> 13;
+    hash *= 0xC2B2AE35;
+    hash ^= hash >>> 16;
+    return row * bucketsPerRow + (hash & (bucketsPerRow - 1));
+  }
+}
@@ -2,6 +2,10 @@ package org.interledger.connector.lpi;
 
 import org.interledger.connector.config.ConnectorConfig;
 import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.connector.jfr.ConnectorEvents.Kind;
+import org.interledger.connector.jfr.ConnectorEvents.Span;
+import org.interledger.connector.lpi.ForwardingMetrics.Stage;
+import org.interledger.connector.metrics.MetricsRegistry;
 import org.interledger.connector.repository.TransferCorrelation;
 import org.interledger.connector.routing.PaymentRouter;
 import org.interledger.connector.fx.FxEngine;
@@ -46,9 +50,35 @@ public class UniversalModeLedgerPluginEventHandler extends AbstractLedgerPluginE
     );
   }
 
+  /**
+   * Required-args Constructor.
+   *
+   * @param metricsRegistry The {@link MetricsRegistry} that the metrics of forwarding payments are recorded in.
+   */
+  public UniversalModeLedgerPluginEventHandler(
+      final String deterministicIdSecret,
+      final ConnectorConfigurationService<ConnectorConfig> connectorConfigurationService,
+      final LedgerPluginManager ledgerPluginManager,
+      final PaymentRouter paymentRouter,
+      final FxEngine fxEngine,
+      final MetricsRegistry metricsRegistry
+  ) {
+    super(
+        deterministicIdSecret, connectorConfigurationService, ledgerPluginManager, paymentRouter, fxEngine,
+        metricsRegistry
+    );
+  }
+
+  /**
+   * Called to handle an {@link LedgerInfoChangedEvent}. The new ledger info replaces the info cached by the {@link
+   * LedgerPluginManager} so that subsequent payments use the updated currency, scale and precision.
+   *
+   * @param event A {@link LedgerInfoChangedEvent}.
+   */
   @Override
   public void onLedgerInfoChanged(LedgerInfoChangedEvent event) {
     logger.info("LedgerPlugin LedgerInfo Changed: {}", event);
+    this.getLedgerPluginManager().updateLedgerInfo(event.getLedgerPrefix(), event.getLedgerInfo());
   }
 
   /**
@@ -86,9 +116,11 @@ public class UniversalModeLedgerPluginEventHandler extends AbstractLedgerPluginE
   @Override
   public void onTransferFulfilled(final OutgoingTransferFulfilledEvent event) {
     Objects.requireNonNull(event);
+    final long notifiedAtNanos = System.nanoTime();
 
     final Transfer executedDestinationTransfer = event.getTransfer();
     final Fulfillment executionFulfillment = event.getFulfillment();
+    this.untrackDestinationTransfer(executedDestinationTransfer);
     if (logger.isDebugEnabled()) {
       logger.debug(
           "Received notification about executed destination transfer with TransferId: {} on Ledger: {}",
@@ -119,12 +151,37 @@ public class UniversalModeLedgerPluginEventHandler extends AbstractLedgerPluginE
     final LedgerPlugin sourceLedgerPlugin = this.getLedgerPluginManager()
         .getLedgerPluginSafe(sourceTransfer.getTransferId(), sourceTransfer.getLedgerPrefix());
 
-    // TODO: Account for retries?
-
+    final long startNanos = System.nanoTime();
+    final Span span = this.getConnectorEvents().begin(Kind.TRANSFER_FULFILLED);
     try {
       sourceLedgerPlugin
           .fulfillCondition(sourceTransfer.getTransferId(), executionFulfillment);
+      this.getForwardingMetrics().recordLatency(Stage.FULFILL, sourceTransfer.getLedgerPrefix(), startNanos);
+      span.transfer(sourceTransfer).finish();
+      this.recordFulfillmentPassedBack(executedDestinationTransfer, notifiedAtNanos);
     } catch (Exception e) {
+      if (this.isTransientFailure(e)) {
+        // The fulfillment can still be passed back for as long as the source transfer has not expired.
+        logger.warn("Retrying fulfillment of source transfer {} after transient failure on ledger {}: {}",
+            sourceTransfer.getTransferId(), sourceTransfer.getLedgerPrefix(), e.getMessage());
+        this.getRetryScheduler()
+            .retry(
+                () -> attempt(
+                    () -> sourceLedgerPlugin.fulfillCondition(sourceTransfer.getTransferId(), executionFulfillment)),
+                e, this::isTransientFailure, sourceTransfer.getExpiresAt()
+            )
+            .whenComplete((result, error) -> {
+              if (error == null) {
+                this.recordFulfillmentPassedBack(executedDestinationTransfer, notifiedAtNanos);
+              } else {
+                logger.error(
+                    "Attempted to execute source transfer but it was unsuccessful; we have not been fully re-paid! "
+                        + "SourceTransfer: {}, fulfillment: {}", sourceTransfer, executionFulfillment, error
+                );
+              }
+            });
+        return;
+      }
       logger.error(
           "Attempted to execute source transfer but it was unsuccessful; we have not been fully re-paid! "
               + "SourceTransfer: {}, fulfillment: {}", sourceTransfer, executionFulfillment
@@ -0,0 +1,221 @@
+package org.interledger.connector.lpi;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.plugin.lpi.TransferId;
+import org.interledger.plugin.lpi.events.IncomingTransferCancelledEvent;
+import org.interledger.plugin.lpi.events.IncomingTransferFulfilledEvent;
+import org.interledger.plugin.lpi.events.IncomingTransferPreparedEvent;
+import org.interledger.plugin.lpi.events.IncomingTransferRejectedEvent;
+import org.interledger.plugin.lpi.events.LedgerPluginEvent;
+import org.interledger.plugin.lpi.events.OutgoingTransferCancelledEvent;
+import org.interledger.plugin.lpi.events.OutgoingTransferFulfilledEvent;
+import org.interledger.plugin.lpi.events.OutgoingTransferPreparedEvent;
+import org.interledger.plugin.lpi.events.OutgoingTransferRejectedEvent;
+import org.interledger.plugin.lpi.handlers.LedgerPluginEventHandler;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@link LedgerPluginEventHandler} that handles each transfer event on its own thread, so that a payment blocked on a
+ * ledger plugin call (e.g., sending the next-hop transfer, or fulfilling the source transfer) does not hold up the
+ * thread that delivered the event, nor any other payment.
+ *
+ * When running on a JVM that supports virtual threads (Java 21 or later), each event is handled on a new virtual
+ * thread, which allows a very large number of payments to be in-flight at once. On older JVMs, this handler falls back
+ * to a cached pool of platform threads.
+ *
+ * The number of events being handled at once is capped per ledger (i.e., per ledger plugin emitting events). When a
+ * ledger reaches its cap, the thread delivering the next event from that ledger blocks until a permit is released,
+ * which pushes back on that ledger plugin without affecting any other ledger. Events that do not concern a transfer
+ * (e.g., connection or message events) are forwarded on the thread that delivered them.
+ *
+ * Events for the same transfer are handled in the order they were delivered, each starting only once the one before it
+ * has been handled, so that (for example) a transfer's fulfillment is never handled before its preparation has been
+ * admitted. Events for different transfers are handled independently.
+ */
+public class VirtualThreadLedgerPluginEventHandler extends ForwardingLedgerPluginEventHandler
+    implements AutoCloseable {
+
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final LedgerPluginEventHandler delegate;
+  private final int maxConcurrentEventsPerLedger;
+  private final Map<InterledgerAddress, Semaphore> permitsByLedger;
+  // The most recently dispatched event for each transfer that still has an event waiting or being handled.
+  private final Map<TransferId, CompletableFuture<Void>> lastEventByTransfer;
+  private final ExecutorService executorService;
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param delegate                     The {@link LedgerPluginEventHandler} to dispatch events to.
+   * @param maxConcurrentEventsPerLedger The maximum number of transfer events from any single ledger that may be
+   *                                     handled at once.
+   */
+  public VirtualThreadLedgerPluginEventHandler(
+      final LedgerPluginEventHandler delegate, final int maxConcurrentEventsPerLedger
+  ) {
+    this.delegate = Objects.requireNonNull(delegate);
+    if (maxConcurrentEventsPerLedger < 1) {
+      throw new IllegalArgumentException("maxConcurrentEventsPerLedger must be positive!");
+    }
+    this.maxConcurrentEventsPerLedger = maxConcurrentEventsPerLedger;
+    this.permitsByLedger = new ConcurrentHashMap<>();
+    this.lastEventByTransfer = new ConcurrentHashMap<>();
+    this.executorService = newThreadPerTaskExecutor();
+  }
+
+  /**
+   * Create an {@link ExecutorService} that runs each task on a new virtual thread, if the running JVM supports them, or
+   * otherwise on a cached pool of daemon platform threads. Virtual threads are created reflectively so that this class
+   * continues to compile against Java 8.
+   */
+  private static ExecutorService newThreadPerTaskExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool(
+          new ThreadFactoryBuilder().setNameFormat("ilp-payment-%d").setDaemon(true).build()
+      );
+    }
+  }
+
+  @Override
+  protected LedgerPluginEventHandler delegate() {
+    return this.delegate;
+  }
+
+  @Override
+  public void onTransferPrepared(final IncomingTransferPreparedEvent event) {
+    dispatch(event, event.getTransfer().getTransferId(), () -> delegate.onTransferPrepared(event));
+  }
+
+  @Override
+  public void onTransferFulfilled(final IncomingTransferFulfilledEvent event) {
+    dispatch(event, event.getTransfer().getTransferId(), () -> delegate.onTransferFulfilled(event));
+  }
+
+  @Override
+  public void onTransferRejected(final IncomingTransferRejectedEvent event) {
+    dispatch(event, event.getTransfer().getTransferId(), () -> delegate.onTransferRejected(event));
+  }
+
+  @Override
+  public void onTransferCancelled(final IncomingTransferCancelledEvent event) {
+    dispatch(event, event.getTransfer().getTransferId(), () -> delegate.onTransferCancelled(event));
+  }
+
+  @Override
+  public void onTransferPrepared(final OutgoingTransferPreparedEvent event) {
+    dispatch(event, event.getTransfer().getTransferId(), () -> delegate.onTransferPrepared(event));
+  }
+
+  @Override
+  public void onTransferFulfilled(final OutgoingTransferFulfilledEvent event) {
+    dispatch(event, event.getTransfer().getTransferId(), () -> delegate.onTransferFulfilled(event));
+  }
+
+  @Override
+  public void onTransferRejected(final OutgoingTransferRejectedEvent event) {
+    dispatch(event, event.getTransfer().getTransferId(), () -> delegate.onTransferRejected(event));
+  }
+
+  @Override
+  public void onTransferCancelled(final OutgoingTransferCancelledEvent event) {
+    dispatch(event, event.getTransfer().getTransferId(), () -> delegate.onTransferCancelled(event));
+  }
+
+  /**
+   * Accessor for the number of transfer events from the ledger with {@code ledgerPrefix} currently being handled.
+   */
+  public int getInFlightCount(final InterledgerAddress ledgerPrefix) {
+    final Semaphore permits = this.permitsByLedger.get(Objects.requireNonNull(ledgerPrefix));
+    return permits == null ? 0 : maxConcurrentEventsPerLedger - permits.availablePermits();
+  }
+
+  private void dispatch(final LedgerPluginEvent event, final TransferId transferId, final Runnable handler) {
+    final InterledgerAddress ledgerPrefix = event.getLedgerPrefix();
+    final Semaphore permits = this.permitsByLedger.computeIfAbsent(
+        ledgerPrefix, prefix -> new Semaphore(maxConcurrentEventsPerLedger)
+    );
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RejectedExecutionException("Interrupted while waiting to handle event from " + ledgerPrefix, e);
+    }
+
+    final Runnable task = () -> {
+      try {
+        handler.run();
+      } catch (RuntimeException e) {
+        // There is no caller to propagate this to, so it is logged, like any exception thrown to a plugin's emitter.
+        logger.error("Unable to handle event from ledger {}!", ledgerPrefix, e);
+      } finally {
+        permits.release();
+      }
+    };
+
+    final CompletableFuture<Void> handled;
+    try {
+      handled = this.lastEventByTransfer.compute(transferId, (id, previous) -> previous == null
+          ? CompletableFuture.runAsync(task, executorService)
+          // Run even if the previous event could not be handled, so that one lost event doesn't strand the rest.
+          : previous.handle((result, error) -> null).thenRunAsync(task, executorService));
+    } catch (RejectedExecutionException e) {
+      permits.release();
+      throw e;
+    }
+    handled.whenComplete((result, error) -> {
+      this.lastEventByTransfer.remove(transferId, handled);
+      final Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+      if (cause instanceof RejectedExecutionException) {
+        // The event was waiting behind an earlier one for the same transfer when this handler was closed.
+        permits.release();
+        logger.error("Unable to handle event from ledger {} for transfer {}!", ledgerPrefix, transferId, cause);
+      }
+    });
+  }
+
+  /**
+   * Stop accepting events, and wait for events already dispatched (including those waiting behind an earlier event for
+   * the same transfer) to be handled.
+   */
+  @Override
+  public void close() {
+    try {
+      // Events waiting behind an earlier event for the same transfer have not been submitted yet, and would be refused
+      // once the executor is shut down.
+      CompletableFuture.allOf(this.lastEventByTransfer.values().toArray(new CompletableFuture<?>[0]))
+          .handle((result, error) -> null)
+          .get(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      this.executorService.shutdown();
+      if (!this.executorService.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        logger.warn("In-flight events were not handled within {} seconds!", SHUTDOWN_TIMEOUT_SECONDS);
+      }
+    } catch (TimeoutException | ExecutionException e) {
+      logger.warn("In-flight events were not handled within {} seconds!", SHUTDOWN_TIMEOUT_SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      this.executorService.shutdown();
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package org.interledger.connector.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent count of events. Increments are striped across cells (see {@link LongAdder}), so that threads counting
+ * the same events do not contend with each other.
+ */
+public class Counter {
+
+  private final LongAdder count = new LongAdder();
+
+  /**
+   * Count one event.
+   */
+  public void increment() {
+    this.count.increment();
+  }
+
+  /**
+   * Count {@code events} events.
+   */
+  public void add(final long events) {
+    this.count.add(events);
+  }
+
+  /**
+   * The number of events that have been counted.
+   */
+  public long getCount() {
+    return this.count.sum();
+  }
+}
@@ -0,0 +1,100 @@
+package org.interledger.connector.metrics;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link MetricsRegistry} that keeps its metrics in memory, where they can be read through {@link
+ * #histogram(String, Map)} and {@link #counter(String, Map)}. Subclasses can additionally expose each metric as it is
+ * created, by overriding {@link #onHistogramCreated(String, Map, LatencyHistogram)} and {@link
+ * #onCounterCreated(String, Map, Counter)}.
+ */
+public class InMemoryMetricsRegistry implements MetricsRegistry {
+
+  private final Map<MetricId, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+  private final Map<MetricId, Counter> counters = new ConcurrentHashMap<>();
+
+  @Override
+  public LatencyHistogram histogram(final String name, final Map<String, String> tags) {
+    final MetricId metricId = new MetricId(name, tags);
+    final LatencyHistogram histogram = this.histograms.get(metricId);
+    if (histogram != null) {
+      return histogram;
+    }
+    return this.histograms.computeIfAbsent(metricId, id -> {
+      final LatencyHistogram newHistogram = new LatencyHistogram();
+      this.onHistogramCreated(id.name, id.tags, newHistogram);
+      return newHistogram;
+    });
+  }
+
+  @Override
+  public Counter counter(final String name, final Map<String, String> tags) {
+    final MetricId metricId = new MetricId(name, tags);
+    final Counter counter = this.counters.get(metricId);
+    if (counter != null) {
+      return counter;
+    }
+    return this.counters.computeIfAbsent(metricId, id -> {
+      final Counter newCounter = new Counter();
+      this.onCounterCreated(id.name, id.tags, newCounter);
+      return newCounter;
+    });
+  }
+
+  /**
+   * Called exactly once for each {@link LatencyHistogram}, when it is created. Does nothing by default.
+   *
+   * @param name      The name of the histogram.
+   * @param tags      The tags of the histogram, in the order in which they were first supplied.
+   * @param histogram The new {@link LatencyHistogram}.
+   */
+  protected void onHistogramCreated(
+      final String name, final Map<String, String> tags, final LatencyHistogram histogram
+  ) {
+  }
+
+  /**
+   * Called exactly once for each {@link Counter}, when it is created. Does nothing by default.
+   *
+   * @param name    The name of the counter.
+   * @param tags    The tags of the counter, in the order in which they were first supplied.
+   * @param counter The new {@link Counter}.
+   */
+  protected void onCounterCreated(final String name, final Map<String, String> tags, final Counter counter) {
+  }
+
+  /**
+   * The name and tags that identify a metric.
+   */
+  private static final class MetricId {
+
+    private final String name;
+    private final Map<String, String> tags;
+
+    private MetricId(final String name, final Map<String, String> tags) {
+      this.name = Objects.requireNonNull(name);
+      this.tags = ImmutableMap.copyOf(Objects.requireNonNull(tags));
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof MetricId)) {
+        return false;
+      }
+      final MetricId metricId = (MetricId) other;
+      return name.equals(metricId.name) && tags.equals(metricId.tags);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * name.hashCode() + tags.hashCode();
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package org.interledger.connector.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * A {@link MetricsRegistry} that registers each of its metrics as an MXBean, so that they can be read with any JMX
+ * client (e.g., JConsole or VisualVM) or collected by a JMX exporter.
+ *
+ * A metric is registered under an {@link ObjectName} whose domain is this registry's, whose {@code type} is either
+ * {@code histogram} or {@code counter}, and whose other keys are the metric's name and tags, e.g. {@code
+ * org.interledger.connector:type=histogram,name="forwarding.routing",ledger="test1.usd."}. A view (see {@link
+ * #registerView(String, Object)}) is registered in the same way, with a {@code type} of {@code view} and no tags.
+ * Closing this registry unregisters all of its metrics and views.
+ */
+public class JmxMetricsRegistry extends InMemoryMetricsRegistry implements AutoCloseable {
+
+  /**
+   * The JMX domain that metrics are registered in by default.
+   */
+  public static final String DEFAULT_DOMAIN = "org.interledger.connector";
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final MBeanServer mbeanServer;
+  private final String domain;
+  private final Set<ObjectName> registeredNames = ConcurrentHashMap.newKeySet();
+
+  /**
+   * No-args Constructor, which registers metrics in {@link #DEFAULT_DOMAIN} of the platform {@link MBeanServer}.
+   */
+  public JmxMetricsRegistry() {
+    this(ManagementFactory.getPlatformMBeanServer(), DEFAULT_DOMAIN);
+  }
+
+  /**
+   * Required-args Constructor.
+   *
+   * @param mbeanServer The {@link MBeanServer} to register metrics with.
+   * @param domain      The JMX domain to register metrics in.
+   */
+  public JmxMetricsRegistry(final MBeanServer mbeanServer, final String domain) {
+    this.mbeanServer = Objects.requireNonNull(mbeanServer);
+    this.domain = Objects.requireNonNull(domain);
+  }
+
+  @Override
+  protected void onHistogramCreated(
+      final String name, final Map<String, String> tags, final LatencyHistogram histogram
+  ) {
+    this.register(this.toObjectName("histogram", name, tags), new LatencyHistogramBean(histogram));
+  }
+
+  @Override
+  protected void onCounterCreated(final String name, final Map<String, String> tags, final Counter counter) {
+    this.register(this.toObjectName("counter", name, tags), new CounterBean(counter));
+  }
+
+  @Override
+  public void registerView(final String name, final Object mxbean) {
+    Objects.requireNonNull(mxbean);
+    this.register(this.toObjectName("view", name, Collections.emptyMap()), mxbean);
+  }
+
+  /**
+   * Unregister all of the metrics in this registry. They can still be recorded into, but are no longer visible through
+   * JMX.
+   */
+  @Override
+  public void close() {
+    for (ObjectName objectName : this.registeredNames) {
+      try {
+        this.mbeanServer.unregisterMBean(objectName);
+      } catch (JMException e) {
+        logger.warn("Unable to unregister metric {}: {}", objectName, e.getMessage());
+      }
+    }
+    this.registeredNames.clear();
+  }
+
+  /**
+   * Compute the {@link ObjectName} of a metric. Values are quoted, since ledger prefixes and error codes may contain
+   * characters (e.g., {@code :}) that are not allowed in an unquoted value.
+   */
+  private ObjectName toObjectName(final String type, final String name, final Map<String, String> tags) {
+    final StringBuilder objectName = new StringBuilder(domain)
+        .append(":type=").append(type)
+        .append(",name=").append(ObjectName.quote(name));
+    for (Entry<String, String> tag : tags.entrySet()) {
+      objectName.append(',').append(tag.getKey()).append('=').append(ObjectName.quote(tag.getValue()));
+    }
+    try {
+      return new ObjectName(objectName.toString());
+    } catch (JMException e) {
+      throw new IllegalArgumentException(String.format("Invalid metric name or tags: %s", objectName), e);
+    }
+  }
+
+  private void register(final ObjectName objectName, final Object mxbean) {
+    try {
+      this.mbeanServer.registerMBean(mxbean, objectName);
+      this.registeredNames.add(objectName);
+    } catch (JMException e) {
+      // The metric is still recorded; it just can't be read through JMX (e.g., because another registry in this JVM
+      // already registered a metric under the same name).
+      logger.warn("Unable to register metric {}: {}", objectName, e.getMessage());
+    }
+  }
+
+  /**
+   * The JMX view of a {@link LatencyHistogram}, in nanoseconds.
+   */
+  public interface LatencyHistogramMXBean {
+
+    long getCount();
+
+    double getMean();
+
+    long getMax();
+
+    long get50thPercentile();
+
+    long get90thPercentile();
+
+    long get99thPercentile();
+
+    long get999thPercentile();
+  }
+
+  /**
+   * The JMX view of a {@link Counter}.
+   */
+  public interface CounterMXBean {
+
+    long getCount();
+  }
+
+  private static final class LatencyHistogramBean implements LatencyHistogramMXBean {
+
+    private final LatencyHistogram histogram;
+
+    private LatencyHistogramBean(final LatencyHistogram histogram) {
+      this.histogram = histogram;
+    }
+
+    @Override
+    public long getCount() {
+      return histogram.getCount();
+    }
+
+    @Override
+    public double getMean() {
+      return histogram.getMean();
+    }
+
+    @Override
+    public long getMax() {
+      return histogram.getMax();
+    }
+
+    @Override
+    public long get50thPercentile() {
+      return histogram.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long get90thPercentile() {
+      return histogram.getValueAtPercentile(90);
+    }
+
+    @Override
+    public long get99thPercentile() {
+      return histogram.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long get999thPercentile() {
+      return histogram.getValueAtPercentile(99.9);
+    }
+  }
+
+  private static final class CounterBean implements CounterMXBean {
+
+    private final Counter counter;
+
+    private CounterBean(final Counter counter) {
+      this.counter = counter;
+    }
+
+    @Override
+    public long getCount() {
+      return counter.getCount();
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package org.interledger.connector.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent histogram of latencies, in nanoseconds, in the style of an HDR histogram: values are counted in buckets
+ * that double in width, each of which is divided into {@link #SUB_BUCKETS} equal sub-buckets, so that every value is
+ * counted with a relative error of at most {@code 1 / SUB_BUCKETS} (about 3%) over the whole range of values, using a
+ * fixed, small amount of memory.
+ *
+ * Recording a value is a single atomic increment of its sub-bucket plus two striped updates (of the sum and the
+ * maximum), and never allocates. Values above {@link #MAX_TRACKABLE_NANOS} are counted as that value.
+ */
+public class LatencyHistogram {
+
+  /**
+   * The number of sub-buckets in each bucket, which bounds the relative error of a recorded value.
+   */
+  public static final int SUB_BUCKETS = 32;
+
+  /**
+   * The largest value that is counted precisely (a little over 2 hours).
+   */
+  public static final long MAX_TRACKABLE_NANOS = TimeUnit.HOURS.toNanos(2);
+
+  private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+  private static final int NUM_COUNTS = indexOf(MAX_TRACKABLE_NANOS) + 1;
+
+  private final AtomicLongArray counts = new AtomicLongArray(NUM_COUNTS);
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Record a latency.
+   *
+   * @param nanos The latency, in nanoseconds. A negative value is recorded as zero.
+   */
+  public void record(final long nanos) {
+    final long value = Math.min(Math.max(nanos, 0), MAX_TRACKABLE_NANOS);
+    this.counts.incrementAndGet(indexOf(value));
+    this.sum.add(value);
+    this.max.accumulate(value);
+  }
+
+  /**
+   * The number of latencies that have been recorded.
+   */
+  public long getCount() {
+    long count = 0;
+    for (int index = 0; index < NUM_COUNTS; index++) {
+      count += this.counts.get(index);
+    }
+    return count;
+  }
+
+  /**
+   * The mean of the latencies that have been recorded, in nanoseconds, or zero if none have been.
+   */
+  public double getMean() {
+    final long count = this.getCount();
+    return count == 0 ? 0 : (double) this.sum.sum() / count;
+  }
+
+  /**
+   * The largest latency that has been recorded, in nanoseconds.
+   */
+  public long getMax() {
+    return this.max.get();
+  }
+
+  /**
+   * Compute a percentile of the latencies that have been recorded.
+   *
+   * @param percentile The percentile to compute, between 0 and 100.
+   *
+   * @return The highest latency, in nanoseconds, that is counted in the same sub-bucket as the latency at {@code
+   *     percentile} (so that the result errs on the side of being too high), or zero if no latencies have been
+   *     recorded.
+   */
+  public long getValueAtPercentile(final double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("percentile must be between 0 and 100!");
+    }
+
+    final long[] snapshot = new long[NUM_COUNTS];
+    long count = 0;
+    for (int index = 0; index < NUM_COUNTS; index++) {
+      snapshot[index] = this.counts.get(index);
+      count += snapshot[index];
+    }
+    if (count == 0) {
+      return 0;
+    }
+
+    final long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+    long seen = 0;
+    for (int index = 0; index < NUM_COUNTS; index++) {
+      seen += snapshot[index];
+      if (seen >= rank) {
+        return Math.min(highestValueAt(index), this.getMax());
+      }
+    }
+    return this.getMax();
+  }
+
+  /**
+   * Compute the index of the sub-bucket that counts {@code value}. Values below {@link #SUB_BUCKETS} each have their
+   * own sub-bucket; above that, a value's bucket is given by its highest set bit, and its sub-bucket by the {@link
+   * #SUB_BUCKET_BITS} bits below that.
+   */
+  private static int indexOf(final long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    final int highestBit = 63 - Long.numberOfLeadingZeros(value);
+    final int shift = highestBit - SUB_BUCKET_BITS;
+    return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) - SUB_BUCKETS);
+  }
+
+  /**
+   * The highest value that is counted in the sub-bucket at {@code index}.
+   */
+  private static long highestValueAt(final int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    final int shift = (index >>> SUB_BUCKET_BITS) - 1;
+    final long subBucket = SUB_BUCKETS + (index & (SUB_BUCKETS - 1));
+    return ((subBucket + 1) << shift) - 1;
+  }
+}
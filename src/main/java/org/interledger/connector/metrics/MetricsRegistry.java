@@ -0,0 +1,42 @@
+package org.interledger.connector.metrics;
+
+import java.util.Map;
+
+/**
+ * A registry of the metrics that a Connector records, through which they are exposed to a monitoring system.
+ *
+ * Each metric is identified by a name and a set of tags (e.g., the ledger that it is recorded for). Looking a metric
+ * up may be relatively expensive, so callers should look each metric up once and then record into it directly.
+ */
+public interface MetricsRegistry {
+
+  /**
+   * Get the {@link LatencyHistogram} with the given name and tags, creating it if necessary.
+   *
+   * @param name The name of the histogram.
+   * @param tags A {@link Map} of tag names to tag values that, with {@code name}, identify the histogram.
+   *
+   * @return The same {@link LatencyHistogram} for the same {@code name} and {@code tags}.
+   */
+  LatencyHistogram histogram(String name, Map<String, String> tags);
+
+  /**
+   * Get the {@link Counter} with the given name and tags, creating it if necessary.
+   *
+   * @param name The name of the counter.
+   * @param tags A {@link Map} of tag names to tag values that, with {@code name}, identify the counter.
+   *
+   * @return The same {@link Counter} for the same {@code name} and {@code tags}.
+   */
+  Counter counter(String name, Map<String, String> tags);
+
+  /**
+   * Expose a view of a Connector that is not a metric (e.g., the traces of recent payments) alongside its metrics.
+   * Registries that have nowhere to expose such a view ignore it.
+   *
+   * @param name   The name of the view.
+   * @param mxbean An MXBean (i.e., an instance of an interface whose name ends in {@code MXBean}) providing the view.
+   */
+  default void registerView(String name, Object mxbean) {
+  }
+}
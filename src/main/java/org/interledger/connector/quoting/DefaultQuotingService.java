@@ -0,0 +1,382 @@
+package org.interledger.connector.quoting;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.RouteId;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.connector.fx.FxEngine;
+import org.interledger.connector.fx.SlippageTable;
+import org.interledger.connector.routing.ImmutableInterledgerHop;
+import org.interledger.connector.routing.PaymentRouter;
+import org.interledger.connector.routing.Route;
+import org.interledger.connector.services.LedgerPluginManager;
+import org.interledger.plugin.lpi.LedgerInfo;
+import org.interledger.plugin.lpi.exceptions.LedgerPluginNotConnectedException;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.javamoney.moneta.convert.ExchangeRateBuilder;
+import org.javamoney.moneta.spi.DefaultNumberValue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+import javax.money.CurrencyUnit;
+import javax.money.convert.ExchangeRate;
+
+/**
+ * A default implementation of {@link QuotingService} that answers quote requests using a {@link PaymentRouter} to
+ * determine the next-hop of a payment, and an {@link FxEngine} to determine the exchange rate between the source and
+ * next-hop ledgers (reduced by the FX spread in {@link ConnectorConfig#getFxSpread()}).
+ *
+ * Because the same senders tend to request quotes for the same corridors over and over, the result of each routing and
+ * FX lookup is cached, keyed by source ledger, destination ledger-prefix and amount bucket, for the quote expiry
+ * duration (see {@link ConnectorConfig#getQuoteExpiryDuration()}), or until its route expires if that is sooner.
+ * Subsequent quotes for the same corridor cost a hash lookup plus an amount calculation. Each quote expires one quote
+ * expiry duration after it was requested (but never after its route), whether or not its corridor was cached. Amounts
+ * are bucketed by order of magnitude so that quotes for a corridor may later vary by payment size (e.g., via a
+ * liquidity curve) without changing the shape of the cache.
+ *
+ * Cached corridors are not invalidated when the routing table changes; callers that modify routes should call {@link
+ * #invalidateQuotes()}.
+ */
+public class DefaultQuotingService implements QuotingService {
+
+  // Bounds the memory used by the cache, which would otherwise grow with every distinct destination ever quoted.
+  private static final long MAX_CACHED_CORRIDORS = 10_000L;
+
+  private final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService;
+  private final LedgerPluginManager ledgerPluginManager;
+  private final PaymentRouter<? extends Route> paymentRouter;
+  private final FxEngine fxEngine;
+  private final Clock clock;
+
+  private final Cache<CorridorKey, Corridor> corridors;
+
+  // Lazily computed from the current ConnectorConfig, and recomputed whenever that configuration changes.
+  private volatile SlippageTable slippageTable;
+
+  public DefaultQuotingService(
+      final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService,
+      final LedgerPluginManager ledgerPluginManager,
+      final PaymentRouter<? extends Route> paymentRouter,
+      final FxEngine fxEngine
+  ) {
+    this(connectorConfigurationService, ledgerPluginManager, paymentRouter, fxEngine, Clock.systemUTC());
+  }
+
+  /**
+   * Exists for testing purposes, but is otherwise not necessary.
+   */
+  @VisibleForTesting
+  DefaultQuotingService(
+      final ConnectorConfigurationService<? extends ConnectorConfig> connectorConfigurationService,
+      final LedgerPluginManager ledgerPluginManager,
+      final PaymentRouter<? extends Route> paymentRouter,
+      final FxEngine fxEngine,
+      final Clock clock
+  ) {
+    this.connectorConfigurationService = Objects.requireNonNull(connectorConfigurationService);
+    this.ledgerPluginManager = Objects.requireNonNull(ledgerPluginManager);
+    this.paymentRouter = Objects.requireNonNull(paymentRouter);
+    this.fxEngine = Objects.requireNonNull(fxEngine);
+    this.clock = Objects.requireNonNull(clock);
+    this.corridors = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_CORRIDORS).build();
+  }
+
+  @Override
+  public Optional<Quote> getQuoteBySourceAmount(
+      final InterledgerAddress sourceLedgerPrefix, final InterledgerAddress destinationAddress,
+      final BigInteger sourceAmount
+  ) {
+    InterledgerAddress.requireAddressPrefix(sourceLedgerPrefix);
+    InterledgerAddress.requireNotAddressPrefix(destinationAddress);
+    Objects.requireNonNull(sourceAmount);
+
+    final Instant now = this.clock.instant();
+    return this
+        .getCorridor(sourceLedgerPrefix, destinationAddress, CorridorKey.sourceAmountBucket(sourceAmount), now)
+        .map(corridor -> corridor.toQuote(
+            destinationAddress, sourceAmount, corridor.toDestinationAmount(sourceAmount), this.quoteExpiresAt(now)
+        ));
+  }
+
+  @Override
+  public Optional<Quote> getQuoteByDestinationAmount(
+      final InterledgerAddress sourceLedgerPrefix, final InterledgerAddress destinationAddress,
+      final BigInteger destinationAmount
+  ) {
+    InterledgerAddress.requireAddressPrefix(sourceLedgerPrefix);
+    InterledgerAddress.requireNotAddressPrefix(destinationAddress);
+    Objects.requireNonNull(destinationAmount);
+
+    final Instant now = this.clock.instant();
+    return this
+        .getCorridor(
+            sourceLedgerPrefix, destinationAddress, CorridorKey.destinationAmountBucket(destinationAmount), now
+        )
+        .map(corridor -> corridor.toQuote(
+            destinationAddress, corridor.toSourceAmount(destinationAmount), destinationAmount, this.quoteExpiresAt(now)
+        ));
+  }
+
+  /**
+   * Discard all cached corridors, so that subsequent quotes reflect the current routing table and FX rates.
+   */
+  public void invalidateQuotes() {
+    this.corridors.invalidateAll();
+  }
+
+  /**
+   * The expiry of a quote requested at {@code now}, before it is bounded by the expiry of its route.
+   */
+  private Instant quoteExpiresAt(final Instant now) {
+    return now.plus(this.connectorConfigurationService.getConnectorConfig().getQuoteExpiryDuration());
+  }
+
+  /**
+   * Accessor for the cached {@link Corridor} for the supplied inputs, computing it if it is absent or has expired.
+   */
+  private Optional<Corridor> getCorridor(
+      final InterledgerAddress sourceLedgerPrefix, final InterledgerAddress destinationAddress, final int amountBucket,
+      final Instant now
+  ) {
+    final CorridorKey corridorKey = new CorridorKey(sourceLedgerPrefix, destinationAddress.getPrefix(), amountBucket);
+
+    final Corridor cachedCorridor = this.corridors.getIfPresent(corridorKey);
+    if (cachedCorridor != null && now.isBefore(cachedCorridor.cachedUntil)) {
+      return Optional.of(cachedCorridor);
+    }
+
+    final Optional<Corridor> corridor = this.computeCorridor(sourceLedgerPrefix, destinationAddress, now);
+    if (corridor.isPresent()) {
+      this.corridors.put(corridorKey, corridor.get());
+    } else {
+      this.corridors.invalidate(corridorKey);
+    }
+    return corridor;
+  }
+
+  /**
+   * Perform the routing and FX lookups for a payment from {@code sourceLedgerPrefix} to {@code destinationAddress}.
+   */
+  private Optional<Corridor> computeCorridor(
+      final InterledgerAddress sourceLedgerPrefix, final InterledgerAddress destinationAddress, final Instant now
+  ) {
+    final Optional<? extends Route> nextHopRoute = this.paymentRouter.findBestNexHop(
+        destinationAddress, sourceLedgerPrefix
+    );
+    if (!nextHopRoute.isPresent()) {
+      return Optional.empty();
+    }
+    final Route route = nextHopRoute.get();
+    final InterledgerAddress nextHopLedgerPrefix = route.getNextHopLedgerPrefix();
+
+    final CurrencyUnit baseCurrencyUnit = this.getCurrencyUnit(sourceLedgerPrefix);
+    final CurrencyUnit terminatingCurrencyUnit = this.getCurrencyUnit(nextHopLedgerPrefix);
+
+    final ConnectorConfig connectorConfig = this.connectorConfigurationService.getConnectorConfig();
+
+    // This method does not catch the CurrencyConversionException because there's nothing to be done if that occurs. It
+    // means that FX is not configured between the source/destination ledgers.
+    final ExchangeRate fxRate = Objects.requireNonNull(
+        this.fxEngine.getExchangeRate(baseCurrencyUnit, terminatingCurrencyUnit)
+    );
+    final BigDecimal rate = fxRate.getFactor().numberValue(BigDecimal.class)
+        .multiply(BigDecimal.ONE.subtract(connectorConfig.getFxSpread()));
+
+    final Instant quoteExpiresAt = now.plus(connectorConfig.getQuoteExpiryDuration());
+    final Instant cachedUntil = route.getExpiresAt()
+        .filter(routeExpiresAt -> routeExpiresAt.isBefore(quoteExpiresAt))
+        .orElse(quoteExpiresAt);
+
+    return Optional.of(new Corridor(
+        toRouteId(sourceLedgerPrefix, route),
+        route,
+        this.ledgerPluginManager.isLocallyPeered(nextHopLedgerPrefix),
+        new ExchangeRateBuilder(fxRate).setFactor(DefaultNumberValue.of(rate)).build(),
+        rate,
+        cachedUntil,
+        this.getSlippageTable(connectorConfig)
+    ));
+  }
+
+  private CurrencyUnit getCurrencyUnit(final InterledgerAddress ledgerPrefix) {
+    return this.ledgerPluginManager.getLedgerInfo(ledgerPrefix)
+        .map(LedgerInfo::getCurrencyUnit)
+        .orElseThrow(() -> new LedgerPluginNotConnectedException(ledgerPrefix));
+  }
+
+  /**
+   * Accessor for the {@link SlippageTable} computed from {@code connectorConfig}, which is only recomputed when the
+   * configuration service returns a different configuration instance (e.g., after a reload).
+   */
+  private SlippageTable getSlippageTable(final ConnectorConfig connectorConfig) {
+    SlippageTable currentSlippageTable = this.slippageTable;
+    if (currentSlippageTable == null || !currentSlippageTable.isComputedFrom(connectorConfig)) {
+      currentSlippageTable = SlippageTable.of(connectorConfig);
+      this.slippageTable = currentSlippageTable;
+    }
+    return currentSlippageTable;
+  }
+
+  /**
+   * Derive a {@link RouteId} for a route, as used from a particular source ledger. The identifier is deterministic so
+   * that quotes for the same liquidity path always share an identifier, even after cached corridors are recomputed.
+   */
+  @VisibleForTesting
+  static RouteId toRouteId(final InterledgerAddress sourceLedgerPrefix, final Route route) {
+    return RouteId.of(UUID.nameUUIDFromBytes(
+        String.join(" ",
+            sourceLedgerPrefix.getValue(),
+            route.getTargetPrefix().getValue(),
+            route.getNextHopLedgerAccount().getValue()
+        ).getBytes(StandardCharsets.UTF_8)
+    ));
+  }
+
+  /**
+   * The cache key for a {@link Corridor}.
+   */
+  private static final class CorridorKey {
+
+    private final InterledgerAddress sourceLedgerPrefix;
+    private final InterledgerAddress destinationLedgerPrefix;
+    private final int amountBucket;
+    private final int hashCode;
+
+    private CorridorKey(
+        final InterledgerAddress sourceLedgerPrefix, final InterledgerAddress destinationLedgerPrefix,
+        final int amountBucket
+    ) {
+      this.sourceLedgerPrefix = sourceLedgerPrefix;
+      this.destinationLedgerPrefix = destinationLedgerPrefix;
+      this.amountBucket = amountBucket;
+
+      int result = sourceLedgerPrefix.hashCode();
+      result = 31 * result + destinationLedgerPrefix.hashCode();
+      result = 31 * result + amountBucket;
+      this.hashCode = result;
+    }
+
+    /**
+     * Source amounts are bucketed by their number of bits (i.e., by powers of two).
+     */
+    private static int sourceAmountBucket(final BigInteger sourceAmount) {
+      return sourceAmount.bitLength();
+    }
+
+    /**
+     * Destination amounts are bucketed like source amounts, but into negative buckets so the two never collide.
+     */
+    private static int destinationAmountBucket(final BigInteger destinationAmount) {
+      return -1 - destinationAmount.bitLength();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+
+      CorridorKey that = (CorridorKey) o;
+
+      return amountBucket == that.amountBucket
+          && sourceLedgerPrefix.equals(that.sourceLedgerPrefix)
+          && destinationLedgerPrefix.equals(that.destinationLedgerPrefix);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /**
+   * The result of the routing and FX lookups for payments from a source ledger to a destination ledger-prefix, from
+   * which quotes for any amount can be computed until {@link #cachedUntil}.
+   */
+  private static final class Corridor {
+
+    private final RouteId routeId;
+    private final Route route;
+    private final boolean nextHopIsLocallyPeered;
+    private final ExchangeRate exchangeRate;
+    // The exchange rate, including the FX spread, as a plain number.
+    private final BigDecimal rate;
+    private final Instant cachedUntil;
+    private final SlippageTable slippageTable;
+
+    private Corridor(
+        final RouteId routeId, final Route route, final boolean nextHopIsLocallyPeered,
+        final ExchangeRate exchangeRate, final BigDecimal rate, final Instant cachedUntil,
+        final SlippageTable slippageTable
+    ) {
+      this.routeId = routeId;
+      this.route = route;
+      this.nextHopIsLocallyPeered = nextHopIsLocallyPeered;
+      this.exchangeRate = exchangeRate;
+      this.rate = rate;
+      this.cachedUntil = cachedUntil;
+      this.slippageTable = slippageTable;
+    }
+
+    /**
+     * Rounds down, so that this connector never quotes more than the rate allows.
+     */
+    private BigInteger toDestinationAmount(final BigInteger sourceAmount) {
+      return new BigDecimal(sourceAmount).multiply(rate).setScale(0, RoundingMode.FLOOR).toBigIntegerExact();
+    }
+
+    /**
+     * Rounds up, so that the source amount is always sufficient to deliver {@code destinationAmount}.
+     */
+    private BigInteger toSourceAmount(final BigInteger destinationAmount) {
+      if (rate.signum() == 0) {
+        throw new ArithmeticException("Cannot quote by destination amount with a zero exchange rate!");
+      }
+      return new BigDecimal(destinationAmount).divide(rate, MathContext.DECIMAL128).setScale(0, RoundingMode.CEILING)
+          .toBigIntegerExact();
+    }
+
+    /**
+     * Build a quote that expires at {@code quoteExpiresAt}, or when this corridor's route expires if that is sooner.
+     */
+    private Quote toQuote(
+        final InterledgerAddress destinationAddress, final BigInteger sourceAmount, final BigInteger destinationAmount,
+        final Instant quoteExpiresAt
+    ) {
+      return ImmutableQuote.builder()
+          .routeId(routeId)
+          .nextHop(ImmutableInterledgerHop.builder()
+              .destinationLedgerPrefix(route.getNextHopLedgerPrefix())
+              // If the next-hop ledger is locally peered, then this connector delivers directly to the receiver.
+              .destinationLedgerCreditAccount(
+                  nextHopIsLocallyPeered ? destinationAddress : route.getNextHopLedgerAccount()
+              )
+              .destinationAmount(destinationAmount)
+              .finalAmount(slippageTable.applySlippage(destinationAmount, destinationAddress.getPrefix()))
+              .isFinal(nextHopIsLocallyPeered)
+              .build())
+          .exchangeRate(exchangeRate)
+          .sourceAmount(sourceAmount)
+          .amount(destinationAmount)
+          .expiresAt(route.getExpiresAt()
+              .filter(routeExpiresAt -> routeExpiresAt.isBefore(quoteExpiresAt))
+              .orElse(quoteExpiresAt))
+          .build();
+    }
+  }
+}
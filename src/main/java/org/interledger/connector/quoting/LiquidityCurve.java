@@ -0,0 +1,493 @@
+package org.interledger.connector.quoting;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A piecewise-linear function that maps an amount sent through a liquidity path (x, in units of a source ledger) to
+ * the amount that will arrive at the other end of that path (y, in units of a destination ledger).
+ *
+ * A curve is defined by a list of points with strictly increasing x-values and non-decreasing y-values. Between two
+ * points, amounts are interpolated linearly (rounding down, so that a curve never over-promises). Below the first
+ * point a curve delivers nothing, and above the last point it delivers the y-value of the last point, i.e., the
+ * maximum amount of liquidity available.
+ *
+ * Instances of this class are immutable and thread-safe. Points are stored in primitive arrays that are shared between
+ * a curve and any curves shifted from it, so {@link #shiftX(long)} and {@link #shiftY(long)} are constant-time, and
+ * {@link #amountAt(long)} and {@link #amountReverse(long)} are {@code O(log n)} and do not allocate (except for
+ * interpolations whose intermediate product would overflow a {@code long}, which fall back to {@link BigInteger}).
+ *
+ * Note: This type correlates to "LiquidityCurve" in the Javascript implementation, where amounts are bignumbers. Here,
+ * amounts are {@code long} values, which accommodate any realistic amount in the units of a single ledger.
+ */
+public class LiquidityCurve {
+
+  private final long[] xs;
+  private final long[] ys;
+  // Added to every x-value (respectively, y-value) in the arrays above, so that shifting does not copy them.
+  private final long xOffset;
+  private final long yOffset;
+
+  private LiquidityCurve(final long[] xs, final long[] ys, final long xOffset, final long yOffset) {
+    this.xs = xs;
+    this.ys = ys;
+    this.xOffset = xOffset;
+    this.yOffset = yOffset;
+  }
+
+  /**
+   * Construct a new {@link LiquidityCurve} from the supplied points, where the point at index {@code i} is {@code
+   * (xs[i], ys[i])}.
+   *
+   * @param xs The x-values of each point, which must be strictly increasing.
+   * @param ys The y-values of each point, which must be non-negative and non-decreasing.
+   *
+   * @return A new {@link LiquidityCurve}.
+   *
+   * @throws IllegalArgumentException if the arrays are empty or of different lengths, if the points do not meet the
+   *                                  requirements above, or if two adjacent points are too far apart to be interpolated
+   *                                  using {@code long} arithmetic.
+   */
+  public static LiquidityCurve of(final long[] xs, final long[] ys) {
+    Objects.requireNonNull(xs);
+    Objects.requireNonNull(ys);
+    if (xs.length == 0 || xs.length != ys.length) {
+      throw new IllegalArgumentException("A LiquidityCurve requires at least one point, and one y-value per x-value!");
+    }
+    if (ys[0] < 0) {
+      throw new IllegalArgumentException("LiquidityCurve y-values must not be negative!");
+    }
+    for (int i = 1; i < xs.length; i++) {
+      final long dx;
+      final long dy;
+      try {
+        dx = Math.subtractExact(xs[i], xs[i - 1]);
+        dy = Math.subtractExact(ys[i], ys[i - 1]);
+      } catch (ArithmeticException e) {
+        throw new IllegalArgumentException(
+            "Adjacent LiquidityCurve points must be less than Long.MAX_VALUE apart!", e
+        );
+      }
+      if (dx <= 0) {
+        throw new IllegalArgumentException("LiquidityCurve x-values must be strictly increasing!");
+      }
+      if (dy < 0) {
+        throw new IllegalArgumentException("LiquidityCurve y-values must be non-decreasing!");
+      }
+    }
+    return new LiquidityCurve(xs.clone(), ys.clone(), 0, 0);
+  }
+
+  /**
+   * Construct a new {@link LiquidityCurve} for a path with a constant exchange rate, from {@code (0, 0)} up to a
+   * maximum amount of {@code maxX}.
+   *
+   * @param rate A {@link BigDecimal} representing the number of y-units delivered per x-unit.
+   * @param maxX The largest x-value that the curve should convert, i.e., the amount of available liquidity.
+   *
+   * @return A new {@link LiquidityCurve}.
+   */
+  public static LiquidityCurve linear(final BigDecimal rate, final long maxX) {
+    Objects.requireNonNull(rate);
+    if (rate.signum() < 0 || maxX <= 0) {
+      throw new IllegalArgumentException("A linear LiquidityCurve requires a non-negative rate and positive maxX!");
+    }
+    final long maxY = BigDecimal.valueOf(maxX).multiply(rate).setScale(0, RoundingMode.FLOOR).longValueExact();
+    return of(new long[]{0, maxX}, new long[]{0, maxY});
+  }
+
+  /**
+   * The number of points that define this curve.
+   */
+  public int size() {
+    return xs.length;
+  }
+
+  /**
+   * Accessor for the x-value of the point at {@code index}, including any shift.
+   */
+  public long getX(final int index) {
+    return xs[index] + xOffset;
+  }
+
+  /**
+   * Accessor for the y-value of the point at {@code index}, including any shift.
+   */
+  public long getY(final int index) {
+    return ys[index] + yOffset;
+  }
+
+  /**
+   * Compute the amount that will be delivered by this curve when {@code x} is sent into it.
+   *
+   * @param x An amount, in source units.
+   *
+   * @return The amount delivered, in destination units, rounded down.
+   */
+  public long amountAt(final long x) {
+    final long localX = x - xOffset;
+    // Detects overflow of the subtraction, in which case x is beyond one end of the curve.
+    final boolean overflowed = ((x ^ xOffset) & (x ^ localX)) < 0;
+
+    final int last = xs.length - 1;
+    if (overflowed ? x < 0 : localX < xs[0]) {
+      return 0;
+    }
+    if (overflowed || localX >= xs[last]) {
+      return ys[last] + yOffset;
+    }
+
+    // Index of the first point with an x-value greater than localX, which is in [1, last].
+    final int index = upperBound(xs, localX);
+    final long x0 = xs[index - 1];
+    final long y0 = ys[index - 1];
+    return y0 + multiplyDivide(localX - x0, ys[index] - y0, xs[index] - x0, false) + yOffset;
+  }
+
+  /**
+   * Compute the smallest amount that must be sent into this curve in order for at least {@code y} to be delivered.
+   *
+   * @param y An amount, in destination units.
+   *
+   * @return The amount to send, in source units, rounded up; or {@link Long#MAX_VALUE} if this curve cannot deliver
+   *   {@code y}.
+   */
+  public long amountReverse(final long y) {
+    final long localY = y - yOffset;
+    final boolean overflowed = ((y ^ yOffset) & (y ^ localY)) < 0;
+
+    final int last = ys.length - 1;
+    if (overflowed ? y < 0 : localY <= ys[0]) {
+      return xs[0] + xOffset;
+    }
+    if (overflowed || localY > ys[last]) {
+      return Long.MAX_VALUE;
+    }
+
+    // Index of the first point with a y-value of at least localY, which is in [1, last]. Because localY > ys[0],
+    // the y-values of the points on either side of it must differ.
+    final int index = lowerBound(ys, localY);
+    final long x0 = xs[index - 1];
+    final long y0 = ys[index - 1];
+    return x0 + multiplyDivide(localY - y0, xs[index] - x0, ys[index] - y0, true) + xOffset;
+  }
+
+  /**
+   * Shift this curve along the x-axis, e.g., to account for a fixed fee that must be paid before any amount is
+   * delivered. This operation does not copy the points of this curve.
+   *
+   * @param dx The amount to shift by, in source units.
+   *
+   * @return A new {@link LiquidityCurve} where {@code result.amountAt(x + dx) == this.amountAt(x)}.
+   *
+   * @throws ArithmeticException if shifting would move any point beyond the range of a {@code long}.
+   */
+  public LiquidityCurve shiftX(final long dx) {
+    final long shiftedOffset = Math.addExact(xOffset, dx);
+    // Points are increasing, so if the first and last points remain in range, then all points do.
+    Math.addExact(xs[0], shiftedOffset);
+    Math.addExact(xs[xs.length - 1], shiftedOffset);
+    return new LiquidityCurve(xs, ys, shiftedOffset, yOffset);
+  }
+
+  /**
+   * Shift this curve along the y-axis, e.g., to account for a fixed amount that is added to every payment. This
+   * operation does not copy the points of this curve.
+   *
+   * @param dy The amount to shift by, in destination units.
+   *
+   * @return A new {@link LiquidityCurve} where {@code result.amountAt(x) == this.amountAt(x) + dy} for any {@code x} on
+   *   the curve.
+   *
+   * @throws IllegalArgumentException if shifting would make any y-value negative.
+   * @throws ArithmeticException      if shifting would move any point beyond the range of a {@code long}.
+   */
+  public LiquidityCurve shiftY(final long dy) {
+    final long shiftedOffset = Math.addExact(yOffset, dy);
+    if (Math.addExact(ys[0], shiftedOffset) < 0) {
+      throw new IllegalArgumentException("LiquidityCurve y-values must not be negative!");
+    }
+    Math.addExact(ys[ys.length - 1], shiftedOffset);
+    return new LiquidityCurve(xs, ys, xOffset, shiftedOffset);
+  }
+
+  /**
+   * Combine this curve with {@code other}, producing a curve that delivers the better of the two curves at every
+   * x-value (i.e., the upper envelope of both curves). This is useful for representing a destination that is reachable
+   * via multiple paths, assuming that each payment uses the best path for its amount.
+   *
+   * Points are added wherever the two curves cross, so the result matches the better of the two curves to within one
+   * unit of rounding.
+   *
+   * @param other Another {@link LiquidityCurve} with the same source and destination units as this one.
+   *
+   * @return A new {@link LiquidityCurve}.
+   */
+  public LiquidityCurve combine(final LiquidityCurve other) {
+    Objects.requireNonNull(other);
+
+    final PointBuilder breakpoints = new PointBuilder(2 * (this.size() + other.size() + 1));
+    this.addBreakpoints(breakpoints);
+    other.addBreakpoints(breakpoints);
+    final long[] candidateXs = breakpoints.sortedDistinctXs();
+
+    final PointBuilder points = new PointBuilder(candidateXs.length * 3);
+    for (int i = 0; i < candidateXs.length; i++) {
+      final long x = candidateXs[i];
+      points.add(x, Math.max(this.amountAt(x), other.amountAt(x)));
+
+      // Between two adjacent breakpoints both curves are linear, so they cross at most once. If they do, add the
+      // integer x-values on either side of the crossing.
+      if (i + 1 < candidateXs.length) {
+        final long nextX = candidateXs[i + 1];
+        final long difference = this.amountAt(x) - other.amountAt(x);
+        final long nextDifference = this.amountAt(nextX) - other.amountAt(nextX);
+        if (difference != 0 && nextDifference != 0 && (difference < 0) != (nextDifference < 0)) {
+          final long crossingX = x + multiplyDivide(
+              nextX - x, Math.abs(difference), Math.abs(difference) + Math.abs(nextDifference), false
+          );
+          for (long crossing = crossingX; crossing <= crossingX + 1; crossing++) {
+            if (crossing > x && crossing < nextX) {
+              points.add(crossing, Math.max(this.amountAt(crossing), other.amountAt(crossing)));
+            }
+          }
+        }
+      }
+    }
+    return points.build();
+  }
+
+  /**
+   * Join this curve with {@code other}, producing a curve that represents sending an amount through this curve, and
+   * then sending the result through {@code other} (i.e., the composition of the two curves). This is useful for
+   * computing the curve of a multi-hop path from the curves of each hop.
+   *
+   * @param other A {@link LiquidityCurve} whose source units are the destination units of this curve.
+   *
+   * @return A new {@link LiquidityCurve} where {@code result.amountAt(x) == other.amountAt(this.amountAt(x))} at each
+   *   of its points. Between points, the result may differ from that composition by the rounding of this curve
+   *   multiplied by the slope of {@code other} (i.e., by a few units at most for any realistic exchange rate). As with
+   *   any curve, the result delivers nothing below its first point.
+   */
+  public LiquidityCurve join(final LiquidityCurve other) {
+    Objects.requireNonNull(other);
+
+    // The composition can only bend where this curve bends, or where this curve delivers an amount at which the
+    // other curve bends.
+    final PointBuilder breakpoints = new PointBuilder(2 * (this.size() + 1) + 4 * (other.size() + 1));
+    this.addBreakpoints(breakpoints);
+    final PointBuilder otherBreakpoints = new PointBuilder(2 * (other.size() + 1));
+    other.addBreakpoints(otherBreakpoints);
+    for (long otherX : otherBreakpoints.sortedDistinctXs()) {
+      // The smallest x-value at which this curve delivers otherX, and the x-value just before it.
+      final long x = this.amountReverse(otherX);
+      if (x != Long.MAX_VALUE) {
+        breakpoints.add(x, 0);
+        if (x != Long.MIN_VALUE) {
+          breakpoints.add(x - 1, 0);
+        }
+      }
+    }
+
+    final long firstX = this.getX(0);
+    final PointBuilder points = new PointBuilder(breakpoints.size());
+    for (long x : breakpoints.sortedDistinctXs()) {
+      // Nothing is delivered before the first point of this curve, so those x-values do not need points.
+      if (x >= firstX) {
+        points.add(x, other.amountAt(this.amountAt(x)));
+      }
+    }
+    return points.build();
+  }
+
+  /**
+   * Add the x-values of this curve's points to {@code breakpoints}, as well as the x-value just before its first
+   * point, where this curve jumps from delivering nothing to delivering the y-value of its first point.
+   */
+  private void addBreakpoints(final PointBuilder breakpoints) {
+    if (getX(0) != Long.MIN_VALUE) {
+      breakpoints.add(getX(0) - 1, 0);
+    }
+    for (int i = 0; i < xs.length; i++) {
+      breakpoints.add(getX(i), 0);
+    }
+  }
+
+  /**
+   * Compute {@code a * b / c}, rounded down or up, where {@code 0 <= a <= c}, {@code 0 <= b} and {@code 0 < c}, so
+   * that the result is at most {@code b}.
+   */
+  private static long multiplyDivide(final long a, final long b, final long c, final boolean roundUp) {
+    // The product fits into 63 bits if the operands have at least 65 leading zeros between them.
+    if (Long.numberOfLeadingZeros(a) + Long.numberOfLeadingZeros(b) > 64) {
+      final long product = a * b;
+      final long quotient = product / c;
+      return roundUp && quotient * c != product ? quotient + 1 : quotient;
+    }
+
+    final BigInteger[] quotientAndRemainder = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b))
+        .divideAndRemainder(BigInteger.valueOf(c));
+    final long quotient = quotientAndRemainder[0].longValueExact();
+    return roundUp && quotientAndRemainder[1].signum() != 0 ? quotient + 1 : quotient;
+  }
+
+  /**
+   * The index of the first element of {@code values} that is greater than {@code key}.
+   */
+  private static int upperBound(final long[] values, final long key) {
+    int low = 0;
+    int high = values.length;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (values[mid] <= key) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * The index of the first element of {@code values} that is greater than or equal to {@code key}.
+   */
+  private static int lowerBound(final long[] values, final long key) {
+    int low = 0;
+    int high = values.length;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (values[mid] < key) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    LiquidityCurve that = (LiquidityCurve) o;
+
+    if (this.size() != that.size()) {
+      return false;
+    }
+    for (int i = 0; i < size(); i++) {
+      if (this.getX(i) != that.getX(i) || this.getY(i) != that.getY(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = 1;
+    for (int i = 0; i < size(); i++) {
+      result = 31 * result + Long.hashCode(getX(i));
+      result = 31 * result + Long.hashCode(getY(i));
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder("LiquidityCurve{");
+    for (int i = 0; i < size(); i++) {
+      sb.append(i == 0 ? "[" : ", [").append(getX(i)).append(", ").append(getY(i)).append(']');
+    }
+    return sb.append('}').toString();
+  }
+
+  /**
+   * Accumulates points for a new curve, dropping any points that would make the resulting curve invalid.
+   */
+  private static final class PointBuilder {
+
+    private long[] xs;
+    private long[] ys;
+    private int size;
+
+    private PointBuilder(final int initialCapacity) {
+      this.xs = new long[Math.max(initialCapacity, 1)];
+      this.ys = new long[xs.length];
+    }
+
+    private int size() {
+      return size;
+    }
+
+    private void add(final long x, final long y) {
+      if (size == xs.length) {
+        xs = Arrays.copyOf(xs, size * 2);
+        ys = Arrays.copyOf(ys, size * 2);
+      }
+      xs[size] = x;
+      ys[size] = y;
+      size++;
+    }
+
+    private long[] sortedDistinctXs() {
+      final long[] sorted = Arrays.copyOf(xs, size);
+      Arrays.sort(sorted);
+      int distinct = 0;
+      for (int i = 0; i < sorted.length; i++) {
+        if (i == 0 || sorted[i] != sorted[i - 1]) {
+          sorted[distinct++] = sorted[i];
+        }
+      }
+      return Arrays.copyOf(sorted, distinct);
+    }
+
+    /**
+     * Build a curve from the accumulated points, which must have been added in increasing x-order. Points whose
+     * y-value would be lower than that of a previous point (possible due to rounding) are raised, and points that do
+     * not change the resulting function (collinear points, and leading points that deliver nothing) are removed.
+     */
+    private LiquidityCurve build() {
+      final long[] resultXs = new long[size];
+      final long[] resultYs = new long[size];
+      int count = 0;
+      for (int i = 0; i < size; i++) {
+        final long x = xs[i];
+        final long y = count == 0 ? ys[i] : Math.max(ys[i], resultYs[count - 1]);
+        if (count >= 2 && isCollinear(resultXs[count - 2], resultYs[count - 2], resultXs[count - 1],
+            resultYs[count - 1], x, y)) {
+          count--;
+        }
+        resultXs[count] = x;
+        resultYs[count] = y;
+        count++;
+      }
+
+      // A curve delivers nothing below its first point, so a leading zero point is redundant if it is followed by
+      // another zero point, or by a point one unit later (there are no integer x-values to interpolate in between).
+      int first = 0;
+      while (count - first >= 2 && resultYs[first] == 0
+          && (resultYs[first + 1] == 0 || resultXs[first + 1] == resultXs[first] + 1)) {
+        first++;
+      }
+      return LiquidityCurve.of(Arrays.copyOfRange(resultXs, first, count), Arrays.copyOfRange(resultYs, first, count));
+    }
+
+    private static boolean isCollinear(
+        final long x0, final long y0, final long x1, final long y1, final long x2, final long y2
+    ) {
+      return difference(y1, y0).multiply(difference(x2, x1)).equals(difference(y2, y1).multiply(difference(x1, x0)));
+    }
+
+    private static BigInteger difference(final long minuend, final long subtrahend) {
+      return BigInteger.valueOf(minuend).subtract(BigInteger.valueOf(subtrahend));
+    }
+  }
+}
@@ -1,8 +1,9 @@
 package org.interledger.connector.quoting;
 
-import org.interledger.connector.RouteId;
 import org.interledger.connector.routing.InterledgerHop;
 
+import org.immutables.value.Value;
+
 import java.math.BigInteger;
 import java.time.Instant;
 
@@ -12,12 +13,16 @@ import javax.money.convert.ExchangeRate;
  * Defines an Interledger payment quote that can be used to assemble a "next-hop" transfer on a destination ledger, in
  * response to an incoming transfer on a different ledger.
  */
+@Value.Immutable
 public interface Quote {
 
   /**
    * The unique identifier of the liquidity path this quote is valid for.
+   *
+   * Note: This type is fully-qualified because it is itself generated, so Immutables cannot resolve an import of it
+   * while generating {@link ImmutableQuote}.
    */
-  RouteId getRouteId();
+  org.interledger.connector.RouteId getRouteId();
 
   /**
    * The next "hop" that this quote exists for.
@@ -29,6 +34,11 @@ public interface Quote {
    */
   ExchangeRate getExchangeRate();
 
+  /**
+   * The amount that must be sent to this connector on the source ledger, in local-ledger units of that source ledger.
+   */
+  BigInteger getSourceAmount();
+
   /**
    * The amount to be delivered to the next-hop ledger, in local-ledger units of that destination ledger.
    *
@@ -4,44 +4,60 @@ import org.interledger.InterledgerAddress;
 import org.interledger.connector.routing.InterledgerHop;
 
 import java.math.BigInteger;
+import java.util.Optional;
 
 /**
  * A service for determining FX quotes for particular liquidity paths.
  *
- * A quote contains information relating to the
+ * A quote contains information relating to the next-hop that a payment would take from a source ledger to a final
+ * destination, as well as the amounts that would be sent and delivered along that hop. Quotes are only valid until
+ * {@link Quote#getExpiresAt()}.
  */
 public interface QuotingService {
 
   /**
    * Gets a quote to deliver the specified {@code sourceAmount} to a destination ledger via Interledger.
    *
-   * A
+   * @param sourceLedgerPrefix An {@link InterledgerAddress} prefix for the ledger that the payment would be sent from.
+   * @param destinationAddress An {@link InterledgerAddress} for the final receiver of the payment.
+   * @param sourceAmount       A {@link BigInteger} representing the amount to be sent, in units of the source ledger.
+   *
+   * @return An optionally-present {@link Quote}, which is empty if no route exists to {@code destinationAddress}.
    */
-  Quote getQuoteBySourceAmount(InterledgerAddress sourceLedgerPrefix, BigInteger sourceAmount);
+  Optional<Quote> getQuoteBySourceAmount(
+      InterledgerAddress sourceLedgerPrefix, InterledgerAddress destinationAddress, BigInteger sourceAmount
+  );
 
-  
-  
   /**
-   * Gets a quote to deliver the specified {@code destinationAmount} to a destination ledger via Interledger
+   * Gets a quote to deliver the specified {@code destinationAmount} to a destination ledger via Interledger.
+   *
+   * @param sourceLedgerPrefix An {@link InterledgerAddress} prefix for the ledger that the payment would be sent from.
+   * @param destinationAddress An {@link InterledgerAddress} for the final receiver of the payment.
+   * @param destinationAmount  A {@link BigInteger} representing the amount to be delivered, in units of the next-hop
+   *                           ledger.
    *
-   * @param {InterledgerAddress} sourceLedgerPrefix
-   * @param {InterledgerAddress} destinationAmount
-   * @return {Quote}
+   * @return An optionally-present {@link Quote}, which is empty if no route exists to {@code destinationAddress}.
    */
-  Quote getQuoteByDestinationAmount(InterledgerAddress sourceLedgerPrefix, BigInteger destinationAmount);
-  
-  //findBestPathForSourceAmount(IlpAddress sourceLedger, IlpAddress destination, BigInteger sourceAmount);
-  
-  
-  
-  //findBestPathForSourceAmount(sourceLedger, ilpPacket.account, sourceTransfer.amount)
+  Optional<Quote> getQuoteByDestinationAmount(
+      InterledgerAddress sourceLedgerPrefix, InterledgerAddress destinationAddress, BigInteger destinationAmount
+  );
 
-  
-  
   /**
+   * Find the next-hop that a payment of {@code sourceAmount} from {@code sourceLedgerPrefix} to {@code
+   * destinationAddress} would take.
+   *
+   * @param sourceLedgerPrefix An {@link InterledgerAddress} prefix for the ledger that the payment would be sent from.
+   * @param destinationAddress An {@link InterledgerAddress} for the final receiver of the payment.
+   * @param sourceAmount       A {@link BigInteger} representing the amount to be sent, in units of the source ledger.
    *
-   * @return
+   * @return An optionally-present {@link InterledgerHop}, which is empty if no route exists to {@code
+   *   destinationAddress}.
    */
-  InterledgerHop findNextHop();
+  default Optional<InterledgerHop> findNextHop(
+      final InterledgerAddress sourceLedgerPrefix, final InterledgerAddress destinationAddress,
+      final BigInteger sourceAmount
+  ) {
+    return this.getQuoteBySourceAmount(sourceLedgerPrefix, destinationAddress, sourceAmount).map(Quote::getNextHop);
+  }
 
 }
@@ -13,6 +13,9 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
 import org.apache.commons.collections4.trie.PatriciaTrie;
 import org.interledger.InterledgerAddress;
+import org.interledger.connector.jfr.ConnectorEvents;
+import org.interledger.connector.jfr.ConnectorEvents.Kind;
+import org.interledger.connector.jfr.ConnectorEvents.Span;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -134,11 +137,15 @@ class InterledgerPrefixMap {
   public Collection<Route> findNextHopRoutes(final InterledgerAddress finalDestinationAddress) {
     InterledgerAddress.requireNotAddressPrefix(finalDestinationAddress);
 
-    return finalDestinationAddress.getParentPrefix()
+    final Span span = ConnectorEvents.get().begin(Kind.PREFIX_LOOKUP);
+    final Optional<String> longestPrefix = finalDestinationAddress.getParentPrefix()
       .map(this::findLongestPrefix)
       .filter(Optional::isPresent)
-      .map(Optional::get)
-      .map(longestPrefix -> this.prefixMap.get(longestPrefix))
+      .map(Optional::get);
+    span.prefixMatch(finalDestinationAddress, longestPrefix).finish();
+
+    return longestPrefix
+      .map(prefix -> this.prefixMap.get(prefix))
       .orElse(ImmutableList.of());
   }
 
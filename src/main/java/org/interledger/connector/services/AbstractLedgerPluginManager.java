@@ -3,6 +3,7 @@ package org.interledger.connector.services;
 import org.interledger.InterledgerAddress;
 import org.interledger.connector.repository.TransferCorrelationRepository;
 import org.interledger.connector.subprotocols.SubprotocolDataService;
+import org.interledger.plugin.lpi.LedgerInfo;
 import org.interledger.plugin.lpi.LedgerPlugin;
 import org.interledger.plugin.lpi.LedgerPluginConfig;
 import org.interledger.plugin.lpi.events.ImmutableLedgerPluginErrorEvent;
@@ -25,6 +26,12 @@ public abstract class AbstractLedgerPluginManager implements LedgerPluginManager
   private final SubprotocolDataService subprotocolDataService;
   private final TransferCorrelationRepository transferCorrelationRepository;
   private final Map<InterledgerAddress, LedgerPlugin> ledgerPluginMap;
+  // LedgerInfo is cached per-ledger so that the payment path never has to ask a plugin for it (some plugins fetch
+  // this information remotely).
+  private final Map<InterledgerAddress, LedgerInfo> ledgerInfoMap;
+  private final Map<InterledgerAddress, LedgerPluginConfig> ledgerPluginConfigMap;
+  // Built lazily from the maps above, and discarded whenever any of them changes for the same ledger.
+  private final Map<InterledgerAddress, LedgerContext> ledgerContextMap;
 
   public AbstractLedgerPluginManager(
     final SubprotocolDataService subprotocolDataService,
@@ -33,6 +40,9 @@ public abstract class AbstractLedgerPluginManager implements LedgerPluginManager
     this.subprotocolDataService = Objects.requireNonNull(subprotocolDataService);
     this.transferCorrelationRepository = Objects.requireNonNull(transferCorrelationRepository);
     this.ledgerPluginMap = Maps.newConcurrentMap();
+    this.ledgerInfoMap = Maps.newConcurrentMap();
+    this.ledgerPluginConfigMap = Maps.newConcurrentMap();
+    this.ledgerContextMap = Maps.newConcurrentMap();
   }
 
   @Override
@@ -45,14 +55,22 @@ public abstract class AbstractLedgerPluginManager implements LedgerPluginManager
     // If the ledger plugin is present, we should disconnect it, and reconnect with the new plugin.
     final InterledgerAddress ledgerPrefix = ledgerPluginConfig.getLedgerPrefix();
     this.getLedgerPlugin(ledgerPrefix).ifPresent(LedgerPlugin::disconnect);
+    this.ledgerInfoMap.remove(ledgerPrefix);
+    this.ledgerContextMap.remove(ledgerPrefix);
 
     try {
       // Connect to the Ledger via the associated LedgerPlugin...
       ledgerPlugin.connect();
 
+      // Capture the LedgerInfo while connecting so that it never needs to be requested on the payment path...
+      Optional.ofNullable(ledgerPlugin.getLedgerInfo())
+        .ifPresent(ledgerInfo -> this.ledgerInfoMap.put(ledgerPrefix, ledgerInfo));
+
       // ...and then add to the plugin map. Adding the Connector to this map actually enables it
       // from the perspective of the Connector.
+      this.ledgerPluginConfigMap.put(ledgerPrefix, ledgerPluginConfig);
       this.ledgerPluginMap.put(ledgerPrefix, ledgerPlugin);
+      this.ledgerContextMap.remove(ledgerPrefix);
     } catch (Exception e) {
       logger.error("LedgerPlugin failed to connect. Error: {}", e.getMessage(), e);
       // emit an error to the ledger plugin...
@@ -72,6 +90,9 @@ public abstract class AbstractLedgerPluginManager implements LedgerPluginManager
     // Disconnect from the Ledger via the associated LedgerPlugin.
     Optional.ofNullable(this.ledgerPluginMap.remove(ledgerPrefix))
       .ifPresent(LedgerPlugin::disconnect);
+    this.ledgerInfoMap.remove(ledgerPrefix);
+    this.ledgerPluginConfigMap.remove(ledgerPrefix);
+    this.ledgerContextMap.remove(ledgerPrefix);
   }
 
   @Override
@@ -82,6 +103,75 @@ public abstract class AbstractLedgerPluginManager implements LedgerPluginManager
     return Optional.ofNullable(ledgerPluginMap.get(ledgerPrefix));
   }
 
+  @Override
+  public Optional<LedgerInfo> getLedgerInfo(final InterledgerAddress ledgerPrefix) {
+    Objects.requireNonNull(ledgerPrefix);
+    InterledgerAddress.requireAddressPrefix(ledgerPrefix);
+
+    final LedgerInfo cachedLedgerInfo = this.ledgerInfoMap.get(ledgerPrefix);
+    if (cachedLedgerInfo != null) {
+      return Optional.of(cachedLedgerInfo);
+    }
+
+    // The plugin may not have been able to supply its LedgerInfo at connect-time, so load it once (if the plugin is
+    // present) and cache it for subsequent callers.
+    return this.getLedgerPlugin(ledgerPrefix)
+      .map(LedgerPlugin::getLedgerInfo)
+      .map(ledgerInfo -> {
+        this.ledgerInfoMap.put(ledgerPrefix, ledgerInfo);
+        return ledgerInfo;
+      });
+  }
+
+  @Override
+  public void updateLedgerInfo(final InterledgerAddress ledgerPrefix, final LedgerInfo ledgerInfo) {
+    Objects.requireNonNull(ledgerPrefix);
+    Objects.requireNonNull(ledgerInfo);
+
+    if (this.ledgerPluginMap.containsKey(ledgerPrefix)) {
+      this.ledgerInfoMap.put(ledgerPrefix, ledgerInfo);
+      this.ledgerContextMap.remove(ledgerPrefix);
+    } else {
+      logger.warn("Ignoring LedgerInfo update for unmanaged LedgerPlugin '{}': {}", ledgerPrefix, ledgerInfo);
+    }
+  }
+
+  @Override
+  public Optional<LedgerContext> getLedgerContext(final InterledgerAddress ledgerPrefix) {
+    Objects.requireNonNull(ledgerPrefix);
+    InterledgerAddress.requireAddressPrefix(ledgerPrefix);
+
+    final LedgerContext cachedLedgerContext = this.ledgerContextMap.get(ledgerPrefix);
+    if (cachedLedgerContext != null) {
+      return Optional.of(cachedLedgerContext);
+    }
+
+    final LedgerPlugin ledgerPlugin = this.ledgerPluginMap.get(ledgerPrefix);
+    final LedgerPluginConfig ledgerPluginConfig = this.ledgerPluginConfigMap.get(ledgerPrefix);
+    if (ledgerPlugin == null || ledgerPluginConfig == null) {
+      return Optional.empty();
+    }
+
+    final LedgerContext ledgerContext = ImmutableLedgerContext.builder()
+      .ledgerPrefix(ledgerPrefix)
+      .ledgerPlugin(ledgerPlugin)
+      .ledgerPluginConfig(ledgerPluginConfig)
+      .connectorAccount(ledgerPlugin.getConnectorAccount())
+      .ledgerInfo(this.getLedgerInfo(ledgerPrefix))
+      .build();
+
+    // Without LedgerInfo, the context is not cached, so that it is rebuilt once the plugin is able to supply it.
+    if (ledgerContext.getLedgerInfo().isPresent()) {
+      this.ledgerContextMap.put(ledgerPrefix, ledgerContext);
+      // If the plugin or its LedgerInfo changed while this context was being built, it must not remain cached.
+      if (this.ledgerPluginMap.get(ledgerPrefix) != ledgerPlugin
+        || this.ledgerInfoMap.get(ledgerPrefix) != ledgerContext.getLedgerInfo().get()) {
+        this.ledgerContextMap.remove(ledgerPrefix, ledgerContext);
+      }
+    }
+    return Optional.of(ledgerContext);
+  }
+
 //    /**
 //     * Get all ledger plugins.
 //     */
@@ -0,0 +1,46 @@
+package org.interledger.connector.services;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.plugin.lpi.LedgerInfo;
+import org.interledger.plugin.lpi.LedgerPlugin;
+import org.interledger.plugin.lpi.LedgerPluginConfig;
+
+import org.immutables.value.Value;
+
+import java.util.Optional;
+
+/**
+ * Everything this connector knows about one of its ledgers, resolved together so that forwarding a payment can read
+ * these values from a single object instead of looking each of them up from the {@link LedgerPluginManager}.
+ *
+ * A context is a snapshot: it is replaced (not updated) whenever the plugin for its ledger, or that ledger's {@link
+ * LedgerInfo}, changes.
+ */
+@Value.Immutable
+public interface LedgerContext {
+
+  /**
+   * The ledger prefix of this ledger.
+   */
+  InterledgerAddress getLedgerPrefix();
+
+  /**
+   * The {@link LedgerPlugin} connected to this ledger.
+   */
+  LedgerPlugin getLedgerPlugin();
+
+  /**
+   * The {@link LedgerPluginConfig} that {@link #getLedgerPlugin()} was added to the {@link LedgerPluginManager} with.
+   */
+  LedgerPluginConfig getLedgerPluginConfig();
+
+  /**
+   * The address of this connector's account on this ledger, as reported by {@link #getLedgerPlugin()}.
+   */
+  InterledgerAddress getConnectorAccount();
+
+  /**
+   * The {@link LedgerInfo} of this ledger, if its plugin was able to supply it.
+   */
+  Optional<LedgerInfo> getLedgerInfo();
+}
@@ -3,9 +3,11 @@ package org.interledger.connector.services;
 import org.interledger.InterledgerAddress;
 import org.interledger.connector.repository.TransferCorrelationRepository;
 import org.interledger.connector.subprotocols.SubprotocolDataService;
+import org.interledger.plugin.lpi.LedgerInfo;
 import org.interledger.plugin.lpi.LedgerPlugin;
 import org.interledger.plugin.lpi.LedgerPluginConfig;
 import org.interledger.plugin.lpi.TransferId;
+import org.interledger.plugin.lpi.events.LedgerInfoChangedEvent;
 
 import org.immutables.value.Value.Default;
 
@@ -45,6 +47,59 @@ public interface LedgerPluginManager {
    */
   Optional<LedgerPlugin> getLedgerPlugin(InterledgerAddress ledgerPrefix);
 
+  /**
+   * Get the cached {@link LedgerInfo} for the ledger identified by {@code ledgerPrefix}. This information is captured
+   * from each plugin when it connects and is refreshed via {@link #updateLedgerInfo(InterledgerAddress, LedgerInfo)},
+   * so callers on the payment path never need to ask the plugin itself (which may require a network round-trip).
+   *
+   * @param ledgerPrefix A {@link InterledgerAddress} for the prefix of the LedgerPlugin to lookup info for.
+   *
+   * @return The {@link LedgerInfo} for the requested ledger, if its plugin is available.
+   */
+  Optional<LedgerInfo> getLedgerInfo(InterledgerAddress ledgerPrefix);
+
+  /**
+   * Replace the cached {@link LedgerInfo} for the ledger identified by {@code ledgerPrefix}, typically in response to
+   * a {@link LedgerInfoChangedEvent}. Updates for ledgers that are not currently managed by this manager are ignored.
+   *
+   * @param ledgerPrefix A {@link InterledgerAddress} for the prefix of the LedgerPlugin whose info changed.
+   * @param ledgerInfo   The new {@link LedgerInfo} for the ledger.
+   */
+  void updateLedgerInfo(InterledgerAddress ledgerPrefix, LedgerInfo ledgerInfo);
+
+  /**
+   * Get the {@link LedgerContext} for the ledger identified by {@code ledgerPrefix}, which holds its plugin, this
+   * connector's account on it and its {@link LedgerInfo}. Implementations should cache contexts, so that this is no
+   * more expensive than {@link #getLedgerPlugin(InterledgerAddress)}.
+   *
+   * @param ledgerPrefix A {@link InterledgerAddress} for the prefix of the ledger to lookup.
+   *
+   * @return The {@link LedgerContext} for the requested ledger, if its plugin is available.
+   */
+  Optional<LedgerContext> getLedgerContext(InterledgerAddress ledgerPrefix);
+
+  /**
+   * An accessor method for implementations to return the {@link LedgerContext} for the specified {@code ledgerPrefix},
+   * assuming that its plugin should be present. See {@link #getLedgerPluginSafe(TransferId, InterledgerAddress)}.
+   *
+   * @param transferId   The {@link TransferId} of the transfer the context was requested for.
+   * @param ledgerPrefix A {@link InterledgerAddress} for the prefix of the ledger to lookup.
+   *
+   * @return The requested {@link LedgerContext}.
+   *
+   * @throws RuntimeException if the ledger plugin is not present in this manager.
+   */
+  default LedgerContext getLedgerContextSafe(final TransferId transferId, final InterledgerAddress ledgerPrefix) {
+    InterledgerAddress.requireAddressPrefix(ledgerPrefix);
+    Objects.requireNonNull(transferId);
+
+    return this.getLedgerContext(ledgerPrefix).orElseThrow(() -> new RuntimeException(
+        String.format(
+            "For TransferId '%s', LedgerPlugin '%s' was not currently connected to this connector!",
+            transferId, ledgerPrefix
+        )));
+  }
+
   /**
    * Determines if {@code ledgerPrefix} is a locally-peered (i.e., locally serviceable) ledger, meaning the ILP node
    * operating this manager can simply execute a payment directly on the ledger in question.
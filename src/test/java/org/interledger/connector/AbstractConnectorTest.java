@@ -15,15 +15,21 @@ import static org.mockito.Mockito.when;
 import static org.testng.FileAssert.fail;
 
 import org.interledger.InterledgerAddress;
+import org.interledger.connector.config.ConnectorConfig;
 import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.connector.lpi.VirtualThreadLedgerPluginEventHandler;
 import org.interledger.connector.services.LedgerPluginManager;
 import org.interledger.plugin.lpi.LedgerPlugin;
 import org.interledger.plugin.lpi.LedgerPluginConfig;
 import org.interledger.plugin.lpi.LedgerPluginTypeId;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+import org.interledger.plugin.lpi.events.IncomingTransferPreparedEvent;
 import org.interledger.plugin.lpi.handlers.LedgerPluginEventHandler;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.testng.annotations.BeforeMethod;
@@ -31,6 +37,8 @@ import org.testng.annotations.Test;
 
 import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.money.CurrencyUnit;
 import javax.money.Monetary;
@@ -217,6 +225,63 @@ public class AbstractConnectorTest {
     verifyNoMoreInteractions(ledgerPluginManagerMock);
   }
 
+  @Test
+  public void testInitializeConnectorRegistersSuppliedHandlerByDefault() {
+    when(connectorConfigurationServiceMock.getConnectorConfig()).thenReturn(new ConnectorConfig() {
+    });
+    when(connectorConfigurationServiceMock.getLedgerPluginConfigurations()).thenReturn(
+        ImmutableList.of(new TestLedgerPluginConfig(InterledgerAddress.of(EXAMPLE_FOO1)))
+    );
+
+    this.initializeAbstractConnector();
+
+    verify(ledgerPluginMock).addLedgerPluginEventHandler(ledgerPluginEventHandlerMock);
+  }
+
+  @Test
+  public void testInitializeConnectorWithVirtualThreadExecution() {
+    when(connectorConfigurationServiceMock.getConnectorConfig()).thenReturn(new ConnectorConfig() {
+      @Override
+      public boolean isVirtualThreadExecutionEnabled() {
+        return true;
+      }
+    });
+    when(connectorConfigurationServiceMock.getLedgerPluginConfigurations()).thenReturn(
+        ImmutableList.of(new TestLedgerPluginConfig(InterledgerAddress.of(EXAMPLE_FOO1)))
+    );
+
+    this.initializeAbstractConnector();
+
+    verify(ledgerPluginMock).addLedgerPluginEventHandler(any(VirtualThreadLedgerPluginEventHandler.class));
+  }
+
+  @Test(expectedExceptions = RejectedExecutionException.class)
+  public void testCloseClosesVirtualThreadEventHandler() {
+    when(connectorConfigurationServiceMock.getConnectorConfig()).thenReturn(new ConnectorConfig() {
+      @Override
+      public boolean isVirtualThreadExecutionEnabled() {
+        return true;
+      }
+    });
+    when(connectorConfigurationServiceMock.getLedgerPluginConfigurations()).thenReturn(
+        ImmutableList.of(new TestLedgerPluginConfig(InterledgerAddress.of(EXAMPLE_FOO1)))
+    );
+    this.initializeAbstractConnector();
+    final ArgumentCaptor<LedgerPluginEventHandler> eventHandler =
+        ArgumentCaptor.forClass(LedgerPluginEventHandler.class);
+    verify(ledgerPluginMock).addLedgerPluginEventHandler(eventHandler.capture());
+
+    abstractConnector.close();
+
+    // Once closed, the handler refuses further events.
+    final Transfer transfer = mock(Transfer.class);
+    when(transfer.getTransferId()).thenReturn(TransferId.of(UUID.randomUUID()));
+    final IncomingTransferPreparedEvent event = mock(IncomingTransferPreparedEvent.class);
+    when(event.getLedgerPrefix()).thenReturn(InterledgerAddress.of(EXAMPLE_FOO1));
+    when(event.getTransfer()).thenReturn(transfer);
+    eventHandler.getValue().onTransferPrepared(event);
+  }
+
   //////////////////
   // Private Helpers
   //////////////////
@@ -0,0 +1,97 @@
+package org.interledger.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.plugin.lpi.TransferId;
+
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+/**
+ * Unit tests for {@link HmacTransferIdGenerator}.
+ */
+public class HmacTransferIdGeneratorTest {
+
+  private static final InterledgerAddress LEDGER_PREFIX = InterledgerAddress.of("test1.foo.bar.");
+
+  /**
+   * Using the same input, generate an identifier and assert that it is always the same.
+   */
+  @Test
+  public void testGenerateTransferId() {
+    final HmacTransferIdGenerator generator = new HmacTransferIdGenerator(UUID.randomUUID().toString());
+    final TransferId transferId = TransferId.of(UUID.randomUUID());
+
+    final TransferId expected = generator.generateTransferId(LEDGER_PREFIX, transferId);
+
+    IntStream.range(0, 1000).forEach(i ->
+        assertThat(generator.generateTransferId(LEDGER_PREFIX, transferId), is(expected))
+    );
+    assertThat(expected.value().version(), is(4));
+    assertThat(expected.value().variant(), is(2));
+  }
+
+  @Test
+  public void testGeneratedIdsDependOnEveryInput() {
+    final TransferId transferId = TransferId.of(UUID.randomUUID());
+    final TransferId expected = new HmacTransferIdGenerator("secret").generateTransferId(LEDGER_PREFIX, transferId);
+
+    assertThat(new HmacTransferIdGenerator("secret").generateTransferId(LEDGER_PREFIX, transferId), is(expected));
+    assertThat(new HmacTransferIdGenerator("other").generateTransferId(LEDGER_PREFIX, transferId), is(not(expected)));
+    assertThat(new HmacTransferIdGenerator("secret").generateTransferId(
+        InterledgerAddress.of("test1.foo.baz."), transferId), is(not(expected)));
+    assertThat(new HmacTransferIdGenerator("secret").generateTransferId(
+        LEDGER_PREFIX, TransferId.of(UUID.randomUUID())), is(not(expected)));
+  }
+
+  @Test
+  public void testGeneratedIdsAreUnique() {
+    final HmacTransferIdGenerator generator = new HmacTransferIdGenerator("secret");
+    final Set<TransferId> transferIds = new HashSet<>();
+
+    IntStream.range(0, 10000).forEach(i ->
+        transferIds.add(generator.generateTransferId(LEDGER_PREFIX, TransferId.of(UUID.randomUUID())))
+    );
+    assertThat(transferIds.size(), is(10000));
+  }
+
+  /**
+   * Assert that threads, including more threads than there are clones of the keyed Mac, all generate the same
+   * identifiers.
+   */
+  @Test
+  public void testGeneratesSameIdsOnEveryThread() throws Exception {
+    final HmacTransferIdGenerator generator = new HmacTransferIdGenerator("secret");
+    final TransferId transferId = TransferId.of(UUID.randomUUID());
+    final TransferId expected = generator.generateTransferId(LEDGER_PREFIX, transferId);
+
+    final ExecutorService executorService = Executors.newFixedThreadPool(64);
+    try {
+      final Set<Future<TransferId>> futures = new HashSet<>();
+      IntStream.range(0, 100).forEach(i ->
+          futures.add(executorService.submit(() -> generator.generateTransferId(LEDGER_PREFIX, transferId)))
+      );
+      for (Future<TransferId> future : futures) {
+        assertThat(future.get(), is(expected));
+      }
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testLedgerPrefixMustBePrefix() {
+    new HmacTransferIdGenerator("secret")
+        .generateTransferId(InterledgerAddress.of("test1.foo.bar"), TransferId.of(UUID.randomUUID()));
+  }
+}
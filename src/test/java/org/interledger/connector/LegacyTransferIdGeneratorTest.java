@@ -0,0 +1,59 @@
+package org.interledger.connector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.plugin.lpi.TransferId;
+
+import org.testng.annotations.Test;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Unit tests for {@link LegacyTransferIdGenerator}.
+ */
+public class LegacyTransferIdGeneratorTest {
+
+  private static final InterledgerAddress LEDGER_PREFIX = InterledgerAddress.of("test1.foo.bar.");
+
+  /**
+   * Assert that the generator produces exactly the identifiers that {@link ConnectorUtils} does.
+   */
+  @Test
+  @SuppressWarnings("deprecation")
+  public void testGeneratesSameIdsAsConnectorUtils() {
+    IntStream.range(0, 1000).forEach(i -> {
+      final String secret = UUID.randomUUID().toString();
+      final TransferId transferId = TransferId.of(UUID.randomUUID());
+
+      assertThat(new LegacyTransferIdGenerator(secret).generateTransferId(LEDGER_PREFIX, transferId),
+          is(ConnectorUtils.generateDeterministicTransferId(secret, LEDGER_PREFIX, transferId)));
+    });
+  }
+
+  /**
+   * Assert that the state reused between identifiers generated by the same thread does not leak into the next one.
+   */
+  @Test
+  @SuppressWarnings("deprecation")
+  public void testGeneratesSameIdsAsConnectorUtilsWhenReused() {
+    final String secret = UUID.randomUUID().toString();
+    final LegacyTransferIdGenerator generator = new LegacyTransferIdGenerator(secret);
+
+    IntStream.range(0, 1000).forEach(i -> {
+      final InterledgerAddress ledgerPrefix = InterledgerAddress.of("test1.ledger" + i + ".");
+      final TransferId transferId = TransferId.of(UUID.randomUUID());
+
+      assertThat(generator.generateTransferId(ledgerPrefix, transferId),
+          is(ConnectorUtils.generateDeterministicTransferId(secret, ledgerPrefix, transferId)));
+    });
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testLedgerPrefixMustBePrefix() {
+    new LegacyTransferIdGenerator("secret")
+        .generateTransferId(InterledgerAddress.of("test1.foo.bar"), TransferId.of(UUID.randomUUID()));
+  }
+}
@@ -0,0 +1,103 @@
+package org.interledger.connector.fx;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.testng.FileAssert.fail;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.config.ConnectorConfig;
+
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link SlippageTable}.
+ */
+public class SlippageTableTest {
+
+  private static final InterledgerAddress USD_LEDGER = InterledgerAddress.of("test1.usd.");
+  private static final InterledgerAddress EUR_LEDGER = InterledgerAddress.of("test1.eur.");
+  private static final InterledgerAddress JPY_LEDGER = InterledgerAddress.of("test1.jpy.");
+
+  private final ConnectorConfig connectorConfig = new ConnectorConfig() {
+    @Override
+    public Map<InterledgerAddress, BigDecimal> getSlippagePercentOverrides() {
+      return ImmutableMap.of(
+          EUR_LEDGER, new BigDecimal("0.01"),
+          JPY_LEDGER, new BigDecimal("0.0000000000000000000001")
+      );
+    }
+  };
+
+  @Test(expectedExceptions = NullPointerException.class)
+  public void testOfWithNull() {
+    try {
+      SlippageTable.of(null);
+      fail();
+    } catch (NullPointerException e) {
+      throw e;
+    }
+  }
+
+  @Test
+  public void testIsComputedFrom() {
+    final SlippageTable slippageTable = SlippageTable.of(connectorConfig);
+    assertThat(slippageTable.isComputedFrom(connectorConfig), is(true));
+    assertThat(slippageTable.isComputedFrom(new ConnectorConfig() {
+    }), is(false));
+  }
+
+  @Test
+  public void testApplyDefaultSlippage() {
+    final SlippageTable slippageTable = SlippageTable.of(connectorConfig);
+
+    assertThat(slippageTable.applySlippage(BigInteger.ZERO, USD_LEDGER), is(BigInteger.ZERO));
+    assertThat(slippageTable.applySlippage(BigInteger.ONE, USD_LEDGER), is(BigInteger.ONE));
+    assertThat(slippageTable.applySlippage(BigInteger.valueOf(9999L), USD_LEDGER), is(BigInteger.valueOf(9989L)));
+    assertThat(slippageTable.applySlippage(BigInteger.valueOf(10000L), USD_LEDGER), is(BigInteger.valueOf(9990L)));
+  }
+
+  @Test
+  public void testApplyOverriddenSlippage() {
+    final SlippageTable slippageTable = SlippageTable.of(connectorConfig);
+
+    assertThat(slippageTable.applySlippage(BigInteger.valueOf(500L), EUR_LEDGER), is(BigInteger.valueOf(495L)));
+    assertThat(slippageTable.applySlippage(BigInteger.valueOf(150L), EUR_LEDGER), is(BigInteger.valueOf(149L)));
+    // The JPY multiplier has too many digits for the fixed-point path, so must fall back to BigDecimal.
+    assertThat(slippageTable.applySlippage(BigInteger.valueOf(500L), JPY_LEDGER), is(BigInteger.valueOf(500L)));
+  }
+
+  /**
+   * Asserts that the fixed-point and BigDecimal paths agree, including near the overflow boundary of a long.
+   */
+  @Test
+  public void testApplySlippageMatchesBigDecimal() {
+    final SlippageTable slippageTable = SlippageTable.of(connectorConfig);
+
+    final BigInteger[] amounts = new BigInteger[]{
+        BigInteger.valueOf(5L),
+        BigInteger.valueOf(1005L),
+        BigInteger.valueOf(123456789L),
+        BigInteger.valueOf(Long.MAX_VALUE / 1000),
+        BigInteger.valueOf(Long.MAX_VALUE / 1000).add(BigInteger.ONE),
+        BigInteger.valueOf(Long.MAX_VALUE),
+        BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.TEN),
+        new BigInteger("100000000000000000000000000001")
+    };
+
+    for (BigInteger amount : amounts) {
+      assertThat(slippageTable.applySlippage(amount, USD_LEDGER), is(expected(amount, "0.999")));
+      assertThat(slippageTable.applySlippage(amount, EUR_LEDGER), is(expected(amount, "0.99")));
+    }
+  }
+
+  private BigInteger expected(final BigInteger amount, final String multiplier) {
+    return new BigDecimal(amount).multiply(new BigDecimal(multiplier)).setScale(0, RoundingMode.HALF_UP)
+        .toBigIntegerExact();
+  }
+}
@@ -0,0 +1,170 @@
+package org.interledger.connector.jfr;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.jfr.ConnectorEvents.Kind;
+import org.interledger.ilp.InterledgerProtocolError;
+import org.interledger.ilp.InterledgerProtocolError.ErrorCode;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Unit tests for {@link ConnectorEvents}.
+ */
+public class ConnectorEventsTest {
+
+  private static final InterledgerAddress LEDGER_PREFIX = InterledgerAddress.of("test1.source.");
+  private static final InterledgerAddress NEXT_HOP_LEDGER_PREFIX = InterledgerAddress.of("test1.destination.");
+
+  @Test
+  public void testBeginWithoutRecordingReturnsNoOpSpan() {
+    for (Kind kind : Kind.values()) {
+      assertThat(ConnectorEvents.get().begin(kind), is(sameInstance(ConnectorEvents.NO_OP_SPAN)));
+    }
+  }
+
+  @Test
+  public void testRouteChosen() throws IOException {
+    final Transfer transfer = this.transfer();
+
+    final List<RecordedEvent> events = this.record(Kind.ROUTE_CHOSEN, connectorEvents -> connectorEvents
+        .begin(Kind.ROUTE_CHOSEN)
+        .transfer(transfer)
+        .nextHopLedger(Optional.of(NEXT_HOP_LEDGER_PREFIX))
+        .finish()
+    );
+
+    assertThat(events.size(), is(1));
+    final RecordedEvent event = events.get(0);
+    assertThat(event.getEventType().getName(), is(Kind.ROUTE_CHOSEN.getEventName()));
+    assertThat(event.getString("transferId"), is(transfer.getTransferId().value().toString()));
+    assertThat(event.getString("ledgerPrefix"), is(LEDGER_PREFIX.getValue()));
+    assertThat(event.getString("amount"), is("100"));
+    assertThat(event.getString("nextHopLedgerPrefix"), is(NEXT_HOP_LEDGER_PREFIX.getValue()));
+    assertThat(event.getDuration().compareTo(Duration.ZERO), is(greaterThanOrEqualTo(0)));
+  }
+
+  @Test
+  public void testRouteNotFound() throws IOException {
+    final Transfer transfer = this.transfer();
+
+    final List<RecordedEvent> events = this.record(Kind.ROUTE_CHOSEN, connectorEvents -> connectorEvents
+        .begin(Kind.ROUTE_CHOSEN)
+        .transfer(transfer)
+        .nextHopLedger(Optional.empty())
+        .finish()
+    );
+
+    assertThat(events.size(), is(1));
+    assertThat(events.get(0).getString("nextHopLedgerPrefix"), is(nullValue()));
+  }
+
+  @Test
+  public void testTransferRejected() throws IOException {
+    final Transfer transfer = this.transfer();
+    final InterledgerProtocolError rejectionReason = InterledgerProtocolError.builder()
+        .errorCode(ErrorCode.F02_UNREACHABLE)
+        .triggeredAt(Instant.now())
+        .triggeredByAddress(LEDGER_PREFIX)
+        .build();
+
+    final List<RecordedEvent> events = this.record(Kind.TRANSFER_REJECTED, connectorEvents -> connectorEvents
+        .begin(Kind.TRANSFER_REJECTED)
+        .transfer(transfer)
+        .rejection(rejectionReason)
+        .finish()
+    );
+
+    assertThat(events.size(), is(1));
+    assertThat(events.get(0).getString("transferId"), is(transfer.getTransferId().value().toString()));
+    assertThat(events.get(0).getString("errorCode"), is(ErrorCode.F02_UNREACHABLE.getCode()));
+  }
+
+  @Test
+  public void testPrefixLookup() throws IOException {
+    // Flight Recorder may not resolve a long string that an earlier recording in this JVM already wrote, so this test
+    // doesn't share any with the others.
+    final InterledgerAddress address = InterledgerAddress.of("test1.lookup.bob");
+
+    final List<RecordedEvent> events = this.record(Kind.PREFIX_LOOKUP, connectorEvents -> connectorEvents
+        .begin(Kind.PREFIX_LOOKUP)
+        .prefixMatch(address, Optional.of("test1.lookup."))
+        .finish()
+    );
+
+    assertThat(events.size(), is(1));
+    assertThat(events.get(0).getString("address"), is(address.getValue()));
+    assertThat(events.get(0).getString("longestPrefix"), is("test1.lookup."));
+  }
+
+  @Test
+  public void testDisabledEventsAreNotRecorded() throws IOException {
+    final Transfer transfer = this.transfer();
+
+    final List<RecordedEvent> events = this.record(Kind.DESTINATION_SENT, connectorEvents -> {
+      connectorEvents.begin(Kind.TRANSFER_FULFILLED).transfer(transfer).finish();
+      connectorEvents.begin(Kind.DESTINATION_SENT).transfer(transfer).finish();
+    });
+
+    assertThat(events.size(), is(1));
+    assertThat(events.get(0).getEventType().getName(), is(Kind.DESTINATION_SENT.getEventName()));
+  }
+
+  /**
+   * Run {@code emitter} while a recording of the events of {@code kind}, and no other connector events, is in
+   * progress, and return the events that were recorded.
+   */
+  private List<RecordedEvent> record(final Kind kind, final Consumer<ConnectorEvents> emitter) throws IOException {
+    final Path file = Files.createTempFile("connector-events", ".jfr");
+    try (Recording recording = new Recording()) {
+      for (Kind other : Kind.values()) {
+        if (other == kind) {
+          recording.enable(other.getEventName());
+        } else {
+          recording.disable(other.getEventName());
+        }
+      }
+      recording.start();
+      emitter.accept(ConnectorEvents.get());
+      recording.stop();
+      recording.dump(file);
+      return RecordingFile.readAllEvents(file).stream()
+          .filter(event -> event.getEventType().getName().startsWith("org.interledger.connector."))
+          .collect(Collectors.toList());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  private Transfer transfer() {
+    final Transfer transfer = mock(Transfer.class);
+    when(transfer.getTransferId()).thenReturn(TransferId.of(UUID.randomUUID()));
+    when(transfer.getLedgerPrefix()).thenReturn(LEDGER_PREFIX);
+    when(transfer.getAmount()).thenReturn(BigInteger.valueOf(100));
+    return transfer;
+  }
+}
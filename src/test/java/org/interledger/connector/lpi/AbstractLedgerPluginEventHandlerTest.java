@@ -4,7 +4,13 @@ import static java.time.temporal.ChronoUnit.MINUTES;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.FileAssert.fail;
 
@@ -12,15 +18,24 @@ import org.interledger.InterledgerAddress;
 import org.interledger.connector.config.ConnectorConfig;
 import org.interledger.connector.config.ConnectorConfigurationService;
 import org.interledger.connector.fx.FxEngine;
+import org.interledger.connector.repository.InMemoryTransferCorrelationRepository;
+import org.interledger.connector.repository.TransferCorrelationRepository;
 import org.interledger.connector.routing.PaymentRouter;
+import org.interledger.connector.services.LedgerContext;
 import org.interledger.connector.services.LedgerPluginManager;
+import org.interledger.ilp.InterledgerProtocolError;
+import org.interledger.ilp.InterledgerProtocolError.ErrorCode;
 import org.interledger.plugin.lpi.ImmutableLedgerInfo;
 import org.interledger.plugin.lpi.LedgerPlugin;
 import org.interledger.plugin.lpi.LedgerPluginTypeId;
 import org.interledger.plugin.lpi.MockLedgerPlugin;
 import org.interledger.plugin.lpi.MockLedgerPlugin.ExtendedLedgerPluginConfig;
 import org.interledger.plugin.lpi.MockLedgerPlugin.SimulatedLedger;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
 import org.interledger.plugin.lpi.events.IncomingMessgeRequestEvent;
+import org.interledger.plugin.lpi.events.IncomingTransferFulfilledEvent;
+import org.interledger.plugin.lpi.events.IncomingTransferPreparedEvent;
 import org.interledger.plugin.lpi.events.LedgerInfoChangedEvent;
 import org.interledger.plugin.lpi.events.LedgerPluginConnectedEvent;
 import org.interledger.plugin.lpi.events.LedgerPluginDisconnectedEvent;
@@ -28,19 +43,32 @@ import org.interledger.plugin.lpi.events.OutgoingMessgeRequestEvent;
 import org.interledger.plugin.lpi.events.OutgoingTransferFulfilledEvent;
 
 import com.google.common.collect.ImmutableMap;
+import org.javamoney.moneta.convert.ExchangeRateBuilder;
+import org.javamoney.moneta.spi.DefaultNumberValue;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.money.CurrencyUnit;
 import javax.money.Monetary;
+import javax.money.convert.ConversionContext;
+import javax.money.convert.CurrencyConversionException;
+import javax.money.convert.ExchangeRate;
+import javax.money.convert.RateType;
 
 /**
  * Unit tests for {@link AbstractLedgerPluginEventHandler}.
@@ -214,6 +242,39 @@ public class AbstractLedgerPluginEventHandlerTest {
     assertThat(actualDestinationTransferExpiry, is(sourceTransferExpiry.minus(2, MINUTES)));
   }
 
+  @Test
+  public void testComputeDestinationTransferExpiryForLedgerUsesFixedWindowWhenNotAdaptive() {
+    final Instant sourceTransferExpiry = Instant.now();
+    assertThat(this.abstractLedgerPluginEventHandler.computeDestinationTransferExpiry(sourceTransferExpiry,
+        LEDGER_PREFIX), is(sourceTransferExpiry.minusSeconds(5)));
+
+    // Without adaptation, observed latencies have no effect.
+    final Transfer destinationTransfer = this.transfer();
+    this.abstractLedgerPluginEventHandler.recordFulfillmentPassedBack(destinationTransfer, System.nanoTime());
+    assertThat(this.abstractLedgerPluginEventHandler.computeDestinationTransferExpiry(sourceTransferExpiry,
+        LEDGER_PREFIX), is(sourceTransferExpiry.minusSeconds(5)));
+  }
+
+  @Test
+  public void testComputeDestinationTransferExpiryForLedgerAdaptsToFulfillmentLatency() {
+    when(connectorConfigurationServiceMock.getConnectorConfig()).thenReturn(new ConnectorConfig() {
+      @Override
+      public boolean isAdaptiveTransferExpiryWindowEnabled() {
+        return true;
+      }
+    });
+    final Instant sourceTransferExpiry = Instant.now();
+    final Transfer destinationTransfer = this.transfer();
+
+    for (int i = 0; i < ExpiryWindowEstimator.MIN_SAMPLES; i++) {
+      this.abstractLedgerPluginEventHandler.recordFulfillmentPassedBack(destinationTransfer, System.nanoTime());
+    }
+
+    // Passing fulfillments back takes well under a millisecond, so the window is the floor.
+    assertThat(this.abstractLedgerPluginEventHandler.computeDestinationTransferExpiry(sourceTransferExpiry,
+        LEDGER_PREFIX), is(sourceTransferExpiry.minusSeconds(1)));
+  }
+
   ////////////////
   // Test calculateIlpPacketDestinationAmountWithSlippage
   ////////////////
@@ -292,23 +353,321 @@ public class AbstractLedgerPluginEventHandlerTest {
     assertThat(actual, is(BigInteger.valueOf(99900000000001L)));
   }
 
+  ////////////////
+  // Test computeNextHopLocalTransferAmount
+  ////////////////
+
+  @Test
+  public void testComputeNextHopLocalTransferAmountRoundsDown() {
+    final CurrencyUnit usd = Monetary.getCurrency("USD");
+    final CurrencyUnit jpy = Monetary.getCurrency("JPY");
+    when(fxEngineMock.getExchangeRate(usd, jpy)).thenReturn(this.exchangeRate(usd, jpy, "1.2345"));
+
+    // 1000 * 1.2345 = 1234.5, and 999 * 1.2345 = 1233.2655
+    assertThat(this.computeNextHopLocalTransferAmount(1000, usd, jpy), is(BigInteger.valueOf(1234L)));
+    assertThat(this.computeNextHopLocalTransferAmount(999, usd, jpy), is(BigInteger.valueOf(1233L)));
+    // Less than one unit of the destination ledger rounds down to nothing, rather than failing.
+    assertThat(this.computeNextHopLocalTransferAmount(0, usd, jpy), is(BigInteger.ZERO));
+  }
+
+  @Test
+  public void testComputeNextHopLocalTransferAmountForIdentityPair() {
+    final CurrencyUnit usd = Monetary.getCurrency("USD");
+    when(fxEngineMock.getExchangeRate(usd, usd)).thenReturn(this.exchangeRate(usd, usd, "1"));
+
+    assertThat(this.computeNextHopLocalTransferAmount(1, usd, usd), is(BigInteger.ONE));
+    assertThat(
+        this.computeNextHopLocalTransferAmount(999_999_999_999L, usd, usd), is(BigInteger.valueOf(999_999_999_999L))
+    );
+  }
+
+  @Test(expectedExceptions = CurrencyConversionException.class)
+  public void testComputeNextHopLocalTransferAmountWithoutRate() {
+    final CurrencyUnit usd = Monetary.getCurrency("USD");
+    final CurrencyUnit jpy = Monetary.getCurrency("JPY");
+    when(fxEngineMock.getExchangeRate(usd, jpy)).thenThrow(new CurrencyConversionException(usd, jpy, null));
+
+    this.computeNextHopLocalTransferAmount(1000, usd, jpy);
+  }
+
+  ////////////////
+  // Test admitSourceTransfer
+  ////////////////
+
+  @Test
+  public void testOnTransferPreparedRejectsWhenSourceLedgerIsBusy() {
+    when(connectorConfigurationServiceMock.getConnectorConfig()).thenReturn(new ConnectorConfig() {
+      @Override
+      public int getMaxInFlightPaymentsPerSourceLedger() {
+        return 1;
+      }
+    });
+    final LedgerPlugin sourceLedgerPluginMock = mock(LedgerPlugin.class);
+    when(sourceLedgerPluginMock.getConnectorAccount()).thenReturn(LEDGER_PREFIX.with("connector"));
+    when(ledgerPluginManagerMock.getLedgerPluginSafe(any(), any())).thenReturn(sourceLedgerPluginMock);
+
+    final Transfer admittedTransfer = this.transfer();
+    assertThat(this.abstractLedgerPluginEventHandler.admitSourceTransfer(admittedTransfer), is(true));
+
+    final Transfer busyTransfer = this.transfer();
+    final IncomingTransferPreparedEvent event = mock(IncomingTransferPreparedEvent.class);
+    when(event.getTransfer()).thenReturn(busyTransfer);
+    this.abstractLedgerPluginEventHandler.onTransferPrepared(event);
+
+    final ArgumentCaptor<InterledgerProtocolError> rejectionReason =
+        ArgumentCaptor.forClass(InterledgerProtocolError.class);
+    verify(sourceLedgerPluginMock).rejectIncomingTransfer(eq(busyTransfer.getTransferId()), rejectionReason.capture());
+    assertThat(rejectionReason.getValue().getErrorCode(), is(ErrorCode.T03_CONNECTOR_BUSY));
+    verify(busyTransfer, never()).getInterlederPaymentPacket();
+
+    // Once the admitted transfer settles, its budget is available again.
+    final IncomingTransferFulfilledEvent fulfilledEvent = mock(IncomingTransferFulfilledEvent.class);
+    when(fulfilledEvent.getTransfer()).thenReturn(admittedTransfer);
+    this.abstractLedgerPluginEventHandler.onTransferFulfilled(fulfilledEvent);
+    assertThat(this.abstractLedgerPluginEventHandler.admitSourceTransfer(this.transfer()), is(true));
+  }
+
+  @Test
+  public void testAdmitSourceTransferRejectsWhenRateLimited() {
+    when(connectorConfigurationServiceMock.getConnectorConfig()).thenReturn(new ConnectorConfig() {
+      @Override
+      public int getIncomingTransferRatePerAccount() {
+        return 1;
+      }
+
+      @Override
+      public int getIncomingTransferBurstPerAccount() {
+        return 1;
+      }
+    });
+    final LedgerPlugin sourceLedgerPluginMock = mock(LedgerPlugin.class);
+    when(sourceLedgerPluginMock.getConnectorAccount()).thenReturn(LEDGER_PREFIX.with("connector"));
+    when(ledgerPluginManagerMock.getLedgerPluginSafe(any(), any())).thenReturn(sourceLedgerPluginMock);
+
+    assertThat(this.abstractLedgerPluginEventHandler.admitSourceTransfer(this.transfer()), is(true));
+    final Transfer limitedTransfer = this.transfer();
+    assertThat(this.abstractLedgerPluginEventHandler.admitSourceTransfer(limitedTransfer), is(false));
+
+    final ArgumentCaptor<InterledgerProtocolError> rejectionReason =
+        ArgumentCaptor.forClass(InterledgerProtocolError.class);
+    verify(sourceLedgerPluginMock)
+        .rejectIncomingTransfer(eq(limitedTransfer.getTransferId()), rejectionReason.capture());
+    assertThat(rejectionReason.getValue().getErrorCode(), is(ErrorCode.T05_RATE_LIMITED));
+  }
+
+  @Test
+  public void testAdmitSourceTransferForgetsTransferWhoseRejectionFailed() {
+    when(connectorConfigurationServiceMock.getConnectorConfig()).thenReturn(new ConnectorConfig() {
+      @Override
+      public int getMaxInFlightPaymentsPerSourceLedger() {
+        return 1;
+      }
+    });
+    final LedgerPlugin sourceLedgerPluginMock = mock(LedgerPlugin.class);
+    when(sourceLedgerPluginMock.getConnectorAccount()).thenReturn(LEDGER_PREFIX.with("connector"));
+    when(ledgerPluginManagerMock.getLedgerPluginSafe(any(), any())).thenReturn(sourceLedgerPluginMock);
+    assertThat(this.abstractLedgerPluginEventHandler.admitSourceTransfer(this.transfer()), is(true));
+    final Transfer busyTransfer = this.transfer();
+    final TransferId busyTransferId = busyTransfer.getTransferId();
+    doThrow(new RuntimeException("Ledger unavailable")).doNothing()
+        .when(sourceLedgerPluginMock).rejectIncomingTransfer(eq(busyTransferId), any());
+
+    try {
+      this.abstractLedgerPluginEventHandler.admitSourceTransfer(busyTransfer);
+      fail("The failed rejection should have been thrown!");
+    } catch (RuntimeException e) {
+      assertThat(e.getMessage(), is("Ledger unavailable"));
+    }
+
+    // The redelivered notification is rejected again, instead of being dropped as a duplicate.
+    assertThat(this.abstractLedgerPluginEventHandler.admitSourceTransfer(busyTransfer), is(false));
+    verify(sourceLedgerPluginMock, times(2)).rejectIncomingTransfer(eq(busyTransferId), any());
+  }
+
+  @Test
+  public void testAdmitSourceTransferDropsDuplicate() {
+    final LedgerPlugin sourceLedgerPluginMock = mock(LedgerPlugin.class);
+    when(ledgerPluginManagerMock.getLedgerPluginSafe(any(), any())).thenReturn(sourceLedgerPluginMock);
+    final Transfer transfer = this.transfer();
+
+    assertThat(this.abstractLedgerPluginEventHandler.admitSourceTransfer(transfer), is(true));
+    assertThat(this.abstractLedgerPluginEventHandler.admitSourceTransfer(transfer), is(false));
+    verify(sourceLedgerPluginMock, never()).rejectIncomingTransfer(any(), any());
+
+    // Once abandoned, a redelivery is processed as a retry.
+    this.abstractLedgerPluginEventHandler.abandonSourceTransfer(transfer);
+    assertThat(this.abstractLedgerPluginEventHandler.admitSourceTransfer(transfer), is(true));
+  }
+
+  ////////////////
+  // Test onDestinationTransferExpired
+  ////////////////
+
+  @Test
+  public void testOnDestinationTransferExpiredRejectsSourceTransfer() {
+    when(connectorConfigurationServiceMock.getConnectorConfig()).thenReturn(new ConnectorConfig() {
+      @Override
+      public int getMaxInFlightPaymentsPerSourceLedger() {
+        return 1;
+      }
+    });
+    final InterledgerAddress destinationLedgerPrefix = InterledgerAddress.of("test1.bar.");
+    final LedgerPlugin sourceLedgerPluginMock = mock(LedgerPlugin.class);
+    when(sourceLedgerPluginMock.getConnectorAccount()).thenReturn(LEDGER_PREFIX.with("connector"));
+    when(ledgerPluginManagerMock.getLedgerPluginSafe(any(), eq(LEDGER_PREFIX))).thenReturn(sourceLedgerPluginMock);
+    final LedgerPlugin destinationLedgerPluginMock = mock(LedgerPlugin.class);
+    when(destinationLedgerPluginMock.getConnectorAccount()).thenReturn(destinationLedgerPrefix.with("connector"));
+    when(ledgerPluginManagerMock.getLedgerPluginSafe(any(), eq(destinationLedgerPrefix)))
+        .thenReturn(destinationLedgerPluginMock);
+    final TransferCorrelationRepository transferCorrelationRepository = new InMemoryTransferCorrelationRepository();
+    when(ledgerPluginManagerMock.getTransferCorrelationRepository()).thenReturn(transferCorrelationRepository);
+
+    final Transfer sourceTransfer = this.transfer();
+    final Transfer destinationTransfer = this.transfer();
+    when(destinationTransfer.getLedgerPrefix()).thenReturn(destinationLedgerPrefix);
+    when(destinationTransfer.getExpiresAt()).thenReturn(Instant.now().plus(1, MINUTES));
+    assertThat(this.abstractLedgerPluginEventHandler.admitSourceTransfer(sourceTransfer), is(true));
+    this.abstractLedgerPluginEventHandler.saveTransferCorrelation(sourceTransfer, destinationTransfer);
+
+    this.abstractLedgerPluginEventHandler.onDestinationTransferExpired(
+        transferCorrelationRepository.findByDestinationTransferId(destinationTransfer.getTransferId()).get()
+    );
+
+    final ArgumentCaptor<InterledgerProtocolError> rejectionReason =
+        ArgumentCaptor.forClass(InterledgerProtocolError.class);
+    verify(sourceLedgerPluginMock)
+        .rejectIncomingTransfer(eq(sourceTransfer.getTransferId()), rejectionReason.capture());
+    assertThat(rejectionReason.getValue().getErrorCode(), is(ErrorCode.R00_TRANSFER_TIMED_OUT));
+    assertThat(rejectionReason.getValue().getTriggeredByAddress(), is(destinationLedgerPrefix.with("connector")));
+    // The source transfer's in-flight budget is released without waiting for its rejection to be notified.
+    assertThat(this.abstractLedgerPluginEventHandler.admitSourceTransfer(this.transfer()), is(true));
+  }
+
+  @Test
+  public void testMassExpiryRunsOnBoundedThreads() throws InterruptedException {
+    when(connectorConfigurationServiceMock.getConnectorConfig()).thenReturn(new ConnectorConfig() {
+      @Override
+      public Duration getDestinationTransferExpiryGracePeriod() {
+        return Duration.ZERO;
+      }
+    });
+    final int expiries = 200;
+    final InterledgerAddress destinationLedgerPrefix = InterledgerAddress.of("test1.bar.");
+    final AtomicInteger concurrentRejections = new AtomicInteger();
+    final AtomicInteger maxConcurrentRejections = new AtomicInteger();
+    final CountDownLatch rejected = new CountDownLatch(expiries);
+    final LedgerPlugin sourceLedgerPluginMock = mock(LedgerPlugin.class);
+    when(sourceLedgerPluginMock.getConnectorAccount()).thenReturn(LEDGER_PREFIX.with("connector"));
+    doAnswer(invocation -> {
+      maxConcurrentRejections.accumulateAndGet(concurrentRejections.incrementAndGet(), Math::max);
+      // A slow source ledger, which would otherwise hold one thread per expiry.
+      Thread.sleep(20);
+      concurrentRejections.decrementAndGet();
+      rejected.countDown();
+      return null;
+    }).when(sourceLedgerPluginMock).rejectIncomingTransfer(any(), any());
+    when(ledgerPluginManagerMock.getLedgerPluginSafe(any(), eq(LEDGER_PREFIX))).thenReturn(sourceLedgerPluginMock);
+    final LedgerPlugin destinationLedgerPluginMock = mock(LedgerPlugin.class);
+    when(destinationLedgerPluginMock.getConnectorAccount()).thenReturn(destinationLedgerPrefix.with("connector"));
+    when(ledgerPluginManagerMock.getLedgerPluginSafe(any(), eq(destinationLedgerPrefix)))
+        .thenReturn(destinationLedgerPluginMock);
+    when(ledgerPluginManagerMock.getTransferCorrelationRepository())
+        .thenReturn(new InMemoryTransferCorrelationRepository());
+
+    final Instant expiresAt = Instant.now().plusMillis(100);
+    for (int i = 0; i < expiries; i++) {
+      final Transfer destinationTransfer = this.transfer();
+      when(destinationTransfer.getLedgerPrefix()).thenReturn(destinationLedgerPrefix);
+      when(destinationTransfer.getExpiresAt()).thenReturn(expiresAt);
+      this.abstractLedgerPluginEventHandler.saveTransferCorrelation(this.transfer(), destinationTransfer);
+    }
+
+    try {
+      assertThat(rejected.await(30, TimeUnit.SECONDS), is(true));
+      assertThat(maxConcurrentRejections.get() <= AbstractLedgerPluginEventHandler.TIMEOUT_THREADS, is(true));
+    } finally {
+      this.abstractLedgerPluginEventHandler.close();
+    }
+  }
+
+  ////////////////
+  // Test close
+  ////////////////
+
+  @Test
+  public void testCloseAbandonsRetries() {
+    this.abstractLedgerPluginEventHandler.close();
+
+    final CompletableFuture<Void> retried = this.abstractLedgerPluginEventHandler.getRetryScheduler().retry(
+        () -> {
+          fail("Retried after close!");
+          return CompletableFuture.completedFuture(null);
+        },
+        new RuntimeException("Ledger unavailable"), error -> true, Instant.now().plus(1, MINUTES)
+    );
+
+    assertThat(retried.isCompletedExceptionally(), is(true));
+  }
+
   //////////////////
   // Private Helpers
   //////////////////
 
+  private Transfer transfer() {
+    final Transfer transfer = mock(Transfer.class);
+    when(transfer.getTransferId()).thenReturn(TransferId.of(UUID.randomUUID()));
+    when(transfer.getLedgerPrefix()).thenReturn(LEDGER_PREFIX);
+    when(transfer.getSourceAccount()).thenReturn(LEDGER_PREFIX.with("alice"));
+    return transfer;
+  }
+
+  private BigInteger computeNextHopLocalTransferAmount(
+      final long sourceAmount, final CurrencyUnit sourceCurrencyUnit, final CurrencyUnit destinationCurrencyUnit
+  ) {
+    final Transfer sourceTransfer = this.transfer();
+    when(sourceTransfer.getAmount()).thenReturn(BigInteger.valueOf(sourceAmount));
+    return this.abstractLedgerPluginEventHandler.computeNextHopLocalTransferAmount(
+        sourceTransfer,
+        this.ledgerContext(LEDGER_PREFIX, sourceCurrencyUnit),
+        this.ledgerContext(InterledgerAddress.of("test1.bar."), destinationCurrencyUnit)
+    );
+  }
+
+  private LedgerContext ledgerContext(final InterledgerAddress ledgerPrefix, final CurrencyUnit currencyUnit) {
+    final LedgerContext ledgerContext = mock(LedgerContext.class);
+    when(ledgerContext.getLedgerPrefix()).thenReturn(ledgerPrefix);
+    when(ledgerContext.getLedgerInfo()).thenReturn(Optional.of(ImmutableLedgerInfo.builder()
+        .currencyScale(2)
+        .currencyUnit(currencyUnit)
+        .ledgerPrefix(ledgerPrefix)
+        .build()));
+    return ledgerContext;
+  }
+
+  private ExchangeRate exchangeRate(final CurrencyUnit base, final CurrencyUnit term, final String factor) {
+    return new ExchangeRateBuilder(ConversionContext.of("FIXED", RateType.DEFERRED))
+        .setBase(base)
+        .setTerm(term)
+        .setFactor(DefaultNumberValue.of(new BigDecimal(factor)))
+        .build();
+  }
+
   private ConnectorConfig connectorConfig() {
     return new ConnectorConfig() {
     };
   }
 
-  private LedgerPlugin constructMockLedgerPlugin(final InterledgerAddress ledgerPrefix) {
+  private ImmutableLedgerInfo constructLedgerInfo(final InterledgerAddress ledgerPrefix) {
     InterledgerAddress.requireAddressPrefix(ledgerPrefix);
-    final ImmutableLedgerInfo ledgerInfo = ImmutableLedgerInfo.builder()
+    return ImmutableLedgerInfo.builder()
         .currencyScale(2)
         .currencyUnit(Monetary.getCurrency("USD"))
         .ledgerPrefix(ledgerPrefix)
         .build();
-    final SimulatedLedger simulatedLedger = new SimulatedLedger(ledgerInfo);
+  }
+
+  private LedgerPlugin constructMockLedgerPlugin(final InterledgerAddress ledgerPrefix) {
+    final SimulatedLedger simulatedLedger = new SimulatedLedger(this.constructLedgerInfo(ledgerPrefix));
 
     // Initialize the ledger plugin under test...
     return new MockLedgerPlugin(getLedgerPluginConfig(ledgerPrefix), simulatedLedger);
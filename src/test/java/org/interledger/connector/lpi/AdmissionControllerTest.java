@@ -0,0 +1,106 @@
+package org.interledger.connector.lpi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.UUID;
+
+/**
+ * Unit tests for {@link AdmissionController}.
+ */
+public class AdmissionControllerTest {
+
+  private static final InterledgerAddress LEDGER_PREFIX1 = InterledgerAddress.of("test1.foo.");
+  private static final InterledgerAddress LEDGER_PREFIX2 = InterledgerAddress.of("test1.bar.");
+
+  @Mock
+  private ConnectorConfigurationService<ConnectorConfig> connectorConfigurationServiceMock;
+
+  private AdmissionController admissionController;
+
+  @BeforeMethod
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    when(connectorConfigurationServiceMock.getConnectorConfig()).thenReturn(new ConnectorConfig() {
+      @Override
+      public int getMaxInFlightPaymentsPerSourceLedger() {
+        return 2;
+      }
+    });
+
+    this.admissionController = new AdmissionController(connectorConfigurationServiceMock);
+  }
+
+  @Test(expectedExceptions = NullPointerException.class)
+  public void testConstructWithNullConfigurationService() {
+    new AdmissionController(null);
+  }
+
+  @Test
+  public void testBudgetIsEnforcedPerLedger() {
+    assertThat(admissionController.tryAdmit(transfer(LEDGER_PREFIX1)), is(true));
+    assertThat(admissionController.tryAdmit(transfer(LEDGER_PREFIX1)), is(true));
+    assertThat(admissionController.tryAdmit(transfer(LEDGER_PREFIX1)), is(false));
+    assertThat(admissionController.tryAdmit(transfer(LEDGER_PREFIX2)), is(true));
+
+    assertThat(admissionController.getInFlightCount(LEDGER_PREFIX1), is(2));
+    assertThat(admissionController.getInFlightCount(LEDGER_PREFIX2), is(1));
+  }
+
+  @Test
+  public void testReleaseReturnsBudget() {
+    final Transfer transfer1 = transfer(LEDGER_PREFIX1);
+    admissionController.tryAdmit(transfer1);
+    admissionController.tryAdmit(transfer(LEDGER_PREFIX1));
+
+    admissionController.release(transfer1);
+
+    assertThat(admissionController.getInFlightCount(LEDGER_PREFIX1), is(1));
+    assertThat(admissionController.tryAdmit(transfer(LEDGER_PREFIX1)), is(true));
+  }
+
+  @Test
+  public void testTransferIsOnlyCountedAndReleasedOnce() {
+    final Transfer transfer = transfer(LEDGER_PREFIX1);
+
+    assertThat(admissionController.tryAdmit(transfer), is(true));
+    assertThat(admissionController.tryAdmit(transfer), is(true));
+    assertThat(admissionController.getInFlightCount(LEDGER_PREFIX1), is(1));
+
+    admissionController.release(transfer);
+    admissionController.release(transfer);
+    assertThat(admissionController.getInFlightCount(LEDGER_PREFIX1), is(0));
+  }
+
+  @Test
+  public void testReleaseOfRejectedTransferIsNoOp() {
+    admissionController.tryAdmit(transfer(LEDGER_PREFIX1));
+    admissionController.tryAdmit(transfer(LEDGER_PREFIX1));
+    final Transfer rejectedTransfer = transfer(LEDGER_PREFIX1);
+    assertThat(admissionController.tryAdmit(rejectedTransfer), is(false));
+
+    admissionController.release(rejectedTransfer);
+
+    assertThat(admissionController.getInFlightCount(LEDGER_PREFIX1), is(2));
+  }
+
+  private Transfer transfer(final InterledgerAddress ledgerPrefix) {
+    final Transfer transfer = mock(Transfer.class);
+    when(transfer.getTransferId()).thenReturn(TransferId.of(UUID.randomUUID()));
+    when(transfer.getLedgerPrefix()).thenReturn(ledgerPrefix);
+    return transfer;
+  }
+}
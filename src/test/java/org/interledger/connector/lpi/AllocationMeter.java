@@ -0,0 +1,69 @@
+package org.interledger.connector.lpi;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.function.IntConsumer;
+
+/**
+ * Measures the bytes allocated by the current thread, using the HotSpot extension of {@link ThreadMXBean}. Reading the
+ * allocation counter itself allocates a little, so that overhead is measured once and subtracted from every
+ * measurement.
+ */
+class AllocationMeter {
+
+  private final com.sun.management.ThreadMXBean threadMxBean;
+  private final long threadId;
+  private final long overheadBytes;
+
+  /**
+   * Construct a meter for the current thread, which is the only thread that it may be used on.
+   *
+   * @throws UnsupportedOperationException if this JVM cannot measure per-thread allocation.
+   */
+  AllocationMeter() {
+    final ThreadMXBean platformThreadMxBean = ManagementFactory.getThreadMXBean();
+    if (!(platformThreadMxBean instanceof com.sun.management.ThreadMXBean)) {
+      throw new UnsupportedOperationException("This JVM cannot measure per-thread allocation");
+    }
+    this.threadMxBean = (com.sun.management.ThreadMXBean) platformThreadMxBean;
+    if (!threadMxBean.isThreadAllocatedMemorySupported()) {
+      throw new UnsupportedOperationException("This JVM cannot measure per-thread allocation");
+    }
+    threadMxBean.setThreadAllocatedMemoryEnabled(true);
+    this.threadId = Thread.currentThread().getId();
+
+    long overhead = Long.MAX_VALUE;
+    for (int i = 0; i < 10_000; i++) {
+      final long start = threadMxBean.getThreadAllocatedBytes(threadId);
+      overhead = Math.min(overhead, threadMxBean.getThreadAllocatedBytes(threadId) - start);
+    }
+    this.overheadBytes = overhead;
+  }
+
+  /**
+   * The total number of bytes that the current thread has allocated, for use with {@link #since(long)}.
+   */
+  long allocatedBytes() {
+    return threadMxBean.getThreadAllocatedBytes(threadId);
+  }
+
+  /**
+   * The number of bytes that the current thread has allocated since {@code startBytes} was read from {@link
+   * #allocatedBytes()}, not counting the allocation of reading the counter.
+   */
+  long since(final long startBytes) {
+    return Math.max(0, this.allocatedBytes() - startBytes - overheadBytes);
+  }
+
+  /**
+   * Run {@code operation} for each index in {@code [0, operations)}, and return the average number of bytes that each
+   * run allocated.
+   */
+  double measure(final int operations, final IntConsumer operation) {
+    final long start = this.allocatedBytes();
+    for (int i = 0; i < operations; i++) {
+      operation.accept(i);
+    }
+    return (double) this.since(start) / operations;
+  }
+}
@@ -0,0 +1,331 @@
+package org.interledger.connector.lpi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.connector.fx.FxEngine;
+import org.interledger.connector.repository.TransferCorrelation;
+import org.interledger.connector.repository.TransferCorrelationRepository;
+import org.interledger.connector.routing.PaymentRouter;
+import org.interledger.connector.services.LedgerPluginManager;
+import org.interledger.cryptoconditions.Fulfillment;
+import org.interledger.ilp.InterledgerProtocolError;
+import org.interledger.ilp.InterledgerProtocolError.ErrorCode;
+import org.interledger.plugin.lpi.LedgerPlugin;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+import org.interledger.plugin.lpi.events.OutgoingTransferFulfilledEvent;
+import org.interledger.plugin.lpi.exceptions.InsufficientBalanceException;
+import org.interledger.plugin.lpi.exceptions.LedgerPluginNotConnectedException;
+
+import com.google.common.collect.ImmutableMap;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link AsyncUniversalModeLedgerPluginEventHandler}.
+ */
+public class AsyncUniversalModeLedgerPluginEventHandlerTest {
+
+  private static final InterledgerAddress SOURCE_LEDGER_PREFIX = InterledgerAddress.of("test1.source.");
+  private static final InterledgerAddress DESTINATION_LEDGER_PREFIX = InterledgerAddress.of("test1.destination.");
+  private static final TransferId SOURCE_TRANSFER_ID = TransferId.of(UUID.randomUUID());
+  private static final TransferId DESTINATION_TRANSFER_ID = TransferId.of(UUID.randomUUID());
+
+  @Mock
+  private ConnectorConfigurationService<ConnectorConfig> connectorConfigurationServiceMock;
+
+  @Mock
+  private LedgerPluginManager ledgerPluginManagerMock;
+
+  @Mock
+  private TransferCorrelationRepository transferCorrelationRepositoryMock;
+
+  @Mock
+  private PaymentRouter paymentRouterMock;
+
+  @Mock
+  private FxEngine fxEngineMock;
+
+  @Mock
+  private LedgerPlugin sourceLedgerPluginMock;
+
+  @Mock
+  private LedgerPlugin destinationLedgerPluginMock;
+
+  @Mock
+  private Transfer sourceTransferMock;
+
+  @Mock
+  private Transfer destinationTransferMock;
+
+  private AsyncUniversalModeLedgerPluginEventHandler handler;
+
+  @BeforeMethod
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+
+    when(sourceTransferMock.getTransferId()).thenReturn(SOURCE_TRANSFER_ID);
+    when(sourceTransferMock.getLedgerPrefix()).thenReturn(SOURCE_LEDGER_PREFIX);
+    when(destinationTransferMock.getTransferId()).thenReturn(DESTINATION_TRANSFER_ID);
+    when(destinationTransferMock.getLedgerPrefix()).thenReturn(DESTINATION_LEDGER_PREFIX);
+
+    when(ledgerPluginManagerMock.getLedgerPluginSafe(SOURCE_TRANSFER_ID, SOURCE_LEDGER_PREFIX))
+        .thenReturn(sourceLedgerPluginMock);
+    when(ledgerPluginManagerMock.getLedgerPluginSafe(DESTINATION_TRANSFER_ID, DESTINATION_LEDGER_PREFIX))
+        .thenReturn(destinationLedgerPluginMock);
+    when(sourceLedgerPluginMock.getConnectorAccount()).thenReturn(InterledgerAddress.of("test1.source.connector"));
+
+    final TransferCorrelation transferCorrelation = mock(TransferCorrelation.class);
+    when(transferCorrelation.getSourceTransfer()).thenReturn(sourceTransferMock);
+    when(ledgerPluginManagerMock.getTransferCorrelationRepository()).thenReturn(transferCorrelationRepositoryMock);
+    when(transferCorrelationRepositoryMock.findByDestinationTransferId(DESTINATION_TRANSFER_ID))
+        .thenReturn(Optional.of(transferCorrelation));
+
+    this.handler = new AsyncUniversalModeLedgerPluginEventHandler(
+        "secret", connectorConfigurationServiceMock, ledgerPluginManagerMock, paymentRouterMock, fxEngineMock, 2, 4
+    );
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    this.handler.close();
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testConstructWithNoThreads() {
+    new AsyncUniversalModeLedgerPluginEventHandler(
+        "secret", connectorConfigurationServiceMock, ledgerPluginManagerMock, paymentRouterMock, fxEngineMock, 0, 1
+    );
+  }
+
+  @Test
+  public void testPrepareDestinationTransferDoesNotWaitOnLedger() throws Exception {
+    final CountDownLatch releaseSend = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      releaseSend.await();
+      return null;
+    }).when(destinationLedgerPluginMock).sendTransfer(destinationTransferMock);
+
+    final CompletableFuture<Void> result = handler
+        .prepareDestinationTransferAsync(sourceTransferMock, destinationTransferMock);
+    assertThat(result.isDone(), is(false));
+
+    releaseSend.countDown();
+    result.get(5, TimeUnit.SECONDS);
+
+    verify(destinationLedgerPluginMock).sendTransfer(destinationTransferMock);
+    verify(sourceLedgerPluginMock, never()).rejectIncomingTransfer(any(), any());
+  }
+
+  @Test
+  public void testPrepareDestinationTransferRejectsSourceOnLedgerPluginException() throws Exception {
+    doThrow(mock(InsufficientBalanceException.class)).when(destinationLedgerPluginMock)
+        .sendTransfer(destinationTransferMock);
+
+    handler.prepareDestinationTransferAsync(sourceTransferMock, destinationTransferMock).get(5, TimeUnit.SECONDS);
+
+    final ArgumentCaptor<InterledgerProtocolError> rejectionReason =
+        ArgumentCaptor.forClass(InterledgerProtocolError.class);
+    verify(sourceLedgerPluginMock).rejectIncomingTransfer(any(), rejectionReason.capture());
+    assertThat(rejectionReason.getValue().getErrorCode(), is(ErrorCode.T04_INSUFFICIENT_LIQUIDITY));
+  }
+
+  @Test
+  public void testPrepareDestinationTransferRetriesTransientFailure() throws Exception {
+    when(connectorConfigurationServiceMock.getConnectorConfig()).thenReturn(new ConnectorConfig() {
+      @Override
+      public Duration getTransientFailureRetryInitialBackoff() {
+        return Duration.ofMillis(1);
+      }
+    });
+    when(destinationTransferMock.getExpiresAt()).thenReturn(Instant.now().plusSeconds(30));
+    doThrow(mock(LedgerPluginNotConnectedException.class)).doNothing().when(destinationLedgerPluginMock)
+        .sendTransfer(destinationTransferMock);
+
+    handler.prepareDestinationTransferAsync(sourceTransferMock, destinationTransferMock).get(5, TimeUnit.SECONDS);
+
+    verify(destinationLedgerPluginMock, times(2)).sendTransfer(destinationTransferMock);
+    verify(sourceLedgerPluginMock, never()).rejectIncomingTransfer(any(), any());
+  }
+
+  @Test
+  public void testPrepareDestinationTransferRejectsSourceOnceRetriesAreExhausted() throws Exception {
+    when(connectorConfigurationServiceMock.getConnectorConfig()).thenReturn(new ConnectorConfig() {
+    });
+    when(destinationTransferMock.getExpiresAt()).thenReturn(Instant.now());
+    doThrow(mock(LedgerPluginNotConnectedException.class)).when(destinationLedgerPluginMock)
+        .sendTransfer(destinationTransferMock);
+
+    handler.prepareDestinationTransferAsync(sourceTransferMock, destinationTransferMock).get(5, TimeUnit.SECONDS);
+
+    final ArgumentCaptor<InterledgerProtocolError> rejectionReason =
+        ArgumentCaptor.forClass(InterledgerProtocolError.class);
+    verify(sourceLedgerPluginMock).rejectIncomingTransfer(any(), rejectionReason.capture());
+    assertThat(rejectionReason.getValue().getErrorCode(), is(ErrorCode.T01_LEDGER_UNREACHABLE));
+  }
+
+  @Test
+  public void testPrepareDestinationTransferRejectsSourceWhenLedgerIoQueueIsFull() throws Exception {
+    // The rejection must not need a ledger I/O thread itself, since they are all busy.
+    final LedgerPlugin nativeAsyncSourcePlugin = mock(LedgerPlugin.class, withSettings().extraInterfaces(
+        AsyncLedgerPlugin.class));
+    when(((AsyncLedgerPlugin) nativeAsyncSourcePlugin).rejectIncomingTransferAsync(any(), any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    when(ledgerPluginManagerMock.getLedgerPluginSafe(SOURCE_TRANSFER_ID, SOURCE_LEDGER_PREFIX))
+        .thenReturn(nativeAsyncSourcePlugin);
+    when(nativeAsyncSourcePlugin.getConnectorAccount()).thenReturn(InterledgerAddress.of("test1.source.connector"));
+    final CountDownLatch releaseSend = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      releaseSend.await();
+      return null;
+    }).when(destinationLedgerPluginMock).sendTransfer(destinationTransferMock);
+
+    try {
+      // Occupy both ledger I/O threads, and then fill the queue of 4.
+      for (int i = 0; i < 6; i++) {
+        handler.prepareDestinationTransferAsync(sourceTransferMock, destinationTransferMock);
+      }
+      handler.prepareDestinationTransferAsync(sourceTransferMock, destinationTransferMock).get(5, TimeUnit.SECONDS);
+
+      final ArgumentCaptor<InterledgerProtocolError> rejectionReason =
+          ArgumentCaptor.forClass(InterledgerProtocolError.class);
+      verify((AsyncLedgerPlugin) nativeAsyncSourcePlugin)
+          .rejectIncomingTransferAsync(any(), rejectionReason.capture());
+      assertThat(rejectionReason.getValue().getErrorCode(), is(ErrorCode.T03_CONNECTOR_BUSY));
+    } finally {
+      releaseSend.countDown();
+    }
+  }
+
+  @Test
+  public void testPrepareDestinationTransferRejectsSynchronousSourceWhenLedgerIoQueueIsFull() throws Exception {
+    final CountDownLatch releaseSend = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      releaseSend.await();
+      return null;
+    }).when(destinationLedgerPluginMock).sendTransfer(destinationTransferMock);
+
+    try {
+      for (int i = 0; i < 6; i++) {
+        handler.prepareDestinationTransferAsync(sourceTransferMock, destinationTransferMock);
+      }
+      handler.prepareDestinationTransferAsync(sourceTransferMock, destinationTransferMock).get(5, TimeUnit.SECONDS);
+
+      final ArgumentCaptor<InterledgerProtocolError> rejectionReason =
+          ArgumentCaptor.forClass(InterledgerProtocolError.class);
+      verify(sourceLedgerPluginMock).rejectIncomingTransfer(any(), rejectionReason.capture());
+      assertThat(rejectionReason.getValue().getErrorCode(), is(ErrorCode.T03_CONNECTOR_BUSY));
+    } finally {
+      releaseSend.countDown();
+    }
+  }
+
+  @Test
+  public void testOnTransferFulfilledWhenLedgerIoQueueIsFull() throws Exception {
+    when(sourceTransferMock.getExpiresAt()).thenReturn(Instant.now().plus(Duration.ofMinutes(1)));
+    final Fulfillment fulfillment = mock(Fulfillment.class);
+    final OutgoingTransferFulfilledEvent event = mock(OutgoingTransferFulfilledEvent.class);
+    when(event.getTransfer()).thenReturn(destinationTransferMock);
+    when(event.getFulfillment()).thenReturn(fulfillment);
+    final CountDownLatch fulfilled = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      fulfilled.countDown();
+      return null;
+    }).when(sourceLedgerPluginMock).fulfillCondition(SOURCE_TRANSFER_ID, fulfillment);
+    final CountDownLatch releaseSend = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      releaseSend.await();
+      return null;
+    }).when(destinationLedgerPluginMock).sendTransfer(destinationTransferMock);
+
+    try {
+      // Occupy both ledger I/O threads, and then fill the queue of 4.
+      for (int i = 0; i < 6; i++) {
+        handler.prepareDestinationTransferAsync(sourceTransferMock, destinationTransferMock);
+      }
+
+      handler.onTransferFulfilled(event);
+
+      assertThat(fulfilled.await(5, TimeUnit.SECONDS), is(true));
+    } finally {
+      releaseSend.countDown();
+    }
+  }
+
+  @Test
+  public void testNativeAsyncPluginIsUsedDirectly() throws Exception {
+    final LedgerPlugin nativeAsyncPlugin = mock(LedgerPlugin.class, withSettings().extraInterfaces(
+        AsyncLedgerPlugin.class));
+    when(((AsyncLedgerPlugin) nativeAsyncPlugin).sendTransferAsync(destinationTransferMock))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    when(ledgerPluginManagerMock.getLedgerPluginSafe(DESTINATION_TRANSFER_ID, DESTINATION_LEDGER_PREFIX))
+        .thenReturn(nativeAsyncPlugin);
+
+    handler.prepareDestinationTransferAsync(sourceTransferMock, destinationTransferMock).get(5, TimeUnit.SECONDS);
+
+    verify((AsyncLedgerPlugin) nativeAsyncPlugin).sendTransferAsync(destinationTransferMock);
+    verify(nativeAsyncPlugin, never()).sendTransfer(any());
+  }
+
+  @Test
+  public void testBatchPluginFailureRejectsSourceTransfer() throws Exception {
+    when(connectorConfigurationServiceMock.getConnectorConfig()).thenReturn(new ConnectorConfig() {
+      @Override
+      public int getTransferBatchMaxSize() {
+        return 1;
+      }
+    });
+    final LedgerPlugin batchPlugin = mock(LedgerPlugin.class, withSettings().extraInterfaces(BatchLedgerPlugin.class));
+    when(((BatchLedgerPlugin) batchPlugin).sendTransfers(anyList()))
+        .thenReturn(ImmutableMap.of(DESTINATION_TRANSFER_ID, mock(InsufficientBalanceException.class)));
+    when(ledgerPluginManagerMock.getLedgerPluginSafe(DESTINATION_TRANSFER_ID, DESTINATION_LEDGER_PREFIX))
+        .thenReturn(batchPlugin);
+
+    handler.prepareDestinationTransferAsync(sourceTransferMock, destinationTransferMock).get(5, TimeUnit.SECONDS);
+
+    verify(batchPlugin, never()).sendTransfer(any());
+    final ArgumentCaptor<InterledgerProtocolError> rejectionReason =
+        ArgumentCaptor.forClass(InterledgerProtocolError.class);
+    verify(sourceLedgerPluginMock).rejectIncomingTransfer(any(), rejectionReason.capture());
+    assertThat(rejectionReason.getValue().getErrorCode(), is(ErrorCode.T04_INSUFFICIENT_LIQUIDITY));
+  }
+
+  @Test
+  public void testOnTransferFulfilledPassesFulfillmentToSourceLedger() {
+    final Fulfillment fulfillment = mock(Fulfillment.class);
+    final OutgoingTransferFulfilledEvent event = mock(OutgoingTransferFulfilledEvent.class);
+    when(event.getTransfer()).thenReturn(destinationTransferMock);
+    when(event.getFulfillment()).thenReturn(fulfillment);
+
+    handler.onTransferFulfilled(event);
+    handler.close();
+
+    verify(sourceLedgerPluginMock).fulfillCondition(SOURCE_TRANSFER_ID, fulfillment);
+  }
+}
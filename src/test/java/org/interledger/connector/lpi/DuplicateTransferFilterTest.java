@@ -0,0 +1,117 @@
+package org.interledger.connector.lpi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Unit tests for {@link DuplicateTransferFilter}.
+ */
+public class DuplicateTransferFilterTest {
+
+  private static final InterledgerAddress LEDGER_PREFIX1 = InterledgerAddress.of("test1.foo.");
+  private static final InterledgerAddress LEDGER_PREFIX2 = InterledgerAddress.of("test1.bar.");
+  private static final Duration WINDOW = Duration.ofMinutes(1);
+
+  @Mock
+  private ConnectorConfigurationService<ConnectorConfig> connectorConfigurationServiceMock;
+
+  private int cacheSize;
+  private long nanoTime;
+
+  private DuplicateTransferFilter duplicateTransferFilter;
+
+  @BeforeMethod
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    this.cacheSize = 1000;
+    this.nanoTime = 0;
+    when(connectorConfigurationServiceMock.getConnectorConfig()).thenReturn(new ConnectorConfig() {
+      @Override
+      public Duration getDuplicateTransferWindow() {
+        return WINDOW;
+      }
+
+      @Override
+      public int getDuplicateTransferCacheSize() {
+        return cacheSize;
+      }
+    });
+
+    this.duplicateTransferFilter = new DuplicateTransferFilter(connectorConfigurationServiceMock, () -> nanoTime);
+  }
+
+  @Test
+  public void testDuplicateIsDetected() {
+    final TransferId transferId = TransferId.of(UUID.randomUUID());
+
+    assertThat(duplicateTransferFilter.markSeen(transfer(LEDGER_PREFIX1, transferId)), is(true));
+    assertThat(duplicateTransferFilter.markSeen(transfer(LEDGER_PREFIX1, transferId)), is(false));
+    // The same identifier on another ledger is a different transfer.
+    assertThat(duplicateTransferFilter.markSeen(transfer(LEDGER_PREFIX2, transferId)), is(true));
+  }
+
+  @Test
+  public void testTransferIsRememberedForAtLeastTheWindow() {
+    final Transfer transfer = transfer(LEDGER_PREFIX1, TransferId.of(UUID.randomUUID()));
+    duplicateTransferFilter.markSeen(transfer);
+
+    this.nanoTime += WINDOW.toNanos();
+    duplicateTransferFilter.markSeen(transfer(LEDGER_PREFIX1, TransferId.of(UUID.randomUUID())));
+    assertThat(duplicateTransferFilter.markSeen(transfer), is(false));
+  }
+
+  @Test
+  public void testTransferIsForgottenAfterTwiceTheWindow() {
+    final Transfer transfer = transfer(LEDGER_PREFIX1, TransferId.of(UUID.randomUUID()));
+    duplicateTransferFilter.markSeen(transfer);
+
+    this.nanoTime += WINDOW.multipliedBy(2).toNanos();
+    assertThat(duplicateTransferFilter.markSeen(transfer), is(true));
+  }
+
+  @Test
+  public void testCacheSizeIsBounded() {
+    this.cacheSize = 4;
+    final Transfer transfer = transfer(LEDGER_PREFIX1, TransferId.of(UUID.randomUUID()));
+    duplicateTransferFilter.markSeen(transfer);
+
+    // Each generation holds at most two transfers, so after four more, the first has been forgotten.
+    for (int i = 0; i < 4; i++) {
+      duplicateTransferFilter.markSeen(transfer(LEDGER_PREFIX1, TransferId.of(UUID.randomUUID())));
+    }
+    assertThat(duplicateTransferFilter.markSeen(transfer), is(true));
+  }
+
+  @Test
+  public void testForget() {
+    final Transfer transfer = transfer(LEDGER_PREFIX1, TransferId.of(UUID.randomUUID()));
+    duplicateTransferFilter.markSeen(transfer);
+
+    duplicateTransferFilter.forget(transfer);
+
+    assertThat(duplicateTransferFilter.markSeen(transfer), is(true));
+  }
+
+  private Transfer transfer(final InterledgerAddress ledgerPrefix, final TransferId transferId) {
+    final Transfer transfer = mock(Transfer.class);
+    when(transfer.getTransferId()).thenReturn(transferId);
+    when(transfer.getLedgerPrefix()).thenReturn(ledgerPrefix);
+    return transfer;
+  }
+}
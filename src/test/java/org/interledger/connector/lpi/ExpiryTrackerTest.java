@@ -0,0 +1,125 @@
+package org.interledger.connector.lpi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.connector.repository.ImmutableTransferCorrelation;
+import org.interledger.connector.repository.TransferCorrelation;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link ExpiryTracker}.
+ */
+public class ExpiryTrackerTest {
+
+  @Mock
+  private ConnectorConfigurationService<ConnectorConfig> connectorConfigurationServiceMock;
+
+  private TimingWheel timingWheel;
+  private List<TransferCorrelation> expired;
+  private CountDownLatch expiries;
+  private ExpiryTracker expiryTracker;
+
+  @BeforeMethod
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    when(connectorConfigurationServiceMock.getConnectorConfig()).thenReturn(new ConnectorConfig() {
+      @Override
+      public Duration getDestinationTransferExpiryGracePeriod() {
+        return Duration.ofMillis(10);
+      }
+    });
+
+    this.timingWheel = new TimingWheel(Duration.ofMillis(1), 64, Runnable::run);
+    this.expired = new CopyOnWriteArrayList<>();
+    this.expiries = new CountDownLatch(1);
+    this.expiryTracker = new ExpiryTracker(connectorConfigurationServiceMock, timingWheel, transferCorrelation -> {
+      expired.add(transferCorrelation);
+      expiries.countDown();
+    });
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    this.timingWheel.close();
+  }
+
+  @Test
+  public void testExpiredPaymentIsHandled() throws Exception {
+    final TransferCorrelation transferCorrelation = this.transferCorrelation(Duration.ofMillis(20));
+
+    expiryTracker.track(transferCorrelation);
+    assertThat(expiryTracker.getTrackedCount(), is(1));
+
+    assertThat(expiries.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(expired, contains(transferCorrelation));
+    assertThat(expiryTracker.getTrackedCount(), is(0));
+    assertThat(expiryTracker.untrack(transferCorrelation.getDestinationTransferId()), is(false));
+  }
+
+  @Test
+  public void testUntrackedPaymentIsNotHandled() throws Exception {
+    final TransferCorrelation untracked = this.transferCorrelation(Duration.ofMillis(10));
+    final TransferCorrelation sentinel = this.transferCorrelation(Duration.ofMillis(50));
+    expiryTracker.track(untracked);
+    expiryTracker.track(sentinel);
+
+    assertThat(expiryTracker.untrack(untracked.getDestinationTransferId()), is(true));
+
+    assertThat(expiries.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(expired, contains(sentinel));
+  }
+
+  @Test
+  public void testTrackingAgainReplacesPayment() throws Exception {
+    final TransferCorrelation original = this.transferCorrelation(Duration.ofMillis(10));
+    final TransferCorrelation replacement = ImmutableTransferCorrelation.builder()
+        .from(original)
+        .destinationTransfer(this.destinationTransfer(
+            original.getDestinationTransferId(), Instant.now().plusMillis(50)))
+        .build();
+
+    expiryTracker.track(original);
+    expiryTracker.track(replacement);
+    assertThat(expiryTracker.getTrackedCount(), is(1));
+
+    assertThat(expiries.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(expired, contains(replacement));
+  }
+
+  private TransferCorrelation transferCorrelation(final Duration expiresIn) {
+    final Transfer sourceTransfer = mock(Transfer.class);
+    when(sourceTransfer.getTransferId()).thenReturn(TransferId.of(UUID.randomUUID()));
+    return ImmutableTransferCorrelation.builder()
+        .sourceTransfer(sourceTransfer)
+        .destinationTransfer(this.destinationTransfer(TransferId.of(UUID.randomUUID()), Instant.now().plus(expiresIn)))
+        .build();
+  }
+
+  private Transfer destinationTransfer(final TransferId transferId, final Instant expiresAt) {
+    final Transfer destinationTransfer = mock(Transfer.class);
+    when(destinationTransfer.getTransferId()).thenReturn(transferId);
+    when(destinationTransfer.getExpiresAt()).thenReturn(expiresAt);
+    return destinationTransfer;
+  }
+}
@@ -0,0 +1,99 @@
+package org.interledger.connector.lpi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.mockito.Mockito.when;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+
+/**
+ * Unit tests for {@link ExpiryWindowEstimator}.
+ */
+public class ExpiryWindowEstimatorTest {
+
+  private static final InterledgerAddress FAST_LEDGER_PREFIX = InterledgerAddress.of("test1.fast.");
+  private static final InterledgerAddress SLOW_LEDGER_PREFIX = InterledgerAddress.of("test1.slow.");
+
+  @Mock
+  private ConnectorConfigurationService<ConnectorConfig> connectorConfigurationServiceMock;
+
+  private long nanoTime;
+
+  private ExpiryWindowEstimator expiryWindowEstimator;
+
+  @BeforeMethod
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    this.nanoTime = 0;
+    when(connectorConfigurationServiceMock.getConnectorConfig()).thenReturn(new ConnectorConfig() {
+      @Override
+      public Duration getTransferExpiryWindowFloor() {
+        return Duration.ofMillis(100);
+      }
+
+      @Override
+      public Duration getTransferExpiryWindowCeiling() {
+        return Duration.ofSeconds(20);
+      }
+    });
+
+    this.expiryWindowEstimator = new ExpiryWindowEstimator(connectorConfigurationServiceMock, () -> nanoTime);
+  }
+
+  @Test
+  public void testFixedWindowWithoutSamples() {
+    assertThat(expiryWindowEstimator.getTransferExpiryWindow(FAST_LEDGER_PREFIX), is(Duration.ofSeconds(5)));
+
+    this.record(FAST_LEDGER_PREFIX, Duration.ofMillis(10), ExpiryWindowEstimator.MIN_SAMPLES - 1);
+    assertThat(expiryWindowEstimator.getTransferExpiryWindow(FAST_LEDGER_PREFIX), is(Duration.ofSeconds(5)));
+  }
+
+  @Test
+  public void testWindowFollowsLatencyPerLedger() {
+    this.record(FAST_LEDGER_PREFIX, Duration.ofMillis(200), ExpiryWindowEstimator.MIN_SAMPLES);
+    this.record(SLOW_LEDGER_PREFIX, Duration.ofSeconds(4), ExpiryWindowEstimator.MIN_SAMPLES);
+
+    final Duration fastWindow = expiryWindowEstimator.getTransferExpiryWindow(FAST_LEDGER_PREFIX);
+    assertThat(fastWindow.compareTo(Duration.ofMillis(400)) >= 0, is(true));
+    assertThat(fastWindow, is(lessThan(Duration.ofMillis(500))));
+
+    final Duration slowWindow = expiryWindowEstimator.getTransferExpiryWindow(SLOW_LEDGER_PREFIX);
+    assertThat(slowWindow.compareTo(Duration.ofSeconds(8)) >= 0, is(true));
+    assertThat(slowWindow, is(lessThan(Duration.ofSeconds(10))));
+  }
+
+  @Test
+  public void testWindowIsBounded() {
+    this.record(FAST_LEDGER_PREFIX, Duration.ofMillis(1), ExpiryWindowEstimator.MIN_SAMPLES);
+    this.record(SLOW_LEDGER_PREFIX, Duration.ofMinutes(1), ExpiryWindowEstimator.MIN_SAMPLES);
+
+    assertThat(expiryWindowEstimator.getTransferExpiryWindow(FAST_LEDGER_PREFIX), is(Duration.ofMillis(100)));
+    assertThat(expiryWindowEstimator.getTransferExpiryWindow(SLOW_LEDGER_PREFIX), is(Duration.ofSeconds(20)));
+  }
+
+  @Test
+  public void testOldSamplesAreDiscarded() {
+    this.record(FAST_LEDGER_PREFIX, Duration.ofMillis(200), ExpiryWindowEstimator.MIN_SAMPLES);
+    assertThat(expiryWindowEstimator.getTransferExpiryWindow(FAST_LEDGER_PREFIX), is(lessThan(Duration.ofSeconds(1))));
+
+    this.nanoTime += ExpiryWindowEstimator.GENERATION_DURATION.multipliedBy(2).toNanos();
+    this.record(FAST_LEDGER_PREFIX, Duration.ofMillis(200), 1);
+    assertThat(expiryWindowEstimator.getTransferExpiryWindow(FAST_LEDGER_PREFIX), is(Duration.ofSeconds(5)));
+  }
+
+  private void record(final InterledgerAddress ledgerPrefix, final Duration latency, final int samples) {
+    for (int i = 0; i < samples; i++) {
+      expiryWindowEstimator.recordFulfillmentLatency(ledgerPrefix, latency);
+    }
+  }
+}
@@ -0,0 +1,459 @@
+package org.interledger.connector.lpi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.HmacTransferIdGenerator;
+import org.interledger.connector.TransferIdGenerator;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.connector.fx.FxEngine;
+import org.interledger.connector.repository.InMemoryTransferCorrelationRepository;
+import org.interledger.connector.routing.ImmutableRoute;
+import org.interledger.connector.routing.InMemoryRoutingTable;
+import org.interledger.connector.routing.Route;
+import org.interledger.connector.routing.SimplePaymentRouter;
+import org.interledger.connector.services.AbstractLedgerPluginManager;
+import org.interledger.connector.services.LedgerContext;
+import org.interledger.connector.services.LedgerPluginManager;
+import org.interledger.connector.subprotocols.SubprotocolDataService;
+import org.interledger.cryptoconditions.Fulfillment;
+import org.interledger.cryptoconditions.PreimageSha256Fulfillment;
+import org.interledger.ilp.InterledgerPayment;
+import org.interledger.plugin.lpi.ImmutableLedgerInfo;
+import org.interledger.plugin.lpi.ImmutableTransfer;
+import org.interledger.plugin.lpi.LedgerInfo;
+import org.interledger.plugin.lpi.LedgerPlugin;
+import org.interledger.plugin.lpi.LedgerPluginConfig;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+import org.interledger.plugin.lpi.events.ImmutableIncomingTransferFulfilledEvent;
+import org.interledger.plugin.lpi.events.ImmutableIncomingTransferPreparedEvent;
+import org.interledger.plugin.lpi.events.ImmutableOutgoingTransferFulfilledEvent;
+import org.interledger.plugin.lpi.events.IncomingTransferFulfilledEvent;
+import org.interledger.plugin.lpi.events.IncomingTransferPreparedEvent;
+import org.interledger.plugin.lpi.events.OutgoingTransferFulfilledEvent;
+
+import ch.qos.logback.classic.Level;
+import org.javamoney.moneta.convert.ExchangeRateBuilder;
+import org.javamoney.moneta.spi.DefaultNumberValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+
+import javax.money.CurrencyUnit;
+import javax.money.Monetary;
+import javax.money.convert.ConversionContext;
+import javax.money.convert.ConversionQuery;
+import javax.money.convert.CurrencyConversion;
+import javax.money.convert.ExchangeRate;
+import javax.money.convert.ProviderContext;
+import javax.money.convert.ProviderContextBuilder;
+import javax.money.convert.RateType;
+
+/**
+ * Guards the number of bytes that forwarding a payment allocates, so that changes which would add GC pressure to the
+ * payment path fail the build instead of showing up as longer GC pauses in production.
+ *
+ * Payments are driven through a {@link UniversalModeLedgerPluginEventHandler}, from {@code onTransferPrepared} to
+ * {@code onTransferFulfilled}, between in-memory ledgers (see {@link InMemoryLedger}) that do no work of their own, and
+ * the bytes allocated by the test thread are measured with {@link AllocationMeter}. Mocks are only used for setup,
+ * because Mockito allocates on every call to a mock. Each measurement is taken after warming up, so that the JIT has
+ * had a chance to eliminate allocations that don't escape.
+ *
+ * Each budget is a ceiling, in bytes per payment, with headroom over what is currently allocated, so that it is
+ * exceeded by a new allocation on the payment path rather than by noise. If a change legitimately needs more, raise
+ * the budget in the same change, so that the increase is reviewed.
+ *
+ * {@link InMemoryLedger} and {@link FixedRateFxEngine} play the same part as the {@code StubLedgerPlugin} and {@code
+ * StubFxEngine} of the {@code benchmarks} module, and the {@code SimulatedFxEngine} of the {@code load-harness} module.
+ * They are kept as separate copies because those modules depend on this one, so this module's tests cannot use their
+ * classes, and sharing this module's test classes with them would make the benchmarks depend on a test jar.
+ */
+public class ForwardingAllocationBudgetTest {
+
+  /**
+   * Finding the next hop of a payment (see {@link AbstractLedgerPluginEventHandler#findNextHopRoute(Transfer)}).
+   */
+  private static final long ROUTING_BUDGET_BYTES = 2_048;
+
+  /**
+   * Computing the amount of a destination transfer (see {@link
+   * AbstractLedgerPluginEventHandler#computeNextHopLocalTransferAmount(Transfer, LedgerContext, LedgerContext)}).
+   */
+  private static final long FX_BUDGET_BYTES = 768;
+
+  /**
+   * Generating the identifier of a destination transfer (see {@link HmacTransferIdGenerator}).
+   */
+  private static final long ID_GENERATION_BUDGET_BYTES = 256;
+
+  /**
+   * Saving the correlation of a source transfer with its destination transfer, and tracking its expiry (see {@link
+   * AbstractLedgerPluginEventHandler#saveTransferCorrelation(Transfer, Transfer)}).
+   */
+  private static final long CORRELATION_BUDGET_BYTES = 512;
+
+  /**
+   * Forwarding a payment from start to finish, including all of the above.
+   */
+  private static final long PAYMENT_BUDGET_BYTES = 5_120;
+
+  private static final int WARMUP_ROUNDS = 3;
+  private static final int PAYMENTS_PER_ROUND = 20_000;
+
+  private static final InterledgerAddress SOURCE_LEDGER_PREFIX = InterledgerAddress.of("test1.usd.");
+  private static final InterledgerAddress DESTINATION_LEDGER_PREFIX = InterledgerAddress.of("test2.eur.");
+  private static final InterledgerAddress DESTINATION_ACCOUNT = DESTINATION_LEDGER_PREFIX.with("bob");
+  private static final Fulfillment FULFILLMENT = new PreimageSha256Fulfillment(new byte[32]);
+
+  private final Logger rootLogger = LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+  private Level rootLogLevel;
+
+  private AllocationMeter allocationMeter;
+  private InMemoryLedger sourceLedger;
+  private InMemoryLedger destinationLedger;
+  private UniversalModeLedgerPluginEventHandler handler;
+
+  @BeforeClass
+  public void setup() {
+    try {
+      this.allocationMeter = new AllocationMeter();
+    } catch (UnsupportedOperationException e) {
+      throw new SkipException(e.getMessage());
+    }
+
+    // Debug logging on the payment path would otherwise dominate what is measured.
+    if (rootLogger instanceof ch.qos.logback.classic.Logger) {
+      this.rootLogLevel = ((ch.qos.logback.classic.Logger) rootLogger).getLevel();
+      ((ch.qos.logback.classic.Logger) rootLogger).setLevel(Level.INFO);
+    }
+
+    this.sourceLedger = new InMemoryLedger(ledgerInfo(SOURCE_LEDGER_PREFIX, "USD"));
+    this.destinationLedger = new InMemoryLedger(ledgerInfo(DESTINATION_LEDGER_PREFIX, "EUR"));
+    final LedgerPluginManager ledgerPluginManager = new AbstractLedgerPluginManager(
+        mock(SubprotocolDataService.class), new InMemoryTransferCorrelationRepository()
+    ) {
+    };
+    ledgerPluginManager.addLedgerPlugin(ledgerPluginConfig(SOURCE_LEDGER_PREFIX), sourceLedger.asLedgerPlugin());
+    ledgerPluginManager
+        .addLedgerPlugin(ledgerPluginConfig(DESTINATION_LEDGER_PREFIX), destinationLedger.asLedgerPlugin());
+
+    final InMemoryRoutingTable routingTable = new InMemoryRoutingTable();
+    routingTable.addRoute(ImmutableRoute.builder()
+        .targetPrefix(DESTINATION_LEDGER_PREFIX)
+        .nextHopLedgerAccount(DESTINATION_LEDGER_PREFIX.with("connector"))
+        .build());
+
+    // The handler reads its configuration for every payment, so this can't be a mock either.
+    final ConnectorConfig connectorConfig = new ConnectorConfig() {
+    };
+    final ConnectorConfigurationService<ConnectorConfig> connectorConfigurationService =
+        new ConnectorConfigurationService<ConnectorConfig>() {
+          @Override
+          public ConnectorConfig getConnectorConfig() {
+            return connectorConfig;
+          }
+
+          @Override
+          public Collection<? extends LedgerPluginConfig> getLedgerPluginConfigurations() {
+            return Collections.emptyList();
+          }
+
+          @Override
+          public LedgerPluginConfig getLedgerPluginConfiguration(final InterledgerAddress ledgerPrefix) {
+            throw new UnsupportedOperationException("Ledger plugins are added directly");
+          }
+        };
+    this.handler = new UniversalModeLedgerPluginEventHandler(
+        "secret", connectorConfigurationService, ledgerPluginManager, new SimplePaymentRouter(routingTable),
+        new FixedRateFxEngine(new BigDecimal("0.85"))
+    );
+  }
+
+  @AfterClass(alwaysRun = true)
+  public void tearDown() {
+    if (handler != null) {
+      handler.close();
+    }
+    if (rootLogger instanceof ch.qos.logback.classic.Logger) {
+      ((ch.qos.logback.classic.Logger) rootLogger).setLevel(rootLogLevel);
+    }
+  }
+
+  @Test
+  public void testRoutingIsWithinBudget() {
+    final Transfer[] sourceTransfers = this.sourceTransfers(PAYMENTS_PER_ROUND);
+
+    final double bytesPerPayment = this.measure(i -> handler.findNextHopRoute(sourceTransfers[i]));
+
+    assertThat(bytesPerPayment, is(lessThanOrEqualTo((double) ROUTING_BUDGET_BYTES)));
+  }
+
+  @Test
+  public void testFxIsWithinBudget() {
+    final Transfer[] sourceTransfers = this.sourceTransfers(PAYMENTS_PER_ROUND);
+    final LedgerContext sourceLedgerContext = handler.getLedgerPluginManager()
+        .getLedgerContext(SOURCE_LEDGER_PREFIX).get();
+    final LedgerContext destinationLedgerContext = handler.getLedgerPluginManager()
+        .getLedgerContext(DESTINATION_LEDGER_PREFIX).get();
+
+    final double bytesPerPayment = this.measure(i -> handler.computeNextHopLocalTransferAmount(
+        sourceTransfers[i], sourceLedgerContext, destinationLedgerContext
+    ));
+
+    assertThat(bytesPerPayment, is(lessThanOrEqualTo((double) FX_BUDGET_BYTES)));
+  }
+
+  @Test
+  public void testIdGenerationIsWithinBudget() {
+    final TransferIdGenerator transferIdGenerator = new HmacTransferIdGenerator("secret");
+    final Transfer[] sourceTransfers = this.sourceTransfers(PAYMENTS_PER_ROUND);
+
+    final double bytesPerPayment = this.measure(i -> transferIdGenerator.generateTransferId(
+        SOURCE_LEDGER_PREFIX, sourceTransfers[i].getTransferId()
+    ));
+
+    assertThat(bytesPerPayment, is(lessThanOrEqualTo((double) ID_GENERATION_BUDGET_BYTES)));
+  }
+
+  @Test
+  public void testCorrelationIsWithinBudget() {
+    final Route route = handler.findNextHopRoute(this.sourceTransfer());
+
+    double bytesPerPayment = 0;
+    for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+      final Transfer[] sourceTransfers = this.sourceTransfers(PAYMENTS_PER_ROUND);
+      final Transfer[] destinationTransfers = new Transfer[PAYMENTS_PER_ROUND];
+      for (int i = 0; i < PAYMENTS_PER_ROUND; i++) {
+        destinationTransfers[i] = handler.buildNextHopTransfer(sourceTransfers[i], route);
+      }
+
+      bytesPerPayment = allocationMeter.measure(PAYMENTS_PER_ROUND,
+          i -> handler.saveTransferCorrelation(sourceTransfers[i], destinationTransfers[i]));
+
+      for (Transfer destinationTransfer : destinationTransfers) {
+        handler.untrackDestinationTransfer(destinationTransfer);
+      }
+    }
+
+    assertThat(bytesPerPayment, is(lessThanOrEqualTo((double) CORRELATION_BUDGET_BYTES)));
+  }
+
+  @Test
+  public void testPaymentIsWithinBudget() {
+    double bytesPerPayment = 0;
+    for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+      final IncomingTransferPreparedEvent[] preparedEvents = new IncomingTransferPreparedEvent[PAYMENTS_PER_ROUND];
+      final IncomingTransferFulfilledEvent[] fulfilledEvents = new IncomingTransferFulfilledEvent[PAYMENTS_PER_ROUND];
+      for (int i = 0; i < PAYMENTS_PER_ROUND; i++) {
+        final Transfer sourceTransfer = this.sourceTransfer();
+        preparedEvents[i] = ImmutableIncomingTransferPreparedEvent.builder()
+            .ledgerPrefix(SOURCE_LEDGER_PREFIX)
+            .transfer(sourceTransfer)
+            .build();
+        fulfilledEvents[i] = ImmutableIncomingTransferFulfilledEvent.builder()
+            .ledgerPrefix(SOURCE_LEDGER_PREFIX)
+            .transfer(sourceTransfer)
+            .fulfillment(FULFILLMENT)
+            .build();
+      }
+      final int fulfilledBefore = sourceLedger.fulfilledTransfers;
+
+      long allocatedBytes = 0;
+      for (int i = 0; i < PAYMENTS_PER_ROUND; i++) {
+        long start = allocationMeter.allocatedBytes();
+        handler.onTransferPrepared(preparedEvents[i]);
+        allocatedBytes += allocationMeter.since(start);
+
+        // The destination ledger's notification is assembled outside of the measurement, since it is not allocated by
+        // the connector.
+        final OutgoingTransferFulfilledEvent destinationFulfilledEvent =
+            ImmutableOutgoingTransferFulfilledEvent.builder()
+                .ledgerPrefix(DESTINATION_LEDGER_PREFIX)
+                .transfer(destinationLedger.lastSentTransfer)
+                .fulfillment(FULFILLMENT)
+                .build();
+
+        start = allocationMeter.allocatedBytes();
+        handler.onTransferFulfilled(destinationFulfilledEvent);
+        handler.onTransferFulfilled(fulfilledEvents[i]);
+        allocatedBytes += allocationMeter.since(start);
+      }
+      bytesPerPayment = (double) allocatedBytes / PAYMENTS_PER_ROUND;
+
+      // Make sure that every payment went all the way through, rather than being (cheaply) rejected.
+      assertThat(sourceLedger.fulfilledTransfers - fulfilledBefore, is(PAYMENTS_PER_ROUND));
+      assertThat(sourceLedger.rejectedTransfers, is(0));
+    }
+
+    assertThat(bytesPerPayment, is(lessThanOrEqualTo((double) PAYMENT_BUDGET_BYTES)));
+  }
+
+  /**
+   * Warm up {@code operation}, and then measure the average number of bytes that it allocates.
+   */
+  private double measure(final IntConsumer operation) {
+    for (int round = 0; round < WARMUP_ROUNDS; round++) {
+      allocationMeter.measure(PAYMENTS_PER_ROUND, operation);
+    }
+    return allocationMeter.measure(PAYMENTS_PER_ROUND, operation);
+  }
+
+  private Transfer[] sourceTransfers(final int count) {
+    final Transfer[] sourceTransfers = new Transfer[count];
+    for (int i = 0; i < count; i++) {
+      sourceTransfers[i] = this.sourceTransfer();
+    }
+    return sourceTransfers;
+  }
+
+  private Transfer sourceTransfer() {
+    return ImmutableTransfer.builder()
+        .transferId(TransferId.of(UUID.randomUUID()))
+        .ledgerPrefix(SOURCE_LEDGER_PREFIX)
+        .sourceAccount(SOURCE_LEDGER_PREFIX.with("alice"))
+        .destinationAccount(SOURCE_LEDGER_PREFIX.with("connector"))
+        .amount(BigInteger.valueOf(1_000))
+        .interlederPaymentPacket(InterledgerPayment.builder()
+            .destinationAccount(DESTINATION_ACCOUNT)
+            .destinationAmount(BigInteger.valueOf(800))
+            .data(new byte[0])
+            .build())
+        .executionCondition(FULFILLMENT.getCondition())
+        .expiresAt(Instant.now().plus(1, ChronoUnit.HOURS))
+        .build();
+  }
+
+  private static LedgerInfo ledgerInfo(final InterledgerAddress ledgerPrefix, final String currencyCode) {
+    return ImmutableLedgerInfo.builder()
+        .ledgerPrefix(ledgerPrefix)
+        .currencyUnit(Monetary.getCurrency(currencyCode))
+        .currencyScale(Monetary.getCurrency(currencyCode).getDefaultFractionDigits())
+        .build();
+  }
+
+  private static LedgerPluginConfig ledgerPluginConfig(final InterledgerAddress ledgerPrefix) {
+    final LedgerPluginConfig ledgerPluginConfig = mock(LedgerPluginConfig.class);
+    when(ledgerPluginConfig.getLedgerPrefix()).thenReturn(ledgerPrefix);
+    when(ledgerPluginConfig.getConnectorAccount()).thenReturn(ledgerPrefix.with("connector"));
+    return ledgerPluginConfig;
+  }
+
+  /**
+   * A ledger that accepts every transfer and does nothing else, so that only the connector's allocations are measured
+   * (a {@code MockLedgerPlugin} simulates balances, which would be measured along with the connector). Only the calls
+   * that the connector makes are implemented, by a {@link Proxy} of {@link LedgerPlugin}.
+   */
+  private static final class InMemoryLedger implements InvocationHandler {
+
+    private final LedgerInfo ledgerInfo;
+    private final InterledgerAddress connectorAccount;
+
+    private Transfer lastSentTransfer;
+    private int fulfilledTransfers;
+    private int rejectedTransfers;
+
+    private InMemoryLedger(final LedgerInfo ledgerInfo) {
+      this.ledgerInfo = ledgerInfo;
+      this.connectorAccount = ledgerInfo.getLedgerPrefix().with("connector");
+    }
+
+    private LedgerPlugin asLedgerPlugin() {
+      return (LedgerPlugin) Proxy.newProxyInstance(
+          LedgerPlugin.class.getClassLoader(), new Class<?>[] {LedgerPlugin.class}, this
+      );
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+      switch (method.getName()) {
+        case "connect":
+        case "disconnect":
+          return null;
+        case "isConnected":
+          return true;
+        case "getLedgerInfo":
+          return ledgerInfo;
+        case "getConnectorAccount":
+          return connectorAccount;
+        case "sendTransfer":
+          this.lastSentTransfer = (Transfer) args[0];
+          return null;
+        case "fulfillCondition":
+          this.fulfilledTransfers++;
+          return null;
+        case "rejectIncomingTransfer":
+          this.rejectedTransfers++;
+          return null;
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "equals":
+          return proxy == args[0];
+        case "toString":
+          return "InMemoryLedger(" + ledgerInfo.getLedgerPrefix() + ")";
+        default:
+          throw new UnsupportedOperationException(method.getName());
+      }
+    }
+  }
+
+  /**
+   * An {@link FxEngine} with a single, fixed rate between every pair of currencies.
+   */
+  private static final class FixedRateFxEngine implements FxEngine {
+
+    private static final ProviderContext PROVIDER_CONTEXT = ProviderContextBuilder.of("FIXED", RateType.DEFERRED)
+        .build();
+    private static final ConversionContext CONVERSION_CONTEXT = ConversionContext.of("FIXED", RateType.DEFERRED);
+
+    private final BigDecimal rate;
+
+    private FixedRateFxEngine(final BigDecimal rate) {
+      this.rate = rate;
+    }
+
+    @Override
+    public ProviderContext getContext() {
+      return PROVIDER_CONTEXT;
+    }
+
+    @Override
+    public ExchangeRate getExchangeRate(final CurrencyUnit baseCurrencyUnit, final CurrencyUnit termCurrencyUnit) {
+      return new ExchangeRateBuilder(CONVERSION_CONTEXT)
+          .setBase(baseCurrencyUnit)
+          .setTerm(termCurrencyUnit)
+          .setFactor(DefaultNumberValue.of(rate))
+          .build();
+    }
+
+    @Override
+    public ExchangeRate getExchangeRate(final ConversionQuery conversionQuery) {
+      return this.getExchangeRate(conversionQuery.getBaseCurrency(), conversionQuery.getCurrency());
+    }
+
+    @Override
+    public CurrencyConversion getCurrencyConversion(final ConversionQuery conversionQuery) {
+      throw new UnsupportedOperationException("Only exchange rates are required");
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package org.interledger.connector.lpi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.lpi.ForwardingMetrics.Stage;
+import org.interledger.connector.metrics.InMemoryMetricsRegistry;
+import org.interledger.ilp.InterledgerProtocolError.ErrorCode;
+
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link ForwardingMetrics}.
+ */
+public class ForwardingMetricsTest {
+
+  private static final InterledgerAddress SOURCE_LEDGER_PREFIX = InterledgerAddress.of("test1.source.");
+  private static final InterledgerAddress DESTINATION_LEDGER_PREFIX = InterledgerAddress.of("test1.destination.");
+
+  private InMemoryMetricsRegistry metricsRegistry;
+  private ForwardingMetrics forwardingMetrics;
+
+  @BeforeMethod
+  public void setup() {
+    this.metricsRegistry = new InMemoryMetricsRegistry();
+    this.forwardingMetrics = new ForwardingMetrics(metricsRegistry);
+  }
+
+  @Test
+  public void testLatenciesAreRecordedPerStageAndLedger() {
+    final long startNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5);
+    forwardingMetrics.recordLatency(Stage.ROUTING, SOURCE_LEDGER_PREFIX, startNanos);
+    forwardingMetrics.recordLatency(Stage.ROUTING, SOURCE_LEDGER_PREFIX, startNanos);
+    forwardingMetrics.recordLatency(Stage.SEND, DESTINATION_LEDGER_PREFIX, startNanos);
+
+    assertThat(this.histogramCount(Stage.ROUTING, SOURCE_LEDGER_PREFIX), is(2L));
+    assertThat(this.histogramCount(Stage.SEND, DESTINATION_LEDGER_PREFIX), is(1L));
+    assertThat(this.histogramCount(Stage.SEND, SOURCE_LEDGER_PREFIX), is(0L));
+    assertThat(this.histogramCount(Stage.FX, SOURCE_LEDGER_PREFIX), is(0L));
+    assertThat(metricsRegistry.histogram(Stage.ROUTING.getMetricName(), this.ledgerTags(SOURCE_LEDGER_PREFIX))
+        .getMax(), is(greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(5))));
+  }
+
+  @Test
+  public void testRejectionsAreCountedPerLedgerAndErrorCode() {
+    forwardingMetrics.recordRejection(SOURCE_LEDGER_PREFIX, ErrorCode.F02_UNREACHABLE);
+    forwardingMetrics.recordRejection(SOURCE_LEDGER_PREFIX, ErrorCode.F02_UNREACHABLE);
+
+    assertThat(metricsRegistry.counter(ForwardingMetrics.REJECTIONS, ImmutableMap.of(
+        "ledger", SOURCE_LEDGER_PREFIX.getValue(), "errorCode", ErrorCode.F02_UNREACHABLE.getCode()
+    )).getCount(), is(2L));
+    assertThat(metricsRegistry.counter(ForwardingMetrics.REJECTIONS, ImmutableMap.of(
+        "ledger", DESTINATION_LEDGER_PREFIX.getValue(), "errorCode", ErrorCode.F02_UNREACHABLE.getCode()
+    )).getCount(), is(0L));
+  }
+
+  private long histogramCount(final Stage stage, final InterledgerAddress ledgerPrefix) {
+    return metricsRegistry.histogram(stage.getMetricName(), this.ledgerTags(ledgerPrefix)).getCount();
+  }
+
+  private ImmutableMap<String, String> ledgerTags(final InterledgerAddress ledgerPrefix) {
+    return ImmutableMap.of("ledger", ledgerPrefix.getValue());
+  }
+}
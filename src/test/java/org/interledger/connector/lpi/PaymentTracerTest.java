@@ -0,0 +1,156 @@
+package org.interledger.connector.lpi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.connector.lpi.PaymentTracer.Step;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Unit tests for {@link PaymentTracer}.
+ */
+public class PaymentTracerTest {
+
+  private static final InterledgerAddress SOURCE_LEDGER_PREFIX = InterledgerAddress.of("test1.source.");
+  private static final InterledgerAddress DESTINATION_LEDGER_PREFIX = InterledgerAddress.of("test1.destination.");
+
+  @Mock
+  private ConnectorConfigurationService<ConnectorConfig> connectorConfigurationServiceMock;
+
+  private int sampleInterval;
+
+  private PaymentTracer paymentTracer;
+
+  @BeforeMethod
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    this.sampleInterval = 1;
+    when(connectorConfigurationServiceMock.getConnectorConfig()).thenReturn(new ConnectorConfig() {
+      @Override
+      public int getPaymentTraceSampleInterval() {
+        return sampleInterval;
+      }
+    });
+
+    this.paymentTracer = new PaymentTracer(connectorConfigurationServiceMock, 4);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testCapacityMustBePowerOfTwo() {
+    new PaymentTracer(connectorConfigurationServiceMock, 3);
+  }
+
+  @Test
+  public void testTracesEachStep() {
+    final Transfer sourceTransfer = this.sourceTransfer();
+    final long receivedAtNanos = System.nanoTime();
+
+    paymentTracer.start(sourceTransfer, receivedAtNanos);
+    paymentTracer.recordRouted(sourceTransfer.getTransferId(), DESTINATION_LEDGER_PREFIX);
+    paymentTracer.record(sourceTransfer.getTransferId(), Step.FX_APPLIED);
+    paymentTracer.record(sourceTransfer.getTransferId(), Step.CORRELATED);
+    paymentTracer.record(sourceTransfer.getTransferId(), Step.SENT);
+    paymentTracer.record(sourceTransfer.getTransferId(), Step.FULFILLED);
+
+    final List<PaymentTrace> traces = paymentTracer.getTraces();
+    assertThat(traces.size(), is(1));
+
+    final PaymentTrace trace = traces.get(0);
+    assertThat(trace.getSourceTransferId(), is(sourceTransfer.getTransferId()));
+    assertThat(trace.getSourceLedgerPrefix(), is(SOURCE_LEDGER_PREFIX));
+    assertThat(trace.getDestinationLedgerPrefix(), is(Optional.of(DESTINATION_LEDGER_PREFIX)));
+    assertThat(trace.getElapsed().keySet(), contains(
+        Step.RECEIVED, Step.ROUTED, Step.FX_APPLIED, Step.CORRELATED, Step.SENT, Step.FULFILLED
+    ));
+    assertThat(trace.getElapsed().get(Step.RECEIVED), is(Duration.ZERO));
+    assertThat(trace.getElapsed().get(Step.FULFILLED).compareTo(trace.getElapsed().get(Step.SENT)),
+        is(greaterThanOrEqualTo(0)));
+  }
+
+  @Test
+  public void testTraceDump() {
+    final Transfer sourceTransfer = this.sourceTransfer();
+    paymentTracer.start(sourceTransfer, System.nanoTime());
+    paymentTracer.recordRouted(sourceTransfer.getTransferId(), DESTINATION_LEDGER_PREFIX);
+
+    final List<String> traceDump = paymentTracer.getTraceDump();
+    assertThat(traceDump.size(), is(1));
+    assertThat(traceDump.get(0), startsWith(paymentTracer.getTraces().get(0).getReceivedAt() + " "
+        + sourceTransfer.getTransferId().value() + " " + SOURCE_LEDGER_PREFIX.getValue() + " -> "
+        + DESTINATION_LEDGER_PREFIX.getValue() + " RECEIVED=0us ROUTED="));
+  }
+
+  @Test
+  public void testStepsAfterFinalStepAreNotRecorded() {
+    final Transfer sourceTransfer = this.sourceTransfer();
+
+    paymentTracer.start(sourceTransfer, System.nanoTime());
+    paymentTracer.record(sourceTransfer.getTransferId(), Step.REJECTED);
+    paymentTracer.record(sourceTransfer.getTransferId(), Step.CANCELLED);
+
+    assertThat(paymentTracer.getTraces().get(0).getElapsed().keySet(), contains(Step.RECEIVED, Step.REJECTED));
+  }
+
+  @Test
+  public void testOldestTracesAreOverwritten() {
+    final List<TransferId> sourceTransferIds = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      final Transfer sourceTransfer = this.sourceTransfer();
+      sourceTransferIds.add(sourceTransfer.getTransferId());
+      paymentTracer.start(sourceTransfer, System.nanoTime());
+    }
+
+    // Steps of payments whose traces were overwritten are dropped, rather than recorded into newer traces.
+    paymentTracer.record(sourceTransferIds.get(0), Step.SENT);
+
+    final List<PaymentTrace> traces = paymentTracer.getTraces();
+    assertThat(traces.stream().map(PaymentTrace::getSourceTransferId).collect(Collectors.toList()),
+        is(sourceTransferIds.subList(2, 6)));
+    traces.forEach(trace -> assertThat(trace.getElapsed().keySet(), contains(Step.RECEIVED)));
+  }
+
+  @Test
+  public void testUntracedPayments() {
+    this.sampleInterval = 0;
+    final Transfer sourceTransfer = this.sourceTransfer();
+    paymentTracer.start(sourceTransfer, System.nanoTime());
+    paymentTracer.record(sourceTransfer.getTransferId(), Step.SENT);
+    assertThat(paymentTracer.getTraces(), is(empty()));
+
+    // Payments are sampled by their source transfer id, so a sparse sample misses most payments.
+    this.sampleInterval = Integer.MAX_VALUE;
+    for (int i = 0; i < 100; i++) {
+      paymentTracer.start(this.sourceTransfer(), System.nanoTime());
+    }
+    assertThat(paymentTracer.getTraces(), is(empty()));
+  }
+
+  private Transfer sourceTransfer() {
+    final Transfer sourceTransfer = mock(Transfer.class);
+    when(sourceTransfer.getTransferId()).thenReturn(TransferId.of(UUID.randomUUID()));
+    when(sourceTransfer.getLedgerPrefix()).thenReturn(SOURCE_LEDGER_PREFIX);
+    return sourceTransfer;
+  }
+}
@@ -0,0 +1,272 @@
+package org.interledger.connector.lpi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.fail;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.jfr.ConnectorEvents;
+import org.interledger.connector.jfr.ConnectorEvents.Kind;
+import org.interledger.connector.jfr.ConnectorEvents.Span;
+import org.interledger.connector.lpi.PaymentTracer.Step;
+import org.interledger.connector.lpi.PipelinedLedgerPluginEventHandler.Stage;
+import org.interledger.connector.routing.Route;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+import org.interledger.plugin.lpi.events.IncomingTransferPreparedEvent;
+import org.interledger.plugin.lpi.events.OutgoingTransferFulfilledEvent;
+import org.interledger.plugin.lpi.exceptions.InvalidTransferException;
+
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link PipelinedLedgerPluginEventHandler}.
+ */
+public class PipelinedLedgerPluginEventHandlerTest {
+
+  @Mock
+  private AbstractLedgerPluginEventHandler<?> delegateMock;
+
+  @Mock
+  private Transfer sourceTransferMock;
+
+  @Mock
+  private Transfer destinationTransferMock;
+
+  @Mock
+  private Route routeMock;
+
+  @Mock
+  private PaymentTracer paymentTracerMock;
+
+  @Mock
+  private ConnectorEvents connectorEventsMock;
+
+  @Mock
+  private Span spanMock;
+
+  private PipelinedLedgerPluginEventHandler pipelinedHandler;
+
+  @BeforeMethod
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+
+    when(delegateMock.getPaymentTracer()).thenReturn(paymentTracerMock);
+    when(delegateMock.getConnectorEvents()).thenReturn(connectorEventsMock);
+    when(connectorEventsMock.begin(any())).thenReturn(spanMock);
+    when(spanMock.transfer(any())).thenReturn(spanMock);
+
+    when(delegateMock.admitSourceTransfer(sourceTransferMock)).thenReturn(true);
+    when(delegateMock.shouldForward(sourceTransferMock)).thenReturn(true);
+    when(delegateMock.findNextHopRoute(sourceTransferMock)).thenReturn(routeMock);
+    when(delegateMock.buildNextHopTransfer(sourceTransferMock, routeMock)).thenReturn(destinationTransferMock);
+
+    this.pipelinedHandler = new PipelinedLedgerPluginEventHandler(delegateMock, 2, 1, 4);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    this.pipelinedHandler.close();
+  }
+
+  @Test(expectedExceptions = NullPointerException.class)
+  public void testConstructWithNullDelegate() {
+    new PipelinedLedgerPluginEventHandler(null);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testConstructWithNoThreads() {
+    new PipelinedLedgerPluginEventHandler(delegateMock, 0, 1, 1);
+  }
+
+  @Test
+  public void testOnTransferPreparedRunsEachStageInOrder() {
+    pipelinedHandler.onTransferPrepared(preparedEvent());
+    pipelinedHandler.close();
+
+    final InOrder inOrder = inOrder(delegateMock);
+    inOrder.verify(delegateMock).shouldForward(sourceTransferMock);
+    inOrder.verify(delegateMock).findNextHopRoute(sourceTransferMock);
+    inOrder.verify(delegateMock).buildNextHopTransfer(sourceTransferMock, routeMock);
+    inOrder.verify(delegateMock).saveTransferCorrelation(sourceTransferMock, destinationTransferMock);
+    inOrder.verify(delegateMock).prepareDestinationTransfer(sourceTransferMock, destinationTransferMock);
+    verify(delegateMock, never()).onTransferPrepared(any(IncomingTransferPreparedEvent.class));
+  }
+
+  @Test
+  public void testOnTransferPreparedTracesEachStage() {
+    final TransferId sourceTransferId = TransferId.of(UUID.randomUUID());
+    final InterledgerAddress nextHopLedgerPrefix = InterledgerAddress.of("test1.destination.");
+    when(sourceTransferMock.getTransferId()).thenReturn(sourceTransferId);
+    when(routeMock.getNextHopLedgerPrefix()).thenReturn(nextHopLedgerPrefix);
+
+    pipelinedHandler.onTransferPrepared(preparedEvent());
+    pipelinedHandler.close();
+
+    verify(connectorEventsMock).begin(Kind.TRANSFER_PREPARED);
+    verify(spanMock).transfer(sourceTransferMock);
+    final InOrder inOrder = inOrder(paymentTracerMock, delegateMock, spanMock);
+    inOrder.verify(paymentTracerMock).start(eq(sourceTransferMock), anyLong());
+    inOrder.verify(paymentTracerMock).recordRouted(sourceTransferId, nextHopLedgerPrefix);
+    inOrder.verify(paymentTracerMock).record(sourceTransferId, Step.FX_APPLIED);
+    inOrder.verify(paymentTracerMock).record(sourceTransferId, Step.CORRELATED);
+    inOrder.verify(delegateMock).prepareDestinationTransfer(sourceTransferMock, destinationTransferMock);
+    inOrder.verify(spanMock).finish();
+  }
+
+  @Test
+  public void testOnTransferPreparedWhenNotForwardable() {
+    when(delegateMock.shouldForward(sourceTransferMock)).thenReturn(false);
+
+    pipelinedHandler.onTransferPrepared(preparedEvent());
+    pipelinedHandler.close();
+
+    verify(delegateMock, never()).findNextHopRoute(any());
+    verify(delegateMock, never()).prepareDestinationTransfer(any(), any());
+    verify(delegateMock).releaseSourceTransfer(sourceTransferMock);
+  }
+
+  @Test
+  public void testOnTransferPreparedWhenNotAdmitted() {
+    when(delegateMock.admitSourceTransfer(sourceTransferMock)).thenReturn(false);
+
+    pipelinedHandler.onTransferPrepared(preparedEvent());
+    pipelinedHandler.close();
+
+    verify(delegateMock, never()).shouldForward(any());
+    verify(delegateMock, never()).prepareDestinationTransfer(any(), any());
+    verify(paymentTracerMock, never()).start(any(), anyLong());
+    verify(spanMock).finish();
+  }
+
+  @Test
+  public void testOnTransferPreparedFinishesSpanWhenAdmissionFails() {
+    final RuntimeException admissionFailure = new RuntimeException("Ledger unavailable");
+    when(delegateMock.admitSourceTransfer(sourceTransferMock)).thenThrow(admissionFailure);
+
+    try {
+      pipelinedHandler.onTransferPrepared(preparedEvent());
+      fail("The failed admission should have been thrown!");
+    } catch (RuntimeException e) {
+      assertThat(e, is(admissionFailure));
+    }
+
+    verify(spanMock).finish();
+    verify(delegateMock, never()).shouldForward(any());
+  }
+
+  @Test
+  public void testOnTransferPreparedRejectsInvalidTransfer() {
+    final InvalidTransferException invalidTransferException = mock(InvalidTransferException.class);
+    doThrow(invalidTransferException).when(delegateMock).findNextHopRoute(sourceTransferMock);
+
+    pipelinedHandler.onTransferPrepared(preparedEvent());
+    pipelinedHandler.close();
+
+    verify(delegateMock).rejectInvalidSourceTransfer(sourceTransferMock, invalidTransferException);
+    verify(delegateMock, never()).buildNextHopTransfer(any(), any());
+  }
+
+  @Test
+  public void testOnTransferPreparedSurvivesFailedRejectionOfInvalidTransfer() {
+    final InvalidTransferException invalidTransferException = mock(InvalidTransferException.class);
+    doThrow(invalidTransferException).when(delegateMock).findNextHopRoute(sourceTransferMock);
+    doThrow(new RuntimeException("Ledger unavailable")).when(delegateMock)
+        .rejectInvalidSourceTransfer(sourceTransferMock, invalidTransferException);
+
+    pipelinedHandler.onTransferPrepared(preparedEvent());
+    pipelinedHandler.close();
+
+    verify(delegateMock).abandonSourceTransfer(sourceTransferMock);
+    verify(spanMock).finish();
+  }
+
+  @Test
+  public void testOnTransferPreparedAfterCloseAbandonsSourceTransfer() {
+    pipelinedHandler.close();
+
+    pipelinedHandler.onTransferPrepared(preparedEvent());
+
+    verify(delegateMock, never()).shouldForward(any());
+    verify(delegateMock).abandonSourceTransfer(sourceTransferMock);
+    verify(spanMock).finish();
+  }
+
+  @Test
+  public void testOnTransferPreparedSurvivesUnexpectedException() {
+    doThrow(new RuntimeException("Ledger unavailable")).when(delegateMock)
+        .prepareDestinationTransfer(sourceTransferMock, destinationTransferMock);
+
+    pipelinedHandler.onTransferPrepared(preparedEvent());
+    pipelinedHandler.onTransferPrepared(preparedEvent());
+    pipelinedHandler.close();
+
+    verify(delegateMock, times(2)).prepareDestinationTransfer(sourceTransferMock, destinationTransferMock);
+    verify(delegateMock, never()).rejectInvalidSourceTransfer(any(), any());
+    verify(delegateMock, times(2)).abandonSourceTransfer(sourceTransferMock);
+  }
+
+  @Test
+  public void testOtherEventsAreForwardedDirectly() {
+    final OutgoingTransferFulfilledEvent event = mock(OutgoingTransferFulfilledEvent.class);
+
+    pipelinedHandler.onTransferFulfilled(event);
+
+    verify(delegateMock).onTransferFulfilled(event);
+  }
+
+  @Test
+  public void testQueueDepths() throws InterruptedException {
+    final CountDownLatch sendStarted = new CountDownLatch(1);
+    final CountDownLatch releaseSend = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      sendStarted.countDown();
+      releaseSend.await();
+      return null;
+    }).when(delegateMock).prepareDestinationTransfer(sourceTransferMock, destinationTransferMock);
+
+    // The first payment blocks the only SEND thread, so the next two wait in its queue.
+    for (int i = 0; i < 3; i++) {
+      pipelinedHandler.onTransferPrepared(preparedEvent());
+    }
+    assertThat(sendStarted.await(5, TimeUnit.SECONDS), is(true));
+    for (int i = 0; i < 500 && pipelinedHandler.getQueueDepth(Stage.SEND) < 2; i++) {
+      Thread.sleep(10);
+    }
+    assertThat(pipelinedHandler.getQueueDepth(Stage.SEND), is(2));
+    assertThat(pipelinedHandler.getQueueDepths().get(Stage.SEND), is(2));
+    assertThat(pipelinedHandler.getQueueDepths().get(Stage.DECODE), is(0));
+
+    releaseSend.countDown();
+    pipelinedHandler.close();
+
+    assertThat(pipelinedHandler.getQueueDepth(Stage.SEND), is(0));
+    verify(delegateMock, times(3)).prepareDestinationTransfer(sourceTransferMock, destinationTransferMock);
+  }
+
+  private IncomingTransferPreparedEvent preparedEvent() {
+    final IncomingTransferPreparedEvent event = mock(IncomingTransferPreparedEvent.class);
+    when(event.getTransfer()).thenReturn(sourceTransferMock);
+    return event;
+  }
+}
@@ -0,0 +1,131 @@
+package org.interledger.connector.lpi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.plugin.lpi.exceptions.InsufficientBalanceException;
+import org.interledger.plugin.lpi.exceptions.LedgerPluginException;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Unit tests for {@link RetryScheduler}.
+ */
+public class RetrySchedulerTest {
+
+  private static final Predicate<Throwable> IS_TRANSIENT = error -> !(error instanceof InsufficientBalanceException);
+
+  @Mock
+  private ConnectorConfigurationService<ConnectorConfig> connectorConfigurationServiceMock;
+
+  private TimingWheel timingWheel;
+  private RetryScheduler retryScheduler;
+
+  @BeforeMethod
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    when(connectorConfigurationServiceMock.getConnectorConfig()).thenReturn(new ConnectorConfig() {
+      @Override
+      public Duration getTransientFailureRetryInitialBackoff() {
+        return Duration.ofMillis(2);
+      }
+
+      @Override
+      public Duration getTransientFailureRetryMaxBackoff() {
+        return Duration.ofMillis(8);
+      }
+    });
+
+    this.timingWheel = new TimingWheel(Duration.ofMillis(1), 64, Runnable::run);
+    this.retryScheduler = new RetryScheduler(connectorConfigurationServiceMock, timingWheel);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    this.timingWheel.close();
+  }
+
+  @Test
+  public void testRetriesUntilSuccess() throws Exception {
+    final LedgerPluginException failure = mock(LedgerPluginException.class);
+    final AtomicInteger attempts = new AtomicInteger();
+
+    retryScheduler.retry(() -> {
+      final CompletableFuture<Void> attempt = new CompletableFuture<>();
+      if (attempts.incrementAndGet() < 3) {
+        attempt.completeExceptionally(failure);
+      } else {
+        attempt.complete(null);
+      }
+      return attempt;
+    }, failure, IS_TRANSIENT, Instant.now().plusSeconds(5)).get(5, TimeUnit.SECONDS);
+
+    assertThat(attempts.get(), is(3));
+    assertThat(timingWheel.getPendingCount(), is(0));
+  }
+
+  @Test
+  public void testPermanentFailureIsNotRetried() throws Exception {
+    final InsufficientBalanceException failure = mock(InsufficientBalanceException.class);
+    final AtomicInteger attempts = new AtomicInteger();
+
+    final CompletableFuture<Void> result = retryScheduler.retry(() -> {
+      attempts.incrementAndGet();
+      return CompletableFuture.completedFuture(null);
+    }, failure, IS_TRANSIENT, Instant.now().plusSeconds(5));
+
+    assertThat(result.isCompletedExceptionally(), is(true));
+    assertThat(attempts.get(), is(0));
+  }
+
+  @Test
+  public void testRetriesStopAtDeadline() throws Exception {
+    final LedgerPluginException failure = mock(LedgerPluginException.class);
+    final AtomicInteger attempts = new AtomicInteger();
+
+    final CompletableFuture<Void> result = retryScheduler.retry(() -> {
+      attempts.incrementAndGet();
+      throw failure;
+    }, failure, IS_TRANSIENT, Instant.now().plusMillis(100));
+
+    try {
+      result.get(5, TimeUnit.SECONDS);
+      throw new AssertionError("Retries should have been exhausted!");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause(), is(sameInstance(failure)));
+    }
+    assertThat(attempts.get(), is(greaterThan(1)));
+  }
+
+  @Test
+  public void testNoRetryIsMadeAfterDeadline() throws Exception {
+    final LedgerPluginException failure = mock(LedgerPluginException.class);
+    final AtomicInteger attempts = new AtomicInteger();
+
+    final CompletableFuture<Void> result = retryScheduler.retry(() -> {
+      attempts.incrementAndGet();
+      return CompletableFuture.completedFuture(null);
+    }, failure, IS_TRANSIENT, Instant.now());
+
+    assertThat(result.isCompletedExceptionally(), is(true));
+    assertThat(attempts.get(), is(0));
+  }
+}
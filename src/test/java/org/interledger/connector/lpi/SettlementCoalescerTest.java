@@ -0,0 +1,176 @@
+package org.interledger.connector.lpi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.cryptoconditions.Fulfillment;
+import org.interledger.ilp.InterledgerProtocolError;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+import org.interledger.plugin.lpi.exceptions.LedgerPluginException;
+
+import com.google.common.collect.ImmutableMap;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link SettlementCoalescer}.
+ */
+public class SettlementCoalescerTest {
+
+  private static final InterledgerAddress LEDGER_PREFIX = InterledgerAddress.of("test1.foo.");
+
+  @Mock
+  private ConnectorConfigurationService<ConnectorConfig> connectorConfigurationServiceMock;
+
+  @Mock
+  private BatchSettlementLedgerPlugin ledgerPluginMock;
+
+  private SettlementCoalescer settlementCoalescer;
+
+  @BeforeMethod
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    when(connectorConfigurationServiceMock.getConnectorConfig()).thenReturn(new ConnectorConfig() {
+      @Override
+      public int getSettlementBatchMaxSize() {
+        return 3;
+      }
+
+      @Override
+      public Duration getSettlementBatchMaxDelay() {
+        return Duration.ofMinutes(1);
+      }
+    });
+    when(ledgerPluginMock.fulfillConditions(anyMap())).thenReturn(ImmutableMap.of());
+    when(ledgerPluginMock.rejectIncomingTransfers(anyMap())).thenReturn(ImmutableMap.of());
+
+    // Batches are sent on the submitting (or flushing) thread.
+    this.settlementCoalescer = new SettlementCoalescer(
+        connectorConfigurationServiceMock, Runnable::run, Clock.systemUTC()
+    );
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    this.settlementCoalescer.close();
+  }
+
+  @Test
+  public void testFulfillmentsAndRejectionsAreCoalesced() throws Exception {
+    final Transfer transfer1 = transferExpiringIn(Duration.ofMinutes(5));
+    final Transfer transfer2 = transferExpiringIn(Duration.ofMinutes(5));
+    final Fulfillment fulfillment = mock(Fulfillment.class);
+    final InterledgerProtocolError rejectionReason = mock(InterledgerProtocolError.class);
+
+    final CompletableFuture<Void> result1 = settlementCoalescer
+        .fulfillCondition(ledgerPluginMock, transfer1, fulfillment);
+    final CompletableFuture<Void> result2 = settlementCoalescer
+        .rejectIncomingTransfer(ledgerPluginMock, transfer2, rejectionReason);
+    assertThat(result1.isDone(), is(false));
+
+    settlementCoalescer.close();
+
+    result1.get(5, TimeUnit.SECONDS);
+    result2.get(5, TimeUnit.SECONDS);
+    verify(ledgerPluginMock).fulfillConditions(ImmutableMap.of(transfer1.getTransferId(), fulfillment));
+    verify(ledgerPluginMock).rejectIncomingTransfers(ImmutableMap.of(transfer2.getTransferId(), rejectionReason));
+  }
+
+  @Test
+  public void testBatchIsSentWhenFull() {
+    for (int i = 0; i < 3; i++) {
+      settlementCoalescer.fulfillCondition(
+          ledgerPluginMock, transferExpiringIn(Duration.ofMinutes(5)), mock(Fulfillment.class)
+      );
+    }
+
+    verify(ledgerPluginMock).fulfillConditions(anyMap());
+  }
+
+  @Test
+  public void testBatchRefusedByExecutorIsSentOnCallingThread() throws Exception {
+    final SettlementCoalescer rejectingCoalescer = new SettlementCoalescer(
+        connectorConfigurationServiceMock, command -> {
+          throw new RejectedExecutionException("Saturated");
+        }, Clock.systemUTC()
+    );
+    final Transfer transfer = transferExpiringIn(Duration.ofMinutes(5));
+    final Fulfillment fulfillment = mock(Fulfillment.class);
+
+    final CompletableFuture<Void> result = rejectingCoalescer.fulfillCondition(ledgerPluginMock, transfer, fulfillment);
+    rejectingCoalescer.close();
+
+    result.get(5, TimeUnit.SECONDS);
+    verify(ledgerPluginMock).fulfillConditions(ImmutableMap.of(transfer.getTransferId(), fulfillment));
+  }
+
+  @Test
+  public void testSettlementWithinExpiryMarginIsSentImmediately() {
+    final Transfer transfer = transferExpiringIn(Duration.ofMillis(500));
+
+    final CompletableFuture<Void> result = settlementCoalescer
+        .fulfillCondition(ledgerPluginMock, transfer, mock(Fulfillment.class));
+
+    assertThat(result.isDone(), is(true));
+    verify(ledgerPluginMock).fulfillConditions(anyMap());
+  }
+
+  @Test
+  public void testBatchIsSentBeforeExpiryMargin() throws Exception {
+    final CompletableFuture<Void> result1 = settlementCoalescer
+        .fulfillCondition(ledgerPluginMock, transferExpiringIn(Duration.ofMinutes(5)), mock(Fulfillment.class));
+    // This transfer must be settled within ~100ms, well before the configured one-minute batch delay.
+    final CompletableFuture<Void> result2 = settlementCoalescer
+        .fulfillCondition(ledgerPluginMock, transferExpiringIn(Duration.ofMillis(1100)), mock(Fulfillment.class));
+
+    result2.get(5, TimeUnit.SECONDS);
+    assertThat(result1.isDone(), is(true));
+    verify(ledgerPluginMock, never()).rejectIncomingTransfers(anyMap());
+  }
+
+  @Test
+  public void testFailuresAreDemultiplexedPerTransfer() {
+    final Transfer transfer1 = transferExpiringIn(Duration.ofMinutes(5));
+    final Transfer transfer2 = transferExpiringIn(Duration.ofMinutes(5));
+    final TransferId failedTransferId = transfer2.getTransferId();
+    final LedgerPluginException failure = mock(LedgerPluginException.class);
+    when(ledgerPluginMock.fulfillConditions(anyMap())).thenReturn(ImmutableMap.of(failedTransferId, failure));
+
+    final CompletableFuture<Void> result1 = settlementCoalescer
+        .fulfillCondition(ledgerPluginMock, transfer1, mock(Fulfillment.class));
+    final CompletableFuture<Void> result2 = settlementCoalescer
+        .fulfillCondition(ledgerPluginMock, transfer2, mock(Fulfillment.class));
+    settlementCoalescer.close();
+
+    assertThat(result1.isCompletedExceptionally(), is(false));
+    assertThat(result2.isCompletedExceptionally(), is(true));
+  }
+
+  private Transfer transferExpiringIn(final Duration duration) {
+    final Transfer transfer = mock(Transfer.class);
+    when(transfer.getTransferId()).thenReturn(TransferId.of(UUID.randomUUID()));
+    when(transfer.getLedgerPrefix()).thenReturn(LEDGER_PREFIX);
+    when(transfer.getExpiresAt()).thenReturn(Instant.now().plus(duration));
+    return transfer;
+  }
+}
@@ -0,0 +1,210 @@
+package org.interledger.connector.lpi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.interledger.connector.repository.TransferCorrelation;
+import org.interledger.connector.repository.TransferCorrelationRepository;
+import org.interledger.connector.services.LedgerPluginManager;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+import org.interledger.plugin.lpi.events.IncomingTransferFulfilledEvent;
+import org.interledger.plugin.lpi.events.IncomingTransferPreparedEvent;
+import org.interledger.plugin.lpi.events.LedgerPluginConnectedEvent;
+import org.interledger.plugin.lpi.events.OutgoingTransferFulfilledEvent;
+import org.interledger.plugin.lpi.handlers.LedgerPluginEventHandler;
+
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link StripedLedgerPluginEventHandler}.
+ */
+public class StripedLedgerPluginEventHandlerTest {
+
+  @Mock
+  private LedgerPluginEventHandler delegateMock;
+
+  @Mock
+  private LedgerPluginManager ledgerPluginManagerMock;
+
+  @Mock
+  private TransferCorrelationRepository transferCorrelationRepositoryMock;
+
+  private StripedLedgerPluginEventHandler stripedHandler;
+
+  @BeforeMethod
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    when(ledgerPluginManagerMock.getTransferCorrelationRepository()).thenReturn(transferCorrelationRepositoryMock);
+    when(transferCorrelationRepositoryMock.findByDestinationTransferId(any())).thenReturn(Optional.empty());
+
+    this.stripedHandler = new StripedLedgerPluginEventHandler(delegateMock, ledgerPluginManagerMock, 4, 16);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    this.stripedHandler.close();
+  }
+
+  @Test(expectedExceptions = NullPointerException.class)
+  public void testConstructWithNullDelegate() {
+    new StripedLedgerPluginEventHandler(null, ledgerPluginManagerMock);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testConstructWithNoLanes() {
+    new StripedLedgerPluginEventHandler(delegateMock, ledgerPluginManagerMock, 0, 1);
+  }
+
+  @Test
+  public void testEventsForSameTransferAreOrdered() throws InterruptedException {
+    final Transfer transfer = transferWithId(TransferId.of(UUID.randomUUID()));
+    final Transfer unrelatedTransfer = otherLaneTransfer(transfer);
+    final IncomingTransferPreparedEvent preparedEvent = mock(IncomingTransferPreparedEvent.class);
+    when(preparedEvent.getTransfer()).thenReturn(transfer);
+    final IncomingTransferFulfilledEvent fulfilledEvent = mock(IncomingTransferFulfilledEvent.class);
+    when(fulfilledEvent.getTransfer()).thenReturn(transfer);
+    final IncomingTransferPreparedEvent unrelatedEvent = mock(IncomingTransferPreparedEvent.class);
+    when(unrelatedEvent.getTransfer()).thenReturn(unrelatedTransfer);
+
+    final CountDownLatch releasePrepare = new CountDownLatch(1);
+    final CountDownLatch unrelatedHandled = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      if (invocation.getArgument(0) == unrelatedEvent) {
+        unrelatedHandled.countDown();
+      } else {
+        releasePrepare.await();
+      }
+      return null;
+    }).when(delegateMock).onTransferPrepared(any(IncomingTransferPreparedEvent.class));
+
+    stripedHandler.onTransferPrepared(preparedEvent);
+    stripedHandler.onTransferFulfilled(fulfilledEvent);
+    stripedHandler.onTransferPrepared(unrelatedEvent);
+
+    // The unrelated transfer is not held up by the slow prepare...
+    assertThat(unrelatedHandled.await(5, TimeUnit.SECONDS), is(true));
+    // ...but the fulfillment of the same transfer is.
+    assertThat(stripedHandler.getQueueDepth(stripedHandler.laneIndex(transfer.getTransferId())), is(1));
+
+    releasePrepare.countDown();
+    stripedHandler.close();
+
+    final InOrder inOrder = inOrder(delegateMock);
+    inOrder.verify(delegateMock).onTransferPrepared(preparedEvent);
+    inOrder.verify(delegateMock).onTransferFulfilled(fulfilledEvent);
+  }
+
+  @Test
+  public void testOutgoingEventsUseSourceTransferLane() {
+    final TransferId sourceTransferId = TransferId.of(UUID.randomUUID());
+    final Transfer destinationTransfer = otherLaneTransfer(transferWithId(sourceTransferId));
+    final TransferCorrelation transferCorrelation = mock(TransferCorrelation.class);
+    when(transferCorrelation.getSourceTransferId()).thenReturn(sourceTransferId);
+    when(transferCorrelationRepositoryMock.findByDestinationTransferId(destinationTransfer.getTransferId()))
+        .thenReturn(Optional.of(transferCorrelation));
+
+    final StripedLedgerPluginEventHandler spyHandler = spy(stripedHandler);
+    final OutgoingTransferFulfilledEvent event = mock(OutgoingTransferFulfilledEvent.class);
+    when(event.getTransfer()).thenReturn(destinationTransfer);
+
+    spyHandler.onTransferFulfilled(event);
+    stripedHandler.close();
+
+    verify(spyHandler).laneIndex(sourceTransferId);
+    verify(delegateMock).onTransferFulfilled(event);
+  }
+
+  @Test
+  public void testSourceTransferIsLookedUpOffTheDeliveringThread() throws InterruptedException {
+    final Transfer destinationTransfer = transferWithId(TransferId.of(UUID.randomUUID()));
+    final CountDownLatch releaseLookup = new CountDownLatch(1);
+    when(transferCorrelationRepositoryMock.findByDestinationTransferId(destinationTransfer.getTransferId()))
+        .thenAnswer(invocation -> {
+          releaseLookup.await();
+          return Optional.empty();
+        });
+    final OutgoingTransferFulfilledEvent event = mock(OutgoingTransferFulfilledEvent.class);
+    when(event.getTransfer()).thenReturn(destinationTransfer);
+
+    // Would block forever if the lookup were made by the delivering thread.
+    stripedHandler.onTransferFulfilled(event);
+
+    releaseLookup.countDown();
+    stripedHandler.close();
+    verify(delegateMock).onTransferFulfilled(event);
+  }
+
+  @Test(expectedExceptions = RejectedExecutionException.class)
+  public void testEventsAreRejectedAfterClose() {
+    final Transfer transfer = transferWithId(TransferId.of(UUID.randomUUID()));
+    final IncomingTransferPreparedEvent preparedEvent = mock(IncomingTransferPreparedEvent.class);
+    when(preparedEvent.getTransfer()).thenReturn(transfer);
+
+    stripedHandler.close();
+    stripedHandler.onTransferPrepared(preparedEvent);
+  }
+
+  @Test
+  public void testDelegateExceptionDoesNotStopLane() {
+    final Transfer transfer = transferWithId(TransferId.of(UUID.randomUUID()));
+    final IncomingTransferPreparedEvent preparedEvent = mock(IncomingTransferPreparedEvent.class);
+    when(preparedEvent.getTransfer()).thenReturn(transfer);
+    final IncomingTransferFulfilledEvent fulfilledEvent = mock(IncomingTransferFulfilledEvent.class);
+    when(fulfilledEvent.getTransfer()).thenReturn(transfer);
+    doAnswer(invocation -> {
+      throw new RuntimeException("Ledger unavailable");
+    }).when(delegateMock).onTransferPrepared(preparedEvent);
+
+    stripedHandler.onTransferPrepared(preparedEvent);
+    stripedHandler.onTransferFulfilled(fulfilledEvent);
+    stripedHandler.close();
+
+    verify(delegateMock).onTransferFulfilled(fulfilledEvent);
+  }
+
+  @Test
+  public void testOtherEventsAreForwardedDirectly() {
+    final LedgerPluginConnectedEvent event = mock(LedgerPluginConnectedEvent.class);
+
+    stripedHandler.onConnect(event);
+
+    verify(delegateMock).onConnect(event);
+  }
+
+  private Transfer transferWithId(final TransferId transferId) {
+    final Transfer transfer = mock(Transfer.class);
+    when(transfer.getTransferId()).thenReturn(transferId);
+    return transfer;
+  }
+
+  /**
+   * Create a transfer whose events are dispatched onto a different lane than those of {@code transfer}.
+   */
+  private Transfer otherLaneTransfer(final Transfer transfer) {
+    final int lane = stripedHandler.laneIndex(transfer.getTransferId());
+    TransferId transferId;
+    do {
+      transferId = TransferId.of(UUID.randomUUID());
+    } while (stripedHandler.laneIndex(transferId) == lane);
+    return transferWithId(transferId);
+  }
+}
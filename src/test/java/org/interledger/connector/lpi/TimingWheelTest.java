@@ -0,0 +1,147 @@
+package org.interledger.connector.lpi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link TimingWheel}.
+ */
+public class TimingWheelTest {
+
+  private TimingWheel timingWheel;
+
+  @BeforeMethod
+  public void setup() {
+    // A small wheel, so that even short delays span several levels.
+    this.timingWheel = new TimingWheel(Duration.ofMillis(1), 4, Runnable::run);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    this.timingWheel.close();
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testConstructWithInvalidWheelSize() {
+    new TimingWheel(Duration.ofMillis(1), 6, Runnable::run);
+  }
+
+  @Test
+  public void testTaskRunsAfterDelay() throws Exception {
+    final CountDownLatch ran = new CountDownLatch(1);
+    final long start = System.nanoTime();
+
+    final TimingWheel.Timeout timeout = timingWheel.schedule(ran::countDown, Duration.ofMillis(50));
+
+    assertThat(ran.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(System.nanoTime() - start, is(greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50))));
+    assertThat(timeout.isExpired(), is(true));
+    assertThat(timingWheel.getPendingCount(), is(0));
+  }
+
+  @Test
+  public void testCancelledTaskDoesNotRun() throws Exception {
+    final AtomicBoolean cancelledRan = new AtomicBoolean();
+    final CountDownLatch laterRan = new CountDownLatch(1);
+
+    final TimingWheel.Timeout timeout = timingWheel.schedule(() -> cancelledRan.set(true), Duration.ofMillis(20));
+    timingWheel.schedule(laterRan::countDown, Duration.ofMillis(40));
+    assertThat(timeout.cancel(), is(true));
+    assertThat(timeout.cancel(), is(false));
+
+    assertThat(laterRan.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(cancelledRan.get(), is(false));
+    assertThat(timeout.isCancelled(), is(true));
+  }
+
+  @Test
+  public void testManyTasksAllRunNoEarlierThanTheirDelay() throws Exception {
+    final int taskCount = 10_000;
+    final CountDownLatch ran = new CountDownLatch(taskCount);
+    final AtomicInteger early = new AtomicInteger();
+
+    for (int i = 0; i < taskCount; i++) {
+      final long delayNanos = TimeUnit.MILLISECONDS.toNanos(ThreadLocalRandom.current().nextInt(200));
+      final long deadline = System.nanoTime() + delayNanos;
+      timingWheel.schedule(() -> {
+        if (System.nanoTime() < deadline) {
+          early.incrementAndGet();
+        }
+        ran.countDown();
+      }, Duration.ofNanos(delayNanos));
+    }
+
+    assertThat(ran.await(10, TimeUnit.SECONDS), is(true));
+    assertThat(early.get(), is(0));
+    assertThat(timingWheel.getPendingCount(), is(0));
+  }
+
+  @Test
+  public void testTasksAcrossLevelBoundariesRunWithinOneTickOfTheirDeadline() throws Exception {
+    // Ticks long enough that the worker thread waking late doesn't dominate, on a wheel whose level-1 buckets each span
+    // 4 ticks and level-2 buckets 16, so that delays of up to 36 ticks cross many boundaries of both. A timeout that was
+    // cascaded into the wrong bucket would run at least 4 ticks late.
+    final long tickNanos = TimeUnit.MILLISECONDS.toNanos(25);
+    final TimingWheel coarseTimingWheel = new TimingWheel(Duration.ofNanos(tickNanos), 4, Runnable::run);
+    try {
+      final int maxDelayTicks = 36;
+      for (int round = 0; round < 2; round++) {
+        final CountDownLatch ran = new CountDownLatch(maxDelayTicks);
+        final long[] latenessNanos = new long[maxDelayTicks + 1];
+        for (int delayTicks = 1; delayTicks <= maxDelayTicks; delayTicks++) {
+          final int index = delayTicks;
+          final long delayNanos = delayTicks * tickNanos;
+          final long deadline = System.nanoTime() + delayNanos;
+          coarseTimingWheel.schedule(() -> {
+            latenessNanos[index] = System.nanoTime() - deadline;
+            ran.countDown();
+          }, Duration.ofNanos(delayNanos));
+        }
+
+        assertThat(ran.await(10, TimeUnit.SECONDS), is(true));
+        for (int delayTicks = 1; delayTicks <= maxDelayTicks; delayTicks++) {
+          // One tick for rounding the deadline up to a tick, and one more for the worker thread waking late.
+          assertThat("Lateness of a delay of " + delayTicks + " ticks", latenessNanos[delayTicks],
+              is(lessThanOrEqualTo(2 * tickNanos)));
+        }
+        // Start the next round at a different offset into a tick.
+        TimeUnit.MILLISECONDS.sleep(10);
+      }
+    } finally {
+      coarseTimingWheel.close();
+    }
+  }
+
+  @Test
+  public void testDelayBeyondTopLevel() throws Exception {
+    // With 4 buckets per level and 4 levels, the wheel only reaches 256 ticks ahead.
+    final CountDownLatch ran = new CountDownLatch(1);
+    final long start = System.nanoTime();
+
+    timingWheel.schedule(ran::countDown, Duration.ofMillis(400));
+
+    assertThat(ran.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(System.nanoTime() - start, is(greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(400))));
+  }
+
+  @Test(expectedExceptions = RejectedExecutionException.class)
+  public void testScheduleAfterClose() {
+    timingWheel.close();
+    timingWheel.schedule(() -> {
+    }, Duration.ofMillis(1));
+  }
+}
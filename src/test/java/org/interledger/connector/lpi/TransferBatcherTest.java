@@ -0,0 +1,162 @@
+package org.interledger.connector.lpi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+import org.interledger.plugin.lpi.exceptions.InsufficientBalanceException;
+import org.interledger.plugin.lpi.exceptions.LedgerPluginException;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link TransferBatcher}.
+ */
+public class TransferBatcherTest {
+
+  private static final InterledgerAddress LEDGER_PREFIX1 = InterledgerAddress.of("test1.foo.");
+  private static final InterledgerAddress LEDGER_PREFIX2 = InterledgerAddress.of("test1.bar.");
+
+  @Mock
+  private ConnectorConfigurationService<ConnectorConfig> connectorConfigurationServiceMock;
+
+  @Mock
+  private BatchLedgerPlugin batchLedgerPluginMock;
+
+  private Duration maxBatchDelay;
+
+  private TransferBatcher transferBatcher;
+
+  @BeforeMethod
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    this.maxBatchDelay = Duration.ofMinutes(1);
+    when(connectorConfigurationServiceMock.getConnectorConfig()).thenReturn(new ConnectorConfig() {
+      @Override
+      public int getTransferBatchMaxSize() {
+        return 3;
+      }
+
+      @Override
+      public Duration getTransferBatchMaxDelay() {
+        return maxBatchDelay;
+      }
+    });
+    when(batchLedgerPluginMock.sendTransfers(anyList())).thenReturn(ImmutableMap.of());
+
+    // Batches are sent on the submitting (or flushing) thread.
+    this.transferBatcher = new TransferBatcher(connectorConfigurationServiceMock, Runnable::run);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    this.transferBatcher.close();
+  }
+
+  @Test
+  public void testBatchIsSentWhenFull() throws Exception {
+    final Transfer transfer1 = transfer(LEDGER_PREFIX1);
+    final Transfer transfer2 = transfer(LEDGER_PREFIX1);
+    final Transfer transfer3 = transfer(LEDGER_PREFIX1);
+
+    final CompletableFuture<Void> result1 = transferBatcher.submit(batchLedgerPluginMock, transfer1);
+    final CompletableFuture<Void> result2 = transferBatcher.submit(batchLedgerPluginMock, transfer2);
+    assertThat(result1.isDone(), is(false));
+    verify(batchLedgerPluginMock, never()).sendTransfers(anyList());
+
+    final CompletableFuture<Void> result3 = transferBatcher.submit(batchLedgerPluginMock, transfer3);
+
+    verify(batchLedgerPluginMock).sendTransfers(ImmutableList.of(transfer1, transfer2, transfer3));
+    assertThat(result1.isDone() && result2.isDone() && result3.isDone(), is(true));
+    assertThat(result1.isCompletedExceptionally(), is(false));
+  }
+
+  @Test
+  public void testPartialBatchIsSentAfterDelay() throws Exception {
+    this.maxBatchDelay = Duration.ofMillis(10);
+    final Transfer transfer = transfer(LEDGER_PREFIX1);
+
+    transferBatcher.submit(batchLedgerPluginMock, transfer).get(5, TimeUnit.SECONDS);
+
+    verify(batchLedgerPluginMock).sendTransfers(ImmutableList.of(transfer));
+  }
+
+  @Test
+  public void testBatchesArePerLedger() {
+    final Transfer transfer1 = transfer(LEDGER_PREFIX1);
+    final Transfer transfer2 = transfer(LEDGER_PREFIX2);
+
+    transferBatcher.submit(batchLedgerPluginMock, transfer1);
+    transferBatcher.submit(batchLedgerPluginMock, transfer2);
+    transferBatcher.close();
+
+    verify(batchLedgerPluginMock).sendTransfers(ImmutableList.of(transfer1));
+    verify(batchLedgerPluginMock).sendTransfers(ImmutableList.of(transfer2));
+  }
+
+  @Test
+  public void testFailuresAreDemultiplexedPerTransfer() throws Exception {
+    final Transfer transfer1 = transfer(LEDGER_PREFIX1);
+    final Transfer transfer2 = transfer(LEDGER_PREFIX1);
+    final TransferId failedTransferId = transfer2.getTransferId();
+    final InsufficientBalanceException failure = mock(InsufficientBalanceException.class);
+    when(batchLedgerPluginMock.sendTransfers(anyList())).thenReturn(ImmutableMap.of(failedTransferId, failure));
+
+    final CompletableFuture<Void> result1 = transferBatcher.submit(batchLedgerPluginMock, transfer1);
+    final CompletableFuture<Void> result2 = transferBatcher.submit(batchLedgerPluginMock, transfer2);
+    transferBatcher.close();
+
+    result1.get(5, TimeUnit.SECONDS);
+    try {
+      result2.get(5, TimeUnit.SECONDS);
+    } catch (ExecutionException e) {
+      assertThat(e.getCause(), is(failure));
+      return;
+    }
+    throw new AssertionError("Expected the second transfer to fail!");
+  }
+
+  @Test
+  public void testBatchFailureFailsEveryTransfer() {
+    final LedgerPluginException failure = mock(LedgerPluginException.class);
+    when(batchLedgerPluginMock.sendTransfers(anyList())).thenThrow(failure);
+
+    final CompletableFuture<Void> result1 = transferBatcher.submit(batchLedgerPluginMock, transfer(LEDGER_PREFIX1));
+    final CompletableFuture<Void> result2 = transferBatcher.submit(batchLedgerPluginMock, transfer(LEDGER_PREFIX1));
+    transferBatcher.close();
+
+    verify(batchLedgerPluginMock, times(1)).sendTransfers(any());
+    assertThat(result1.isCompletedExceptionally(), is(true));
+    assertThat(result2.isCompletedExceptionally(), is(true));
+  }
+
+  private Transfer transfer(final InterledgerAddress ledgerPrefix) {
+    final Transfer transfer = mock(Transfer.class);
+    when(transfer.getTransferId()).thenReturn(TransferId.of(UUID.randomUUID()));
+    when(transfer.getLedgerPrefix()).thenReturn(ledgerPrefix);
+    return transfer;
+  }
+}
@@ -0,0 +1,130 @@
+package org.interledger.connector.lpi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.ilp.InterledgerPayment;
+import org.interledger.plugin.lpi.Transfer;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link TransferRateLimiter}.
+ */
+public class TransferRateLimiterTest {
+
+  private static final InterledgerAddress ACCOUNT1 = InterledgerAddress.of("test1.foo.alice");
+  private static final InterledgerAddress ACCOUNT2 = InterledgerAddress.of("test1.foo.bob");
+  private static final InterledgerAddress DESTINATION1 = InterledgerAddress.of("test2.bar.carol");
+  private static final InterledgerAddress DESTINATION2 = InterledgerAddress.of("test3.baz.dave");
+
+  @Mock
+  private ConnectorConfigurationService<ConnectorConfig> connectorConfigurationServiceMock;
+
+  private int ratePerSecond;
+  private boolean limitedPerDestination;
+  private long nanoTime;
+
+  private TransferRateLimiter transferRateLimiter;
+
+  @BeforeMethod
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    this.ratePerSecond = 10;
+    this.limitedPerDestination = false;
+    this.nanoTime = 0;
+    when(connectorConfigurationServiceMock.getConnectorConfig()).thenReturn(new ConnectorConfig() {
+      @Override
+      public int getIncomingTransferRatePerAccount() {
+        return ratePerSecond;
+      }
+
+      @Override
+      public int getIncomingTransferBurstPerAccount() {
+        return 2;
+      }
+
+      @Override
+      public boolean isIncomingTransferRateLimitedPerDestination() {
+        return limitedPerDestination;
+      }
+    });
+
+    this.transferRateLimiter = new TransferRateLimiter(connectorConfigurationServiceMock, 1024, () -> nanoTime);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testConstructWithInvalidBucketsPerRow() {
+    new TransferRateLimiter(connectorConfigurationServiceMock, 1000);
+  }
+
+  @Test
+  public void testBurstThenSustainedRate() {
+    final Transfer transfer = transfer(ACCOUNT1, DESTINATION1);
+
+    assertThat(transferRateLimiter.tryAcquire(transfer), is(true));
+    assertThat(transferRateLimiter.tryAcquire(transfer), is(true));
+    assertThat(transferRateLimiter.tryAcquire(transfer), is(false));
+
+    // At 10 transfers per second, one more token is available every 100ms.
+    this.nanoTime += TimeUnit.MILLISECONDS.toNanos(100);
+    assertThat(transferRateLimiter.tryAcquire(transfer), is(true));
+    assertThat(transferRateLimiter.tryAcquire(transfer), is(false));
+
+    // An idle account's bucket refills, but only up to the burst.
+    this.nanoTime += TimeUnit.SECONDS.toNanos(10);
+    assertThat(transferRateLimiter.tryAcquire(transfer), is(true));
+    assertThat(transferRateLimiter.tryAcquire(transfer), is(true));
+    assertThat(transferRateLimiter.tryAcquire(transfer), is(false));
+  }
+
+  @Test
+  public void testAccountsAreLimitedIndependently() {
+    final Transfer transfer1 = transfer(ACCOUNT1, DESTINATION1);
+    transferRateLimiter.tryAcquire(transfer1);
+    transferRateLimiter.tryAcquire(transfer1);
+    assertThat(transferRateLimiter.tryAcquire(transfer1), is(false));
+
+    assertThat(transferRateLimiter.tryAcquire(transfer(ACCOUNT2, DESTINATION1)), is(true));
+  }
+
+  @Test
+  public void testLimitedPerDestination() {
+    this.limitedPerDestination = true;
+    final Transfer transfer1 = transfer(ACCOUNT1, DESTINATION1);
+    transferRateLimiter.tryAcquire(transfer1);
+    transferRateLimiter.tryAcquire(transfer1);
+    assertThat(transferRateLimiter.tryAcquire(transfer1), is(false));
+
+    assertThat(transferRateLimiter.tryAcquire(transfer(ACCOUNT1, DESTINATION2)), is(true));
+  }
+
+  @Test
+  public void testDisabled() {
+    this.ratePerSecond = 0;
+    final Transfer transfer = transfer(ACCOUNT1, DESTINATION1);
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(transferRateLimiter.tryAcquire(transfer), is(true));
+    }
+  }
+
+  private Transfer transfer(final InterledgerAddress sourceAccount, final InterledgerAddress destinationAccount) {
+    final InterledgerPayment payment = mock(InterledgerPayment.class);
+    when(payment.getDestinationAccount()).thenReturn(destinationAccount);
+    final Transfer transfer = mock(Transfer.class);
+    when(transfer.getSourceAccount()).thenReturn(sourceAccount);
+    when(transfer.getInterlederPaymentPacket()).thenReturn(payment);
+    return transfer;
+  }
+}
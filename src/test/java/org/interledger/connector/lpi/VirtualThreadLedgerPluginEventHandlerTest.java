@@ -0,0 +1,209 @@
+package org.interledger.connector.lpi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.plugin.lpi.Transfer;
+import org.interledger.plugin.lpi.TransferId;
+import org.interledger.plugin.lpi.events.IncomingTransferFulfilledEvent;
+import org.interledger.plugin.lpi.events.IncomingTransferPreparedEvent;
+import org.interledger.plugin.lpi.events.LedgerPluginConnectedEvent;
+import org.interledger.plugin.lpi.events.OutgoingTransferFulfilledEvent;
+import org.interledger.plugin.lpi.handlers.LedgerPluginEventHandler;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit tests for {@link VirtualThreadLedgerPluginEventHandler}.
+ */
+public class VirtualThreadLedgerPluginEventHandlerTest {
+
+  private static final InterledgerAddress LEDGER_PREFIX1 = InterledgerAddress.of("example.foo1.");
+  private static final InterledgerAddress LEDGER_PREFIX2 = InterledgerAddress.of("example.foo2.");
+
+  @Mock
+  private LedgerPluginEventHandler delegateMock;
+
+  private VirtualThreadLedgerPluginEventHandler handler;
+
+  @BeforeMethod
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    this.handler = new VirtualThreadLedgerPluginEventHandler(delegateMock, 1);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    this.handler.close();
+  }
+
+  @Test(expectedExceptions = NullPointerException.class)
+  public void testConstructWithNullDelegate() {
+    new VirtualThreadLedgerPluginEventHandler(null, 1);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testConstructWithNoConcurrency() {
+    new VirtualThreadLedgerPluginEventHandler(delegateMock, 0);
+  }
+
+  @Test
+  public void testTransferEventsAreHandledOffTheDeliveringThread() throws InterruptedException {
+    final AtomicReference<Thread> handlingThread = new AtomicReference<>();
+    doAnswer(invocation -> {
+      handlingThread.set(Thread.currentThread());
+      return null;
+    }).when(delegateMock).onTransferFulfilled(any(OutgoingTransferFulfilledEvent.class));
+    final OutgoingTransferFulfilledEvent event = mock(OutgoingTransferFulfilledEvent.class);
+    when(event.getLedgerPrefix()).thenReturn(LEDGER_PREFIX1);
+    final Transfer transfer = transfer();
+    when(event.getTransfer()).thenReturn(transfer);
+
+    handler.onTransferFulfilled(event);
+    handler.close();
+
+    verify(delegateMock).onTransferFulfilled(event);
+    assertThat(handlingThread.get(), is(not(Thread.currentThread())));
+    assertThat(handler.getInFlightCount(LEDGER_PREFIX1), is(0));
+  }
+
+  @Test
+  public void testConcurrencyIsCappedPerLedger() throws InterruptedException {
+    final IncomingTransferPreparedEvent blockedEvent = preparedEvent(LEDGER_PREFIX1);
+    final IncomingTransferPreparedEvent queuedEvent = preparedEvent(LEDGER_PREFIX1);
+    final IncomingTransferPreparedEvent otherLedgerEvent = preparedEvent(LEDGER_PREFIX2);
+
+    final CountDownLatch releaseBlocked = new CountDownLatch(1);
+    final CountDownLatch otherLedgerHandled = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      if (invocation.getArgument(0) == blockedEvent) {
+        releaseBlocked.await();
+      } else if (invocation.getArgument(0) == otherLedgerEvent) {
+        otherLedgerHandled.countDown();
+      }
+      return null;
+    }).when(delegateMock).onTransferPrepared(any(IncomingTransferPreparedEvent.class));
+
+    handler.onTransferPrepared(blockedEvent);
+    assertThat(handler.getInFlightCount(LEDGER_PREFIX1), is(1));
+
+    // The first ledger is at its cap, so delivering its next event blocks...
+    final Thread deliveringThread = new Thread(() -> handler.onTransferPrepared(queuedEvent));
+    deliveringThread.start();
+    deliveringThread.join(200);
+    assertThat(deliveringThread.isAlive(), is(true));
+
+    // ...while events from another ledger are unaffected.
+    handler.onTransferPrepared(otherLedgerEvent);
+    assertThat(otherLedgerHandled.await(5, TimeUnit.SECONDS), is(true));
+
+    releaseBlocked.countDown();
+    deliveringThread.join(5000);
+    assertThat(deliveringThread.isAlive(), is(false));
+    handler.close();
+
+    verify(delegateMock).onTransferPrepared(queuedEvent);
+  }
+
+  @Test
+  public void testEventsForTheSameTransferAreHandledInOrder() throws InterruptedException {
+    final VirtualThreadLedgerPluginEventHandler concurrentHandler =
+        new VirtualThreadLedgerPluginEventHandler(delegateMock, 10);
+    final Transfer transfer = transfer();
+    final IncomingTransferPreparedEvent preparedEvent = preparedEvent(LEDGER_PREFIX1, transfer);
+    final IncomingTransferFulfilledEvent fulfilledEvent = mock(IncomingTransferFulfilledEvent.class);
+    when(fulfilledEvent.getLedgerPrefix()).thenReturn(LEDGER_PREFIX1);
+    when(fulfilledEvent.getTransfer()).thenReturn(transfer);
+    final IncomingTransferPreparedEvent otherTransferEvent = preparedEvent(LEDGER_PREFIX1);
+
+    final CountDownLatch releasePrepared = new CountDownLatch(1);
+    final CountDownLatch otherTransferHandled = new CountDownLatch(1);
+    final AtomicBoolean preparedFinished = new AtomicBoolean();
+    final AtomicBoolean fulfilledBeforePrepared = new AtomicBoolean();
+    doAnswer(invocation -> {
+      if (invocation.getArgument(0) == preparedEvent) {
+        releasePrepared.await();
+        preparedFinished.set(true);
+      } else {
+        otherTransferHandled.countDown();
+      }
+      return null;
+    }).when(delegateMock).onTransferPrepared(any(IncomingTransferPreparedEvent.class));
+    doAnswer(invocation -> {
+      fulfilledBeforePrepared.set(!preparedFinished.get());
+      return null;
+    }).when(delegateMock).onTransferFulfilled(any(IncomingTransferFulfilledEvent.class));
+
+    try {
+      concurrentHandler.onTransferPrepared(preparedEvent);
+      concurrentHandler.onTransferFulfilled(fulfilledEvent);
+      // Another transfer's events are not held up behind the first transfer's.
+      concurrentHandler.onTransferPrepared(otherTransferEvent);
+      assertThat(otherTransferHandled.await(5, TimeUnit.SECONDS), is(true));
+    } finally {
+      releasePrepared.countDown();
+      concurrentHandler.close();
+    }
+
+    verify(delegateMock).onTransferFulfilled(fulfilledEvent);
+    assertThat(fulfilledBeforePrepared.get(), is(false));
+    assertThat(concurrentHandler.getInFlightCount(LEDGER_PREFIX1), is(0));
+  }
+
+  @Test
+  public void testDelegateExceptionReleasesPermit() {
+    final IncomingTransferPreparedEvent event = preparedEvent(LEDGER_PREFIX1);
+    doAnswer(invocation -> {
+      throw new RuntimeException("Ledger unavailable");
+    }).when(delegateMock).onTransferPrepared(event);
+
+    handler.onTransferPrepared(event);
+    handler.onTransferPrepared(event);
+    handler.close();
+
+    assertThat(handler.getInFlightCount(LEDGER_PREFIX1), is(0));
+  }
+
+  @Test
+  public void testOtherEventsAreForwardedDirectly() {
+    final LedgerPluginConnectedEvent event = mock(LedgerPluginConnectedEvent.class);
+
+    handler.onConnect(event);
+
+    verify(delegateMock).onConnect(event);
+  }
+
+  private IncomingTransferPreparedEvent preparedEvent(final InterledgerAddress ledgerPrefix) {
+    return preparedEvent(ledgerPrefix, transfer());
+  }
+
+  private IncomingTransferPreparedEvent preparedEvent(final InterledgerAddress ledgerPrefix, final Transfer transfer) {
+    final IncomingTransferPreparedEvent event = mock(IncomingTransferPreparedEvent.class);
+    when(event.getLedgerPrefix()).thenReturn(ledgerPrefix);
+    when(event.getTransfer()).thenReturn(transfer);
+    return event;
+  }
+
+  private Transfer transfer() {
+    final Transfer transfer = mock(Transfer.class);
+    when(transfer.getTransferId()).thenReturn(TransferId.of(UUID.randomUUID()));
+    return transfer;
+  }
+}
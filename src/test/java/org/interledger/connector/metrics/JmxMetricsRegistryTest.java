@@ -0,0 +1,96 @@
+package org.interledger.connector.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+/**
+ * Unit tests for {@link JmxMetricsRegistry}.
+ */
+public class JmxMetricsRegistryTest {
+
+  private MBeanServer mbeanServer;
+  private JmxMetricsRegistry metricsRegistry;
+
+  @BeforeMethod
+  public void setup() {
+    this.mbeanServer = MBeanServerFactory.newMBeanServer();
+    this.metricsRegistry = new JmxMetricsRegistry(mbeanServer, "test");
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    this.metricsRegistry.close();
+  }
+
+  @Test
+  public void testSameNameAndTagsAreSameMetric() {
+    final LatencyHistogram histogram = metricsRegistry.histogram("latency", ImmutableMap.of("ledger", "test1.usd."));
+
+    assertThat(metricsRegistry.histogram("latency", ImmutableMap.of("ledger", "test1.usd.")),
+        is(sameInstance(histogram)));
+    assertThat(metricsRegistry.histogram("latency", ImmutableMap.of("ledger", "test1.eur.")),
+        is(not(sameInstance(histogram))));
+    assertThat(metricsRegistry.counter("count", ImmutableMap.of("a", "1", "b", "2")),
+        is(sameInstance(metricsRegistry.counter("count", ImmutableMap.of("b", "2", "a", "1")))));
+  }
+
+  @Test
+  public void testHistogramIsRegistered() throws Exception {
+    final LatencyHistogram histogram = metricsRegistry.histogram("latency", ImmutableMap.of("ledger", "test1.usd."));
+    histogram.record(1_000);
+    histogram.record(3_000);
+
+    final ObjectName objectName = new ObjectName("test:type=histogram,name=\"latency\",ledger=\"test1.usd.\"");
+    assertThat(mbeanServer.getAttribute(objectName, "Count"), is(2L));
+    assertThat(mbeanServer.getAttribute(objectName, "Max"), is(3_000L));
+    assertThat(mbeanServer.getAttribute(objectName, "Mean"), is(2_000.0));
+  }
+
+  @Test
+  public void testCounterIsRegistered() throws Exception {
+    metricsRegistry.counter("rejections", ImmutableMap.of("errorCode", "F02")).add(3);
+
+    final ObjectName objectName = new ObjectName("test:type=counter,name=\"rejections\",errorCode=\"F02\"");
+    assertThat(mbeanServer.getAttribute(objectName, "Count"), is(3L));
+  }
+
+  @Test
+  public void testViewIsRegistered() throws Exception {
+    metricsRegistry.registerView("status", (ExampleMXBean) () -> "OK");
+
+    final ObjectName objectName = new ObjectName("test:type=view,name=\"status\"");
+    assertThat(mbeanServer.getAttribute(objectName, "Status"), is("OK"));
+
+    metricsRegistry.close();
+    assertThat(mbeanServer.isRegistered(objectName), is(false));
+  }
+
+  @Test
+  public void testCloseUnregistersMetrics() throws Exception {
+    metricsRegistry.counter("rejections", ImmutableMap.of());
+    final ObjectName objectName = new ObjectName("test:type=counter,name=\"rejections\"");
+    assertThat(mbeanServer.isRegistered(objectName), is(true));
+
+    metricsRegistry.close();
+    assertThat(mbeanServer.isRegistered(objectName), is(false));
+  }
+
+  /**
+   * A view registered by {@link #testViewIsRegistered()}. MXBean interfaces must be public.
+   */
+  public interface ExampleMXBean {
+
+    String getStatus();
+  }
+}
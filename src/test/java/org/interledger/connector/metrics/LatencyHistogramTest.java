@@ -0,0 +1,98 @@
+package org.interledger.connector.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTest {
+
+  @Test
+  public void testEmptyHistogram() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+
+    assertThat(histogram.getCount(), is(0L));
+    assertThat(histogram.getMean(), is(0.0));
+    assertThat(histogram.getMax(), is(0L));
+    assertThat(histogram.getValueAtPercentile(99), is(0L));
+  }
+
+  @Test
+  public void testSmallValuesAreExact() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    for (long value = 0; value < LatencyHistogram.SUB_BUCKETS; value++) {
+      histogram.record(value);
+    }
+
+    assertThat(histogram.getCount(), is((long) LatencyHistogram.SUB_BUCKETS));
+    assertThat(histogram.getValueAtPercentile(0), is(0L));
+    assertThat(histogram.getValueAtPercentile(50), is(15L));
+    assertThat(histogram.getValueAtPercentile(100), is(31L));
+  }
+
+  @Test
+  public void testPercentilesAreWithinRelativeError() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    // 1 to 10,000 microseconds, uniformly.
+    for (long micros = 1; micros <= 10_000; micros++) {
+      histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+    }
+
+    assertThat(histogram.getCount(), is(10_000L));
+    assertThat(histogram.getMean(), is(closeTo(TimeUnit.MICROSECONDS.toNanos(5_000) + 500, 1)));
+    assertThat(histogram.getMax(), is(TimeUnit.MILLISECONDS.toNanos(10)));
+    this.assertWithinRelativeError(histogram.getValueAtPercentile(50), TimeUnit.MICROSECONDS.toNanos(5_000));
+    this.assertWithinRelativeError(histogram.getValueAtPercentile(99), TimeUnit.MICROSECONDS.toNanos(9_900));
+    assertThat(histogram.getValueAtPercentile(100), is(histogram.getMax()));
+  }
+
+  @Test
+  public void testOutOfRangeValuesAreClamped() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(-1);
+    histogram.record(Long.MAX_VALUE);
+
+    assertThat(histogram.getCount(), is(2L));
+    assertThat(histogram.getValueAtPercentile(0), is(0L));
+    assertThat(histogram.getMax(), is(LatencyHistogram.MAX_TRACKABLE_NANOS));
+    assertThat(histogram.getValueAtPercentile(100), is(LatencyHistogram.MAX_TRACKABLE_NANOS));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testInvalidPercentile() {
+    new LatencyHistogram().getValueAtPercentile(101);
+  }
+
+  @Test
+  public void testConcurrentRecording() throws Exception {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    final ExecutorService executorService = Executors.newFixedThreadPool(4);
+    for (int thread = 0; thread < 4; thread++) {
+      executorService.submit(() -> {
+        for (int i = 0; i < 10_000; i++) {
+          histogram.record(1_000);
+        }
+      });
+    }
+    executorService.shutdown();
+    assertThat(executorService.awaitTermination(10, TimeUnit.SECONDS), is(true));
+
+    assertThat(histogram.getCount(), is(40_000L));
+  }
+
+  private void assertWithinRelativeError(final long actual, final long expected) {
+    final double maxError = (double) expected / LatencyHistogram.SUB_BUCKETS;
+    assertThat((double) actual, is(greaterThanOrEqualTo(expected - maxError)));
+    assertThat((double) actual, is(lessThanOrEqualTo(expected + maxError)));
+  }
+}
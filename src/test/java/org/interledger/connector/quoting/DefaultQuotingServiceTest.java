@@ -0,0 +1,232 @@
+package org.interledger.connector.quoting;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.interledger.InterledgerAddress;
+import org.interledger.connector.config.ConnectorConfig;
+import org.interledger.connector.config.ConnectorConfigurationService;
+import org.interledger.connector.fx.FxEngine;
+import org.interledger.connector.routing.ImmutableRoute;
+import org.interledger.connector.routing.PaymentRouter;
+import org.interledger.connector.routing.Route;
+import org.interledger.connector.services.LedgerPluginManager;
+import org.interledger.plugin.lpi.ImmutableLedgerInfo;
+
+import org.javamoney.moneta.convert.ExchangeRateBuilder;
+import org.javamoney.moneta.spi.DefaultNumberValue;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import javax.money.CurrencyUnit;
+import javax.money.Monetary;
+import javax.money.convert.ConversionContext;
+import javax.money.convert.RateType;
+
+/**
+ * Unit tests for {@link DefaultQuotingService}.
+ */
+public class DefaultQuotingServiceTest {
+
+  private static final InterledgerAddress USD_LEDGER = InterledgerAddress.of("test1.usd.");
+  private static final InterledgerAddress EUR_LEDGER = InterledgerAddress.of("test1.eur.");
+  private static final InterledgerAddress BOB = EUR_LEDGER.with("bob");
+  private static final InterledgerAddress CAROL = EUR_LEDGER.with("carol");
+
+  private static final CurrencyUnit USD = Monetary.getCurrency("USD");
+  private static final CurrencyUnit EUR = Monetary.getCurrency("EUR");
+
+  private static final Instant NOW = Instant.parse("2017-08-01T00:00:00Z");
+
+  private static final Route ROUTE = ImmutableRoute.builder()
+      .targetPrefix(EUR_LEDGER)
+      .nextHopLedgerAccount(EUR_LEDGER.with("connector"))
+      .build();
+
+  @Mock
+  private ConnectorConfigurationService<ConnectorConfig> connectorConfigurationServiceMock;
+
+  @Mock
+  private LedgerPluginManager ledgerPluginManagerMock;
+
+  @Mock
+  private PaymentRouter<Route> paymentRouterMock;
+
+  @Mock
+  private FxEngine fxEngineMock;
+
+  @Mock
+  private Clock clockMock;
+
+  private DefaultQuotingService quotingService;
+
+  @BeforeMethod
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+
+    when(connectorConfigurationServiceMock.getConnectorConfig()).thenReturn(new ConnectorConfig() {
+    });
+    doAnswer(invocationOnMock -> Optional.of(ImmutableLedgerInfo.builder()
+        .ledgerPrefix(invocationOnMock.getArgument(0))
+        .currencyUnit(USD_LEDGER.equals(invocationOnMock.getArgument(0)) ? USD : EUR)
+        .currencyScale(2)
+        .build()
+    )).when(ledgerPluginManagerMock).getLedgerInfo(any());
+    when(ledgerPluginManagerMock.isLocallyPeered(EUR_LEDGER)).thenReturn(true);
+    when(paymentRouterMock.findBestNexHop(any(), any())).thenReturn(Optional.of(ROUTE));
+    when(fxEngineMock.getExchangeRate(USD, EUR)).thenReturn(
+        new ExchangeRateBuilder(ConversionContext.of("TEST", RateType.DEFERRED))
+            .setBase(USD)
+            .setTerm(EUR)
+            .setFactor(DefaultNumberValue.of(new BigDecimal("0.5")))
+            .build()
+    );
+    when(clockMock.instant()).thenReturn(NOW);
+
+    this.quotingService = new DefaultQuotingService(
+        connectorConfigurationServiceMock, ledgerPluginManagerMock, paymentRouterMock, fxEngineMock, clockMock
+    );
+  }
+
+  @Test(expectedExceptions = NullPointerException.class)
+  public void testGetQuoteBySourceAmountWithNullAmount() {
+    quotingService.getQuoteBySourceAmount(USD_LEDGER, BOB, null);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testGetQuoteBySourceAmountWithDestinationPrefix() {
+    quotingService.getQuoteBySourceAmount(USD_LEDGER, EUR_LEDGER, BigInteger.TEN);
+  }
+
+  @Test
+  public void testGetQuoteBySourceAmount() {
+    final Quote quote = quotingService.getQuoteBySourceAmount(USD_LEDGER, BOB, BigInteger.valueOf(1000L)).get();
+
+    // 1000 * 0.5 * (1 - 0.2% spread) = 499
+    assertThat(quote.getSourceAmount(), is(BigInteger.valueOf(1000L)));
+    assertThat(quote.getAmount(), is(BigInteger.valueOf(499L)));
+    assertThat(quote.getExchangeRate().getFactor().numberValue(BigDecimal.class).compareTo(new BigDecimal("0.499")),
+        is(0));
+    assertThat(quote.getExpiresAt(), is(NOW.plus(Duration.ofSeconds(45))));
+    assertThat(quote.getRouteId(), is(DefaultQuotingService.toRouteId(USD_LEDGER, ROUTE)));
+
+    assertThat(quote.getNextHop().isFinal(), is(true));
+    assertThat(quote.getNextHop().getDestinationLedgerPrefix(), is(EUR_LEDGER));
+    assertThat(quote.getNextHop().getDestinationLedgerCreditAccount(), is(BOB));
+    assertThat(quote.getNextHop().getDestinationAmount(), is(BigInteger.valueOf(499L)));
+    // 499 * (1 - 0.1% slippage) = 498.501, rounded half-up.
+    assertThat(quote.getNextHop().getFinalAmount(), is(BigInteger.valueOf(499L)));
+  }
+
+  @Test
+  public void testGetQuoteBySourceAmountForRemoteLedger() {
+    when(ledgerPluginManagerMock.isLocallyPeered(EUR_LEDGER)).thenReturn(false);
+
+    final Quote quote = quotingService.getQuoteBySourceAmount(USD_LEDGER, BOB, BigInteger.valueOf(1000L)).get();
+
+    assertThat(quote.getNextHop().isFinal(), is(false));
+    assertThat(quote.getNextHop().getDestinationLedgerCreditAccount(), is(ROUTE.getNextHopLedgerAccount()));
+  }
+
+  @Test
+  public void testGetQuoteByDestinationAmount() {
+    final Quote quote = quotingService.getQuoteByDestinationAmount(USD_LEDGER, BOB, BigInteger.valueOf(499L)).get();
+
+    assertThat(quote.getSourceAmount(), is(BigInteger.valueOf(1000L)));
+    assertThat(quote.getAmount(), is(BigInteger.valueOf(499L)));
+
+    // Rounds up, so the source amount is always sufficient: 500 / 0.499 = 1002.004...
+    assertThat(quotingService.getQuoteByDestinationAmount(USD_LEDGER, BOB, BigInteger.valueOf(500L)).get()
+        .getSourceAmount(), is(BigInteger.valueOf(1003L)));
+  }
+
+  @Test
+  public void testGetQuoteWithNoRoute() {
+    when(paymentRouterMock.findBestNexHop(any(), any())).thenReturn(Optional.empty());
+
+    assertThat(quotingService.getQuoteBySourceAmount(USD_LEDGER, BOB, BigInteger.TEN).isPresent(), is(false));
+    assertThat(quotingService.findNextHop(USD_LEDGER, BOB, BigInteger.TEN).isPresent(), is(false));
+  }
+
+  @Test
+  public void testQuotesAreCachedPerCorridorAndBucket() {
+    quotingService.getQuoteBySourceAmount(USD_LEDGER, BOB, BigInteger.valueOf(1000L));
+    // Same bucket (both are 10-bit numbers), and same destination ledger...
+    final Quote quote = quotingService.getQuoteBySourceAmount(USD_LEDGER, CAROL, BigInteger.valueOf(1001L)).get();
+
+    verify(paymentRouterMock, times(1)).findBestNexHop(any(), any());
+    verify(fxEngineMock, times(1)).getExchangeRate(USD, EUR);
+    // ...but amounts and credit accounts are still specific to each request.
+    assertThat(quote.getAmount(), is(BigInteger.valueOf(499L)));
+    assertThat(quote.getNextHop().getDestinationLedgerCreditAccount(), is(CAROL));
+
+    // A different bucket is looked up independently.
+    quotingService.getQuoteBySourceAmount(USD_LEDGER, BOB, BigInteger.valueOf(100000L));
+    verify(paymentRouterMock, times(2)).findBestNexHop(any(), any());
+  }
+
+  @Test
+  public void testCachedQuotesExpire() {
+    quotingService.getQuoteBySourceAmount(USD_LEDGER, BOB, BigInteger.valueOf(1000L));
+
+    // A quote from a cached corridor still expires one quote expiry duration after it was requested.
+    when(clockMock.instant()).thenReturn(NOW.plus(Duration.ofSeconds(44)));
+    assertThat(quotingService.getQuoteBySourceAmount(USD_LEDGER, BOB, BigInteger.valueOf(1000L)).get()
+        .getExpiresAt(), is(NOW.plus(Duration.ofSeconds(89))));
+    verify(paymentRouterMock, times(1)).findBestNexHop(any(), any());
+
+    when(clockMock.instant()).thenReturn(NOW.plus(Duration.ofSeconds(45)));
+    assertThat(quotingService.getQuoteBySourceAmount(USD_LEDGER, BOB, BigInteger.valueOf(1000L)).get()
+        .getExpiresAt(), is(NOW.plus(Duration.ofSeconds(90))));
+    verify(paymentRouterMock, times(2)).findBestNexHop(any(), any());
+  }
+
+  @Test
+  public void testQuoteExpiryIsBoundedByRoute() {
+    when(paymentRouterMock.findBestNexHop(any(), any())).thenReturn(Optional.of(ImmutableRoute.builder()
+        .from(ROUTE)
+        .expiresAt(NOW.plus(Duration.ofSeconds(10)))
+        .build()));
+
+    assertThat(quotingService.getQuoteBySourceAmount(USD_LEDGER, BOB, BigInteger.valueOf(1000L)).get()
+        .getExpiresAt(), is(NOW.plus(Duration.ofSeconds(10))));
+
+    // Quotes from the cached corridor are bounded by the route too.
+    when(clockMock.instant()).thenReturn(NOW.plus(Duration.ofSeconds(5)));
+    assertThat(quotingService.getQuoteBySourceAmount(USD_LEDGER, BOB, BigInteger.valueOf(1000L)).get()
+        .getExpiresAt(), is(NOW.plus(Duration.ofSeconds(10))));
+    verify(paymentRouterMock, times(1)).findBestNexHop(any(), any());
+  }
+
+  @Test
+  public void testInvalidateQuotes() {
+    quotingService.getQuoteBySourceAmount(USD_LEDGER, BOB, BigInteger.valueOf(1000L));
+    quotingService.invalidateQuotes();
+    quotingService.getQuoteBySourceAmount(USD_LEDGER, BOB, BigInteger.valueOf(1000L));
+
+    verify(paymentRouterMock, times(2)).findBestNexHop(any(), any());
+  }
+
+  @Test
+  public void testToRouteId() {
+    assertThat(DefaultQuotingService.toRouteId(USD_LEDGER, ROUTE),
+        is(DefaultQuotingService.toRouteId(USD_LEDGER, ImmutableRoute.builder().from(ROUTE).build())));
+    assertThat(DefaultQuotingService.toRouteId(USD_LEDGER, ROUTE),
+        is(not(DefaultQuotingService.toRouteId(EUR_LEDGER, ROUTE))));
+  }
+}
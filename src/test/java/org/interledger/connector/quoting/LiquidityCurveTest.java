@@ -0,0 +1,209 @@
+package org.interledger.connector.quoting;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+
+/**
+ * Unit tests for {@link LiquidityCurve}.
+ */
+public class LiquidityCurveTest {
+
+  // Delivers 1 y-unit per 2 x-units up to x=100, then 1 y-unit per 4 x-units up to x=200.
+  private static final LiquidityCurve CURVE = LiquidityCurve.of(new long[]{0, 100, 200}, new long[]{0, 50, 75});
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testOfWithNoPoints() {
+    LiquidityCurve.of(new long[0], new long[0]);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testOfWithMismatchedArrays() {
+    LiquidityCurve.of(new long[]{0, 1}, new long[]{0});
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testOfWithDecreasingX() {
+    LiquidityCurve.of(new long[]{0, 10, 10}, new long[]{0, 1, 2});
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testOfWithDecreasingY() {
+    LiquidityCurve.of(new long[]{0, 10, 20}, new long[]{0, 2, 1});
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testOfWithNegativeY() {
+    LiquidityCurve.of(new long[]{0, 10}, new long[]{-1, 2});
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testOfWithPointsTooFarApart() {
+    LiquidityCurve.of(new long[]{-10, Long.MAX_VALUE}, new long[]{0, 1});
+  }
+
+  @Test
+  public void testOfCopiesArrays() {
+    final long[] xs = new long[]{0, 10};
+    final long[] ys = new long[]{0, 10};
+    final LiquidityCurve curve = LiquidityCurve.of(xs, ys);
+    xs[1] = 20;
+    ys[1] = 20;
+
+    assertThat(curve.getX(1), is(10L));
+    assertThat(curve.getY(1), is(10L));
+  }
+
+  @Test
+  public void testAmountAt() {
+    assertThat(CURVE.amountAt(-1), is(0L));
+    assertThat(CURVE.amountAt(0), is(0L));
+    assertThat(CURVE.amountAt(1), is(0L));
+    assertThat(CURVE.amountAt(3), is(1L));
+    assertThat(CURVE.amountAt(100), is(50L));
+    assertThat(CURVE.amountAt(150), is(62L));
+    assertThat(CURVE.amountAt(200), is(75L));
+    assertThat(CURVE.amountAt(Long.MAX_VALUE), is(75L));
+    assertThat(CURVE.amountAt(Long.MIN_VALUE), is(0L));
+  }
+
+  @Test
+  public void testAmountAtBelowFirstPoint() {
+    final LiquidityCurve curve = LiquidityCurve.of(new long[]{10, 20}, new long[]{5, 10});
+
+    assertThat(curve.amountAt(9), is(0L));
+    assertThat(curve.amountAt(10), is(5L));
+  }
+
+  @Test
+  public void testAmountAtWithOverflowingInterpolation() {
+    final LiquidityCurve curve = LiquidityCurve.of(
+        new long[]{0, Long.MAX_VALUE - 1}, new long[]{0, Long.MAX_VALUE - 1}
+    );
+
+    assertThat(curve.amountAt(Long.MAX_VALUE / 2), is(Long.MAX_VALUE / 2));
+    assertThat(curve.amountReverse(Long.MAX_VALUE / 2), is(Long.MAX_VALUE / 2));
+  }
+
+  @Test
+  public void testAmountReverse() {
+    assertThat(CURVE.amountReverse(-1), is(0L));
+    assertThat(CURVE.amountReverse(0), is(0L));
+    assertThat(CURVE.amountReverse(1), is(2L));
+    assertThat(CURVE.amountReverse(50), is(100L));
+    assertThat(CURVE.amountReverse(62), is(148L));
+    assertThat(CURVE.amountReverse(75), is(200L));
+    assertThat(CURVE.amountReverse(76), is(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void testAmountReverseRoundsUp() {
+    final LiquidityCurve curve = LiquidityCurve.linear(new BigDecimal("0.3"), 1000);
+
+    for (long y = 0; y <= 300; y++) {
+      final long x = curve.amountReverse(y);
+      assertThat(curve.amountAt(x) >= y, is(true));
+      assertThat(curve.amountAt(x - 1) < y || x == 0, is(true));
+    }
+  }
+
+  @Test
+  public void testLinear() {
+    final LiquidityCurve curve = LiquidityCurve.linear(new BigDecimal("0.499"), 1_000_000L);
+
+    assertThat(curve.amountAt(1000), is(499L));
+    assertThat(curve.amountAt(1_000_000L), is(499_000L));
+    assertThat(curve.amountAt(2_000_000L), is(499_000L));
+  }
+
+  @Test
+  public void testShiftX() {
+    final LiquidityCurve shifted = CURVE.shiftX(10);
+
+    assertThat(shifted.amountAt(9), is(0L));
+    assertThat(shifted.amountAt(110), is(50L));
+    assertThat(shifted.amountReverse(50), is(110L));
+    assertThat(shifted.shiftX(-10), is(CURVE));
+    // The original is unaffected.
+    assertThat(CURVE.amountAt(110), is(52L));
+  }
+
+  @Test
+  public void testShiftY() {
+    final LiquidityCurve shifted = CURVE.shiftY(10);
+
+    assertThat(shifted.amountAt(0), is(10L));
+    assertThat(shifted.amountAt(200), is(85L));
+    assertThat(shifted.amountReverse(60), is(100L));
+    assertThat(shifted.shiftY(-10), is(CURVE));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testShiftYBelowZero() {
+    CURVE.shiftY(-1);
+  }
+
+  @Test(expectedExceptions = ArithmeticException.class)
+  public void testShiftXOverflow() {
+    CURVE.shiftX(Long.MAX_VALUE - 100);
+  }
+
+  @Test
+  public void testCombine() {
+    // Better than CURVE for small amounts, worse for large ones.
+    final LiquidityCurve other = LiquidityCurve.of(new long[]{0, 200}, new long[]{0, 60});
+    final LiquidityCurve combined = CURVE.combine(other);
+
+    for (long x = -10; x <= 300; x++) {
+      final long expected = Math.max(CURVE.amountAt(x), other.amountAt(x));
+      assertThat(combined.amountAt(x) - expected, is(lessThanOrEqualTo(1L)));
+      assertThat(expected - combined.amountAt(x), is(lessThanOrEqualTo(1L)));
+    }
+    assertThat(combined.combine(CURVE), is(combined));
+  }
+
+  @Test
+  public void testCombineCrossing() {
+    // Crosses CURVE at x=150 (y=62.5), and starts at x=100.
+    final LiquidityCurve crossing = LiquidityCurve.of(new long[]{100, 200}, new long[]{40, 85});
+    final LiquidityCurve combined = CURVE.combine(crossing);
+
+    for (long x = 0; x <= 250; x++) {
+      final long expected = Math.max(CURVE.amountAt(x), crossing.amountAt(x));
+      assertThat(Math.abs(combined.amountAt(x) - expected), is(lessThanOrEqualTo(1L)));
+    }
+    assertThat(combined.amountAt(99), is(49L));
+    assertThat(combined.amountAt(200), is(85L));
+  }
+
+  @Test
+  public void testJoin() {
+    // A second hop that charges a fixed fee of 5 units, and converts 1:3 beyond that.
+    final LiquidityCurve secondHop = LiquidityCurve.of(new long[]{0, 10, 70}, new long[]{0, 0, 180}).shiftX(-5);
+    final LiquidityCurve joined = CURVE.join(secondHop);
+
+    for (long x = 0; x <= 300; x++) {
+      final long expected = secondHop.amountAt(CURVE.amountAt(x));
+      // Rounding in the first hop is multiplied by the rate of the second.
+      assertThat(Math.abs(joined.amountAt(x) - expected), is(lessThanOrEqualTo(3L)));
+    }
+    for (int i = 0; i < joined.size(); i++) {
+      assertThat(joined.getY(i), is(secondHop.amountAt(CURVE.amountAt(joined.getX(i)))));
+    }
+    assertThat(joined.amountAt(0), is(0L));
+    assertThat(joined.amountAt(300), is(180L));
+  }
+
+  @Test
+  public void testEqualsAndHashCode() {
+    final LiquidityCurve shifted = LiquidityCurve.of(new long[]{-5, 95, 195}, new long[]{0, 50, 75}).shiftX(5);
+
+    assertThat(shifted, is(CURVE));
+    assertThat(shifted.hashCode(), is(CURVE.hashCode()));
+    assertThat(CURVE.toString(), is("LiquidityCurve{[0, 0], [100, 50], [200, 75]}"));
+  }
+}
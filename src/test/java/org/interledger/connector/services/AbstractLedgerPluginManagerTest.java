@@ -14,6 +14,7 @@ import static org.testng.FileAssert.fail;
 import org.interledger.InterledgerAddress;
 import org.interledger.connector.repository.TransferCorrelationRepository;
 import org.interledger.connector.subprotocols.SubprotocolDataService;
+import org.interledger.plugin.lpi.LedgerInfo;
 import org.interledger.plugin.lpi.LedgerPlugin;
 import org.interledger.plugin.lpi.LedgerPluginConfig;
 
@@ -115,6 +116,7 @@ public class AbstractLedgerPluginManagerTest {
 
     abstractLedgerPluginManager.addLedgerPlugin(ledgerPluginConfigMock1, ledgerPluginMock1);
     verify(ledgerPluginMock1).connect();
+    verify(ledgerPluginMock1).getLedgerInfo();
     verify(ledgerPluginMock1, never()).disconnect();
     assertThat(
         abstractLedgerPluginManager.getLedgerPlugin(ledgerPluginConfigMock1.getLedgerPrefix())
@@ -125,6 +127,7 @@ public class AbstractLedgerPluginManagerTest {
 
     abstractLedgerPluginManager.addLedgerPlugin(ledgerPluginConfigMock2, ledgerPluginMock2);
     verify(ledgerPluginMock2).connect();
+    verify(ledgerPluginMock2).getLedgerInfo();
     verify(ledgerPluginMock2, never()).disconnect();
     assertThat(
         abstractLedgerPluginManager.getLedgerPlugin(ledgerPluginConfigMock2.getLedgerPrefix())
@@ -147,6 +150,7 @@ public class AbstractLedgerPluginManagerTest {
     abstractLedgerPluginManager.addLedgerPlugin(ledgerPluginConfigMock1, ledgerPluginMock1);
     abstractLedgerPluginManager.addLedgerPlugin(ledgerPluginConfigMock1, ledgerPluginMock1);
     verify(ledgerPluginMock1, times(2)).connect();
+    verify(ledgerPluginMock1, times(2)).getLedgerInfo();
     verify(ledgerPluginMock1).disconnect();
     assertThat(
         abstractLedgerPluginManager.getLedgerPlugin(ledgerPluginConfigMock1.getLedgerPrefix())
@@ -158,6 +162,7 @@ public class AbstractLedgerPluginManagerTest {
     abstractLedgerPluginManager.addLedgerPlugin(ledgerPluginConfigMock2, ledgerPluginMock2);
     abstractLedgerPluginManager.addLedgerPlugin(ledgerPluginConfigMock2, ledgerPluginMock2);
     verify(ledgerPluginMock2, times(2)).connect();
+    verify(ledgerPluginMock2, times(2)).getLedgerInfo();
     verify(ledgerPluginMock2).disconnect();
     assertThat(
         abstractLedgerPluginManager.getLedgerPlugin(ledgerPluginConfigMock2.getLedgerPrefix())
@@ -231,6 +236,152 @@ public class AbstractLedgerPluginManagerTest {
     assertThat(abstractLedgerPluginManager.getLedgerPlugin(LEDGER_PREFIX1).isPresent(), is(true));
   }
 
+  ////////////////////////
+  // getLedgerInfo Tests
+  ////////////////////////
+
+  @Test(expectedExceptions = NullPointerException.class)
+  public void testGetLedgerInfoNullInput() throws Exception {
+    try {
+      this.abstractLedgerPluginManager.getLedgerInfo(null);
+      fail("Should have thrown an exception but did not!");
+    } catch (NullPointerException e) {
+      assertThat(e.getMessage(), is(nullValue()));
+      throw e;
+    }
+  }
+
+  @Test
+  public void testGetLedgerInfoWhenNotPresent() throws Exception {
+    assertThat(abstractLedgerPluginManager.getLedgerInfo(LEDGER_PREFIX1).isPresent(), is(false));
+  }
+
+  @Test
+  public void testGetLedgerInfoIsCachedAtConnect() throws Exception {
+    final LedgerPluginConfig ledgerPluginConfigMock1 = mock(LedgerPluginConfig.class);
+    when(ledgerPluginConfigMock1.getLedgerPrefix()).thenReturn(LEDGER_PREFIX1);
+    final LedgerPlugin ledgerPluginMock1 = mock(LedgerPlugin.class);
+    final LedgerInfo ledgerInfoMock = mock(LedgerInfo.class);
+    when(ledgerPluginMock1.getLedgerInfo()).thenReturn(ledgerInfoMock);
+    abstractLedgerPluginManager.addLedgerPlugin(ledgerPluginConfigMock1, ledgerPluginMock1);
+
+    for (int i = 0; i < 10; i++) {
+      assertThat(abstractLedgerPluginManager.getLedgerInfo(LEDGER_PREFIX1).get(), is(ledgerInfoMock));
+    }
+    // Only the connect-time lookup should have touched the plugin.
+    verify(ledgerPluginMock1).getLedgerInfo();
+  }
+
+  @Test
+  public void testGetLedgerInfoLoadsLazilyWhenNotAvailableAtConnect() throws Exception {
+    final LedgerPluginConfig ledgerPluginConfigMock1 = mock(LedgerPluginConfig.class);
+    when(ledgerPluginConfigMock1.getLedgerPrefix()).thenReturn(LEDGER_PREFIX1);
+    final LedgerPlugin ledgerPluginMock1 = mock(LedgerPlugin.class);
+    abstractLedgerPluginManager.addLedgerPlugin(ledgerPluginConfigMock1, ledgerPluginMock1);
+
+    final LedgerInfo ledgerInfoMock = mock(LedgerInfo.class);
+    when(ledgerPluginMock1.getLedgerInfo()).thenReturn(ledgerInfoMock);
+
+    assertThat(abstractLedgerPluginManager.getLedgerInfo(LEDGER_PREFIX1).get(), is(ledgerInfoMock));
+    assertThat(abstractLedgerPluginManager.getLedgerInfo(LEDGER_PREFIX1).get(), is(ledgerInfoMock));
+    verify(ledgerPluginMock1, times(2)).getLedgerInfo();
+  }
+
+  @Test
+  public void testUpdateLedgerInfo() throws Exception {
+    final LedgerPluginConfig ledgerPluginConfigMock1 = mock(LedgerPluginConfig.class);
+    when(ledgerPluginConfigMock1.getLedgerPrefix()).thenReturn(LEDGER_PREFIX1);
+    final LedgerPlugin ledgerPluginMock1 = mock(LedgerPlugin.class);
+    when(ledgerPluginMock1.getLedgerInfo()).thenReturn(mock(LedgerInfo.class));
+    abstractLedgerPluginManager.addLedgerPlugin(ledgerPluginConfigMock1, ledgerPluginMock1);
+
+    final LedgerInfo updatedLedgerInfoMock = mock(LedgerInfo.class);
+    abstractLedgerPluginManager.updateLedgerInfo(LEDGER_PREFIX1, updatedLedgerInfoMock);
+
+    assertThat(abstractLedgerPluginManager.getLedgerInfo(LEDGER_PREFIX1).get(), is(updatedLedgerInfoMock));
+  }
+
+  @Test
+  public void testUpdateLedgerInfoForUnmanagedLedger() throws Exception {
+    abstractLedgerPluginManager.updateLedgerInfo(LEDGER_PREFIX2, mock(LedgerInfo.class));
+    assertThat(abstractLedgerPluginManager.getLedgerInfo(LEDGER_PREFIX2).isPresent(), is(false));
+  }
+
+  @Test
+  public void testRemoveLedgerPluginEvictsLedgerInfo() throws Exception {
+    final LedgerPluginConfig ledgerPluginConfigMock1 = mock(LedgerPluginConfig.class);
+    when(ledgerPluginConfigMock1.getLedgerPrefix()).thenReturn(LEDGER_PREFIX1);
+    final LedgerPlugin ledgerPluginMock1 = mock(LedgerPlugin.class);
+    when(ledgerPluginMock1.getLedgerInfo()).thenReturn(mock(LedgerInfo.class));
+    abstractLedgerPluginManager.addLedgerPlugin(ledgerPluginConfigMock1, ledgerPluginMock1);
+
+    abstractLedgerPluginManager.removeLedgerPlugin(LEDGER_PREFIX1);
+
+    assertThat(abstractLedgerPluginManager.getLedgerInfo(LEDGER_PREFIX1).isPresent(), is(false));
+  }
+
+  ////////////////////////
+  // getLedgerContext Tests
+  ////////////////////////
+
+  @Test
+  public void testGetLedgerContextWhenNotPresent() throws Exception {
+    assertThat(abstractLedgerPluginManager.getLedgerContext(LEDGER_PREFIX1).isPresent(), is(false));
+  }
+
+  @Test
+  public void testGetLedgerContextIsCached() throws Exception {
+    final LedgerPluginConfig ledgerPluginConfigMock1 = mock(LedgerPluginConfig.class);
+    when(ledgerPluginConfigMock1.getLedgerPrefix()).thenReturn(LEDGER_PREFIX1);
+    final LedgerPlugin ledgerPluginMock1 = mock(LedgerPlugin.class);
+    final LedgerInfo ledgerInfoMock = mock(LedgerInfo.class);
+    when(ledgerPluginMock1.getLedgerInfo()).thenReturn(ledgerInfoMock);
+    when(ledgerPluginMock1.getConnectorAccount()).thenReturn(LEDGER_PREFIX1.with("connector"));
+    abstractLedgerPluginManager.addLedgerPlugin(ledgerPluginConfigMock1, ledgerPluginMock1);
+
+    final LedgerContext ledgerContext = abstractLedgerPluginManager.getLedgerContext(LEDGER_PREFIX1).get();
+    assertThat(ledgerContext.getLedgerPrefix(), is(LEDGER_PREFIX1));
+    assertThat(ledgerContext.getLedgerPlugin(), is(ledgerPluginMock1));
+    assertThat(ledgerContext.getLedgerPluginConfig(), is(ledgerPluginConfigMock1));
+    assertThat(ledgerContext.getConnectorAccount(), is(LEDGER_PREFIX1.with("connector")));
+    assertThat(ledgerContext.getLedgerInfo().get(), is(ledgerInfoMock));
+
+    assertThat(abstractLedgerPluginManager.getLedgerContext(LEDGER_PREFIX1).get() == ledgerContext, is(true));
+    verify(ledgerPluginMock1, times(1)).getConnectorAccount();
+  }
+
+  @Test
+  public void testGetLedgerContextAfterUpdateLedgerInfo() throws Exception {
+    final LedgerPluginConfig ledgerPluginConfigMock1 = mock(LedgerPluginConfig.class);
+    when(ledgerPluginConfigMock1.getLedgerPrefix()).thenReturn(LEDGER_PREFIX1);
+    final LedgerPlugin ledgerPluginMock1 = mock(LedgerPlugin.class);
+    when(ledgerPluginMock1.getLedgerInfo()).thenReturn(mock(LedgerInfo.class));
+    when(ledgerPluginMock1.getConnectorAccount()).thenReturn(LEDGER_PREFIX1.with("connector"));
+    abstractLedgerPluginManager.addLedgerPlugin(ledgerPluginConfigMock1, ledgerPluginMock1);
+    abstractLedgerPluginManager.getLedgerContext(LEDGER_PREFIX1);
+
+    final LedgerInfo updatedLedgerInfoMock = mock(LedgerInfo.class);
+    abstractLedgerPluginManager.updateLedgerInfo(LEDGER_PREFIX1, updatedLedgerInfoMock);
+
+    assertThat(abstractLedgerPluginManager.getLedgerContext(LEDGER_PREFIX1).get().getLedgerInfo().get(),
+        is(updatedLedgerInfoMock));
+  }
+
+  @Test
+  public void testRemoveLedgerPluginEvictsLedgerContext() throws Exception {
+    final LedgerPluginConfig ledgerPluginConfigMock1 = mock(LedgerPluginConfig.class);
+    when(ledgerPluginConfigMock1.getLedgerPrefix()).thenReturn(LEDGER_PREFIX1);
+    final LedgerPlugin ledgerPluginMock1 = mock(LedgerPlugin.class);
+    when(ledgerPluginMock1.getLedgerInfo()).thenReturn(mock(LedgerInfo.class));
+    when(ledgerPluginMock1.getConnectorAccount()).thenReturn(LEDGER_PREFIX1.with("connector"));
+    abstractLedgerPluginManager.addLedgerPlugin(ledgerPluginConfigMock1, ledgerPluginMock1);
+    abstractLedgerPluginManager.getLedgerContext(LEDGER_PREFIX1);
+
+    abstractLedgerPluginManager.removeLedgerPlugin(LEDGER_PREFIX1);
+
+    assertThat(abstractLedgerPluginManager.getLedgerContext(LEDGER_PREFIX1).isPresent(), is(false));
+  }
+
   ////////////////////////
   // getTransferCorrelationRepository Tests
   ////////////////////////